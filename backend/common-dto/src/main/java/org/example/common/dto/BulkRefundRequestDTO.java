@@ -0,0 +1,15 @@
+package org.example.common.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// Reembolso en bloque de los pagos de varias reservas canceladas (un solo pedido por operación)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRefundRequestDTO {
+  private List<Long> reservationIds;
+  private String reason;
+}
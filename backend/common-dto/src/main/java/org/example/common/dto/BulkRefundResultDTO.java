@@ -0,0 +1,14 @@
+package org.example.common.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRefundResultDTO {
+  // Pagos completados que pasaron a REFUNDED
+  private int refunded;
+  // Pagos pendientes o en proceso que pasaron a CANCELLED
+  private int cancelled;
+}
@@ -0,0 +1,19 @@
+package org.example.common.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// Página de un listado con paginación por cursor (keyset).
+// nextCursor es opaco: se devuelve tal cual en el parámetro `cursor` para pedir la página siguiente.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@Builder
+public class CursorPageDTO<T> {
+  private List<T> items;
+  private String nextCursor;
+  private boolean hasMore;
+  private int size;
+}
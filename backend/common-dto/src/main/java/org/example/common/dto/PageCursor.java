@@ -0,0 +1,108 @@
+package org.example.common.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+// Codificación de cursores opacos para paginación keyset, por id o por (fecha, id).
+// Los servicios piden size + 1 filas "después" del cursor y arman la página con of(...).
+public final class PageCursor {
+  public static final int DEFAULT_SIZE = 50;
+  public static final int MAX_SIZE = 200;
+  // Solo este rol puede pedir listados completos sin paginar (unpaged=true)
+  public static final String UNPAGED_ROLE = "SUPER_ADMIN";
+
+  private static final String VERSION = "v1";
+
+  private final LocalDateTime time;
+  private final Long id;
+
+  private PageCursor(LocalDateTime time, Long id) {
+    this.time = time;
+    this.id = id;
+  }
+
+  public LocalDateTime getTime() {
+    return time;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public static int clampSize(Integer size) {
+    if (size == null) {
+      return DEFAULT_SIZE;
+    }
+    return Math.max(1, Math.min(size, MAX_SIZE));
+  }
+
+  public static boolean canRequestUnpaged(String role) {
+    return UNPAGED_ROLE.equals(role);
+  }
+
+  public static String encode(Long id) {
+    return encode(null, id);
+  }
+
+  public static String encode(LocalDateTime time, Long id) {
+    String raw = VERSION + "|" + (time != null ? time.toString() : "") + "|" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  // null si no hay cursor (primera página)
+  public static PageCursor decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\\|", -1);
+      if (parts.length != 3 || !VERSION.equals(parts[0])) {
+        throw new IllegalArgumentException("Cursor inválido");
+      }
+      LocalDateTime time = parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]);
+      return new PageCursor(time, Long.parseLong(parts[2]));
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Cursor inválido", e);
+    }
+  }
+
+  // Id del cursor, o null en la primera página
+  public static Long decodeId(String cursor) {
+    PageCursor decoded = decode(cursor);
+    return decoded != null ? decoded.getId() : null;
+  }
+
+  // Id a partir del cual seguir; 0 en la primera página (los ids son positivos)
+  public static long afterId(String cursor) {
+    Long id = decodeId(cursor);
+    return id != null ? id : 0L;
+  }
+
+  // `fetched` trae hasta size + 1 filas: la extra solo indica que hay más
+  public static <T> CursorPageDTO<T> of(List<T> fetched, int size, Function<T, String> cursorOf) {
+    boolean hasMore = fetched.size() > size;
+    List<T> items = hasMore ? fetched.subList(0, size) : fetched;
+    String nextCursor = hasMore && !items.isEmpty() ? cursorOf.apply(items.get(items.size() - 1)) : null;
+
+    return CursorPageDTO.<T>builder()
+            .items(items)
+            .nextCursor(nextCursor)
+            .hasMore(hasMore)
+            .size(items.size())
+            .build();
+  }
+
+  // Página única con todo el listado (unpaged=true)
+  public static <T> CursorPageDTO<T> unpaged(List<T> items) {
+    return CursorPageDTO.<T>builder()
+            .items(items)
+            .hasMore(false)
+            .size(items.size())
+            .build();
+  }
+}
@@ -0,0 +1,133 @@
+package org.example.common.feign;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Cliente Feign que memoriza los GET exitosos dentro de una misma petición HTTP
+// (o transacción, si no hay petición): llamadas idénticas salen una sola vez a la red.
+// La cantidad de llamadas remotas reales se expone en el header X-Remote-Calls.
+@Slf4j
+public class RequestScopedFeignClient implements Client {
+  public static final String REMOTE_CALLS_HEADER = "X-Remote-Calls";
+  private static final String MEMO_ATTRIBUTE = RequestScopedFeignClient.class.getName() + ".memo";
+  private static final Object MEMO_LOCK = new Object();
+
+  private final Client delegate;
+
+  public RequestScopedFeignClient(Client delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Response execute(Request request, Request.Options options) throws IOException {
+    Memo memo = currentMemo();
+    if (memo == null || request.httpMethod() != Request.HttpMethod.GET) {
+      if (memo != null) {
+        memo.countRemoteCall();
+      }
+      return delegate.execute(request, options);
+    }
+
+    String key = request.url();
+    CachedResponse cached = memo.responses.get(key);
+    if (cached != null) {
+      log.debug("Respuesta memorizada para {}", key);
+      return cached.toResponse(request);
+    }
+
+    memo.countRemoteCall();
+    Response response = delegate.execute(request, options);
+    if (response.status() < 200 || response.status() >= 300) {
+      return response;
+    }
+
+    byte[] body = response.body() != null ? Util.toByteArray(response.body().asInputStream()) : null;
+    Util.ensureClosed(response.body());
+    CachedResponse fresh = new CachedResponse(response.status(), response.reason(), response.headers(), body);
+    memo.responses.putIfAbsent(key, fresh);
+    return fresh.toResponse(request);
+  }
+
+  private Memo currentMemo() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes != null) {
+      // Las validaciones en paralelo comparten los atributos de la petición
+      synchronized (MEMO_LOCK) {
+        Memo memo = (Memo) attributes.getAttribute(MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+          memo = new Memo(attributes instanceof ServletRequestAttributes servlet ? servlet.getResponse() : null);
+          attributes.setAttribute(MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return memo;
+      }
+    }
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      Memo memo = (Memo) TransactionSynchronizationManager.getResource(MEMO_ATTRIBUTE);
+      if (memo == null) {
+        memo = new Memo(null);
+        TransactionSynchronizationManager.bindResource(MEMO_ATTRIBUTE, memo);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(MEMO_ATTRIBUTE);
+          }
+        });
+      }
+      return memo;
+    }
+
+    return null;
+  }
+
+  private static final class Memo {
+    private final Map<String, CachedResponse> responses = new ConcurrentHashMap<>();
+    private final AtomicInteger remoteCalls = new AtomicInteger();
+    private final HttpServletResponse servletResponse;
+
+    private Memo(HttpServletResponse servletResponse) {
+      this.servletResponse = servletResponse;
+    }
+
+    void countRemoteCall() {
+      remoteCalls.incrementAndGet();
+      if (servletResponse != null) {
+        synchronized (this) {
+          if (!servletResponse.isCommitted()) {
+            servletResponse.setHeader(REMOTE_CALLS_HEADER, String.valueOf(remoteCalls.get()));
+          }
+        }
+      }
+    }
+  }
+
+  private record CachedResponse(int status,
+                                String reason,
+                                Map<String, Collection<String>> headers,
+                                byte[] body) {
+    Response toResponse(Request request) {
+      return Response.builder()
+              .status(status)
+              .reason(reason)
+              .headers(headers)
+              .request(request)
+              .body(body)
+              .build();
+    }
+  }
+}
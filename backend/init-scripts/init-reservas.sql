@@ -57,9 +57,13 @@ CREATE TABLE IF NOT EXISTS reservas.courts
 --   TABLA RESERVATIONS
 -- ============================================
 
+-- Particionada por mes de start_time: casi todo el tráfico toca el mes actual y los próximos.
+-- Las particiones mensuales las crea ReservationPartitionManager al arrancar (y las viejas las
+-- archiva); lo que no tenga partición propia cae en reservations_default.
+-- La clave primaria incluye start_time porque Postgres lo exige en tablas particionadas.
 CREATE TABLE IF NOT EXISTS reservas.reservations
 (
-    id             SERIAL PRIMARY KEY,
+    id             SERIAL,
     user_id        BIGINT      NOT NULL,
     court_id       BIGINT      NOT NULL,
     club_id        BIGINT      NOT NULL,
@@ -67,16 +71,127 @@ CREATE TABLE IF NOT EXISTS reservas.reservations
     end_time       TIMESTAMP   NOT NULL,
     status         VARCHAR(50) NOT NULL DEFAULT 'PENDING',
     payment_status VARCHAR(50) NOT NULL DEFAULT 'PENDING',
+    series_id      VARCHAR(36),
+    price_per_hour NUMERIC(10, 2),
     total_amount   NUMERIC(10, 2),
     paid_amount    NUMERIC(10, 2)       DEFAULT 0.00,
     created_at     TIMESTAMP            DEFAULT NOW(),
     updated_at     TIMESTAMP            DEFAULT NOW(),
 
+    PRIMARY KEY (id, start_time),
     CONSTRAINT fk_res_user FOREIGN KEY (user_id) REFERENCES reservas.users (id),
     CONSTRAINT fk_res_court FOREIGN KEY (court_id) REFERENCES reservas.courts (id),
     CONSTRAINT fk_res_club FOREIGN KEY (club_id) REFERENCES reservas.clubs (id)
+    ) PARTITION BY RANGE (start_time);
+
+CREATE TABLE IF NOT EXISTS reservas.reservations_default
+    PARTITION OF reservas.reservations DEFAULT;
+
+-- Evitar reservas activas solapadas en la misma cancha. Postgres 15 no admite EXCLUDE en la tabla
+-- particionada: la restricción se crea en cada partición.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE reservas.reservations_default
+    ADD CONSTRAINT reservations_default_no_overlap
+    EXCLUDE USING gist (court_id WITH =, tsrange(start_time, end_time, '[)') WITH &&)
+    WHERE (status IN ('PENDING', 'CONFIRMED'));
+
+-- Búsquedas por club / cancha y rango de fechas
+CREATE INDEX IF NOT EXISTS idx_reservations_club_start
+    ON reservas.reservations (club_id, start_time);
+
+CREATE INDEX IF NOT EXISTS idx_reservations_court_start
+    ON reservas.reservations (court_id, start_time);
+
+-- Carga incremental de analítica
+CREATE INDEX IF NOT EXISTS idx_reservations_updated
+    ON reservas.reservations (updated_at, id);
+
+-- Barrido de reservas impagas vencidas
+CREATE INDEX IF NOT EXISTS idx_reservations_pending_created
+    ON reservas.reservations (created_at)
+    WHERE status = 'PENDING' AND payment_status = 'PENDING';
+
+
+-- ============================================
+--   OUTBOX DE EVENTOS DE RESERVAS
+-- ============================================
+
+CREATE TABLE IF NOT EXISTS reservas.reservation_outbox
+(
+    id             SERIAL PRIMARY KEY,
+    reservation_id BIGINT,
+    event_type     VARCHAR(50) NOT NULL,
+    payload        TEXT        NOT NULL,
+    created_at     TIMESTAMP   NOT NULL,
+    published_at    TIMESTAMP,
+    attempts        INTEGER     NOT NULL DEFAULT 0,
+    last_error      VARCHAR(255),
+    next_attempt_at TIMESTAMP,
+    locked_until    TIMESTAMP,
+    delivered_to    TEXT,
+    failed_at       TIMESTAMP
     );
 
+CREATE INDEX IF NOT EXISTS idx_outbox_unpublished
+    ON reservas.reservation_outbox (id)
+    WHERE published_at IS NULL;
+
+-- Eventos anteriores de la misma reserva que todavía no salieron (orden por reserva del relay)
+CREATE INDEX IF NOT EXISTS idx_outbox_pending_reservation
+    ON reservas.reservation_outbox (reservation_id, id)
+    WHERE published_at IS NULL;
+
+
+-- ============================================
+--   OCUPACIÓN ACUMULADA POR CANCHA, DÍA Y HORA
+-- ============================================
+
+CREATE TABLE IF NOT EXISTS reservas.reservation_occupancy
+(
+    court_id       BIGINT   NOT NULL,
+    club_id        BIGINT   NOT NULL,
+    day            DATE     NOT NULL,
+    hour           SMALLINT NOT NULL,
+    booked_minutes INTEGER  NOT NULL DEFAULT 0,
+    booking_count  INTEGER  NOT NULL DEFAULT 0,
+    PRIMARY KEY (court_id, day, hour)
+    );
+
+CREATE INDEX IF NOT EXISTS idx_occupancy_club_day
+    ON reservas.reservation_occupancy (club_id, day);
+
+
+-- ============================================
+--   LISTA DE ESPERA DE HORARIOS
+-- ============================================
+
+CREATE TABLE IF NOT EXISTS reservas.reservation_waitlist
+(
+    id               SERIAL PRIMARY KEY,
+    user_id          BIGINT       NOT NULL,
+    user_email       VARCHAR(255) NOT NULL,
+    club_id          BIGINT       NOT NULL,
+    court_id         BIGINT,
+    court_type       VARCHAR(255),
+    start_time       TIMESTAMP    NOT NULL,
+    end_time         TIMESTAMP    NOT NULL,
+    status           VARCHAR(20)  NOT NULL DEFAULT 'WAITING',
+    hold_id          VARCHAR(36),
+    offered_court_id BIGINT,
+    offer_expires_at TIMESTAMP,
+    created_at       TIMESTAMP    NOT NULL DEFAULT NOW(),
+
+    CONSTRAINT chk_waitlist_target CHECK (court_id IS NOT NULL OR court_type IS NOT NULL),
+    CONSTRAINT chk_waitlist_times CHECK (end_time > start_time)
+    );
+
+CREATE INDEX IF NOT EXISTS idx_waitlist_status_start
+    ON reservas.reservation_waitlist (status, start_time);
+
+CREATE INDEX IF NOT EXISTS idx_waitlist_hold
+    ON reservas.reservation_waitlist (hold_id);
+
 
 -- ============================================
 --   TABLA PAYMENTS
@@ -91,10 +206,8 @@ CREATE TABLE IF NOT EXISTS reservas.payments
     method              VARCHAR(50)    NOT NULL, -- Enum -> texto
     external_payment_id VARCHAR(255),
     created_at          TIMESTAMP,
-    updated_at          TIMESTAMP,
-
-    CONSTRAINT fk_payment_res
-    FOREIGN KEY (reservation_id) REFERENCES reservas.reservations (id)
+    updated_at          TIMESTAMP
+    -- Sin FK a reservations: al estar particionada, id solo no es único para Postgres
     );
 
 
@@ -119,6 +232,6 @@ CREATE TABLE IF NOT EXISTS reservas.notifications
     retry_count     INTEGER,
     error_message   VARCHAR(255),
 
-    CONSTRAINT fk_notif_user FOREIGN KEY (user_id) REFERENCES reservas.users (id),
-    CONSTRAINT fk_notif_res FOREIGN KEY (reservation_id) REFERENCES reservas.reservations (id)
+    CONSTRAINT fk_notif_user FOREIGN KEY (user_id) REFERENCES reservas.users (id)
+    -- Sin FK a reservations (tabla particionada)
     );
@@ -0,0 +1,100 @@
+\c reservas_db;
+
+-- ============================================
+--   MIGRACIÓN: RESERVATIONS PARTICIONADA POR MES
+-- ============================================
+-- Convierte una reservas.reservations común (bases creadas antes de particionar) en una tabla
+-- particionada por mes de start_time, con una partición por cada mes que tenga datos.
+-- Se corre una sola vez con microservice-reservation detenido. Al arrancar, ReservationPartitionManager
+-- crea las particiones de los meses siguientes y archiva las viejas.
+-- La tabla original queda como reservations_unpartitioned hasta verificar la migración.
+--
+-- Verificación de la poda de particiones:
+--   EXPLAIN SELECT 1 FROM reservas.reservations
+--   WHERE court_id = 1 AND status IN ('PENDING', 'CONFIRMED')
+--     AND start_time > now() - INTERVAL '1 day' AND start_time < now() + INTERVAL '2 hours'
+--     AND end_time > now();
+-- debe recorrer solo las particiones del mes (o de los dos meses) involucrados.
+
+BEGIN;
+
+SET search_path TO reservas;
+
+LOCK TABLE reservations IN ACCESS EXCLUSIVE MODE;
+
+-- Al particionar, id solo deja de ser único para Postgres y no puede ser destino de una FK
+ALTER TABLE payments DROP CONSTRAINT IF EXISTS fk_payment_res;
+ALTER TABLE notifications DROP CONSTRAINT IF EXISTS fk_notif_res;
+
+ALTER TABLE reservations RENAME TO reservations_unpartitioned;
+ALTER TABLE reservations_unpartitioned DROP CONSTRAINT IF EXISTS reservations_no_overlap;
+ALTER TABLE reservations_unpartitioned RENAME CONSTRAINT reservations_pkey TO reservations_unpartitioned_pkey;
+ALTER INDEX IF EXISTS idx_reservations_club_start RENAME TO idx_reservations_unpartitioned_club_start;
+ALTER INDEX IF EXISTS idx_reservations_court_start RENAME TO idx_reservations_unpartitioned_court_start;
+ALTER INDEX IF EXISTS idx_reservations_updated RENAME TO idx_reservations_unpartitioned_updated;
+ALTER INDEX IF EXISTS idx_reservations_pending_created RENAME TO idx_reservations_unpartitioned_pending_created;
+
+CREATE TABLE reservations
+(
+    LIKE reservations_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    PRIMARY KEY (id, start_time)
+) PARTITION BY RANGE (start_time);
+
+-- La secuencia del id pasa a la tabla nueva (si no, se borraría junto con la vieja)
+ALTER SEQUENCE reservations_id_seq OWNED BY reservations.id;
+
+ALTER TABLE reservations ADD CONSTRAINT fk_res_user FOREIGN KEY (user_id) REFERENCES users (id);
+ALTER TABLE reservations ADD CONSTRAINT fk_res_court FOREIGN KEY (court_id) REFERENCES courts (id);
+ALTER TABLE reservations ADD CONSTRAINT fk_res_club FOREIGN KEY (club_id) REFERENCES clubs (id);
+
+CREATE TABLE reservations_default PARTITION OF reservations DEFAULT;
+
+-- Una partición por mes con datos; la restricción de solape va en cada una
+DO $$
+DECLARE
+    month_start DATE;
+    last_month  DATE;
+    part_name   TEXT;
+BEGIN
+    SELECT date_trunc('month', MIN(start_time))::date, date_trunc('month', MAX(start_time))::date
+    INTO month_start, last_month
+    FROM reservations_unpartitioned;
+
+    WHILE month_start IS NOT NULL AND month_start <= last_month LOOP
+        part_name := 'reservations_p' || to_char(month_start, 'YYYYMM');
+        EXECUTE format('CREATE TABLE %I PARTITION OF reservations FOR VALUES FROM (%L) TO (%L)',
+                       part_name, month_start, (month_start + INTERVAL '1 month')::date);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO reservations SELECT * FROM reservations_unpartitioned;
+
+-- Índices después de la carga (se crean en todas las particiones)
+CREATE INDEX idx_reservations_club_start ON reservations (club_id, start_time);
+CREATE INDEX idx_reservations_court_start ON reservations (court_id, start_time);
+CREATE INDEX idx_reservations_updated ON reservations (updated_at, id);
+CREATE INDEX idx_reservations_pending_created ON reservations (created_at)
+    WHERE status = 'PENDING' AND payment_status = 'PENDING';
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DO $$
+DECLARE
+    part_name TEXT;
+BEGIN
+    FOR part_name IN
+        SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'reservations'::regclass
+    LOOP
+        EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist '
+                       '(court_id WITH =, tsrange(start_time, end_time, ''[)'') WITH &&) '
+                       'WHERE (status IN (''PENDING'', ''CONFIRMED''))',
+                       part_name, part_name || '_no_overlap');
+    END LOOP;
+END $$;
+
+COMMIT;
+
+-- Una vez verificada la migración:
+-- DROP TABLE reservas.reservations_unpartitioned;
@@ -0,0 +1,36 @@
+package org.example.microserviceclub.config;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+// Reenvía las credenciales de la petición en curso (headers del Gateway) a los otros servicios
+public class FeignClientInterceptor implements RequestInterceptor {
+
+  @Override
+  public void apply(RequestTemplate template) {
+    ServletRequestAttributes attributes = (ServletRequestAttributes)
+            RequestContextHolder.getRequestAttributes();
+
+    if (attributes != null) {
+      HttpServletRequest request = attributes.getRequest();
+
+      String authHeader = request.getHeader("Authorization");
+      if (authHeader != null && !authHeader.isEmpty()) {
+        template.header("Authorization", authHeader);
+      }
+
+      String userEmail = request.getHeader("X-User-Email");
+      if (userEmail != null && !userEmail.isEmpty()) {
+        template.header("X-User-Email", userEmail);
+      }
+
+      String userRole = request.getHeader("X-User-Role");
+      if (userRole != null && !userRole.isEmpty()) {
+        template.header("X-User-Role", userRole);
+      }
+    }
+  }
+}
@@ -1,12 +1,15 @@
 package org.example.microserviceclub.controller;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.example.common.dto.PageCursor;
 import org.example.microserviceclub.service.ClubService;
 import org.example.common.dto.ClubRequestDTO;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/clubs")
@@ -17,10 +20,22 @@ public class ClubController {
     this.clubService = clubService;
   }
 
+  // Paginado por cursor; unpaged=true (solo SUPER_ADMIN) devuelve el listado completo
   @GetMapping()
-  public ResponseEntity<?> findAll() {
+  public ResponseEntity<?> findAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                   @RequestParam(value = "size", required = false) Integer size,
+                                   @RequestParam(value = "unpaged", defaultValue = "false") boolean unpaged,
+                                   @RequestHeader(value = "X-User-Role", required = false) String role) {
     try {
-      return ResponseEntity.ok(clubService.findAll());
+      if (unpaged) {
+        if (!PageCursor.canRequestUnpaged(role)) {
+          return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(PageCursor.unpaged(clubService.findAll()));
+      }
+      return ResponseEntity.ok(clubService.findPage(cursor, size));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     } catch (Exception e) {
       return ResponseEntity.badRequest().build();
     }
@@ -0,0 +1,14 @@
+package org.example.microserviceclub.feignClient;
+
+import org.example.microserviceclub.config.FeignClientInterceptor;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+// Reservation exige autenticación: se reenvían los headers de quien modificó el club
+@FeignClient(name = "microservice-reservation", url = "http://reservation-service:8080",
+        configuration = FeignClientInterceptor.class)
+public interface ReservationClient {
+  @DeleteMapping("/api/reservations/cache/clubs/{clubId}")
+  void invalidateClubCache(@PathVariable("clubId") Long clubId);
+}
@@ -1,10 +1,16 @@
 package org.example.microserviceclub.repository;
 
 import org.example.microserviceclub.entity.Club;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ClubRepository extends JpaRepository<Club, Long> {
   boolean existsByName(String name);
+
+  // Paginación keyset: las filas siguientes al último id devuelto
+  List<Club> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
@@ -1,29 +1,39 @@
 package org.example.microserviceclub.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
 import org.example.common.dto.UserBasicInfoDTO;
 import org.example.microserviceclub.entity.Club;
+import org.example.microserviceclub.feignClient.ReservationClient;
 import org.example.microserviceclub.feignClient.UserClient;
 import org.example.microserviceclub.mapper.ClubMapper;
 import org.example.microserviceclub.repository.ClubRepository;
 import org.example.common.dto.ClubRequestDTO;
 import org.example.common.dto.ClubResponseDTO;
 import org.example.common.dto.ClubWithAdminResponseDTO;
+import org.example.common.dto.CursorPageDTO;
+import org.example.common.dto.PageCursor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
+@Slf4j
 @Service
 public class ClubService {
   private final ClubRepository clubRepository;
   private final UserClient userClient;
+  private final ReservationClient reservationClient;
 
-  public ClubService(ClubRepository clubRepository, UserClient userClient ) {
+  public ClubService(ClubRepository clubRepository, UserClient userClient, ReservationClient reservationClient) {
     this.clubRepository = clubRepository;
     this.userClient = userClient;
+    this.reservationClient = reservationClient;
   }
 
   @Transactional(readOnly = true)
@@ -34,6 +44,18 @@ public class ClubService {
             .toList();
   }
 
+  // Página por cursor (keyset sobre id)
+  @Transactional(readOnly = true)
+  public CursorPageDTO<ClubResponseDTO> findPage(String cursor, Integer size) {
+    int pageSize = PageCursor.clampSize(size);
+    List<ClubResponseDTO> clubs = this.clubRepository
+            .findByIdGreaterThanOrderByIdAsc(PageCursor.afterId(cursor), PageRequest.of(0, pageSize + 1))
+            .stream()
+            .map(ClubMapper::toResponse)
+            .toList();
+    return PageCursor.of(clubs, pageSize, item -> PageCursor.encode(item.getId()));
+  }
+
   @Transactional(readOnly = true)
   public ClubResponseDTO findById(Long id) {
     return ClubMapper.toResponse(this.clubRepository.findById(id)
@@ -52,7 +74,9 @@ public class ClubService {
     club.setOpeningTime(request.getOpeningTime());
     club.setClosingTime(request.getClosingTime());
 
-    return ClubMapper.toResponse(this.clubRepository.save(club));
+    Club updatedClub = this.clubRepository.save(club);
+    invalidateReservationCacheAfterCommit(id);
+    return ClubMapper.toResponse(updatedClub);
   }
 
   @Transactional
@@ -74,9 +98,32 @@ public class ClubService {
       throw new RuntimeException("Club no encontrado con id: " + id);
     }
     this.clubRepository.deleteById(id);
+    invalidateReservationCacheAfterCommit(id);
     return id;
   }
 
+  // Reservation guarda clubes y canchas en caché; se avisa una vez confirmado el cambio
+  private void invalidateReservationCacheAfterCommit(Long clubId) {
+    Runnable invalidate = () -> {
+      try {
+        reservationClient.invalidateClubCache(clubId);
+      } catch (Exception e) {
+        log.warn("No se pudo invalidar la caché de reservas para el club {}: {}", clubId, e.getMessage());
+      }
+    };
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          invalidate.run();
+        }
+      });
+    } else {
+      invalidate.run();
+    }
+  }
+
   @Transactional
   public boolean existsByName(String name) {
     return this.clubRepository.existsByName(name);
@@ -2,15 +2,20 @@ package org.example.microservicecourt.controller;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.example.common.dto.PageCursor;
+import org.example.microservicecourt.entity.CourtType;
 import org.example.microservicecourt.service.CourtService;
 import org.example.microservicecourt.service.dto.request.CourtRequestDTO;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.naming.ServiceUnavailableException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/courts")
@@ -18,10 +23,22 @@ import java.util.List;
 public class CourtController {
   private final CourtService courtService;
 
+  // Paginado por cursor; unpaged=true (solo SUPER_ADMIN) devuelve el listado completo
   @GetMapping()
-  public ResponseEntity<?> findAll() {
+  public ResponseEntity<?> findAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                   @RequestParam(value = "size", required = false) Integer size,
+                                   @RequestParam(value = "unpaged", defaultValue = "false") boolean unpaged,
+                                   @RequestHeader(value = "X-User-Role", required = false) String role) {
     try {
-      return ResponseEntity.ok(courtService.findAll());
+      if (unpaged) {
+        if (!PageCursor.canRequestUnpaged(role)) {
+          return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(PageCursor.unpaged(courtService.findAll()));
+      }
+      return ResponseEntity.ok(courtService.findPage(cursor, size));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     } catch (Exception e) {
       return ResponseEntity.badRequest().build();
     }
@@ -78,28 +95,86 @@ public class CourtController {
     }
   }
 
+  // Canchas del club, paginadas por cursor
   @GetMapping("/club/{clubId}")
-  public ResponseEntity<?> findByClubId(@PathVariable("clubId") Long clubId) {
+  public ResponseEntity<?> findByClubId(@PathVariable("clubId") Long clubId,
+                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                        @RequestParam(value = "size", required = false) Integer size,
+                                        @RequestParam(value = "unpaged", defaultValue = "false") boolean unpaged,
+                                        @RequestHeader(value = "X-User-Role", required = false) String role) {
     try {
-      return ResponseEntity.ok(courtService.findByClubId(clubId));
+      if (unpaged) {
+        if (!PageCursor.canRequestUnpaged(role)) {
+          return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(PageCursor.unpaged(courtService.findByClubId(clubId)));
+      }
+      return ResponseEntity.ok(courtService.findPageByClubId(clubId, cursor, size));
     } catch (EntityNotFoundException e) {
       return ResponseEntity.notFound().build();
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     } catch (Exception e) {
       return ResponseEntity.badRequest().build();
     }
   }
 
+  // Canchas activas del club, paginadas por cursor
   @GetMapping("/club/{clubId}/active")
-  public ResponseEntity<?> findByClubIdAndIsActiveTrue(@PathVariable("clubId") Long clubId) {
+  public ResponseEntity<?> findByClubIdAndIsActiveTrue(@PathVariable("clubId") Long clubId,
+                                                       @RequestParam(value = "cursor", required = false) String cursor,
+                                                       @RequestParam(value = "size", required = false) Integer size,
+                                                       @RequestParam(value = "unpaged", defaultValue = "false") boolean unpaged,
+                                                       @RequestHeader(value = "X-User-Role", required = false) String role) {
     try {
-      return ResponseEntity.ok(courtService.findByClubIdAndIsActiveTrue(clubId));
+      if (unpaged) {
+        if (!PageCursor.canRequestUnpaged(role)) {
+          return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(PageCursor.unpaged(courtService.findByClubIdAndIsActiveTrue(clubId)));
+      }
+      return ResponseEntity.ok(courtService.findActivePageByClubId(clubId, cursor, size));
     } catch (EntityNotFoundException e) {
       return ResponseEntity.notFound().build();
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     } catch (Exception e) {
       return ResponseEntity.badRequest().build();
     }
   }
 
+  @GetMapping("/club/{clubId}/availability-grid")
+  public ResponseEntity<?> getAvailabilityGrid(
+          @PathVariable("clubId") Long clubId,
+          @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+    try {
+      return ResponseEntity.ok(courtService.getAvailabilityGrid(clubId, date));
+    } catch (ServiceUnavailableException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    } catch (Exception e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
+  // Cualquier cancha libre del tipo para el horario pedido, o los inicios alternativos más cercanos
+  @GetMapping("/club/{clubId}/allocate")
+  public ResponseEntity<?> allocate(
+          @PathVariable("clubId") Long clubId,
+          @RequestParam(value = "type", required = false) CourtType type,
+          @RequestParam("startTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+          @RequestParam("durationMinutes") Integer durationMinutes,
+          @RequestParam(value = "alternatives", required = false) Integer alternatives) {
+    try {
+      return ResponseEntity.ok(courtService.allocate(clubId, type, startTime, durationMinutes, alternatives));
+    } catch (ServiceUnavailableException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (Exception e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
   @GetMapping("/exists")
   public ResponseEntity<?> existsByNameAndClubId(@PathVariable("name") String name, @PathVariable("clubId") Long clubId) {
     try {
@@ -146,6 +221,8 @@ public class CourtController {
       return ResponseEntity.ok(availableSlots);
     } catch (EntityNotFoundException e) {
       return ResponseEntity.notFound().build();
+    } catch (ServiceUnavailableException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
     } catch (Exception e) {
       e.printStackTrace();
       return ResponseEntity.badRequest().body(e.getMessage());
@@ -1,11 +1,15 @@
 package org.example.microservicecourt.feignClient;
 
 import org.example.microservicecourt.config.FeignConfig;
+import org.example.microservicecourt.service.dto.OccupiedIntervalDTO;
 import org.example.microservicecourt.service.dto.ReservationConflictDTO;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -21,4 +25,15 @@ public interface ReservationClient {
   List<ReservationConflictDTO> getConflictingReservations(@RequestParam("courtId") Long courtId,
                                                           @RequestParam("startTime") LocalDateTime startTime,
                                                           @RequestParam("endTime") LocalDateTime endTime);
+
+  @GetMapping("/api/reservations/courts/{courtId}/occupied")
+  List<OccupiedIntervalDTO> getOccupiedIntervals(@PathVariable("courtId") Long courtId,
+                                                 @RequestParam("date") LocalDate date);
+
+  @GetMapping("/api/reservations/occupied")
+  List<OccupiedIntervalDTO> getOccupiedIntervalsForCourts(@RequestParam("courtIds") List<Long> courtIds,
+                                                          @RequestParam("date") LocalDate date);
+
+  @DeleteMapping("/api/reservations/cache/courts/{courtId}")
+  void invalidateCourtCache(@PathVariable("courtId") Long courtId);
 }
@@ -1,6 +1,8 @@
 package org.example.microservicecourt.repository;
 
 import org.example.microservicecourt.entity.Court;
+import org.example.microservicecourt.entity.CourtType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,5 +16,12 @@ public interface CourtRepository extends JpaRepository<Court, Long> {
   boolean existsByNameAndIdNotAndClubId(String name, Long id, Long clubId);
   List<Court> findByClubId(Long clubId);
   List<Court> findByClubIdAndIsActiveTrue(Long clubId);
+
+  List<Court> findByClubIdAndTypeAndIsActiveTrue(Long clubId, CourtType type);
   boolean existsByNameAndClubId(String name, Long clubId);
+
+  // Paginación keyset: las filas siguientes al último id devuelto
+  List<Court> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+  List<Court> findByClubIdAndIdGreaterThanOrderByIdAsc(Long clubId, Long id, Pageable pageable);
+  List<Court> findByClubIdAndIsActiveTrueAndIdGreaterThanOrderByIdAsc(Long clubId, Long id, Pageable pageable);
 }
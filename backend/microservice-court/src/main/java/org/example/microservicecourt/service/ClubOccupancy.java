@@ -0,0 +1,115 @@
+package org.example.microservicecourt.service;
+
+import org.example.microservicecourt.entity.Court;
+import org.example.microservicecourt.service.dto.OccupiedIntervalDTO;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Ocupación de todas las canchas de un club en una jornada, armada con una sola consulta.
+// Por cancha guarda los intervalos ocupados fusionados y ordenados (en minutos desde la
+// apertura), así cada consulta de hueco es una búsqueda binaria.
+public class ClubOccupancy {
+  private final LocalDateTime opening;
+  private final int dayMinutes;
+  private final List<Court> courts;
+  private final Map<Long, int[][]> busyByCourt = new HashMap<>();
+
+  public record Fit(Court court, int gapMinutes) {
+  }
+
+  public ClubOccupancy(List<Court> courts, LocalDateTime opening, LocalDateTime closing, List<OccupiedIntervalDTO> occupied) {
+    this.opening = opening;
+    this.dayMinutes = (int) Math.max(0, Duration.between(opening, closing).toMinutes());
+    this.courts = courts;
+
+    Map<Long, List<int[]>> raw = new HashMap<>();
+    courts.forEach(court -> raw.put(court.getId(), new ArrayList<>()));
+    for (OccupiedIntervalDTO interval : occupied) {
+      List<int[]> courtIntervals = raw.get(interval.getCourtId());
+      if (courtIntervals == null || interval.getStartTime() == null || interval.getEndTime() == null) {
+        continue;
+      }
+      int from = Math.max(0, minutesFromOpening(interval.getStartTime()));
+      int to = Math.min(dayMinutes, minutesFromOpening(interval.getEndTime()));
+      if (from < to) {
+        courtIntervals.add(new int[]{from, to});
+      }
+    }
+    raw.forEach((courtId, intervals) -> busyByCourt.put(courtId, merge(intervals)));
+  }
+
+  public int dayMinutes() {
+    return dayMinutes;
+  }
+
+  public int minutesFromOpening(LocalDateTime time) {
+    return (int) Duration.between(opening, time).toMinutes();
+  }
+
+  public LocalDateTime timeAt(int minutes) {
+    return opening.plusMinutes(minutes);
+  }
+
+  // Canchas libres en [from, to) ordenadas por mejor ajuste: primero la que deja el hueco
+  // más chico, para conservar los huecos grandes para reservas más largas
+  public List<Fit> freeCourts(int from, int to) {
+    if (from < 0 || to > dayMinutes || from >= to) {
+      return List.of();
+    }
+
+    List<Fit> fits = new ArrayList<>();
+    for (Court court : courts) {
+      int gap = gapAround(busyByCourt.get(court.getId()), from, to);
+      if (gap >= 0) {
+        fits.add(new Fit(court, gap));
+      }
+    }
+    fits.sort(Comparator.comparingInt(Fit::gapMinutes)
+            .thenComparing(fit -> fit.court().getPricePerHour(), Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(fit -> fit.court().getId()));
+    return fits;
+  }
+
+  // Largo del hueco libre que contiene [from, to), o -1 si se solapa con algo ocupado
+  private int gapAround(int[][] busy, int from, int to) {
+    // Primer intervalo que termina después de 'from'
+    int low = 0;
+    int high = busy.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (busy[mid][1] <= from) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    if (low < busy.length && busy[low][0] < to) {
+      return -1;
+    }
+    int gapStart = low > 0 ? busy[low - 1][1] : 0;
+    int gapEnd = low < busy.length ? busy[low][0] : dayMinutes;
+    return gapEnd - gapStart;
+  }
+
+  private static int[][] merge(List<int[]> intervals) {
+    intervals.sort(Comparator.comparingInt(interval -> interval[0]));
+    List<int[]> merged = new ArrayList<>();
+    for (int[] interval : intervals) {
+      int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+      if (last != null && interval[0] <= last[1]) {
+        last[1] = Math.max(last[1], interval[1]);
+      } else {
+        merged.add(Arrays.copyOf(interval, 2));
+      }
+    }
+    return merged.toArray(new int[0][]);
+  }
+}
@@ -3,29 +3,58 @@ package org.example.microservicecourt.service;
 import feign.FeignException;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.common.dto.ClubResponseDTO;
 import org.example.microservicecourt.entity.Court;
+import org.example.microservicecourt.entity.CourtType;
 import org.example.microservicecourt.feignClient.ClubClient;
 import org.example.microservicecourt.feignClient.ReservationClient;
 import org.example.microservicecourt.mapper.CourtMapper;
 import org.example.microservicecourt.repository.CourtRepository;
+import org.example.microservicecourt.service.dto.AvailabilityCellDTO;
+import org.example.microservicecourt.service.dto.AvailabilityGridDTO;
 import org.example.microservicecourt.service.dto.CourtAvailabilityDTO;
+import org.example.microservicecourt.service.dto.CourtAllocationDTO;
+import org.example.microservicecourt.service.dto.CourtAvailabilityRowDTO;
+import org.example.microservicecourt.service.dto.OccupiedIntervalDTO;
 import org.example.microservicecourt.service.dto.ReservationConflictDTO;
+import org.example.microservicecourt.service.dto.SlotAlternativeDTO;
 import org.example.microservicecourt.service.dto.request.CourtRequestDTO;
 import org.example.microservicecourt.service.dto.response.CourtResponseDTO;
+import org.example.common.dto.CursorPageDTO;
+import org.example.common.dto.PageCursor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.naming.ServiceUnavailableException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class CourtService {
+  private static final LocalTime DEFAULT_OPENING_TIME = LocalTime.of(8, 0);
+  private static final LocalTime DEFAULT_CLOSING_TIME = LocalTime.of(22, 0);
+  private static final int SLOT_MINUTES = 30;
+  private static final DateTimeFormatter SLOT_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+  private static final int DEFAULT_ALTERNATIVES = 5;
+  private static final int MAX_ALTERNATIVES = 20;
+
   private final CourtRepository courtRepository;
   private final ClubClient clubClient;
   private final ReservationClient reservationClient;
@@ -39,6 +68,18 @@ public class CourtService {
             .toList();
   }
 
+  // Página por cursor (keyset sobre id)
+  @Transactional(readOnly = true)
+  public CursorPageDTO<CourtResponseDTO> findPage(String cursor, Integer size) {
+    int pageSize = PageCursor.clampSize(size);
+    List<CourtResponseDTO> courts = this.courtRepository
+            .findByIdGreaterThanOrderByIdAsc(PageCursor.afterId(cursor), PageRequest.of(0, pageSize + 1))
+            .stream()
+            .map(courtMapper::toResponse)
+            .toList();
+    return PageCursor.of(courts, pageSize, item -> PageCursor.encode(item.getId()));
+  }
+
   @Transactional(readOnly = true)
   public CourtResponseDTO findById(Long id) {
     Court court = this.courtRepository.findById(id)
@@ -61,6 +102,7 @@ public class CourtService {
     court = courtMapper.updateEntity(court, request);
 
     Court updatedCourt = courtRepository.save(court);
+    invalidateReservationCacheAfterCommit(id);
     return courtMapper.toResponse(updatedCourt);
   }
 
@@ -93,9 +135,32 @@ public class CourtService {
       throw new RuntimeException("Cancha no encontrado con id: " + id);
     }
     this.courtRepository.deleteById(id);
+    invalidateReservationCacheAfterCommit(id);
     return id;
   }
 
+  // Reservation guarda las canchas en caché (precio, activa); se avisa una vez confirmado el cambio
+  private void invalidateReservationCacheAfterCommit(Long courtId) {
+    Runnable invalidate = () -> {
+      try {
+        reservationClient.invalidateCourtCache(courtId);
+      } catch (Exception e) {
+        log.warn("No se pudo invalidar la caché de reservas para la cancha {}: {}", courtId, e.getMessage());
+      }
+    };
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          invalidate.run();
+        }
+      });
+    } else {
+      invalidate.run();
+    }
+  }
+
   @Transactional(readOnly = true)
   public boolean existsByNameAndClubId(String name, Long clubId) {
     return this.courtRepository.existsByNameAndClubId(name, clubId);
@@ -114,6 +179,18 @@ public class CourtService {
             .toList();
   }
 
+  // Canchas del club, por cursor
+  @Transactional(readOnly = true)
+  public CursorPageDTO<CourtResponseDTO> findPageByClubId(Long clubId, String cursor, Integer size) {
+    int pageSize = PageCursor.clampSize(size);
+    List<CourtResponseDTO> courts = this.courtRepository
+            .findByClubIdAndIdGreaterThanOrderByIdAsc(clubId, PageCursor.afterId(cursor), PageRequest.of(0, pageSize + 1))
+            .stream()
+            .map(courtMapper::toResponse)
+            .toList();
+    return PageCursor.of(courts, pageSize, item -> PageCursor.encode(item.getId()));
+  }
+
   @Transactional(readOnly = true)
   public List<CourtResponseDTO> findByClubIdAndIsActiveTrue(Long clubId) {
     return this.courtRepository.findByClubIdAndIsActiveTrue(clubId)
@@ -122,6 +199,18 @@ public class CourtService {
             .toList();
   }
 
+  // Canchas activas del club, por cursor
+  @Transactional(readOnly = true)
+  public CursorPageDTO<CourtResponseDTO> findActivePageByClubId(Long clubId, String cursor, Integer size) {
+    int pageSize = PageCursor.clampSize(size);
+    List<CourtResponseDTO> courts = this.courtRepository
+            .findByClubIdAndIsActiveTrueAndIdGreaterThanOrderByIdAsc(clubId, PageCursor.afterId(cursor), PageRequest.of(0, pageSize + 1))
+            .stream()
+            .map(courtMapper::toResponse)
+            .toList();
+    return PageCursor.of(courts, pageSize, item -> PageCursor.encode(item.getId()));
+  }
+
   @Transactional(readOnly = true)
   public boolean existsById(Long id) {
     return this.courtRepository.existsById(id);
@@ -158,7 +247,7 @@ public class CourtService {
   }
 
   @Transactional(readOnly = true)
-  public List<String> getAvailableTimeSlots(Long courtId, LocalDate date) {
+  public List<String> getAvailableTimeSlots(Long courtId, LocalDate date) throws ServiceUnavailableException {
     Court court = courtRepository.findById(courtId)
             .orElseThrow(() -> new EntityNotFoundException("Cancha no encontrada con id: " + courtId));
 
@@ -166,34 +255,205 @@ public class CourtService {
       return List.of(); // Cancha no activa, sin horarios disponibles
     }
 
-    List<String> availableSlots = new ArrayList<>();
+    // Horario del club y ocupación del día: una llamada remota a cada servicio
+    ClubHours clubHours = getClubHours(court.getClubId());
+
+    List<OccupiedIntervalDTO> occupied;
+    try {
+      occupied = reservationClient.getOccupiedIntervals(courtId, date);
+    } catch (Exception e) {
+      // Sin la ocupación no se distingue "sin horarios libres" de "no se pudo verificar"
+      log.error("Error obteniendo ocupación de la cancha {} para {}: {}", courtId, date, e.getMessage());
+      throw new ServiceUnavailableException("No se puede verificar disponibilidad en este momento");
+    }
+
+    return computeFreeSlots(date.atTime(clubHours.opening()), date.atTime(clubHours.closing()), occupied)
+            .stream()
+            .map(slot -> slot.format(SLOT_FORMAT))
+            .toList();
+  }
+
+  // Matriz canchas x slots de un club: una sola consulta de ocupación para todas las canchas
+  @Transactional(readOnly = true)
+  public AvailabilityGridDTO getAvailabilityGrid(Long clubId, LocalDate date) throws ServiceUnavailableException {
+    if (date == null) {
+      throw new IllegalArgumentException("La fecha es obligatoria");
+    }
+
+    List<Court> courts = courtRepository.findByClubIdAndIsActiveTrue(clubId);
+    ClubHours clubHours = getClubHours(clubId);
+    LocalDateTime opening = date.atTime(clubHours.opening());
+    LocalDateTime closing = date.atTime(clubHours.closing());
+
+    int slotCount = (int) Math.max(0, Duration.between(opening, closing).toMinutes() / SLOT_MINUTES);
+    List<String> slots = new ArrayList<>(slotCount);
+    for (int i = 0; i < slotCount; i++) {
+      slots.add(opening.plusMinutes((long) i * SLOT_MINUTES).format(SLOT_FORMAT));
+    }
 
-    // Generar slots de 30 minutos desde las 8:00 hasta las 22:00
-    LocalDateTime currentSlot = date.atTime(8, 0);
-    LocalDateTime endOfDay = date.atTime(22, 0);
+    // Los slots que ya empezaron no se pueden reservar en ninguna cancha
+    LocalDateTime now = LocalDateTime.now();
+    int firstBookableSlot = now.isAfter(opening)
+            ? (int) Math.min(slotCount, Math.ceilDiv(Duration.between(opening, now).toMinutes(), SLOT_MINUTES))
+            : 0;
 
-    while (currentSlot.isBefore(endOfDay)) {
-      LocalDateTime slotEnd = currentSlot.plusMinutes(30);
+    Map<Long, BitSet> occupancy = new HashMap<>();
+    courts.forEach(court -> occupancy.put(court.getId(), new BitSet(slotCount)));
 
+    if (!courts.isEmpty() && slotCount > 0) {
+      List<OccupiedIntervalDTO> occupied;
       try {
-        // Verificar si el slot está disponible
-        boolean isAvailable = isCourtAvailable(courtId, currentSlot, slotEnd);
+        occupied = reservationClient.getOccupiedIntervalsForCourts(
+                courts.stream().map(Court::getId).toList(), date);
+      } catch (Exception e) {
+        log.error("Error obteniendo ocupación del club {} para {}: {}", clubId, date, e.getMessage());
+        throw new ServiceUnavailableException("No se puede verificar disponibilidad en este momento");
+      }
 
-        if (isAvailable) {
-          // Formatear como "HH:mm"
-          String timeSlot = currentSlot.format(java.time.format.DateTimeFormatter.ofPattern("HH:mm"));
-          availableSlots.add(timeSlot);
+      for (OccupiedIntervalDTO interval : occupied) {
+        BitSet courtSlots = occupancy.get(interval.getCourtId());
+        if (courtSlots == null || interval.getStartTime() == null || interval.getEndTime() == null) {
+          continue;
+        }
+
+        long from = Math.floorDiv(Duration.between(opening, interval.getStartTime()).toMinutes(), SLOT_MINUTES);
+        long to = Math.ceilDiv(Duration.between(opening, interval.getEndTime()).toMinutes(), SLOT_MINUTES);
+        int fromIndex = (int) Math.max(0, from);
+        int toIndex = (int) Math.min(slotCount, to);
+        if (fromIndex < toIndex) {
+          courtSlots.set(fromIndex, toIndex);
         }
-      } catch (Exception e) {
-        // Si hay error verificando, asumimos que no está disponible
-        System.err.println("Error verificando slot " + currentSlot + ": " + e.getMessage());
       }
+    }
+
+    List<CourtAvailabilityRowDTO> rows = courts.stream()
+            .sorted(Comparator.comparing(Court::getName))
+            .map(court -> {
+              BitSet courtSlots = occupancy.get(court.getId());
+              BigDecimal slotPrice = calculateReservationPrice(court, opening, opening.plusMinutes(SLOT_MINUTES));
+
+              List<AvailabilityCellDTO> cells = new ArrayList<>(slotCount);
+              for (int i = 0; i < slotCount; i++) {
+                boolean available = i >= firstBookableSlot && !courtSlots.get(i);
+                cells.add(AvailabilityCellDTO.builder()
+                        .time(slots.get(i))
+                        .available(available)
+                        .price(available ? slotPrice : null)
+                        .build());
+              }
+
+              return CourtAvailabilityRowDTO.builder()
+                      .courtId(court.getId())
+                      .courtName(court.getName())
+                      .type(court.getType())
+                      .pricePerHour(court.getPricePerHour())
+                      .cells(cells)
+                      .build();
+            })
+            .toList();
+
+    return AvailabilityGridDTO.builder()
+            .clubId(clubId)
+            .date(date)
+            .openingTime(clubHours.opening())
+            .closingTime(clubHours.closing())
+            .slotMinutes(SLOT_MINUTES)
+            .slots(slots)
+            .courts(rows)
+            .build();
+  }
 
-      // Avanzar al siguiente slot de 30 minutos
-      currentSlot = currentSlot.plusMinutes(30);
+  // Asigna cualquier cancha libre del tipo pedido con una sola consulta de ocupación para todo
+  // el club. Si no hay ninguna, devuelve los k inicios más cercanos al pedido en que alguna
+  // cancha del tipo está libre (misma jornada, dentro del horario del club).
+  @Transactional(readOnly = true)
+  public CourtAllocationDTO allocate(Long clubId, CourtType type, LocalDateTime startTime,
+                                     Integer durationMinutes, Integer alternatives) throws ServiceUnavailableException {
+    if (durationMinutes == null) {
+      throw new IllegalArgumentException("La duración es obligatoria");
+    }
+    LocalDateTime endTime = startTime != null ? startTime.plusMinutes(durationMinutes) : null;
+    validateAvailabilityParameters(startTime, endTime);
+    int maxAlternatives = alternatives != null ? alternatives : DEFAULT_ALTERNATIVES;
+    if (maxAlternatives < 0 || maxAlternatives > MAX_ALTERNATIVES) {
+      throw new IllegalArgumentException("alternatives debe estar entre 0 y " + MAX_ALTERNATIVES);
     }
 
-    return availableSlots;
+    List<Court> courts = type != null
+            ? courtRepository.findByClubIdAndTypeAndIsActiveTrue(clubId, type)
+            : courtRepository.findByClubIdAndIsActiveTrue(clubId);
+    CourtAllocationDTO allocation = CourtAllocationDTO.builder()
+            .clubId(clubId)
+            .type(type)
+            .startTime(startTime)
+            .endTime(endTime)
+            .available(false)
+            .alternatives(new ArrayList<>())
+            .build();
+    if (courts.isEmpty()) {
+      return allocation;
+    }
+
+    LocalDate date = startTime.toLocalDate();
+    ClubHours clubHours = getClubHours(clubId);
+    List<OccupiedIntervalDTO> occupied;
+    try {
+      occupied = reservationClient.getOccupiedIntervalsForCourts(courts.stream().map(Court::getId).toList(), date);
+    } catch (Exception e) {
+      log.error("Error obteniendo ocupación del club {} para {}: {}", clubId, date, e.getMessage());
+      throw new ServiceUnavailableException("No se puede verificar disponibilidad en este momento");
+    }
+    ClubOccupancy occupancy = new ClubOccupancy(courts, date.atTime(clubHours.opening()),
+            date.atTime(clubHours.closing()), occupied);
+
+    int requested = occupancy.minutesFromOpening(startTime);
+    List<ClubOccupancy.Fit> fits = occupancy.freeCourts(requested, requested + durationMinutes);
+    if (!fits.isEmpty()) {
+      Court court = fits.get(0).court();
+      allocation.setAvailable(true);
+      allocation.setCourt(courtMapper.toResponse(court));
+      allocation.setPrice(calculateReservationPrice(court, startTime, endTime));
+      return allocation;
+    }
+
+    // Inicios sobre la grilla de slots, recorridos hacia afuera desde el pedido (a igual
+    // distancia gana el más temprano)
+    LocalDateTime now = LocalDateTime.now();
+    int lastStart = occupancy.dayMinutes() - durationMinutes;
+    int before = Math.min(Math.floorDiv(requested - 1, SLOT_MINUTES) * SLOT_MINUTES, lastStart);
+    int after = Math.max(Math.ceilDiv(requested + 1, SLOT_MINUTES) * SLOT_MINUTES, 0);
+
+    while (allocation.getAlternatives().size() < maxAlternatives && (before >= 0 || after <= lastStart)) {
+      boolean takeBefore = before >= 0 && (after > lastStart || requested - before <= after - requested);
+      int candidate = takeBefore ? before : after;
+      if (takeBefore) {
+        before -= SLOT_MINUTES;
+      } else {
+        after += SLOT_MINUTES;
+      }
+
+      LocalDateTime candidateStart = occupancy.timeAt(candidate);
+      if (candidateStart.isBefore(now)) {
+        continue;
+      }
+      List<ClubOccupancy.Fit> free = occupancy.freeCourts(candidate, candidate + durationMinutes);
+      if (free.isEmpty()) {
+        continue;
+      }
+
+      Court court = free.get(0).court();
+      LocalDateTime candidateEnd = candidateStart.plusMinutes(durationMinutes);
+      allocation.getAlternatives().add(SlotAlternativeDTO.builder()
+              .startTime(candidateStart)
+              .endTime(candidateEnd)
+              .courtId(court.getId())
+              .courtName(court.getName())
+              .freeCourts(free.size())
+              .price(calculateReservationPrice(court, candidateStart, candidateEnd))
+              .build());
+    }
+    allocation.getAlternatives().sort(Comparator.comparing(SlotAlternativeDTO::getStartTime));
+    return allocation;
   }
 
   @Transactional(readOnly = true)
@@ -289,6 +549,73 @@ public class CourtService {
     }
   }
 
+  private record ClubHours(LocalTime opening, LocalTime closing) {
+  }
+
+  // Si el club no responde se usa el horario por defecto
+  private ClubHours getClubHours(Long clubId) {
+    try {
+      ClubResponseDTO club = clubClient.getClubById(clubId);
+      if (club != null && club.getOpeningTime() != null && club.getClosingTime() != null) {
+        return new ClubHours(club.getOpeningTime(), club.getClosingTime());
+      }
+    } catch (Exception e) {
+      log.warn("No se pudo obtener el horario del club {}: {}", clubId, e.getMessage());
+    }
+    return new ClubHours(DEFAULT_OPENING_TIME, DEFAULT_CLOSING_TIME);
+  }
+
+  // Barrido sobre los intervalos ocupados (fusionados y ordenados) para obtener los inicios de slot libres
+  private List<LocalDateTime> computeFreeSlots(LocalDateTime opening,
+                                               LocalDateTime closing,
+                                               List<OccupiedIntervalDTO> occupied) {
+    List<LocalDateTime[]> busy = mergeIntervals(occupied);
+    List<LocalDateTime> freeSlots = new ArrayList<>();
+    LocalDateTime now = LocalDateTime.now();
+
+    int next = 0;
+    for (LocalDateTime slotStart = opening;
+         !slotStart.plusMinutes(SLOT_MINUTES).isAfter(closing);
+         slotStart = slotStart.plusMinutes(SLOT_MINUTES)) {
+      LocalDateTime slotEnd = slotStart.plusMinutes(SLOT_MINUTES);
+
+      // Descartar intervalos que ya terminaron antes de este slot
+      while (next < busy.size() && !busy.get(next)[1].isAfter(slotStart)) {
+        next++;
+      }
+
+      boolean overlaps = next < busy.size() && busy.get(next)[0].isBefore(slotEnd);
+      if (!overlaps && !slotStart.isBefore(now)) {
+        freeSlots.add(slotStart);
+      }
+    }
+
+    return freeSlots;
+  }
+
+  private List<LocalDateTime[]> mergeIntervals(List<OccupiedIntervalDTO> occupied) {
+    List<LocalDateTime[]> merged = new ArrayList<>();
+    if (occupied == null) {
+      return merged;
+    }
+
+    occupied.stream()
+            .filter(interval -> interval.getStartTime() != null && interval.getEndTime() != null)
+            .sorted(Comparator.comparing(OccupiedIntervalDTO::getStartTime))
+            .forEach(interval -> {
+              LocalDateTime[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+              if (last != null && !interval.getStartTime().isAfter(last[1])) {
+                if (interval.getEndTime().isAfter(last[1])) {
+                  last[1] = interval.getEndTime();
+                }
+              } else {
+                merged.add(new LocalDateTime[]{interval.getStartTime(), interval.getEndTime()});
+              }
+            });
+
+    return merged;
+  }
+
   private BigDecimal calculateReservationPrice(Court court, LocalDateTime startTime, LocalDateTime endTime) {
     if (court.getPricePerHour() == null || court.getPricePerHour().compareTo(BigDecimal.ZERO) <= 0) {
       return BigDecimal.ZERO;
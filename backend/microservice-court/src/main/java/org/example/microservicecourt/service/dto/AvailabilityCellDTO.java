@@ -0,0 +1,16 @@
+package org.example.microservicecourt.service.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class AvailabilityCellDTO {
+  private String time;
+  private Boolean available;
+  private BigDecimal price;
+}
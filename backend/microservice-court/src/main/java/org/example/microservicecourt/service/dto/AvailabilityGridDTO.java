@@ -0,0 +1,22 @@
+package org.example.microservicecourt.service.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class AvailabilityGridDTO {
+  private Long clubId;
+  private LocalDate date;
+  private LocalTime openingTime;
+  private LocalTime closingTime;
+  private Integer slotMinutes;
+  private List<String> slots;
+  private List<CourtAvailabilityRowDTO> courts;
+}
@@ -0,0 +1,27 @@
+package org.example.microservicecourt.service.dto;
+
+import lombok.*;
+import org.example.microservicecourt.entity.CourtType;
+import org.example.microservicecourt.service.dto.response.CourtResponseDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class CourtAllocationDTO {
+  private Long clubId;
+  private CourtType type;
+  private LocalDateTime startTime;
+  private LocalDateTime endTime;
+  private boolean available;
+  // Cancha asignada (null si no hay ninguna libre en el horario pedido)
+  private CourtResponseDTO court;
+  private BigDecimal price;
+  // Inicios alternativos más cercanos al pedido, en cualquier cancha del tipo
+  private List<SlotAlternativeDTO> alternatives;
+}
@@ -0,0 +1,20 @@
+package org.example.microservicecourt.service.dto;
+
+import lombok.*;
+import org.example.microservicecourt.entity.CourtType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class CourtAvailabilityRowDTO {
+  private Long courtId;
+  private String courtName;
+  private CourtType type;
+  private BigDecimal pricePerHour;
+  private List<AvailabilityCellDTO> cells;
+}
@@ -0,0 +1,21 @@
+package org.example.microservicecourt.service.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class SlotAlternativeDTO {
+  private LocalDateTime startTime;
+  private LocalDateTime endTime;
+  private Long courtId;
+  private String courtName;
+  // Cuántas canchas del tipo pedido están libres en ese horario
+  private Integer freeCourts;
+  private BigDecimal price;
+}
@@ -0,0 +1,15 @@
+package org.example.microservicenotification.config;
+
+import feign.Client;
+import org.example.common.feign.RequestScopedFeignClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FeignConfig {
+
+  @Bean
+  public Client feignClient() {
+    return new RequestScopedFeignClient(new Client.Default(null, null));
+  }
+}
@@ -2,11 +2,13 @@ package org.example.microservicenotification.controller;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.example.common.dto.PageCursor;
 import org.example.microservicenotification.entity.NotificationType;
 import org.example.microservicenotification.service.NotificationService;
 import org.example.microservicenotification.service.dto.request.BulkNotificationRequestDTO;
 import org.example.microservicenotification.service.dto.request.NotificationRequestDTO;
 import org.example.microservicenotification.service.dto.request.NotificationUpdateRequestDTO;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,12 +21,24 @@ public class NotificationController {
 
   private final NotificationService notificationService;
 
+  // Paginado por cursor; unpaged=true (solo SUPER_ADMIN) devuelve el listado completo
   @GetMapping
-  public ResponseEntity<?> findAll() {
+  public ResponseEntity<?> findAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                   @RequestParam(value = "size", required = false) Integer size,
+                                   @RequestParam(value = "unpaged", defaultValue = "false") boolean unpaged,
+                                   @RequestHeader(value = "X-User-Role", required = false) String role) {
     try {
-      return ResponseEntity.ok(notificationService.findAll());
-    } catch (Exception e) {
+      if (unpaged) {
+        if (!PageCursor.canRequestUnpaged(role)) {
+          return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(PageCursor.unpaged(notificationService.findAll()));
+      }
+      return ResponseEntity.ok(notificationService.findPage(cursor, size));
+    } catch (IllegalArgumentException e) {
       return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (Exception e) {
+      return ResponseEntity.badRequest().build();
     }
   }
 
@@ -74,12 +88,25 @@ public class NotificationController {
     }
   }
 
+  // Notificaciones del usuario, paginadas por cursor
   @GetMapping("/user/{userId}")
-  public ResponseEntity<?> findByUserId(@PathVariable Long userId) {
+  public ResponseEntity<?> findByUserId(@PathVariable Long userId,
+                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                        @RequestParam(value = "size", required = false) Integer size,
+                                        @RequestParam(value = "unpaged", defaultValue = "false") boolean unpaged,
+                                        @RequestHeader(value = "X-User-Role", required = false) String role) {
     try {
-      return ResponseEntity.ok(notificationService.findByUserId(userId));
-    } catch (Exception e) {
+      if (unpaged) {
+        if (!PageCursor.canRequestUnpaged(role)) {
+          return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(PageCursor.unpaged(notificationService.findByUserId(userId)));
+      }
+      return ResponseEntity.ok(notificationService.findPageByUserId(userId, cursor, size));
+    } catch (IllegalArgumentException e) {
       return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (Exception e) {
+      return ResponseEntity.badRequest().build();
     }
   }
 
@@ -92,14 +119,25 @@ public class NotificationController {
     }
   }
 
+  // Notificaciones en un estado, paginadas por cursor
   @GetMapping("/status/{status}")
-  public ResponseEntity<?> findByStatus(@PathVariable String status) {
+  public ResponseEntity<?> findByStatus(@PathVariable String status,
+                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                        @RequestParam(value = "size", required = false) Integer size,
+                                        @RequestParam(value = "unpaged", defaultValue = "false") boolean unpaged,
+                                        @RequestHeader(value = "X-User-Role", required = false) String role) {
     try {
-      return ResponseEntity.ok(notificationService.findByStatus(status));
+      if (unpaged) {
+        if (!PageCursor.canRequestUnpaged(role)) {
+          return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(PageCursor.unpaged(notificationService.findByStatus(status)));
+      }
+      return ResponseEntity.ok(notificationService.findPageByStatus(status, cursor, size));
     } catch (IllegalArgumentException e) {
       return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     } catch (Exception e) {
-      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+      return ResponseEntity.badRequest().build();
     }
   }
 
@@ -168,13 +206,15 @@ public class NotificationController {
   }
 
   @PostMapping("/bulk")
-  public ResponseEntity<?> sendBulkNotification(@RequestBody BulkNotificationRequestDTO request) {
+  public ResponseEntity<?> sendBulkNotification(@RequestBody BulkNotificationRequestDTO request,
+                                                @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
     try {
       notificationService.sendBulkNotification(
               request.getUserIds(),
               request.getType(),
               request.getTitle(),
-              request.getMessage()
+              request.getMessage(),
+              idempotencyKey
       );
       return ResponseEntity.ok().build();
     } catch (Exception e) {
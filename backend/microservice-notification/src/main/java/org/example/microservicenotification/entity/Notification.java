@@ -13,7 +13,9 @@ import java.time.LocalDateTime;
 @Data
 @Builder
 @Entity
-@Table(name = "notifications")
+// Un aviso en bloque repetido con la misma clave de idempotencia no vuelve a crear el del usuario
+@Table(name = "notifications", uniqueConstraints = @UniqueConstraint(
+        name = "uk_notifications_idempotency_user", columnNames = {"idempotency_key", "user_id"}))
 public class Notification {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -47,4 +49,6 @@ public class Notification {
   private Integer retryCount;
   @Column(name = "error_message")
   private String errorMessage;
+  @Column(name = "idempotency_key")
+  private String idempotencyKey;
 }
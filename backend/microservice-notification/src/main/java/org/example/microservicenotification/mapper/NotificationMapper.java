@@ -20,6 +20,7 @@ public class NotificationMapper {
             .createdAt(dto.getCreatedAt())
             .retryCount(dto.getRetryCount())
             .errorMessage(dto.getErrorMessage())
+            .idempotencyKey(dto.getIdempotencyKey())
             .build();
   }
 
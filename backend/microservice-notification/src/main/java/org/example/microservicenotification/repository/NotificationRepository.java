@@ -3,6 +3,7 @@ package org.example.microservicenotification.repository;
 import org.example.microservicenotification.entity.Notification;
 import org.example.microservicenotification.entity.NotificationStatus;
 import org.example.microservicenotification.entity.NotificationType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -11,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
@@ -46,4 +48,15 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
   Optional<Notification> findFirstByUserIdAndTypeAndStatusOrderByCreatedAtDesc(Long userId,
                                                                                NotificationType type,
                                                                                NotificationStatus status);
+
+  // Paginación keyset: las filas siguientes al último id devuelto
+  List<Notification> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+  List<Notification> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Pageable pageable);
+
+  List<Notification> findByStatusAndIdGreaterThanOrderByIdAsc(NotificationStatus status, Long id, Pageable pageable);
+
+  // Usuarios que ya recibieron el aviso en bloque con esta clave
+  @Query("SELECT n.userId FROM Notification n WHERE n.idempotencyKey = :idempotencyKey")
+  Set<Long> findUserIdsByIdempotencyKey(@Param("idempotencyKey") String idempotencyKey);
 }
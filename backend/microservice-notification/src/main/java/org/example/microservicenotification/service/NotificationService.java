@@ -18,7 +18,10 @@ import org.example.microservicenotification.service.dto.request.NotificationRequ
 import org.example.microservicenotification.service.dto.request.NotificationUpdateRequestDTO;
 import org.example.microservicenotification.service.dto.response.NotificationResponseDTO;
 import org.example.microservicenotification.service.dto.NotificationStatsDTO;
+import org.example.common.dto.CursorPageDTO;
+import org.example.common.dto.PageCursor;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -48,6 +51,18 @@ public class NotificationService {
             .toList();
   }
 
+  // Página por cursor (keyset sobre id)
+  @Transactional(readOnly = true)
+  public CursorPageDTO<NotificationResponseDTO> findPage(String cursor, Integer size) {
+    int pageSize = PageCursor.clampSize(size);
+    List<NotificationResponseDTO> notifications = notificationRepository
+            .findByIdGreaterThanOrderByIdAsc(PageCursor.afterId(cursor), PageRequest.of(0, pageSize + 1))
+            .stream()
+            .map(NotificationMapper::toResponse)
+            .toList();
+    return PageCursor.of(notifications, pageSize, item -> PageCursor.encode(item.getId()));
+  }
+
   @Transactional(readOnly = true)
   public NotificationResponseDTO findById(Long id) {
     return notificationRepository.findById(id)
@@ -98,6 +113,12 @@ public class NotificationService {
 
   @Transactional
   public NotificationResponseDTO createForUser(Long userId, NotificationType type, String title, String message) {
+    return createForUser(userId, type, title, message, null);
+  }
+
+  @Transactional
+  public NotificationResponseDTO createForUser(Long userId, NotificationType type, String title, String message,
+                                               String idempotencyKey) {
     try {
       // Obtener información del usuario
       UserBasicInfoDTO userInfo = userClient.getUserBasicInfo(userId);
@@ -115,6 +136,7 @@ public class NotificationService {
               .channel(channel)
               .recipientEmail(userInfo.getEmail())
               .recipientPhone(userInfo.getPhone())
+              .idempotencyKey(idempotencyKey)
               .build();
 
       return create(request);
@@ -127,11 +149,25 @@ public class NotificationService {
 
   @Transactional
   public void sendBulkNotification(List<Long> userIds, NotificationType type, String title, String message) {
+    sendBulkNotification(userIds, type, title, message, null);
+  }
+
+  // Con clave de idempotencia (reintento del mismo pedido) se saltean los usuarios ya avisados
+  @Transactional
+  public void sendBulkNotification(List<Long> userIds, NotificationType type, String title, String message,
+                                   String idempotencyKey) {
     List<NotificationResponseDTO> results = new ArrayList<>();
+    Set<Long> alreadyNotified = idempotencyKey != null
+            ? notificationRepository.findUserIdsByIdempotencyKey(idempotencyKey)
+            : Set.of();
 
     for (Long userId : userIds) {
+      if (alreadyNotified.contains(userId)) {
+        log.info("Usuario {} ya notificado con la clave {}", userId, idempotencyKey);
+        continue;
+      }
       try {
-        NotificationResponseDTO notification = createForUser(userId, type, title, message);
+        NotificationResponseDTO notification = createForUser(userId, type, title, message, idempotencyKey);
         results.add(notification);
         log.info("Notificación enviada a usuario {}: {}", userId, notification.getId());
       } catch (Exception e) {
@@ -201,6 +237,18 @@ public class NotificationService {
             .toList();
   }
 
+  // Notificaciones del usuario, por cursor
+  @Transactional(readOnly = true)
+  public CursorPageDTO<NotificationResponseDTO> findPageByUserId(Long userId, String cursor, Integer size) {
+    int pageSize = PageCursor.clampSize(size);
+    List<NotificationResponseDTO> notifications = notificationRepository
+            .findByUserIdAndIdGreaterThanOrderByIdAsc(userId, PageCursor.afterId(cursor), PageRequest.of(0, pageSize + 1))
+            .stream()
+            .map(NotificationMapper::toResponse)
+            .toList();
+    return PageCursor.of(notifications, pageSize, item -> PageCursor.encode(item.getId()));
+  }
+
   @Transactional(readOnly = true)
   public List<NotificationResponseDTO> findByReservationId(Long reservationId) {
     return notificationRepository.findByReservationId(reservationId)
@@ -222,6 +270,25 @@ public class NotificationService {
     }
   }
 
+  // Notificaciones en un estado, por cursor
+  @Transactional(readOnly = true)
+  public CursorPageDTO<NotificationResponseDTO> findPageByStatus(String status, String cursor, Integer size) {
+    NotificationStatus notificationStatus;
+    try {
+      notificationStatus = NotificationStatus.valueOf(status.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Estado de notificación inválido: " + status);
+    }
+
+    int pageSize = PageCursor.clampSize(size);
+    List<NotificationResponseDTO> notifications = notificationRepository
+            .findByStatusAndIdGreaterThanOrderByIdAsc(notificationStatus, PageCursor.afterId(cursor), PageRequest.of(0, pageSize + 1))
+            .stream()
+            .map(NotificationMapper::toResponse)
+            .toList();
+    return PageCursor.of(notifications, pageSize, item -> PageCursor.encode(item.getId()));
+  }
+
   @Transactional(readOnly = true)
   public NotificationStatsDTO getStats() {
     return NotificationStatsDTO.builder()
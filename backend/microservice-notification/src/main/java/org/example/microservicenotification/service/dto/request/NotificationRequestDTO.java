@@ -26,4 +26,5 @@ public class NotificationRequestDTO {
   private LocalDateTime createdAt;
   private Integer retryCount;
   private String errorMessage;
+  private String idempotencyKey;
 }
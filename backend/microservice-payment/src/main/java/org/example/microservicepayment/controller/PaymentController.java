@@ -2,10 +2,13 @@ package org.example.microservicepayment.controller;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.example.common.dto.BulkRefundRequestDTO;
+import org.example.common.dto.PageCursor;
 import org.example.microservicepayment.entity.PaymentStatus;
 import org.example.microservicepayment.service.PaymentService;
 import org.example.microservicepayment.service.dto.request.PaymentRequestDTO;
 import org.example.microservicepayment.service.dto.request.PaymentUpdateRequestDTO;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,12 +21,22 @@ import java.util.Map;
 public class PaymentController {
   private final PaymentService paymentService;
 
+  // Paginado por cursor; unpaged=true (solo SUPER_ADMIN) devuelve el listado completo
   @GetMapping()
-  public ResponseEntity<?> findAll() {
+  public ResponseEntity<?> findAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                   @RequestParam(value = "size", required = false) Integer size,
+                                   @RequestParam(value = "unpaged", defaultValue = "false") boolean unpaged,
+                                   @RequestHeader(value = "X-User-Role", required = false) String role) {
     try {
-      return ResponseEntity.ok(paymentService.findAll());
-    }  catch (EntityNotFoundException e) {
-      return ResponseEntity.notFound().build();
+      if (unpaged) {
+        if (!PageCursor.canRequestUnpaged(role)) {
+          return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(PageCursor.unpaged(paymentService.findAll()));
+      }
+      return ResponseEntity.ok(paymentService.findPage(cursor, size));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     } catch (Exception e) {
       return ResponseEntity.badRequest().build();
     }
@@ -101,12 +114,23 @@ public class PaymentController {
     }
   }
 
+  // Pagos en un estado, paginados por cursor
   @GetMapping("/status/{status}")
-  public ResponseEntity<?> findByStatus(@RequestBody PaymentStatus status) {
+  public ResponseEntity<?> findByStatus(@PathVariable("status") PaymentStatus status,
+                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                        @RequestParam(value = "size", required = false) Integer size,
+                                        @RequestParam(value = "unpaged", defaultValue = "false") boolean unpaged,
+                                        @RequestHeader(value = "X-User-Role", required = false) String role) {
     try {
-      return ResponseEntity.ok(paymentService.findByStatus(status));
-    }  catch (EntityNotFoundException e) {
-      return ResponseEntity.notFound().build();
+      if (unpaged) {
+        if (!PageCursor.canRequestUnpaged(role)) {
+          return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(PageCursor.unpaged(paymentService.findByStatus(status)));
+      }
+      return ResponseEntity.ok(paymentService.findPageByStatus(status, cursor, size));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     } catch (Exception e) {
       return ResponseEntity.badRequest().build();
     }
@@ -127,6 +151,16 @@ public class PaymentController {
     }
   }
 
+  // Reembolso en bloque de las reservas canceladas en una operación masiva
+  @PostMapping("/refunds/bulk")
+  public ResponseEntity<?> refundByReservations(@RequestBody BulkRefundRequestDTO request) {
+    try {
+      return ResponseEntity.ok(paymentService.refundByReservations(request));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
   @PutMapping("/{id}/cancel-by-reason")
   public ResponseEntity<?> cancelPaymentWithReason(@PathVariable Long id,
                                                    @RequestParam(required = false) String reason) {
@@ -2,9 +2,15 @@ package org.example.microservicepayment.repository;
 
 import org.example.microservicepayment.entity.Payment;
 import org.example.microservicepayment.entity.PaymentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +21,18 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
   List<Payment> findByStatus(PaymentStatus status);
 
   List<Payment> findByReservationIdAndStatus(Long reservationId, PaymentStatus status);
+
+  // Paginación keyset: las filas siguientes al último id devuelto
+  List<Payment> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+  List<Payment> findByStatusAndIdGreaterThanOrderByIdAsc(PaymentStatus status, Long id, Pageable pageable);
+
+  // Cambio de estado en bloque de los pagos de varias reservas
+  @Modifying
+  @Query("UPDATE Payment p SET p.status = :newStatus, p.updatedAt = :now " +
+          "WHERE p.reservationId IN :reservationIds AND p.status IN :fromStatuses")
+  int updateStatusByReservationIds(@Param("reservationIds") Collection<Long> reservationIds,
+                                   @Param("fromStatuses") Collection<PaymentStatus> fromStatuses,
+                                   @Param("newStatus") PaymentStatus newStatus,
+                                   @Param("now") LocalDateTime now);
 }
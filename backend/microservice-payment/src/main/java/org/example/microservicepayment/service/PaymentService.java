@@ -14,6 +14,11 @@ import org.example.microservicepayment.service.dto.request.PaymentRequestDTO;
 import org.example.microservicepayment.service.dto.request.PaymentUpdateRequestDTO;
 import org.example.microservicepayment.service.dto.request.UpdatePaymentStatusRequest;
 import org.example.microservicepayment.service.dto.response.PaymentResponseDTO;
+import org.example.common.dto.BulkRefundRequestDTO;
+import org.example.common.dto.BulkRefundResultDTO;
+import org.example.common.dto.CursorPageDTO;
+import org.example.common.dto.PageCursor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +32,8 @@ import java.util.Optional;
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
+  private static final int MAX_BULK_REFUND = 5000;
+
   private final PaymentRepository paymentRepository;
   private final ReservationClient reservationClient;
 
@@ -38,6 +45,18 @@ public class PaymentService {
             .toList();
   }
 
+  // Página por cursor (keyset sobre id)
+  @Transactional(readOnly = true)
+  public CursorPageDTO<PaymentResponseDTO> findPage(String cursor, Integer size) {
+    int pageSize = PageCursor.clampSize(size);
+    List<PaymentResponseDTO> payments = this.paymentRepository
+            .findByIdGreaterThanOrderByIdAsc(PageCursor.afterId(cursor), PageRequest.of(0, pageSize + 1))
+            .stream()
+            .map(PaymentMapper::toResponse)
+            .toList();
+    return PageCursor.of(payments, pageSize, item -> PageCursor.encode(item.getId()));
+  }
+
   @Transactional(readOnly = true)
   public PaymentResponseDTO findById(Long id) {
     return PaymentMapper.toResponse(
@@ -141,6 +160,18 @@ public class PaymentService {
             .toList();
   }
 
+  // Pagos en un estado, por cursor
+  @Transactional(readOnly = true)
+  public CursorPageDTO<PaymentResponseDTO> findPageByStatus(PaymentStatus status, String cursor, Integer size) {
+    int pageSize = PageCursor.clampSize(size);
+    List<PaymentResponseDTO> payments = paymentRepository
+            .findByStatusAndIdGreaterThanOrderByIdAsc(status, PageCursor.afterId(cursor), PageRequest.of(0, pageSize + 1))
+            .stream()
+            .map(PaymentMapper::toResponse)
+            .toList();
+    return PageCursor.of(payments, pageSize, item -> PageCursor.encode(item.getId()));
+  }
+
   @Transactional(readOnly = true)
   public BigDecimal getTotalPaidByReservation(Long reservationId) {
     return paymentRepository.findByReservationIdAndStatus(reservationId, PaymentStatus.COMPLETED)
@@ -171,6 +202,32 @@ public class PaymentService {
     return PaymentMapper.toResponse(cancelledPayment);
   }
 
+  // Reembolso en bloque para reservas ya canceladas por microservice-reservation: dos UPDATE por
+  // conjunto y sin avisar de vuelta a la reserva (ya tiene su estado final)
+  @Transactional
+  public BulkRefundResultDTO refundByReservations(BulkRefundRequestDTO request) {
+    if (request.getReservationIds() == null || request.getReservationIds().isEmpty()) {
+      throw new IllegalArgumentException("Se requiere al menos una reserva");
+    }
+    if (request.getReservationIds().size() > MAX_BULK_REFUND) {
+      throw new IllegalArgumentException("No se pueden reembolsar más de " + MAX_BULK_REFUND + " reservas por pedido");
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    int refunded = paymentRepository.updateStatusByReservationIds(request.getReservationIds(),
+            List.of(PaymentStatus.COMPLETED), PaymentStatus.REFUNDED, now);
+    int cancelled = paymentRepository.updateStatusByReservationIds(request.getReservationIds(),
+            List.of(PaymentStatus.PENDING, PaymentStatus.PROCESSING), PaymentStatus.CANCELLED, now);
+
+    log.info("Reembolso en bloque de {} reservas - reembolsados: {}, cancelados: {}, razón: {}",
+            request.getReservationIds().size(), refunded, cancelled, request.getReason());
+
+    return BulkRefundResultDTO.builder()
+            .refunded(refunded)
+            .cancelled(cancelled)
+            .build();
+  }
+
   private void validateReservation(Long reservationId) {
     if (reservationId == null) {
       throw new IllegalArgumentException("El ID de reserva es obligatorio");
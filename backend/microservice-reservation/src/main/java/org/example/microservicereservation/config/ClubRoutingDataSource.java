@@ -0,0 +1,30 @@
+package org.example.microservicereservation.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservicereservation.service.sharding.ClubShardContext;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// Entrega conexiones del shard elegido por ShardRouter para el hilo actual (o del principal)
+@Slf4j
+public class ClubRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+  @Override
+  protected Object determineCurrentLookupKey() {
+    String shard = ClubShardContext.current();
+    return shard != null ? shard : ShardRouter.DEFAULT_SHARD;
+  }
+
+  // Cierra los pools de todos los shards al apagar
+  @Override
+  public void close() {
+    getResolvedDataSources().forEach((shard, dataSource) -> {
+      if (dataSource instanceof AutoCloseable closeable) {
+        try {
+          closeable.close();
+        } catch (Exception e) {
+          log.warn("No se pudo cerrar el pool del shard {}: {}", shard, e.getMessage());
+        }
+      }
+    });
+  }
+}
@@ -1,6 +1,8 @@
 package org.example.microservicereservation.config;
 
+import feign.Client;
 import feign.Logger;
+import org.example.common.feign.RequestScopedFeignClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,6 +14,11 @@ public class FeignConfig {
     return new FeignClientInterceptor();
   }
 
+  @Bean
+  public Client feignClient() {
+    return new RequestScopedFeignClient(new Client.Default(null, null));
+  }
+
   @Bean
   Logger.Level feignLoggerLevel() {
     return Logger.Level.FULL;
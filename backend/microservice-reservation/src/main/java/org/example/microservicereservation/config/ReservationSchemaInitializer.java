@@ -0,0 +1,154 @@
+package org.example.microservicereservation.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Restricciones e índices que Hibernate (ddl-auto) no sabe crear. Idempotente: se ejecuta en cada arranque
+// y en cada shard.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationSchemaInitializer implements ApplicationRunner {
+  public static final String OVERLAP_CONSTRAINT = "reservations_no_overlap";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ShardRouter shardRouter;
+  // Shards donde se verificó la restricción de solape; en los demás las altas siempre consultan la BD
+  private final Set<String> overlapGuardedShards = ConcurrentHashMap.newKeySet();
+
+  @Override
+  public void run(ApplicationArguments args) {
+    shardRouter.forEachShard(shard -> {
+      createOverlapConstraint(shard);
+      backfillUpdatedAt();
+      createIndexes();
+      createOccupancyTable();
+      alignIdSequences(shard);
+    });
+  }
+
+  // true si en el shard actual la restricción de solape frena cualquier reserva que el índice no vea
+  public boolean isOverlapGuarded() {
+    return overlapGuardedShards.contains(shardRouter.currentShard());
+  }
+
+  // Sin la restricción no se arranca: el índice en memoria puede estar desactualizado y es lo único
+  // que frena un solape que no vio (con varios shards, el shard queda sin marcar y se consulta la BD)
+  private void createOverlapConstraint(String shard) {
+    jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+
+    // Particionada: la restricción va en cada partición (ReservationPartitionManager) y no ve un solape
+    // entre una reserva que empieza en un mes y otra del mes siguiente. El shard no se marca y las altas
+    // siempre consultan la BD bajo el lock de la cancha.
+    if (isPartitioned()) {
+      log.info("reservations particionada en el shard {}: las altas verifican el solape en la BD", shard);
+      return;
+    }
+
+    jdbcTemplate.execute(overlapConstraintSql("reservations", OVERLAP_CONSTRAINT));
+    if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ? AND conrelid = to_regclass('reservations'))",
+            Boolean.class, OVERLAP_CONSTRAINT))) {
+      throw new IllegalStateException("Falta la restricción " + OVERLAP_CONSTRAINT + " en el shard " + shard);
+    }
+    overlapGuardedShards.add(shard);
+    log.info("Restricción {} verificada en el shard {}", OVERLAP_CONSTRAINT, shard);
+  }
+
+  // Dos reservas activas de la misma cancha no pueden solaparse
+  public static String overlapConstraintSql(String table, String constraint) {
+    return "DO $$ " +
+            "BEGIN " +
+            "  IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = '" + constraint + "') THEN " +
+            "    ALTER TABLE " + table + " ADD CONSTRAINT " + constraint + " " +
+            "      EXCLUDE USING gist (court_id WITH =, tsrange(start_time, end_time, '[)') WITH &&) " +
+            "      WHERE (status IN ('PENDING', 'CONFIRMED')); " +
+            "  END IF; " +
+            "END $$";
+  }
+
+  private boolean isPartitioned() {
+    return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('reservations'))",
+            Boolean.class));
+  }
+
+  // Filas insertadas antes de que toda alta llevara updated_at (las cargas incrementales leen por ahí)
+  private void backfillUpdatedAt() {
+    try {
+      int backfilled = jdbcTemplate.update("UPDATE reservations SET updated_at = COALESCE(created_at, now()) " +
+              "WHERE updated_at IS NULL");
+      if (backfilled > 0) {
+        log.info("{} reservas sin updated_at completadas", backfilled);
+      }
+    } catch (Exception e) {
+      log.error("No se pudo completar updated_at de las reservas: {}", e.getMessage());
+    }
+  }
+
+  private void createIndexes() {
+    try {
+      // Barrido de reservas impagas vencidas
+      jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_reservations_pending_created " +
+              "ON reservations (created_at) WHERE status = 'PENDING' AND payment_status = 'PENDING'");
+      // Orden por reserva del relay del outbox
+      jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_outbox_pending_reservation " +
+              "ON reservation_outbox (reservation_id, id) WHERE published_at IS NULL");
+      // Los pedidos en bloque del outbox no tienen reserva (ddl-auto no quita el NOT NULL)
+      jdbcTemplate.execute("ALTER TABLE reservation_outbox ALTER COLUMN reservation_id DROP NOT NULL");
+    } catch (Exception e) {
+      log.error("No se pudieron crear los índices de reservas: {}", e.getMessage());
+    }
+  }
+
+  // Cada shard genera ids desde su propio rango (ver ShardRouter.idOffset) para que un id alcance
+  // para saber dónde vive la reserva o la espera
+  private void alignIdSequences(String shard) {
+    long offset = shardRouter.idOffset(shard);
+    if (offset == 0) {
+      return;
+    }
+
+    for (String table : new String[]{"reservations", "reservation_waitlist"}) {
+      try {
+        String sequence = jdbcTemplate.queryForObject("SELECT pg_get_serial_sequence(?, 'id')", String.class, table);
+        if (sequence == null) {
+          continue;
+        }
+        Long lastValue = jdbcTemplate.queryForObject("SELECT last_value FROM " + sequence, Long.class);
+        if (lastValue != null && lastValue < offset) {
+          jdbcTemplate.queryForObject("SELECT setval(?, ?, false)", Long.class, sequence, offset);
+          log.info("Secuencia {} del shard {} ajustada a {}", sequence, shard, offset);
+        }
+      } catch (Exception e) {
+        log.error("No se pudo ajustar la secuencia de {} en el shard {}: {}", table, shard, e.getMessage());
+      }
+    }
+  }
+
+  // Acumulados de ocupación (ver OccupancyRollupService); sin entidad JPA
+  private void createOccupancyTable() {
+    try {
+      jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS reservation_occupancy (" +
+              "court_id BIGINT NOT NULL, " +
+              "club_id BIGINT NOT NULL, " +
+              "day DATE NOT NULL, " +
+              "hour SMALLINT NOT NULL, " +
+              "booked_minutes INTEGER NOT NULL DEFAULT 0, " +
+              "booking_count INTEGER NOT NULL DEFAULT 0, " +
+              "PRIMARY KEY (court_id, day, hour))");
+      jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_occupancy_club_day " +
+              "ON reservation_occupancy (club_id, day)");
+    } catch (Exception e) {
+      log.error("No se pudo crear la tabla de ocupación: {}", e.getMessage());
+    }
+  }
+}
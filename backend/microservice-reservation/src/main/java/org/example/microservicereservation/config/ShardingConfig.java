@@ -0,0 +1,53 @@
+package org.example.microservicereservation.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Con reservation.sharding.enabled=true el DataSource de la aplicación pasa a ser uno que enruta por
+// shard. Hibernate (ddl-auto) solo actualiza el esquema del shard principal: los demás se crean con
+// init-reservas.sql y ReservationSchemaInitializer completa índices y restricciones en todos.
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+  @Bean
+  @Primary
+  @ConditionalOnProperty(name = "reservation.sharding.enabled", havingValue = "true")
+  public DataSource dataSource(DataSourceProperties dataSourceProperties, ShardingProperties sharding) {
+    HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+    primary.setPoolName("reservas-" + ShardRouter.DEFAULT_SHARD);
+
+    Map<Object, Object> targets = new LinkedHashMap<>();
+    targets.put(ShardRouter.DEFAULT_SHARD, primary);
+    sharding.getShards().forEach((name, shard) -> {
+      HikariDataSource dataSource = DataSourceBuilder.create()
+              .type(HikariDataSource.class)
+              .driverClassName(dataSourceProperties.getDriverClassName())
+              .url(shard.getUrl())
+              .username(shard.getUsername())
+              .password(shard.getPassword())
+              .build();
+      dataSource.setPoolName("reservas-" + name);
+      dataSource.setMaximumPoolSize(shard.getMaxPoolSize());
+      targets.put(name, dataSource);
+    });
+
+    ClubRoutingDataSource routing = new ClubRoutingDataSource();
+    routing.setTargetDataSources(targets);
+    routing.setDefaultTargetDataSource(primary);
+    routing.afterPropertiesSet();
+    return routing;
+  }
+}
@@ -0,0 +1,31 @@
+package org.example.microservicereservation.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Reparto de las reservas por club entre varias bases (reservation.sharding.*). El datasource
+// principal (spring.datasource) es siempre el shard "default", número 0.
+@Data
+@ConfigurationProperties(prefix = "reservation.sharding")
+public class ShardingProperties {
+  private boolean enabled = false;
+  private int virtualNodes = 64;
+  private long gatherTimeoutMs = 5000;
+  private Map<String, Shard> shards = new LinkedHashMap<>();
+  // Clubes fijados a un shard (por ejemplo, los que ya tenían datos antes de agregar un shard)
+  private Map<Long, String> pinnedClubs = new HashMap<>();
+
+  @Data
+  public static class Shard {
+    // Va en los bits altos de los ids generados en el shard; no se puede cambiar una vez asignado
+    private int number;
+    private String url;
+    private String username;
+    private String password;
+    private int maxPoolSize = 10;
+  }
+}
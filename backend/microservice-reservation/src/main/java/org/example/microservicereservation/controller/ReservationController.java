@@ -2,29 +2,77 @@ package org.example.microservicereservation.controller;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.example.common.dto.PageCursor;
+import org.example.microservicereservation.entity.ReservationPaymentStatus;
+import org.example.microservicereservation.entity.ReservationStatus;
+import org.example.microservicereservation.exception.RemoteServiceUnavailableException;
+import org.example.microservicereservation.exception.ReservationConflictException;
+import org.example.microservicereservation.service.BulkCancellationService;
+import org.example.microservicereservation.service.OccupancyRollupService;
+import org.example.microservicereservation.service.RemoteLookupCache;
+import org.example.microservicereservation.service.ReservationExportService;
 import org.example.microservicereservation.service.ReservationService;
+import org.example.microservicereservation.service.analytics.ReservationColumnStore;
+import org.example.microservicereservation.service.dto.OccupiedIntervalDTO;
 import org.example.microservicereservation.service.dto.ReservationConflictDTO;
+import org.example.microservicereservation.service.dto.response.ReservationResponseDTO;
+import org.example.microservicereservation.service.dto.request.AnalyticsGroupBy;
+import org.example.microservicereservation.service.dto.request.BulkCancelRequestDTO;
+import org.example.microservicereservation.service.dto.request.ExportFormat;
 import org.example.microservicereservation.service.dto.request.ReservationRequestDTO;
+import org.example.microservicereservation.service.dto.request.ReservationSearchCriteria;
+import org.example.microservicereservation.service.dto.request.ReservationSeriesRequestDTO;
+import org.example.microservicereservation.service.sharding.ShardRouter;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/reservations")
 @RequiredArgsConstructor
 public class ReservationController {
   private final ReservationService reservationService;
+  private final RemoteLookupCache remoteLookupCache;
+  private final ReservationExportService reservationExportService;
+  private final OccupancyRollupService occupancyRollupService;
+  private final ReservationColumnStore reservationColumnStore;
+  private final BulkCancellationService bulkCancellationService;
+  private final ShardRouter shardRouter;
 
+  // Paginado por cursor; unpaged=true (solo SUPER_ADMIN) devuelve el listado completo
   @GetMapping
-  public ResponseEntity<?> findAll() {
+  public ResponseEntity<?> findAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                   @RequestParam(value = "size", required = false) Integer size,
+                                   @RequestParam(value = "unpaged", defaultValue = "false") boolean unpaged,
+                                   @RequestHeader(value = "X-User-Role", required = false) String role) {
     try {
-      return ResponseEntity.ok(reservationService.findAll());
+      if (unpaged) {
+        if (!PageCursor.canRequestUnpaged(role)) {
+          return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(PageCursor.unpaged(byId(shardRouter.gather(reservationService::findAll))));
+      }
+      return ResponseEntity.ok(shardRouter.gatherPage(() -> reservationService.findPage(cursor, size),
+              PageCursor.clampSize(size), BY_ID, item -> PageCursor.encode(item.getId())));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     } catch (EntityNotFoundException e) {
       return ResponseEntity.notFound().build();
     } catch (Exception e) {
@@ -32,12 +80,159 @@ public class ReservationController {
     }
   }
 
+  @GetMapping("/search")
+  public ResponseEntity<?> search(
+          @RequestParam(value = "clubId", required = false) Long clubId,
+          @RequestParam(value = "courtId", required = false) Long courtId,
+          @RequestParam(value = "userId", required = false) Long userId,
+          @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+          @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+          @RequestParam(value = "status", required = false) ReservationStatus status,
+          @RequestParam(value = "paymentStatus", required = false) ReservationPaymentStatus paymentStatus,
+          @RequestParam(value = "cursor", required = false) String cursor,
+          @RequestParam(value = "size", required = false) Integer size,
+          // Alias anterior de `size`
+          @RequestParam(value = "limit", required = false) Integer limit) {
+    try {
+      ReservationSearchCriteria criteria = ReservationSearchCriteria.builder()
+              .clubId(clubId)
+              .courtId(courtId)
+              .userId(userId)
+              .from(from)
+              .to(to)
+              .status(status)
+              .paymentStatus(paymentStatus)
+              .build();
+      Integer pageSize = size != null ? size : limit;
+      if (clubId != null) {
+        return ResponseEntity.ok(shardRouter.onClub(clubId, () -> reservationService.search(criteria, cursor, pageSize)));
+      }
+      return ResponseEntity.ok(shardRouter.gatherPage(() -> reservationService.search(criteria, cursor, pageSize),
+              ReservationService.searchPageSize(pageSize),
+              Comparator.comparing(ReservationResponseDTO::getStartTime).thenComparing(ReservationResponseDTO::getId),
+              item -> PageCursor.encode(item.getStartTime(), item.getId())));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+              .body(Map.of("error", "Error interno del servidor"));
+    }
+  }
+
+  // Exportación contable de un club (CSV o NDJSON), escrita fila a fila sobre la respuesta.
+  // Se comprime con gzip si el cliente lo acepta.
+  @GetMapping("/export")
+  public ResponseEntity<?> export(
+          @RequestParam(value = "clubId", required = false) Long clubId,
+          @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+          @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+          @RequestParam(value = "format", defaultValue = "csv") String format,
+          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+          @RequestHeader(value = "X-User-Role", required = false) String role) {
+    if (!"CLUB_ADMIN".equals(role) && !"SUPER_ADMIN".equals(role)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    try {
+      ExportFormat exportFormat = ExportFormat.from(format);
+      reservationExportService.validate(clubId, from, to);
+      boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+      // El cuerpo se escribe después, en otro hilo: el shard se fija ahí
+      StreamingResponseBody body = output -> shardRouter.onClub(clubId, () -> {
+        try {
+          return reservationExportService.export(clubId, from, to, exportFormat, output, gzip);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+
+      ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+              .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+              .header(HttpHeaders.CONTENT_DISPOSITION,
+                      "attachment; filename=\"reservas-club-" + clubId + "." + exportFormat.getExtension() + "\"")
+              .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+      if (gzip) {
+        response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+      }
+      return response.body(body);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  // Mapa de calor de ocupación por día de la semana y hora, leído de los acumulados
+  @GetMapping("/stats/occupancy")
+  public ResponseEntity<?> getOccupancy(
+          @RequestParam(value = "clubId", required = false) Long clubId,
+          @RequestParam(value = "courtId", required = false) Long courtId,
+          @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+          @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    try {
+      Long shardClubId = clubId != null || courtId == null ? clubId : clubOfCourt(courtId);
+      return ResponseEntity.ok(shardRouter.onClub(shardClubId,
+              () -> occupancyRollupService.getOccupancy(clubId, courtId, from, to)));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (RemoteServiceUnavailableException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+              .body(Map.of("error", "Error interno del servidor"));
+    }
+  }
+
+  @PostMapping("/stats/occupancy/rebuild")
+  public ResponseEntity<?> rebuildOccupancy(@RequestHeader(value = "X-User-Role", required = false) String role) {
+    if (!"SUPER_ADMIN".equals(role)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    occupancyRollupService.rebuild();
+    return ResponseEntity.ok().build();
+  }
+
+  // Agregaciones ad-hoc sobre el almacén columnar en memoria (no consulta la BD)
+  @GetMapping("/analytics")
+  public ResponseEntity<?> analytics(
+          @RequestParam(value = "groupBy", defaultValue = "weekday") String groupBy,
+          @RequestParam(value = "clubId", required = false) Long clubId,
+          @RequestParam(value = "courtId", required = false) Long courtId,
+          @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+          @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+          @RequestParam(value = "status", required = false) ReservationStatus status,
+          @RequestHeader(value = "X-User-Role", required = false) String role) {
+    if (!"CLUB_ADMIN".equals(role) && !"SUPER_ADMIN".equals(role)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    try {
+      return ResponseEntity.ok(reservationColumnStore.query(AnalyticsGroupBy.from(groupBy), clubId, courtId, from, to, status));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+    }
+  }
+
   @GetMapping("/my-reservations")
   public ResponseEntity<?> getMyReservations(
-          @RequestHeader("X-User-Email") String userEmail
+          @RequestHeader("X-User-Email") String userEmail,
+          @RequestParam(value = "cursor", required = false) String cursor,
+          @RequestParam(value = "size", required = false) Integer size,
+          @RequestParam(value = "unpaged", defaultValue = "false") boolean unpaged,
+          @RequestHeader(value = "X-User-Role", required = false) String role
   ) {
     try {
-      return ResponseEntity.ok(reservationService.findByUserEmail(userEmail));
+      if (unpaged) {
+        if (!PageCursor.canRequestUnpaged(role)) {
+          return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(PageCursor.unpaged(byId(shardRouter.gather(() -> reservationService.findByUserEmail(userEmail)))));
+      }
+      return ResponseEntity.ok(shardRouter.gatherPage(() -> reservationService.findPageByUserEmail(userEmail, cursor, size),
+              PageCursor.clampSize(size), BY_ID, item -> PageCursor.encode(item.getId())));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     } catch (EntityNotFoundException e) {
       return ResponseEntity.notFound().build();
     } catch (Exception e) {
@@ -49,7 +244,7 @@ public class ReservationController {
   @GetMapping("/{id}")
   public ResponseEntity<?> findById(@PathVariable("id") Long id) {
     try {
-      return ResponseEntity.ok(reservationService.findById(id));
+      return ResponseEntity.ok(shardRouter.onId(id, () -> reservationService.findById(id)));
     } catch (EntityNotFoundException e) {
       return ResponseEntity.notFound().build();
     } catch (Exception e) {
@@ -60,7 +255,63 @@ public class ReservationController {
   @PostMapping()
   public ResponseEntity<?> save(@RequestBody ReservationRequestDTO request) {
     try {
-      return ResponseEntity.ok(reservationService.save(request));
+      return ResponseEntity.ok(shardRouter.onClub(request.getClubId(), () -> reservationService.save(request)));
+    } catch (ReservationConflictException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    } catch (RemoteServiceUnavailableException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+    } catch (EntityNotFoundException e) {
+      return ResponseEntity.notFound().build();
+    } catch (Exception e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  @PostMapping("/series")
+  public ResponseEntity<?> saveSeries(@RequestBody ReservationSeriesRequestDTO request) {
+    try {
+      return ResponseEntity.ok(shardRouter.onClub(request.getClubId(), () -> reservationService.saveSeries(request)));
+    } catch (ReservationConflictException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    } catch (RemoteServiceUnavailableException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+    } catch (EntityNotFoundException e) {
+      return ResponseEntity.notFound().build();
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (Exception e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  // Cancela todo en una cancha o club dentro del rango; reembolsos y avisos salen en bloque
+  @PostMapping("/bulk-cancel")
+  public ResponseEntity<?> bulkCancel(@RequestBody BulkCancelRequestDTO request,
+                                      @RequestHeader(value = "X-User-Role", required = false) String role) {
+    if (!"CLUB_ADMIN".equals(role) && !"SUPER_ADMIN".equals(role)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    try {
+      Long shardClubId = request.getClubId() != null || request.getCourtId() == null
+              ? request.getClubId() : clubOfCourt(request.getCourtId());
+      return ResponseEntity.ok(shardRouter.onClub(shardClubId, () -> bulkCancellationService.cancel(request)));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (RemoteServiceUnavailableException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  @PostMapping("/holds")
+  public ResponseEntity<?> placeHold(@RequestBody ReservationRequestDTO request) {
+    try {
+      return ResponseEntity.status(HttpStatus.CREATED)
+              .body(shardRouter.onClub(request.getClubId(), () -> reservationService.placeHold(request)));
+    } catch (ReservationConflictException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    } catch (RemoteServiceUnavailableException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
     } catch (EntityNotFoundException e) {
       return ResponseEntity.notFound().build();
     } catch (Exception e) {
@@ -68,10 +319,38 @@ public class ReservationController {
     }
   }
 
+  @PostMapping("/holds/{holdId}/confirm")
+  public ResponseEntity<?> confirmHold(@PathVariable("holdId") String holdId) {
+    try {
+      return ResponseEntity.ok(shardRouter.onClub(reservationService.holdClubId(holdId),
+              () -> reservationService.confirmHold(holdId)));
+    } catch (ReservationConflictException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    } catch (EntityNotFoundException e) {
+      return ResponseEntity.notFound().build();
+    } catch (Exception e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  @DeleteMapping("/holds/{holdId}")
+  public ResponseEntity<?> releaseHold(@PathVariable("holdId") String holdId) {
+    try {
+      reservationService.releaseHold(holdId);
+      return ResponseEntity.noContent().build();
+    } catch (EntityNotFoundException e) {
+      return ResponseEntity.notFound().build();
+    }
+  }
+
   @PutMapping("/{id}")
   public ResponseEntity<?> update(@PathVariable("id") Long id, @RequestBody ReservationRequestDTO request) {
     try {
-      return ResponseEntity.ok(reservationService.update(id, request));
+      return ResponseEntity.ok(shardRouter.onId(id, () -> reservationService.update(id, request)));
+    } catch (ReservationConflictException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    } catch (RemoteServiceUnavailableException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
     } catch (EntityNotFoundException e) {
       return ResponseEntity.notFound().build();
     } catch (Exception e) {
@@ -82,7 +361,7 @@ public class ReservationController {
   @DeleteMapping("/{id}")
   public ResponseEntity<?> delete(@PathVariable("id") Long id) {
     try {
-      reservationService.delete(id);
+      shardRouter.onId(id, () -> reservationService.delete(id));
       return ResponseEntity.ok().build();
     } catch (EntityNotFoundException e) {
       return ResponseEntity.notFound().build();
@@ -93,7 +372,7 @@ public class ReservationController {
 
   @GetMapping("/{id}/exists")
   public ResponseEntity<Boolean> existsById(@PathVariable("id") Long id) {
-    return ResponseEntity.ok(reservationService.existsById(id));
+    return ResponseEntity.ok(shardRouter.onId(id, () -> reservationService.existsById(id)));
   }
 
   @PatchMapping("/{id}/payment-status")
@@ -101,13 +380,13 @@ public class ReservationController {
           @PathVariable("id") Long id,
           @RequestBody Map<String, String> request) {
     String status = request.get("paymentStatus");
-    reservationService.updatePaymentStatus(id, status);
+    shardRouter.runOnId(id, () -> reservationService.updatePaymentStatus(id, status));
     return ResponseEntity.ok().build();
   }
 
   @GetMapping("/{id}/pending-amount")
   public ResponseEntity<BigDecimal> getPendingAmount(@PathVariable("id") Long id) {
-    return ResponseEntity.ok(reservationService.getPendingAmount(id));
+    return ResponseEntity.ok(shardRouter.onId(id, () -> reservationService.getPendingAmount(id)));
   }
 
   @PostMapping("/{id}/apply-payment")
@@ -119,7 +398,7 @@ public class ReservationController {
     String transactionId = (String) request.get("transactionId");
     String notes = (String) request.get("notes");
 
-    reservationService.applyPayment(id, amount, method, transactionId, notes);
+    shardRouter.runOnId(id, () -> reservationService.applyPayment(id, amount, method, transactionId, notes));
     return ResponseEntity.ok().build();
   }
 
@@ -129,7 +408,8 @@ public class ReservationController {
           @RequestParam("startTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
           @RequestParam("endTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime) {
     try {
-      boolean hasConflict = reservationService.hasReservationConflict(courtId, startTime, endTime);
+      boolean hasConflict = onCourts(List.of(courtId),
+              () -> reservationService.hasReservationConflict(courtId, startTime, endTime));
       return ResponseEntity.ok(hasConflict);
     } catch (IllegalArgumentException e) {
       return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -139,14 +419,52 @@ public class ReservationController {
     }
   }
 
+  @GetMapping("/courts/{courtId}/occupied")
+  public ResponseEntity<?> getOccupiedIntervals(
+          @PathVariable("courtId") Long courtId,
+          @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+    try {
+      return ResponseEntity.ok(onCourts(List.of(courtId), () -> reservationService.getOccupiedIntervals(courtId, date)));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+              .body(Map.of("error", "Error interno del servidor"));
+    }
+  }
+
+  @GetMapping("/occupied")
+  public ResponseEntity<?> getOccupiedIntervalsForCourts(
+          @RequestParam("courtIds") List<Long> courtIds,
+          @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+    try {
+      // Canchas de varios clubes: cada grupo va solo al shard de su club, así las reservas del índice y
+      // las retenciones en memoria (comunes a todos los shards) aparecen una sola vez
+      Map<Long, List<Long>> courtsByClub = courtsByClub(courtIds);
+      if (courtsByClub.size() > 1) {
+        List<OccupiedIntervalDTO> occupied = new ArrayList<>();
+        courtsByClub.forEach((clubId, clubCourtIds) -> occupied.addAll(
+                shardRouter.onClub(clubId, () -> reservationService.getOccupiedIntervals(clubCourtIds, date))));
+        occupied.sort(Comparator.comparing(OccupiedIntervalDTO::getCourtId).thenComparing(OccupiedIntervalDTO::getStartTime));
+        return ResponseEntity.ok(occupied);
+      }
+      return ResponseEntity.ok(onCourts(courtIds, () -> reservationService.getOccupiedIntervals(courtIds, date)));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+              .body(Map.of("error", "Error interno del servidor"));
+    }
+  }
+
   @GetMapping("/conflicts/details")
   public ResponseEntity<?> getConflictingReservations(
           @RequestParam("courtId") Long courtId,
           @RequestParam("startTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
           @RequestParam("endTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime) {
     try {
-      List<ReservationConflictDTO> conflicts =
-              reservationService.getConflictingReservations(courtId, startTime, endTime);
+      List<ReservationConflictDTO> conflicts = onCourts(List.of(courtId),
+              () -> reservationService.getConflictingReservations(courtId, startTime, endTime));
       return ResponseEntity.ok(conflicts);
     } catch (IllegalArgumentException e) {
       return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -155,4 +473,61 @@ public class ReservationController {
               .body(Map.of("error", "Error interno del servidor"));
     }
   }
+
+  // Invalidación de la caché de user / court / club (la llaman court y club al modificarse,
+  // reenviando las credenciales de quien hizo el cambio)
+  @DeleteMapping("/cache/courts/{courtId}")
+  public ResponseEntity<Void> invalidateCourt(@PathVariable("courtId") Long courtId) {
+    remoteLookupCache.invalidateCourt(courtId);
+    return ResponseEntity.noContent().build();
+  }
+
+  @DeleteMapping("/cache/clubs/{clubId}")
+  public ResponseEntity<Void> invalidateClub(@PathVariable("clubId") Long clubId) {
+    remoteLookupCache.invalidateClub(clubId);
+    return ResponseEntity.noContent().build();
+  }
+
+  @DeleteMapping("/cache/users/{userId}")
+  public ResponseEntity<Void> invalidateUser(@PathVariable("userId") Long userId) {
+    remoteLookupCache.invalidateUser(userId);
+    return ResponseEntity.noContent().build();
+  }
+
+  @GetMapping("/cache/stats")
+  public ResponseEntity<?> getCacheStats(@RequestHeader(value = "X-User-Role", required = false) String role) {
+    if (!"SUPER_ADMIN".equals(role)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    return ResponseEntity.ok(remoteLookupCache.stats());
+  }
+
+  private static final Comparator<ReservationResponseDTO> BY_ID = Comparator.comparing(ReservationResponseDTO::getId);
+
+  private static List<ReservationResponseDTO> byId(List<ReservationResponseDTO> reservations) {
+    reservations.sort(BY_ID);
+    return reservations;
+  }
+
+  // Consultas por cancha: con sharding el club de la cancha (caché remota) dice el shard
+  private <T> T onCourts(List<Long> courtIds, Supplier<T> action) {
+    if (!shardRouter.isSharded() || courtIds.isEmpty()) {
+      return action.get();
+    }
+    return shardRouter.onClub(clubOfCourt(courtIds.get(0)), action);
+  }
+
+  // Sin shards no hace falta saber el club: un único grupo
+  private Map<Long, List<Long>> courtsByClub(List<Long> courtIds) {
+    if (!shardRouter.isSharded()) {
+      return Map.of();
+    }
+    return courtIds.stream()
+            .distinct()
+            .collect(Collectors.groupingBy(this::clubOfCourt, LinkedHashMap::new, Collectors.toList()));
+  }
+
+  private Long clubOfCourt(Long courtId) {
+    return shardRouter.isSharded() ? remoteLookupCache.findCourt(courtId).getClubId() : null;
+  }
 }
@@ -0,0 +1,43 @@
+package org.example.microservicereservation.controller;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.example.microservicereservation.exception.RemoteServiceUnavailableException;
+import org.example.microservicereservation.exception.ReservationConflictException;
+import org.example.microservicereservation.service.dto.request.TournamentScheduleRequestDTO;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.example.microservicereservation.service.tournament.TournamentService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reservations/tournaments")
+@RequiredArgsConstructor
+public class TournamentController {
+  private final TournamentService tournamentService;
+  private final ShardRouter shardRouter;
+
+  // Programa los partidos sobre las canchas del club y los reserva juntos (dryRun=true solo calcula)
+  @PostMapping("/schedule")
+  public ResponseEntity<?> schedule(@RequestBody TournamentScheduleRequestDTO request,
+                                    @RequestHeader(value = "X-User-Role", required = false) String role) {
+    if (!"CLUB_ADMIN".equals(role) && !"SUPER_ADMIN".equals(role)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    try {
+      return ResponseEntity.ok(shardRouter.onClub(request.getClubId(), () -> tournamentService.schedule(request)));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (ReservationConflictException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    } catch (RemoteServiceUnavailableException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+    } catch (EntityNotFoundException e) {
+      return ResponseEntity.notFound().build();
+    }
+  }
+}
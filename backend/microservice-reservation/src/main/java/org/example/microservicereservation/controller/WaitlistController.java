@@ -0,0 +1,69 @@
+package org.example.microservicereservation.controller;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.example.microservicereservation.exception.RemoteServiceUnavailableException;
+import org.example.microservicereservation.service.WaitlistService;
+import org.example.microservicereservation.service.dto.request.WaitlistRequestDTO;
+import org.example.microservicereservation.service.dto.response.WaitlistEntryDTO;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+// Lista de espera: el usuario consulta sus esperas y, cuando el horario se libera,
+// ve la retención ofrecida (holdId) para confirmarla con POST /api/reservations/holds/{holdId}/confirm
+@RestController
+@RequestMapping("/api/reservations/waitlist")
+@RequiredArgsConstructor
+public class WaitlistController {
+  private final WaitlistService waitlistService;
+  private final ShardRouter shardRouter;
+
+  @PostMapping
+  public ResponseEntity<?> register(@RequestBody WaitlistRequestDTO request,
+                                    @RequestHeader(value = "X-User-Email", required = false) String userEmail) {
+    try {
+      if (userEmail != null && request.getUserEmail() != null && !userEmail.equalsIgnoreCase(request.getUserEmail())) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+      }
+      if (request.getUserEmail() == null) {
+        request.setUserEmail(userEmail);
+      }
+      return ResponseEntity.status(HttpStatus.CREATED)
+              .body(shardRouter.onClub(request.getClubId(), () -> waitlistService.register(request)));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (EntityNotFoundException e) {
+      return ResponseEntity.notFound().build();
+    } catch (RemoteServiceUnavailableException | IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+    } catch (Exception e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  @GetMapping("/my")
+  public ResponseEntity<?> findMine(@RequestHeader("X-User-Email") String userEmail) {
+    List<WaitlistEntryDTO> entries = shardRouter.gather(() -> waitlistService.findByUserEmail(userEmail));
+    entries.sort(Comparator.comparing(WaitlistEntryDTO::getId));
+    return ResponseEntity.ok(entries);
+  }
+
+  @DeleteMapping("/{id}")
+  public ResponseEntity<?> cancel(@PathVariable("id") Long id,
+                                  @RequestHeader("X-User-Email") String userEmail) {
+    try {
+      shardRouter.runOnId(id, () -> waitlistService.cancel(id, userEmail));
+      return ResponseEntity.noContent().build();
+    } catch (SecurityException e) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    } catch (EntityNotFoundException e) {
+      return ResponseEntity.notFound().build();
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package org.example.microservicereservation.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+// Evento pendiente de publicar; se escribe en la misma transacción que el cambio de la reserva
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "reservation_outbox")
+public class OutboxEvent {
+  private static final String SUBSCRIBER_SEPARATOR = "\n";
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  // Null en los pedidos en bloque: no dependen del orden de los eventos de una reserva
+  @Column(name = "reservation_id")
+  private Long reservationId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "event_type", nullable = false)
+  private ReservationEventType eventType;
+
+  @Column(nullable = false, columnDefinition = "TEXT")
+  private String payload;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  // Entregado a todos los suscriptores
+  @Column(name = "published_at")
+  private LocalDateTime publishedAt;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  @Column(name = "last_error")
+  private String lastError;
+
+  // Backoff después de un envío fallido (null = se puede enviar ya)
+  @Column(name = "next_attempt_at")
+  private LocalDateTime nextAttemptAt;
+
+  // Un relay lo tomó y lo está enviando; vencido, otro lo puede volver a tomar
+  @Column(name = "locked_until")
+  private LocalDateTime lockedUntil;
+
+  // Suscriptores que ya lo aceptaron (uno por línea): un reintento no se los vuelve a mandar
+  @Column(name = "delivered_to", columnDefinition = "TEXT")
+  private String deliveredTo;
+
+  // Apartado tras agotar los intentos (o con payload ilegible); no se reintenta ni se borra
+  @Column(name = "failed_at")
+  private LocalDateTime failedAt;
+
+  public boolean isDeliveredTo(String subscriber) {
+    return deliveredTo != null && Arrays.asList(deliveredTo.split(SUBSCRIBER_SEPARATOR)).contains(subscriber);
+  }
+
+  public void markDeliveredTo(String subscriber) {
+    if (!isDeliveredTo(subscriber)) {
+      deliveredTo = deliveredTo == null ? subscriber : deliveredTo + SUBSCRIBER_SEPARATOR + subscriber;
+    }
+  }
+}
@@ -14,7 +14,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Data
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservations_club_start", columnList = "club_id, start_time"),
+        @Index(name = "idx_reservations_court_start", columnList = "court_id, start_time"),
+        @Index(name = "idx_reservations_updated", columnList = "updated_at, id")
+})
 public class Reservation {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -40,24 +44,51 @@ public class Reservation {
 
   @Enumerated(EnumType.STRING)
   @Column(nullable = false)
+  @Builder.Default
   private ReservationStatus status = ReservationStatus.PENDING;
 
   @Enumerated(EnumType.STRING)
   @Column(name = "payment_status", nullable = false)
+  @Builder.Default
   private ReservationPaymentStatus paymentStatus = ReservationPaymentStatus.PENDING;
 
+  // Reservas creadas juntas como serie recurrente comparten este id
+  @Column(name = "series_id", length = 36)
+  private String seriesId;
+
+  // Precio por hora de la cancha al momento de reservar
+  @Column(name = "price_per_hour", precision = 10, scale = 2)
+  private BigDecimal pricePerHour;
+
   // Campos para manejo de pagos (opcional)
   @Column(name = "total_amount", precision = 10, scale = 2)
   private BigDecimal totalAmount;
 
   @Column(name = "paid_amount", precision = 10, scale = 2)
+  @Builder.Default
   private BigDecimal paidAmount = BigDecimal.ZERO;
 
   @Column(name = "created_at")
-  private LocalDateTime createdAt = LocalDateTime.now();
+  private LocalDateTime createdAt;
 
   @Column(name = "updated_at")
-  private LocalDateTime updatedAt = LocalDateTime.now();
+  private LocalDateTime updatedAt;
+
+  // Las cargas incrementales (analítica, índice de disponibilidad) leen por updated_at: toda fila
+  // nueva tiene que llevarlo. La inserción por lotes por JDBC también pasa por acá.
+  @PrePersist
+  public void touchForInsert() {
+    LocalDateTime now = LocalDateTime.now();
+    if (createdAt == null) {
+      createdAt = now;
+    }
+    updatedAt = now;
+  }
+
+  @PreUpdate
+  void touchUpdatedAt() {
+    updatedAt = LocalDateTime.now();
+  }
 
   // Método para calcular monto pendiente
   public BigDecimal getPendingAmount() {
@@ -0,0 +1,14 @@
+package org.example.microservicereservation.entity;
+
+public enum ReservationEventType {
+  CREATED,          // Reserva creada (PENDING)
+  UPDATED,          // Cambio de horario / cancha / estado
+  PAYMENT_UPDATED,  // Cambio de estado de pago o pago aplicado
+  CONFIRMED,        // Pago completo, reserva confirmada
+  CANCELLED,        // Cancelada (incluye vencimiento del plazo de pago)
+  DELETED,
+  // Pedidos en bloque a otros servicios (cancelación masiva); los envía un OutboxCommandHandler,
+  // no los suscriptores de eventos
+  REFUND_REQUESTED,
+  NOTIFICATION_REQUESTED
+}
@@ -0,0 +1,73 @@
+package org.example.microservicereservation.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Interés de un usuario en un horario ocupado: una cancha puntual o cualquier cancha del
+// tipo indicado dentro del club. Al liberarse el horario se le ofrece una retención.
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "reservation_waitlist", indexes = {
+        @Index(name = "idx_waitlist_status_start", columnList = "status, start_time"),
+        @Index(name = "idx_waitlist_hold", columnList = "hold_id")
+})
+public class WaitlistEntry {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  @Column(name = "user_email", nullable = false)
+  private String userEmail;
+
+  @Column(name = "club_id", nullable = false)
+  private Long clubId;
+
+  // Cancha puntual o, si es null, cualquier cancha del tipo indicado
+  @Column(name = "court_id")
+  private Long courtId;
+
+  @Column(name = "court_type")
+  private String courtType;
+
+  @Column(name = "start_time", nullable = false)
+  private LocalDateTime startTime;
+
+  @Column(name = "end_time", nullable = false)
+  private LocalDateTime endTime;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  @Builder.Default
+  private WaitlistStatus status = WaitlistStatus.WAITING;
+
+  // Retención ofrecida y cancha a la que corresponde
+  @Column(name = "hold_id", length = 36)
+  private String holdId;
+
+  @Column(name = "offered_court_id")
+  private Long offeredCourtId;
+
+  @Column(name = "offer_expires_at")
+  private LocalDateTime offerExpiresAt;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  @PrePersist
+  void touchForInsert() {
+    if (createdAt == null) {
+      createdAt = LocalDateTime.now();
+    }
+  }
+}
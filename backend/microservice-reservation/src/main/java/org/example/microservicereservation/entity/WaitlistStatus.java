@@ -0,0 +1,5 @@
+package org.example.microservicereservation.entity;
+
+public enum WaitlistStatus {
+  WAITING, OFFERED, FULFILLED, EXPIRED, CANCELLED
+}
@@ -0,0 +1,8 @@
+package org.example.microservicereservation.exception;
+
+// El usuario ya tiene el máximo de reservas activas en el club (se responde con 409 como un conflicto)
+public class BookingQuotaExceededException extends ReservationConflictException {
+  public BookingQuotaExceededException(String message) {
+    super(message);
+  }
+}
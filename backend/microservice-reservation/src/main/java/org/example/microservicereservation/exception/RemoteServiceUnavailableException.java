@@ -0,0 +1,8 @@
+package org.example.microservicereservation.exception;
+
+// Un servicio remoto no respondió a tiempo durante una validación (se responde con 503)
+public class RemoteServiceUnavailableException extends RuntimeException {
+  public RemoteServiceUnavailableException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package org.example.microservicereservation.exception;
+
+// La cancha ya está ocupada en el horario solicitado (se responde con 409)
+public class ReservationConflictException extends RuntimeException {
+  public ReservationConflictException(String message) {
+    super(message);
+  }
+}
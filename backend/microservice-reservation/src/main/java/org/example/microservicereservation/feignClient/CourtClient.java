@@ -1,5 +1,6 @@
 package org.example.microservicereservation.feignClient;
 
+import org.example.common.dto.CursorPageDTO;
 import org.example.microservicereservation.service.dto.CourtDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,4 +25,10 @@ public interface CourtClient {
   boolean isCourtAvailable(@PathVariable("courtId") Long courtId,
                            @RequestParam("startTime") LocalDateTime startTime,
                            @RequestParam("endTime") LocalDateTime endTime);
+
+  // Canchas activas del club, paginadas por cursor
+  @GetMapping("/club/{clubId}/active")
+  CursorPageDTO<CourtDTO> findActiveByClub(@PathVariable("clubId") Long clubId,
+                                           @RequestParam(value = "cursor", required = false) String cursor,
+                                           @RequestParam("size") Integer size);
 }
@@ -0,0 +1,15 @@
+package org.example.microservicereservation.feignClient;
+
+import org.example.microservicereservation.config.FeignConfig;
+import org.example.microservicereservation.service.dto.BulkNotificationDTO;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+
+@FeignClient(name = "notification-service", url = "http://notification-service:8080",
+        configuration = FeignConfig.class)
+public interface NotificationClient {
+  @PostMapping("/api/notifications/bulk")
+  void sendBulk(@RequestHeader("Idempotency-Key") String idempotencyKey, @RequestBody BulkNotificationDTO request);
+}
@@ -0,0 +1,16 @@
+package org.example.microservicereservation.feignClient;
+
+import org.example.common.dto.BulkRefundRequestDTO;
+import org.example.common.dto.BulkRefundResultDTO;
+import org.example.microservicereservation.config.FeignConfig;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+@FeignClient(name = "payment-service", url = "http://payment-service:8080",
+        configuration = FeignConfig.class)
+public interface PaymentClient {
+  // Reembolso de todas las reservas de una cancelación masiva en un solo pedido
+  @PostMapping("/api/payments/refunds/bulk")
+  BulkRefundResultDTO refundByReservations(@RequestBody BulkRefundRequestDTO request);
+}
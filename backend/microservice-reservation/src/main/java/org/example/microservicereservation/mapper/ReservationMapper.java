@@ -1,6 +1,7 @@
 package org.example.microservicereservation.mapper;
 
 import org.example.microservicereservation.entity.Reservation;
+import org.example.microservicereservation.service.dto.OccupiedIntervalDTO;
 import org.example.microservicereservation.service.dto.request.ReservationRequestDTO;
 import org.example.microservicereservation.service.dto.response.ReservationResponseDTO;
 
@@ -31,6 +32,15 @@ public class ReservationMapper {
             .status(res.getStatus())
             .paymentStatus(res.getPaymentStatus())
             .createdAt(res.getCreatedAt())
+            .seriesId(res.getSeriesId())
+            .build();
+  }
+
+  public static OccupiedIntervalDTO toOccupiedInterval(Reservation res) {
+    return OccupiedIntervalDTO.builder()
+            .courtId(res.getCourtId())
+            .startTime(res.getStartTime())
+            .endTime(res.getEndTime())
             .build();
   }
 }
@@ -0,0 +1,148 @@
+package org.example.microservicereservation.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Acumulados de ocupación por cancha, día y hora (reservation_occupancy).
+// Las escrituras incrementales toman un advisory lock compartido por club y la reconstrucción de
+// ese club uno exclusivo: la reconstrucción nunca ve a medias una transacción que actualiza
+// acumulados, y solo frena las reservas del club que está recalculando.
+@Repository
+@RequiredArgsConstructor
+public class OccupancyRollupRepository {
+  // Forma de dos claves (clase, club): no se mezcla con los locks de una sola clave
+  private static final int ROLLUP_LOCK_CLASS = 0x524F4C4C;
+
+  private static final String UPSERT_SQL =
+          "INSERT INTO reservation_occupancy (court_id, club_id, day, hour, booked_minutes, booking_count) " +
+          "VALUES (?, ?, ?, ?, ?, ?) " +
+          "ON CONFLICT (court_id, day, hour) DO UPDATE SET " +
+          "booked_minutes = reservation_occupancy.booked_minutes + EXCLUDED.booked_minutes, " +
+          "booking_count = reservation_occupancy.booking_count + EXCLUDED.booking_count";
+
+  // Mismo corte por hora que OccupancyRollupService (minutos truncados por tramo). Solo las celdas
+  // de [from, to) de un club; el límite inferior de start_time (ver MAX_RESERVATION_SPAN) permite
+  // recorrer solo las particiones de esos días.
+  private static final String REBUILD_SQL =
+          "INSERT INTO reservation_occupancy (court_id, club_id, day, hour, booked_minutes, booking_count) " +
+          "SELECT r.court_id, MIN(r.club_id), h::date, EXTRACT(HOUR FROM h)::int, " +
+          "  SUM(FLOOR(EXTRACT(EPOCH FROM (LEAST(r.end_time, h + INTERVAL '1 hour') - GREATEST(r.start_time, h))) / 60))::int, " +
+          "  COUNT(*) " +
+          "FROM reservations r " +
+          "CROSS JOIN LATERAL generate_series(date_trunc('hour', r.start_time), " +
+          "  r.end_time - INTERVAL '1 microsecond', INTERVAL '1 hour') AS h " +
+          "WHERE r.club_id = ? AND r.status IN ('PENDING', 'CONFIRMED') AND r.end_time > r.start_time " +
+          "  AND r.start_time >= ? AND r.start_time < ? AND r.end_time > ? " +
+          "  AND h >= ? AND h < ? " +
+          "GROUP BY r.court_id, h";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public record CellDelta(Long courtId, Long clubId, LocalDate day, int hour, int minutes, int count) {
+  }
+
+  public record HeatmapRow(int dayOfWeek, int hour, long bookedMinutes, long bookingCount) {
+  }
+
+  // Días [from, to) que todavía tienen reservas en la tabla viva
+  public record DayRange(LocalDate from, LocalDate to) {
+  }
+
+  // En orden de club: todas las transacciones toman los locks en el mismo orden
+  public void lockShared(Collection<Long> clubIds) {
+    clubIds.stream().distinct().sorted().forEach(clubId -> jdbcTemplate.queryForObject(
+            "SELECT 1 FROM pg_advisory_xact_lock_shared(?, ?)", Integer.class, ROLLUP_LOCK_CLASS, Long.hashCode(clubId)));
+  }
+
+  public void lockExclusive(Long clubId) {
+    jdbcTemplate.queryForObject("SELECT 1 FROM pg_advisory_xact_lock(?, ?)", Integer.class,
+            ROLLUP_LOCK_CLASS, Long.hashCode(clubId));
+  }
+
+  public void applyDeltas(List<CellDelta> deltas) {
+    if (deltas.isEmpty()) {
+      return;
+    }
+
+    jdbcTemplate.batchUpdate(UPSERT_SQL, deltas, deltas.size(), (statement, delta) -> {
+      statement.setLong(1, delta.courtId());
+      statement.setLong(2, delta.clubId());
+      statement.setDate(3, Date.valueOf(delta.day()));
+      statement.setInt(4, delta.hour());
+      statement.setInt(5, delta.minutes());
+      statement.setInt(6, delta.count());
+    });
+  }
+
+  // Desde el primer mes con reservas en la tabla viva: los meses archivados ya no están en
+  // reservations y sus acumulados se conservan. Vacío si no hay reservas.
+  public Optional<DayRange> findLiveRange() {
+    DayRange reservations = jdbcTemplate.queryForObject(
+            "SELECT date_trunc('month', MIN(start_time))::date AS first_day, MAX(end_time)::date + 1 AS last_day " +
+            "FROM reservations",
+            (rs, rowNum) -> rs.getDate("first_day") != null
+                    ? new DayRange(rs.getDate("first_day").toLocalDate(), rs.getDate("last_day").toLocalDate())
+                    : null);
+    if (reservations == null) {
+      return Optional.empty();
+    }
+
+    // Celdas que quedaron después de la última reserva (por ejemplo, reservas borradas)
+    Date lastCell = jdbcTemplate.queryForObject("SELECT MAX(day) + 1 FROM reservation_occupancy WHERE day >= ?",
+            Date.class, Date.valueOf(reservations.from()));
+    LocalDate to = lastCell != null && lastCell.toLocalDate().isAfter(reservations.to())
+            ? lastCell.toLocalDate() : reservations.to();
+    return Optional.of(new DayRange(reservations.from(), to));
+  }
+
+  public List<Long> findClubs(LocalDate from) {
+    return jdbcTemplate.queryForList(
+            "SELECT club_id FROM reservations WHERE start_time >= ? " +
+            "UNION SELECT club_id FROM reservation_occupancy WHERE day >= ? ORDER BY 1",
+            Long.class, Timestamp.valueOf(from.atStartOfDay()), Date.valueOf(from));
+  }
+
+  // Recalcula las celdas de un club en [from, to); devuelve la cantidad de celdas generadas
+  public int rebuild(Long clubId, LocalDate from, LocalDate to) {
+    Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+    Timestamp end = Timestamp.valueOf(to.atStartOfDay());
+    Timestamp earliestStart = Timestamp.valueOf(from.atStartOfDay().minus(ReservationRepository.MAX_RESERVATION_SPAN));
+
+    jdbcTemplate.update("DELETE FROM reservation_occupancy WHERE club_id = ? AND day >= ? AND day < ?",
+            clubId, Date.valueOf(from), Date.valueOf(to));
+    return jdbcTemplate.update(REBUILD_SQL, clubId, earliestStart, end, start, start, end);
+  }
+
+  public boolean isEmpty() {
+    return !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM reservation_occupancy)", Boolean.class));
+  }
+
+  // Suma por día de la semana (ISO, 1 = lunes) y hora; courtId es opcional
+  public List<HeatmapRow> findHeatmap(Long clubId, Long courtId, LocalDate from, LocalDate to) {
+    List<Object> args = new ArrayList<>(List.of(clubId, Date.valueOf(from), Date.valueOf(to)));
+    String courtFilter = "";
+    if (courtId != null) {
+      courtFilter = " AND court_id = ?";
+      args.add(courtId);
+    }
+
+    return jdbcTemplate.query(
+            "SELECT EXTRACT(ISODOW FROM day)::int AS dow, hour, " +
+            "SUM(booked_minutes) AS minutes, SUM(booking_count) AS bookings " +
+            "FROM reservation_occupancy WHERE club_id = ? AND day BETWEEN ? AND ?" + courtFilter +
+            " GROUP BY 1, 2",
+            (rs, rowNum) -> new HeatmapRow(rs.getInt("dow"), rs.getInt("hour"),
+                    rs.getLong("minutes"), rs.getLong("bookings")),
+            args.toArray());
+  }
+}
@@ -0,0 +1,36 @@
+package org.example.microservicereservation.repository;
+
+import org.example.microservicereservation.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+  // Un solo relay toma eventos a la vez (lock hasta el fin de la transacción)
+  @Query(value = "SELECT pg_try_advisory_xact_lock(:lockClass, 0)", nativeQuery = true)
+  boolean tryLockRelay(@Param("lockClass") int lockClass);
+
+  // Pendientes que se pueden enviar ya, en orden de escritura. Un evento espera mientras otro
+  // anterior de la misma reserva esté en backoff o tomado por un relay, así nunca se adelanta;
+  // los apartados (failed_at) no frenan a los siguientes.
+  @Query(value = "SELECT e.* FROM reservation_outbox e " +
+          "WHERE e.published_at IS NULL AND e.failed_at IS NULL " +
+          "  AND (e.next_attempt_at IS NULL OR e.next_attempt_at <= :now) " +
+          "  AND (e.locked_until IS NULL OR e.locked_until <= :now) " +
+          "  AND NOT EXISTS (SELECT 1 FROM reservation_outbox p " +
+          "    WHERE p.reservation_id = e.reservation_id AND p.id < e.id " +
+          "      AND p.published_at IS NULL AND p.failed_at IS NULL " +
+          "      AND (p.next_attempt_at > :now OR p.locked_until > :now)) " +
+          "ORDER BY e.id LIMIT :limit", nativeQuery = true)
+  List<OutboxEvent> findDeliverable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+  @Modifying
+  @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before")
+  int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,54 @@
+package org.example.microservicereservation.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Lectura por lotes de reservas para el almacén columnar de analítica: carga completa por id
+// y luego incremental por (updated_at, id)
+@Repository
+@RequiredArgsConstructor
+public class ReservationAnalyticsRepository {
+  private static final String COLUMNS =
+          "SELECT id, court_id, club_id, start_time, end_time, created_at, updated_at, status FROM reservations ";
+
+  private static final RowMapper<AnalyticsRow> ROW_MAPPER = (rs, rowNum) -> new AnalyticsRow(
+          rs.getLong("id"),
+          rs.getLong("court_id"),
+          rs.getLong("club_id"),
+          rs.getTimestamp("start_time").toLocalDateTime(),
+          rs.getTimestamp("end_time").toLocalDateTime(),
+          toLocalDateTime(rs.getTimestamp("created_at")),
+          toLocalDateTime(rs.getTimestamp("updated_at")),
+          rs.getString("status"));
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public record AnalyticsRow(long id,
+                             long courtId,
+                             long clubId,
+                             LocalDateTime startTime,
+                             LocalDateTime endTime,
+                             LocalDateTime createdAt,
+                             LocalDateTime updatedAt,
+                             String status) {
+  }
+
+  public List<AnalyticsRow> findAfterId(long afterId, int limit) {
+    return jdbcTemplate.query(COLUMNS + "WHERE id > ? ORDER BY id LIMIT ?", ROW_MAPPER, afterId, limit);
+  }
+
+  public List<AnalyticsRow> findUpdatedAfter(LocalDateTime updatedAfter, long afterId, int limit) {
+    return jdbcTemplate.query(COLUMNS + "WHERE (updated_at, id) > (?, ?) ORDER BY updated_at, id LIMIT ?",
+            ROW_MAPPER, Timestamp.valueOf(updatedAfter), afterId, limit);
+  }
+
+  private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+    return timestamp != null ? timestamp.toLocalDateTime() : null;
+  }
+}
@@ -0,0 +1,145 @@
+package org.example.microservicereservation.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.microservicereservation.entity.Reservation;
+import org.example.microservicereservation.entity.ReservationPaymentStatus;
+import org.example.microservicereservation.service.dto.OccupancyInterval;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Operaciones masivas por JDBC: inserción por lotes (con IDENTITY Hibernate inserta de a una
+// fila) y actualizaciones en bloque. Participa de la transacción JPA en curso.
+@Repository
+@RequiredArgsConstructor
+public class ReservationBatchRepository {
+  private static final String INSERT_SQL =
+          "INSERT INTO reservations (user_id, court_id, user_email, club_id, start_time, end_time, " +
+          "status, payment_status, series_id, price_per_hour, total_amount, paid_amount, created_at, updated_at) " +
+          "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  // Reclama un lote de reservas impagas vencidas (SKIP LOCKED: cada réplica toma filas distintas)
+  // y las cancela en la misma sentencia
+  private static final String CANCEL_EXPIRED_PENDING_SQL =
+          "WITH expired AS (" +
+          "  SELECT id FROM reservations " +
+          "  WHERE status = 'PENDING' AND payment_status = 'PENDING' AND created_at < ? " +
+          "  AND COALESCE(paid_amount, 0) = 0 " +
+          "  ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+          "UPDATE reservations r SET status = 'CANCELLED', payment_status = 'CANCELLED', updated_at = ? " +
+          "FROM expired WHERE r.id = expired.id " +
+          "RETURNING r.id, r.court_id, r.club_id, r.start_time, r.end_time";
+
+  // Cancelación masiva de un rango (cancha o club entero) en una sola sentencia. Las reservas con
+  // algo pagado quedan REFUNDED: el reembolso se pide después a microservice-payment en bloque.
+  private static final String CANCEL_RANGE_SQL =
+          "UPDATE reservations SET status = 'CANCELLED', " +
+          "payment_status = CASE WHEN COALESCE(paid_amount, 0) > 0 THEN 'REFUNDED' ELSE 'CANCELLED' END, " +
+          "updated_at = ? " +
+          "WHERE club_id = ? %s AND status IN ('PENDING', 'CONFIRMED') " +
+          "AND start_time < ? AND start_time > ? AND end_time > ? " +
+          "RETURNING id, user_id, user_email, court_id, club_id, start_time, end_time, payment_status, " +
+          "COALESCE(paid_amount, 0) AS paid_amount";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  // Reserva cancelada por vencimiento y el tramo que ocupaba
+  public record CancelledReservation(Long id, OccupancyInterval interval) {
+  }
+
+  // Reserva cancelada en bloque, con lo necesario para reembolsar y avisar al usuario
+  public record RangeCancelledReservation(Long id,
+                                          Long userId,
+                                          String userEmail,
+                                          OccupancyInterval interval,
+                                          ReservationPaymentStatus paymentStatus,
+                                          BigDecimal paidAmount) {
+  }
+
+  // Inserta las reservas y les asigna el id generado
+  public void insertAll(List<Reservation> reservations) {
+    if (reservations.isEmpty()) {
+      return;
+    }
+
+    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+      try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+        for (Reservation reservation : reservations) {
+          reservation.touchForInsert();
+          statement.setLong(1, reservation.getUserId());
+          statement.setLong(2, reservation.getCourtId());
+          statement.setString(3, reservation.getUserEmail());
+          statement.setLong(4, reservation.getClubId());
+          statement.setTimestamp(5, Timestamp.valueOf(reservation.getStartTime()));
+          statement.setTimestamp(6, Timestamp.valueOf(reservation.getEndTime()));
+          statement.setString(7, reservation.getStatus().name());
+          statement.setString(8, reservation.getPaymentStatus().name());
+          statement.setString(9, reservation.getSeriesId());
+          statement.setBigDecimal(10, reservation.getPricePerHour());
+          statement.setBigDecimal(11, reservation.getTotalAmount());
+          statement.setBigDecimal(12, reservation.getPaidAmount());
+          statement.setTimestamp(13, Timestamp.valueOf(reservation.getCreatedAt()));
+          statement.setTimestamp(14, Timestamp.valueOf(reservation.getUpdatedAt()));
+          statement.addBatch();
+        }
+
+        statement.executeBatch();
+
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+          int i = 0;
+          while (keys.next() && i < reservations.size()) {
+            reservations.get(i++).setId(keys.getLong("id"));
+          }
+        }
+      }
+      return null;
+    });
+  }
+
+  public List<CancelledReservation> cancelExpiredPending(LocalDateTime createdBefore, int limit) {
+    return jdbcTemplate.query(CANCEL_EXPIRED_PENDING_SQL,
+            (rs, rowNum) -> new CancelledReservation(rs.getLong("id"), new OccupancyInterval(
+                    rs.getLong("court_id"),
+                    rs.getLong("club_id"),
+                    rs.getTimestamp("start_time").toLocalDateTime(),
+                    rs.getTimestamp("end_time").toLocalDateTime())),
+            Timestamp.valueOf(createdBefore), limit, Timestamp.valueOf(LocalDateTime.now()));
+  }
+
+  // courtId es opcional: sin cancha se cancela todo el club
+  public List<RangeCancelledReservation> cancelInRange(Long clubId, Long courtId, LocalDateTime from, LocalDateTime to) {
+    List<Object> args = new ArrayList<>(List.of(Timestamp.valueOf(LocalDateTime.now()), clubId));
+    String courtFilter = "";
+    if (courtId != null) {
+      courtFilter = "AND court_id = ?";
+      args.add(courtId);
+    }
+    args.add(Timestamp.valueOf(to));
+    // Piso de start_time para que solo se recorran las particiones del rango
+    args.add(Timestamp.valueOf(from.minus(ReservationRepository.MAX_RESERVATION_SPAN)));
+    args.add(Timestamp.valueOf(from));
+
+    return jdbcTemplate.query(String.format(CANCEL_RANGE_SQL, courtFilter),
+            (rs, rowNum) -> new RangeCancelledReservation(
+                    rs.getLong("id"),
+                    rs.getLong("user_id"),
+                    rs.getString("user_email"),
+                    new OccupancyInterval(
+                            rs.getLong("court_id"),
+                            rs.getLong("club_id"),
+                            rs.getTimestamp("start_time").toLocalDateTime(),
+                            rs.getTimestamp("end_time").toLocalDateTime()),
+                    ReservationPaymentStatus.valueOf(rs.getString("payment_status")),
+                    rs.getBigDecimal("paid_amount")),
+            args.toArray());
+  }
+}
@@ -0,0 +1,76 @@
+package org.example.microservicereservation.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.microservicereservation.service.dto.ReservationExportRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+// Lectura de reservas para exportar con un cursor de solo avance: las filas se entregan
+// de a una y nunca se arma la lista completa. PostgreSQL solo respeta el fetch size con
+// autocommit apagado, así que hay que llamarlo dentro de una transacción.
+@Repository
+@RequiredArgsConstructor
+public class ReservationExportRepository {
+  private static final String EXPORT_SQL =
+          "SELECT id, club_id, court_id, user_id, user_email, start_time, end_time, status, payment_status, " +
+          "price_per_hour, total_amount, paid_amount, created_at " +
+          "FROM reservations WHERE club_id = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Value("${reservation.export.fetch-size:500}")
+  private int fetchSize;
+
+  public void streamByClub(Long clubId, LocalDateTime from, LocalDateTime to, Consumer<ReservationExportRow> consumer) {
+    // Usa el índice (club_id, start_time)
+    String sql = EXPORT_SQL +
+            (from != null ? " AND start_time >= ?" : "") +
+            (to != null ? " AND start_time < ?" : "") +
+            " ORDER BY start_time, id";
+
+    jdbcTemplate.query(connection -> {
+      PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(fetchSize);
+
+      int index = 1;
+      statement.setLong(index++, clubId);
+      if (from != null) {
+        statement.setTimestamp(index++, Timestamp.valueOf(from));
+      }
+      if (to != null) {
+        statement.setTimestamp(index, Timestamp.valueOf(to));
+      }
+      return statement;
+    }, (RowCallbackHandler) rs -> consumer.accept(mapRow(rs)));
+  }
+
+  private ReservationExportRow mapRow(ResultSet rs) throws SQLException {
+    return new ReservationExportRow(
+            rs.getLong("id"),
+            rs.getLong("club_id"),
+            rs.getLong("court_id"),
+            rs.getLong("user_id"),
+            rs.getString("user_email"),
+            toLocalDateTime(rs.getTimestamp("start_time")),
+            toLocalDateTime(rs.getTimestamp("end_time")),
+            rs.getString("status"),
+            rs.getString("payment_status"),
+            rs.getBigDecimal("price_per_hour"),
+            rs.getBigDecimal("total_amount"),
+            rs.getBigDecimal("paid_amount"),
+            toLocalDateTime(rs.getTimestamp("created_at")));
+  }
+
+  private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+    return timestamp != null ? timestamp.toLocalDateTime() : null;
+  }
+}
@@ -1,28 +1,74 @@
 package org.example.microservicereservation.repository;
 
+import jakarta.persistence.LockModeType;
 import org.example.microservicereservation.entity.Reservation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+  // Ninguna reserva dura más que esto. Las consultas por solape reciben además un piso para
+  // start_time (inicio - este margen) y así Postgres descarta las particiones mensuales que no tocan.
+  Duration MAX_RESERVATION_SPAN = Duration.ofDays(1);
+
+  // Clase de los locks de cancha. Forma de dos claves (clase, cancha): no se cruza con el relay del
+  // outbox, el mantenimiento de particiones ni los acumulados de ocupación, que usan otras clases
+  int COURT_LOCK_CLASS = 0x434F5254;
+
+  // Lock de la cancha hasta el fin de la transacción (serializa escrituras sobre la misma cancha)
+  default void lockCourt(Long courtId) {
+    advisoryLock(COURT_LOCK_CLASS, Long.hashCode(courtId));
+  }
+
+  @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:lockClass, :key)", nativeQuery = true)
+  Integer advisoryLock(@Param("lockClass") int lockClass, @Param("key") int key);
+
+  // Fila bloqueada hasta el fin de la transacción: un pago no pisa la cancelación del barrido de
+  // vencidas (que saltea las filas bloqueadas) ni otro pago simultáneo
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT r FROM Reservation r WHERE r.id = :id")
+  Optional<Reservation> findByIdForUpdate(@Param("id") Long id);
+
   // Verificar si una cancha está disponible en un horario
+  default boolean isCourtAvailable(Long courtId, LocalDateTime startTime, LocalDateTime endTime) {
+    return isCourtAvailable(courtId, startTime, endTime, 0L);
+  }
+
+  // Sin contar la propia reserva al moverla (los ids son positivos: 0 no excluye nada)
+  default boolean isCourtAvailable(Long courtId, LocalDateTime startTime, LocalDateTime endTime, Long excludeId) {
+    return isCourtAvailable(courtId, startTime, endTime, excludeId, startTime.minus(MAX_RESERVATION_SPAN));
+  }
+
   @Query("SELECT COUNT(r) = 0 FROM Reservation r " +
           "WHERE r.courtId = :courtId " +
+          "AND r.id <> :excludeId " +
           "AND r.status NOT IN ('CANCELLED', 'REJECTED') " +
+          "AND r.startTime > :earliestStart " +
           "AND ((r.startTime < :endTime AND r.endTime > :startTime))")
   boolean isCourtAvailable(@Param("courtId") Long courtId,
                            @Param("startTime") LocalDateTime startTime,
-                           @Param("endTime") LocalDateTime endTime);
+                           @Param("endTime") LocalDateTime endTime,
+                           @Param("excludeId") Long excludeId,
+                           @Param("earliestStart") LocalDateTime earliestStart);
 
   @Query("SELECT r FROM Reservation r WHERE r.userEmail = :userEmail")
   List<Reservation> findByUserEmail(@Param("userEmail") String userEmail);
 
+  // Paginación keyset: las filas siguientes al último id devuelto
+  List<Reservation> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+  List<Reservation> findByUserEmailAndIdGreaterThanOrderByIdAsc(String userEmail, Long id, Pageable pageable);
+
   // Encontrar reservas por usuario
   List<Reservation> findByUserId(Long userId);
 
@@ -33,21 +79,95 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
   List<Reservation> findByStartTimeAfter(LocalDateTime dateTime);
 
   // Método para verificar conflictos de reserva
+  default boolean hasReservationConflict(Long courtId, LocalDateTime startTime, LocalDateTime endTime) {
+    return hasReservationConflict(courtId, startTime, endTime, startTime.minus(MAX_RESERVATION_SPAN));
+  }
+
   @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END " +
           "FROM Reservation r " +
           "WHERE r.courtId = :courtId " +
           "AND r.status IN ('CONFIRMED', 'PENDING') " +
+          "AND r.startTime > :earliestStart " +
           "AND ((:startTime < r.endTime AND :endTime > r.startTime))")
   boolean hasReservationConflict(@Param("courtId") Long courtId,
                                  @Param("startTime") LocalDateTime startTime,
-                                 @Param("endTime") LocalDateTime endTime);
+                                 @Param("endTime") LocalDateTime endTime,
+                                 @Param("earliestStart") LocalDateTime earliestStart);
+
+  default List<Reservation> findConflictingReservations(Long courtId, LocalDateTime startTime, LocalDateTime endTime) {
+    return findConflictingReservations(courtId, startTime, endTime, startTime.minus(MAX_RESERVATION_SPAN));
+  }
 
   @Query("SELECT r FROM Reservation r " +
           "WHERE r.courtId = :courtId " +
           "AND r.status IN ('CONFIRMED', 'PENDING') " +
+          "AND r.startTime > :earliestStart " +
           "AND ((:startTime < r.endTime AND :endTime > r.startTime)) " +
           "ORDER BY r.startTime ASC")
   List<Reservation> findConflictingReservations(@Param("courtId") Long courtId,
                                                 @Param("startTime") LocalDateTime startTime,
-                                                @Param("endTime") LocalDateTime endTime);
+                                                @Param("endTime") LocalDateTime endTime,
+                                                @Param("earliestStart") LocalDateTime earliestStart);
+
+  // Reservas activas de varias canchas que se solapan con un rango (ocupación por club)
+  default List<Reservation> findConflictingReservationsForCourts(List<Long> courtIds,
+                                                                 LocalDateTime startTime,
+                                                                 LocalDateTime endTime) {
+    return findConflictingReservationsForCourts(courtIds, startTime, endTime, startTime.minus(MAX_RESERVATION_SPAN));
+  }
+
+  @Query("SELECT r FROM Reservation r " +
+          "WHERE r.courtId IN :courtIds " +
+          "AND r.status IN ('CONFIRMED', 'PENDING') " +
+          "AND r.startTime > :earliestStart " +
+          "AND ((:startTime < r.endTime AND :endTime > r.startTime)) " +
+          "ORDER BY r.courtId ASC, r.startTime ASC")
+  List<Reservation> findConflictingReservationsForCourts(@Param("courtIds") List<Long> courtIds,
+                                                         @Param("startTime") LocalDateTime startTime,
+                                                         @Param("endTime") LocalDateTime endTime,
+                                                         @Param("earliestStart") LocalDateTime earliestStart);
+
+  // Reservas activas que terminan después de una fecha (carga del índice de disponibilidad y de los cupos)
+  default List<Reservation> findActiveEndingAfter(LocalDateTime from) {
+    return findActiveEndingAfter(from, from.minus(MAX_RESERVATION_SPAN));
+  }
+
+  @Query("SELECT r FROM Reservation r " +
+          "WHERE r.endTime > :from " +
+          "AND r.startTime > :earliestStart " +
+          "AND r.status IN ('CONFIRMED', 'PENDING')")
+  List<Reservation> findActiveEndingAfter(@Param("from") LocalDateTime from,
+                                          @Param("earliestStart") LocalDateTime earliestStart);
+
+  // Reservas modificadas desde una marca, por (updatedAt, id), sin importar estado ni fecha: al
+  // restaurar el índice desde su snapshot, las canceladas o movidas hay que sacarlas
+  @Query("SELECT r FROM Reservation r " +
+          "WHERE r.updatedAt > :since OR (r.updatedAt = :since AND r.id > :afterId) " +
+          "ORDER BY r.updatedAt, r.id")
+  List<Reservation> findUpdatedSince(@Param("since") LocalDateTime since,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
+
+  // De los ids dados, los que siguen existiendo (las bajas no dejan rastro en updatedAt)
+  @Query("SELECT r.id FROM Reservation r WHERE r.id IN :ids AND r.startTime > :earliestStart")
+  List<Long> findExistingIds(@Param("ids") Collection<Long> ids, @Param("earliestStart") LocalDateTime earliestStart);
+
+  // Reservas activas futuras de un usuario en un club (cupo, mientras se cargan los contadores)
+  default long countActiveByUserAndClubEndingAfter(Long userId, Long clubId, LocalDateTime now) {
+    return countActiveByUserAndClubEndingAfter(userId, clubId, now, now.minus(MAX_RESERVATION_SPAN));
+  }
+
+  @Query("SELECT COUNT(r) FROM Reservation r " +
+          "WHERE r.userId = :userId " +
+          "AND r.clubId = :clubId " +
+          "AND r.endTime > :now " +
+          "AND r.startTime > :earliestStart " +
+          "AND r.status IN ('CONFIRMED', 'PENDING')")
+  long countActiveByUserAndClubEndingAfter(@Param("userId") Long userId,
+                                           @Param("clubId") Long clubId,
+                                           @Param("now") LocalDateTime now,
+                                           @Param("earliestStart") LocalDateTime earliestStart);
+
+  // Reservas sin total guardado, por lotes ordenados por id (backfill de precios)
+  List<Reservation> findByTotalAmountIsNullAndIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
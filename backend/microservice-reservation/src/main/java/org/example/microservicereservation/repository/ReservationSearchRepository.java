@@ -0,0 +1,90 @@
+package org.example.microservicereservation.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.example.common.dto.PageCursor;
+import org.example.microservicereservation.entity.Reservation;
+import org.example.microservicereservation.service.dto.request.ReservationSearchCriteria;
+import org.example.microservicereservation.service.dto.response.ReservationResponseDTO;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Búsqueda con filtros dinámicos que proyecta directo al DTO (sin cargar entidades).
+// Filtrando por club o cancha + rango de fechas usa los índices (club_id, start_time)
+// y (court_id, start_time).
+@Repository
+@RequiredArgsConstructor
+public class ReservationSearchRepository {
+  private final EntityManager entityManager;
+
+  // `after` es la última fila de la página anterior (null en la primera)
+  public List<ReservationResponseDTO> search(ReservationSearchCriteria criteria, PageCursor after, int limit) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<ReservationResponseDTO> query = cb.createQuery(ReservationResponseDTO.class);
+    Root<Reservation> r = query.from(Reservation.class);
+
+    query.select(cb.construct(ReservationResponseDTO.class,
+            r.get("id"),
+            r.get("userId"),
+            r.get("courtId"),
+            r.get("clubId"),
+            r.get("userEmail"),
+            r.get("startTime"),
+            r.get("endTime"),
+            r.get("status"),
+            r.get("paymentStatus"),
+            r.get("createdAt"),
+            r.get("seriesId")));
+
+    List<Predicate> predicates = buildPredicates(cb, r, criteria);
+    if (after != null) {
+      // Keyset: (startTime, id) > (cursor.time, cursor.id)
+      predicates.add(cb.or(
+              cb.greaterThan(r.<LocalDateTime>get("startTime"), after.getTime()),
+              cb.and(cb.equal(r.get("startTime"), after.getTime()),
+                      cb.greaterThan(r.<Long>get("id"), after.getId()))));
+    }
+
+    query.where(predicates.toArray(Predicate[]::new));
+    query.orderBy(cb.asc(r.get("startTime")), cb.asc(r.get("id")));
+
+    return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList();
+  }
+
+  private List<Predicate> buildPredicates(CriteriaBuilder cb, Root<Reservation> r, ReservationSearchCriteria criteria) {
+    List<Predicate> predicates = new ArrayList<>();
+
+    if (criteria.getClubId() != null) {
+      predicates.add(cb.equal(r.get("clubId"), criteria.getClubId()));
+    }
+    if (criteria.getCourtId() != null) {
+      predicates.add(cb.equal(r.get("courtId"), criteria.getCourtId()));
+    }
+    if (criteria.getUserId() != null) {
+      predicates.add(cb.equal(r.get("userId"), criteria.getUserId()));
+    }
+    if (criteria.getFrom() != null) {
+      predicates.add(cb.greaterThanOrEqualTo(r.<LocalDateTime>get("startTime"), criteria.getFrom()));
+    }
+    if (criteria.getTo() != null) {
+      predicates.add(cb.lessThan(r.<LocalDateTime>get("startTime"), criteria.getTo()));
+    }
+    if (criteria.getStatus() != null) {
+      predicates.add(cb.equal(r.get("status"), criteria.getStatus()));
+    }
+    if (criteria.getPaymentStatus() != null) {
+      predicates.add(cb.equal(r.get("paymentStatus"), criteria.getPaymentStatus()));
+    }
+
+    return predicates;
+  }
+}
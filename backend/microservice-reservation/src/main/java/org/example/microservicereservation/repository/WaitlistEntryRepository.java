@@ -0,0 +1,45 @@
+package org.example.microservicereservation.repository;
+
+import org.example.microservicereservation.entity.WaitlistEntry;
+import org.example.microservicereservation.entity.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+  List<WaitlistEntry> findByStatusAndEndTimeAfterOrderByIdAsc(WaitlistStatus status, LocalDateTime now);
+
+  List<WaitlistEntry> findByUserEmailOrderByIdDesc(String userEmail);
+
+  long countByUserEmailAndStatusIn(String userEmail, List<WaitlistStatus> statuses);
+
+  Optional<WaitlistEntry> findByHoldId(String holdId);
+
+  List<WaitlistEntry> findByStatusAndOfferExpiresAtBefore(WaitlistStatus status, LocalDateTime now);
+
+  // Solo una réplica gana la oferta: el cambio de estado es condicional
+  @Modifying
+  @Query("UPDATE WaitlistEntry w SET w.status = 'OFFERED', w.holdId = :holdId, " +
+          "w.offeredCourtId = :courtId, w.offerExpiresAt = :expiresAt " +
+          "WHERE w.id = :id AND w.status = 'WAITING'")
+  int claimOffer(@Param("id") Long id,
+                 @Param("holdId") String holdId,
+                 @Param("courtId") Long courtId,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+  @Modifying
+  @Query("UPDATE WaitlistEntry w SET w.status = 'EXPIRED' " +
+          "WHERE w.status = 'WAITING' AND w.endTime <= :now")
+  int expireWaitingBefore(@Param("now") LocalDateTime now);
+
+  @Modifying
+  @Query("UPDATE WaitlistEntry w SET w.status = 'EXPIRED' WHERE w.id = :id AND w.status = 'OFFERED'")
+  int expireOffer(@Param("id") Long id);
+}
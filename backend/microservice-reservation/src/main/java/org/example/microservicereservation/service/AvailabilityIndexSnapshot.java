@@ -0,0 +1,132 @@
+package org.example.microservicereservation.service;
+
+import org.example.microservicereservation.entity.ReservationStatus;
+import org.example.microservicereservation.service.ReservationAvailabilityIndex.IndexedReservation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+// Archivo binario con las reservas del índice de disponibilidad, para arrancar sin recorrer la tabla.
+// Cabecera fija y luego un registro de ancho fijo por reserva; los tiempos van en minutos desde epoch
+// (UTC, como el resto de las fechas del servicio). Se escribe en un temporal mapeado en memoria y se
+// renombra, así nunca queda un archivo a medio escribir.
+final class AvailabilityIndexSnapshot {
+  private static final int MAGIC = 0x52534958; // "RSIX"
+  private static final int VERSION = 1;
+  // magic, versión, sincronizado (s), cubierto desde (min), cantidad, crc
+  private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 8;
+  // id, cancha, usuario, inicio (min), fin (min), estado
+  private static final int RECORD_BYTES = 8 + 8 + 8 + 4 + 4 + 1;
+  private static final ReservationStatus[] STATUSES = ReservationStatus.values();
+
+  // syncedAt: hasta dónde el contenido refleja la BD; lo posterior se vuelve a leer al restaurar
+  record Snapshot(LocalDateTime syncedAt, LocalDateTime coveredFrom, List<IndexedReservation> reservations) {
+  }
+
+  private AvailabilityIndexSnapshot() {
+  }
+
+  static void write(Path path, Snapshot snapshot) throws IOException {
+    Path parent = path.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+
+    try {
+      long size = HEADER_BYTES + (long) RECORD_BYTES * snapshot.reservations().size();
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING)) {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.position(HEADER_BYTES);
+        for (IndexedReservation reservation : snapshot.reservations()) {
+          buffer.putLong(reservation.id());
+          buffer.putLong(reservation.courtId());
+          buffer.putLong(reservation.userId() != null ? reservation.userId() : 0L);
+          // Inicio hacia abajo y fin hacia arriba: con segundos sueltos el intervalo solo puede crecer
+          buffer.putInt(epochMinute(reservation.startTime(), false));
+          buffer.putInt(epochMinute(reservation.endTime(), true));
+          buffer.put((byte) reservation.status().ordinal());
+        }
+
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, snapshot.syncedAt().toEpochSecond(ZoneOffset.UTC));
+        buffer.putLong(16, epochMinute(snapshot.coveredFrom(), false));
+        buffer.putInt(24, snapshot.reservations().size());
+        buffer.putLong(28, checksum(buffer, size));
+        buffer.force();
+      }
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  // Vacío si no hay archivo o no es válido (otra versión, truncado, checksum distinto)
+  static Optional<Snapshot> read(Path path) throws IOException {
+    if (!Files.isRegularFile(path)) {
+      return Optional.empty();
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_BYTES) {
+        return Optional.empty();
+      }
+
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      int count = buffer.getInt(24);
+      if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || count < 0
+              || size != HEADER_BYTES + (long) RECORD_BYTES * count
+              || buffer.getLong(28) != checksum(buffer, size)) {
+        return Optional.empty();
+      }
+
+      LocalDateTime syncedAt = LocalDateTime.ofEpochSecond(buffer.getLong(8), 0, ZoneOffset.UTC);
+      LocalDateTime coveredFrom = fromEpochMinute(buffer.getLong(16));
+
+      List<IndexedReservation> reservations = new ArrayList<>(count);
+      buffer.position(HEADER_BYTES);
+      for (int i = 0; i < count; i++) {
+        long id = buffer.getLong();
+        long courtId = buffer.getLong();
+        long userId = buffer.getLong();
+        LocalDateTime start = fromEpochMinute(buffer.getInt());
+        LocalDateTime end = fromEpochMinute(buffer.getInt());
+        int status = buffer.get();
+        if (status < 0 || status >= STATUSES.length) {
+          return Optional.empty();
+        }
+        reservations.add(new IndexedReservation(id, courtId, userId != 0L ? userId : null, start, end,
+                STATUSES[status]));
+      }
+      return Optional.of(new Snapshot(syncedAt, coveredFrom, reservations));
+    }
+  }
+
+  private static long checksum(ByteBuffer buffer, long size) {
+    CRC32 crc = new CRC32();
+    crc.update(buffer.slice(HEADER_BYTES, (int) (size - HEADER_BYTES)));
+    return crc.getValue();
+  }
+
+  private static int epochMinute(LocalDateTime time, boolean roundUp) {
+    long seconds = time.toEpochSecond(ZoneOffset.UTC);
+    return Math.toIntExact(roundUp ? Math.ceilDiv(seconds, 60) : Math.floorDiv(seconds, 60));
+  }
+
+  private static LocalDateTime fromEpochMinute(long minutes) {
+    return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+  }
+}
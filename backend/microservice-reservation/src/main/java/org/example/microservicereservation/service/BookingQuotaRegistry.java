@@ -0,0 +1,268 @@
+package org.example.microservicereservation.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservicereservation.entity.Reservation;
+import org.example.microservicereservation.entity.ReservationStatus;
+import org.example.microservicereservation.exception.BookingQuotaExceededException;
+import org.example.microservicereservation.repository.ReservationRepository;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Cupo de reservas activas futuras por (usuario, club) con contadores en memoria: la admisión no
+// consulta la BD. Los contadores siguen las mismas altas y bajas que el índice de disponibilidad,
+// se cargan al arrancar y se reconcilian con la BD periódicamente (cambios de otras réplicas).
+// Una reserva que ya terminó se descarta recién cuando el usuario parece estar en el límite.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingQuotaRegistry {
+  private final ReservationRepository reservationRepository;
+  private final ShardRouter shardRouter;
+
+  @Value("${reservation.quota.enabled:true}")
+  private boolean enabled;
+
+  // 0 = sin límite
+  @Value("${reservation.quota.max-active-per-club:3}")
+  private int maxActivePerClub;
+
+  private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+  // Admisiones de transacciones todavía abiertas; no se reemplaza al recargar
+  private final Map<QuotaKey, LongAdder> inFlight = new ConcurrentHashMap<>();
+  private volatile QuotaState state = new QuotaState();
+  private volatile Set<Long> touchedWhileRebuilding;
+  private volatile boolean ready = false;
+
+  private record QuotaKey(Long userId, Long clubId) {
+  }
+
+  private record Tracked(QuotaKey key, LocalDateTime endTime) {
+    static Tracked of(Reservation reservation) {
+      return new Tracked(new QuotaKey(reservation.getUserId(), reservation.getClubId()), reservation.getEndTime());
+    }
+  }
+
+  // Verifica el cupo y lo retiene hasta que termine la transacción, así dos pedidos simultáneos del
+  // mismo usuario no entran los dos. Se llama dentro de la transacción que crea las reservas.
+  public void admit(Long userId, Long clubId, int count) {
+    if (!isLimited(userId, clubId) || count <= 0) {
+      return;
+    }
+
+    QuotaKey key = new QuotaKey(userId, clubId);
+    LongAdder pending = inFlight.computeIfAbsent(key, k -> new LongAdder());
+    pending.add(count);
+    try {
+      check(key, pending.sum());
+    } catch (RuntimeException e) {
+      pending.add(-count);
+      throw e;
+    }
+    // Después de los afterCommit: la reserva ya cuenta como activa cuando se suelta la admisión
+    TransactionCallbacks.afterCompletion(() -> pending.add(-count));
+  }
+
+  // Solo verifica (por ejemplo antes de retener un horario que después habrá que confirmar)
+  public void check(Long userId, Long clubId) {
+    if (!isLimited(userId, clubId)) {
+      return;
+    }
+
+    QuotaKey key = new QuotaKey(userId, clubId);
+    LongAdder pending = inFlight.get(key);
+    check(key, 1 + (pending != null ? pending.sum() : 0));
+  }
+
+  // Registrar el estado de una reserva; se aplica cuando la transacción confirma
+  public void track(Reservation reservation) {
+    if (!enabled || reservation.getId() == null) {
+      return;
+    }
+
+    Long id = reservation.getId();
+    Tracked tracked = counts(reservation) ? Tracked.of(reservation) : null;
+    TransactionCallbacks.afterCommit(() -> apply(id, tracked));
+  }
+
+  public void forget(Long reservationId) {
+    if (!enabled || reservationId == null) {
+      return;
+    }
+
+    TransactionCallbacks.afterCommit(() -> apply(reservationId, null));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    rebuild();
+  }
+
+  @Scheduled(initialDelayString = "${reservation.quota.refresh-interval-ms:300000}",
+          fixedDelayString = "${reservation.quota.refresh-interval-ms:300000}")
+  public void refresh() {
+    rebuild();
+  }
+
+  public synchronized void rebuild() {
+    if (!enabled) {
+      return;
+    }
+
+    long started = System.nanoTime();
+    touchedWhileRebuilding = ConcurrentHashMap.newKeySet();
+
+    try {
+      QuotaState fresh = new QuotaState();
+      LocalDateTime now = LocalDateTime.now();
+      shardRouter.gather(() -> reservationRepository.findActiveEndingAfter(now))
+              .forEach(reservation -> fresh.upsert(reservation.getId(), Tracked.of(reservation)));
+
+      swapLock.writeLock().lock();
+      try {
+        // Las reservas modificadas durante la carga conservan el estado vivo
+        for (Long id : touchedWhileRebuilding) {
+          fresh.remove(id);
+          state.find(id).ifPresent(tracked -> fresh.upsert(id, tracked));
+        }
+
+        state = fresh;
+        ready = true;
+      } finally {
+        touchedWhileRebuilding = null;
+        swapLock.writeLock().unlock();
+      }
+      inFlight.values().removeIf(pending -> pending.sum() == 0);
+
+      log.info("Cupos de reservas cargados: {} reservas activas de {} usuarios por club ({} ms)",
+              fresh.byId.size(), fresh.quotas.size(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+    } catch (Exception e) {
+      touchedWhileRebuilding = null;
+      log.error("Error al cargar los cupos de reservas: {}", e.getMessage(), e);
+    }
+  }
+
+  private boolean isLimited(Long userId, Long clubId) {
+    return enabled && maxActivePerClub > 0 && userId != null && clubId != null;
+  }
+
+  // requested incluye lo que se está admitiendo y lo que otras transacciones abiertas ya admitieron
+  private void check(QuotaKey key, long requested) {
+    LocalDateTime now = LocalDateTime.now();
+    long active;
+    if (ready) {
+      QuotaState current = state;
+      active = current.active(key);
+      if (active + requested > maxActivePerClub) {
+        active = current.pruneEnded(key, now);
+      }
+    } else {
+      // Todavía cargando: se cuenta en la BD (el llamador ya está en el shard del club)
+      active = reservationRepository.countActiveByUserAndClubEndingAfter(key.userId(), key.clubId(), now);
+    }
+
+    if (active + requested > maxActivePerClub) {
+      throw new BookingQuotaExceededException("Alcanzaste el máximo de " + maxActivePerClub
+              + " reservas activas en este club");
+    }
+  }
+
+  // Ocupa cupo: activa y sin terminar
+  static boolean counts(Reservation reservation) {
+    return (reservation.getStatus() == ReservationStatus.PENDING || reservation.getStatus() == ReservationStatus.CONFIRMED)
+            && reservation.getUserId() != null && reservation.getClubId() != null
+            && reservation.getEndTime() != null && reservation.getEndTime().isAfter(LocalDateTime.now());
+  }
+
+  private void apply(Long reservationId, Tracked tracked) {
+    swapLock.readLock().lock();
+    try {
+      Set<Long> touched = touchedWhileRebuilding;
+      if (touched != null) {
+        touched.add(reservationId);
+      }
+
+      if (tracked != null) {
+        state.upsert(reservationId, tracked);
+      } else {
+        state.remove(reservationId);
+      }
+    } finally {
+      swapLock.readLock().unlock();
+    }
+  }
+
+  private static final class UserQuota {
+    private final LongAdder active = new LongAdder();
+    private final Map<Long, LocalDateTime> endById = new ConcurrentHashMap<>();
+  }
+
+  private static final class QuotaState {
+    private final Map<QuotaKey, UserQuota> quotas = new ConcurrentHashMap<>();
+    private final Map<Long, Tracked> byId = new ConcurrentHashMap<>();
+
+    void upsert(Long reservationId, Tracked tracked) {
+      Tracked previous = byId.put(reservationId, tracked);
+      if (previous != null && !previous.key().equals(tracked.key())) {
+        release(previous.key(), reservationId);
+      }
+
+      UserQuota quota = quotas.computeIfAbsent(tracked.key(), key -> new UserQuota());
+      if (quota.endById.put(reservationId, tracked.endTime()) == null) {
+        quota.active.increment();
+      }
+    }
+
+    void remove(Long reservationId) {
+      Tracked tracked = byId.remove(reservationId);
+      if (tracked != null) {
+        release(tracked.key(), reservationId);
+      }
+    }
+
+    Optional<Tracked> find(Long reservationId) {
+      return Optional.ofNullable(byId.get(reservationId));
+    }
+
+    long active(QuotaKey key) {
+      UserQuota quota = quotas.get(key);
+      return quota != null ? quota.active.sum() : 0;
+    }
+
+    // Descarta las reservas del usuario que ya terminaron y devuelve las que siguen activas
+    long pruneEnded(QuotaKey key, LocalDateTime now) {
+      UserQuota quota = quotas.get(key);
+      if (quota == null) {
+        return 0;
+      }
+
+      quota.endById.forEach((reservationId, endTime) -> {
+        if (!endTime.isAfter(now)) {
+          remove(reservationId);
+        }
+      });
+      return quota.active.sum();
+    }
+
+    private void release(QuotaKey key, Long reservationId) {
+      UserQuota quota = quotas.get(key);
+      if (quota != null && quota.endById.remove(reservationId) != null) {
+        quota.active.decrement();
+      }
+    }
+  }
+}
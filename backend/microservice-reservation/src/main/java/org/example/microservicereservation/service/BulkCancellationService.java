@@ -0,0 +1,146 @@
+package org.example.microservicereservation.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.common.dto.BulkRefundRequestDTO;
+import org.example.microservicereservation.entity.ReservationEventType;
+import org.example.microservicereservation.entity.ReservationPaymentStatus;
+import org.example.microservicereservation.repository.ReservationBatchRepository;
+import org.example.microservicereservation.repository.ReservationRepository;
+import org.example.microservicereservation.service.dto.BulkNotificationDTO;
+import org.example.microservicereservation.service.dto.request.BulkCancelRequestDTO;
+import org.example.microservicereservation.service.dto.response.BulkCancelResultDTO;
+import org.example.microservicereservation.service.outbox.ReservationEventPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Cancela todo lo reservado en una cancha (o en el club entero) dentro de un rango, por ejemplo
+// por lluvia o mantenimiento. La cancelación es un único UPDATE ... RETURNING; los reembolsos y
+// los avisos van al outbox en la misma transacción como un pedido en bloque a cada servicio (no uno
+// por reserva), así se reintentan si pagos o notificaciones no responden.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkCancellationService {
+  private static final String NOTIFICATION_TYPE = "RESERVATION_CANCELLED";
+  private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+  private final ReservationRepository reservationRepository;
+  private final ReservationBatchRepository reservationBatchRepository;
+  private final ReservationAvailabilityIndex availabilityIndex;
+  private final BookingQuotaRegistry bookingQuotaRegistry;
+  private final OccupancyRollupService occupancyRollupService;
+  private final ReservationEventPublisher reservationEventPublisher;
+  private final SlotHoldRegistry slotHoldRegistry;
+  private final RemoteLookupCache remoteLookupCache;
+
+  @Value("${reservation.bulk-cancel.max-days:31}")
+  private int maxDays;
+
+  @Transactional
+  public BulkCancelResultDTO cancel(BulkCancelRequestDTO request) {
+    validate(request);
+    // Sin bloqueo de cancha una reserva nueva podría entrar en el rango mientras se cancela. Para el
+    // club entero se bloquean todas sus canchas en orden de id, como al programar un torneo.
+    if (request.getCourtId() != null) {
+      reservationRepository.lockCourt(request.getCourtId());
+    } else {
+      remoteLookupCache.findActiveCourtIds(request.getClubId()).forEach(reservationRepository::lockCourt);
+    }
+
+    List<ReservationBatchRepository.RangeCancelledReservation> cancelled = reservationBatchRepository.cancelInRange(
+            request.getClubId(), request.getCourtId(), request.getFrom(), request.getTo());
+
+    Map<Long, ReservationPaymentStatus> paymentStatusById = new LinkedHashMap<>();
+    cancelled.forEach(reservation -> {
+      paymentStatusById.put(reservation.id(), reservation.paymentStatus());
+      availabilityIndex.forget(reservation.id());
+      bookingQuotaRegistry.forget(reservation.id());
+    });
+    List<Long> reservationIds = List.copyOf(paymentStatusById.keySet());
+    List<Long> refundIds = cancelled.stream()
+            .filter(reservation -> reservation.paidAmount().compareTo(BigDecimal.ZERO) > 0)
+            .map(ReservationBatchRepository.RangeCancelledReservation::id)
+            .toList();
+    List<Long> userIds = cancelled.stream()
+            .map(ReservationBatchRepository.RangeCancelledReservation::userId)
+            .distinct()
+            .toList();
+
+    if (!cancelled.isEmpty()) {
+      occupancyRollupService.remove(cancelled.stream()
+              .map(ReservationBatchRepository.RangeCancelledReservation::interval)
+              .toList());
+      reservationEventPublisher.publishCancelled(paymentStatusById);
+      requestRefunds(refundIds, request.getReason());
+      notifyUsers(userIds, request);
+    }
+    // La lista de espera no se avisa: el rango se cierra, no queda libre
+
+    BulkCancelResultDTO result = BulkCancelResultDTO.builder()
+            .cancelled(cancelled.size())
+            .reservationIds(reservationIds)
+            .refundsRequested(refundIds.size())
+            .usersToNotify(userIds.size())
+            .build();
+
+    TransactionCallbacks.afterCommit(() -> result.setHoldsReleased(slotHoldRegistry.releaseOverlapping(
+            request.getClubId(), request.getCourtId(), request.getFrom(), request.getTo())));
+
+    log.info("Cancelación masiva en el club {} (cancha {}), {} - {}: {} reservas, {} a reembolsar",
+            request.getClubId(), request.getCourtId(), request.getFrom(), request.getTo(),
+            cancelled.size(), refundIds.size());
+    return result;
+  }
+
+  private void requestRefunds(List<Long> reservationIds, String reason) {
+    if (reservationIds.isEmpty()) {
+      return;
+    }
+
+    reservationEventPublisher.publishCommand(ReservationEventType.REFUND_REQUESTED, BulkRefundRequestDTO.builder()
+            .reservationIds(reservationIds)
+            .reason(reason)
+            .build());
+  }
+
+  private void notifyUsers(List<Long> userIds, BulkCancelRequestDTO request) {
+    if (userIds.isEmpty()) {
+      return;
+    }
+
+    String message = "Tu reserva entre el " + request.getFrom().format(DATE_TIME_FORMAT) + " y el "
+            + request.getTo().format(DATE_TIME_FORMAT) + " fue cancelada por el club";
+    if (request.getReason() != null && !request.getReason().isBlank()) {
+      message += ": " + request.getReason().trim();
+    }
+
+    reservationEventPublisher.publishCommand(ReservationEventType.NOTIFICATION_REQUESTED, BulkNotificationDTO.builder()
+            .userIds(userIds)
+            .type(NOTIFICATION_TYPE)
+            .title("Reserva cancelada")
+            .message(message)
+            .build());
+  }
+
+  private void validate(BulkCancelRequestDTO request) {
+    if (request.getClubId() == null) {
+      throw new IllegalArgumentException("La cancelación masiva requiere clubId");
+    }
+    if (request.getFrom() == null || request.getTo() == null || !request.getTo().isAfter(request.getFrom())) {
+      throw new IllegalArgumentException("La fecha 'to' debe ser posterior a 'from'");
+    }
+    if (Duration.between(request.getFrom(), request.getTo()).toDays() >= maxDays) {
+      throw new IllegalArgumentException("El rango a cancelar no puede superar los " + maxDays + " días");
+    }
+  }
+
+}
@@ -0,0 +1,244 @@
+package org.example.microservicereservation.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservicereservation.entity.Reservation;
+import org.example.microservicereservation.repository.OccupancyRollupRepository;
+import org.example.microservicereservation.service.dto.OccupancyInterval;
+import org.example.microservicereservation.service.dto.response.OccupancyCellDTO;
+import org.example.microservicereservation.service.dto.response.OccupancyStatsDTO;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+
+// Ocupación por cancha, día y hora mantenida en cada escritura de reservas: cada cambio suma
+// o resta los minutos del tramo afectado en la misma transacción. Un job la recalcula club por
+// club y mes por mes por si algo quedó desfasado.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OccupancyRollupService {
+  private static final int MAX_RANGE_DAYS = 366;
+  private static final int DEFAULT_RANGE_DAYS = 28;
+
+  private final OccupancyRollupRepository occupancyRollupRepository;
+  private final RemoteLookupCache remoteLookupCache;
+  private final TransactionTemplate transactionTemplate;
+  private final ShardRouter shardRouter;
+
+  @Value("${reservation.occupancy.enabled:true}")
+  private boolean enabled;
+
+  private record CellKey(Long courtId, LocalDate day, int hour) implements Comparable<CellKey> {
+    @Override
+    public int compareTo(CellKey other) {
+      int byCourt = courtId.compareTo(other.courtId);
+      if (byCourt != 0) {
+        return byCourt;
+      }
+      int byDay = day.compareTo(other.day);
+      return byDay != 0 ? byDay : Integer.compare(hour, other.hour);
+    }
+  }
+
+  // Estado de la reserva antes de modificarla (null si no ocupa la cancha)
+  public OccupancyInterval snapshot(Reservation reservation) {
+    return OccupancyInterval.of(reservation);
+  }
+
+  // Aplica la diferencia entre el estado anterior y el actual de una reserva
+  public void replace(OccupancyInterval before, Reservation after) {
+    OccupancyInterval current = OccupancyInterval.of(after);
+    if (Objects.equals(before, current)) {
+      return;
+    }
+    apply(before != null ? List.of(before) : List.of(), current != null ? List.of(current) : List.of());
+  }
+
+  public void add(Collection<Reservation> reservations) {
+    apply(List.of(), reservations.stream().map(OccupancyInterval::of).filter(Objects::nonNull).toList());
+  }
+
+  public void remove(Collection<OccupancyInterval> intervals) {
+    apply(intervals, List.of());
+  }
+
+  private void apply(Collection<OccupancyInterval> removed, Collection<OccupancyInterval> added) {
+    if (!enabled || (removed.isEmpty() && added.isEmpty())) {
+      return;
+    }
+
+    // Ordenado por clave: todas las transacciones bloquean las filas en el mismo orden
+    Map<CellKey, int[]> deltas = new TreeMap<>();
+    Map<Long, Long> clubByCourt = new HashMap<>();
+    removed.forEach(interval -> split(interval, -1, deltas, clubByCourt));
+    added.forEach(interval -> split(interval, 1, deltas, clubByCourt));
+
+    List<OccupancyRollupRepository.CellDelta> changes = new ArrayList<>(deltas.size());
+    deltas.forEach((key, delta) -> {
+      if (delta[0] != 0 || delta[1] != 0) {
+        changes.add(new OccupancyRollupRepository.CellDelta(key.courtId(), clubByCourt.get(key.courtId()),
+                key.day(), key.hour(), delta[0], delta[1]));
+      }
+    });
+    if (changes.isEmpty()) {
+      return;
+    }
+
+    occupancyRollupRepository.lockShared(clubByCourt.values());
+    occupancyRollupRepository.applyDeltas(changes);
+  }
+
+  // Reparte el tramo en celdas de una hora (minutos truncados, igual que la reconstrucción en SQL)
+  private void split(OccupancyInterval interval, int sign, Map<CellKey, int[]> deltas, Map<Long, Long> clubByCourt) {
+    clubByCourt.putIfAbsent(interval.courtId(), interval.clubId());
+
+    LocalDateTime cell = interval.startTime().truncatedTo(ChronoUnit.HOURS);
+    while (cell.isBefore(interval.endTime())) {
+      LocalDateTime next = cell.plusHours(1);
+      LocalDateTime from = interval.startTime().isAfter(cell) ? interval.startTime() : cell;
+      LocalDateTime to = interval.endTime().isBefore(next) ? interval.endTime() : next;
+
+      int[] delta = deltas.computeIfAbsent(new CellKey(interval.courtId(), cell.toLocalDate(), cell.getHour()),
+              key -> new int[2]);
+      delta[0] += sign * (int) Duration.between(from, to).toMinutes();
+      delta[1] += sign;
+      cell = next;
+    }
+  }
+
+  @Transactional(readOnly = true)
+  public OccupancyStatsDTO getOccupancy(Long clubId, Long courtId, LocalDate from, LocalDate to) {
+    if (clubId == null) {
+      throw new IllegalArgumentException("El club es obligatorio");
+    }
+    LocalDate end = to != null ? to : LocalDate.now();
+    LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+    if (end.isBefore(start)) {
+      throw new IllegalArgumentException("La fecha 'to' no puede ser anterior a 'from'");
+    }
+    if (ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+      throw new IllegalArgumentException("El rango no puede superar los " + MAX_RANGE_DAYS + " días");
+    }
+
+    Map<Integer, OccupancyRollupRepository.HeatmapRow> rows = new HashMap<>();
+    for (OccupancyRollupRepository.HeatmapRow row : occupancyRollupRepository.findHeatmap(clubId, courtId, start, end)) {
+      rows.put(row.dayOfWeek() * 24 + row.hour(), row);
+    }
+    // Capacidad: canchas activas del club hoy, tengan o no reservas en el rango
+    long courts = courtId != null ? 1 : remoteLookupCache.countActiveCourts(clubId);
+
+    // Cuántas veces aparece cada día de la semana en el rango
+    int[] weekdayCount = new int[8];
+    for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+      weekdayCount[day.getDayOfWeek().getValue()]++;
+    }
+
+    List<OccupancyCellDTO> cells = new ArrayList<>(7 * 24);
+    for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+      for (int hour = 0; hour < 24; hour++) {
+        OccupancyRollupRepository.HeatmapRow row = rows.get(dayOfWeek.getValue() * 24 + hour);
+        long minutes = row != null ? row.bookedMinutes() : 0L;
+        long capacity = 60L * weekdayCount[dayOfWeek.getValue()] * courts;
+
+        cells.add(OccupancyCellDTO.builder()
+                .dayOfWeek(dayOfWeek.getValue())
+                .hour(hour)
+                .bookedMinutes(minutes)
+                .bookingCount(row != null ? row.bookingCount() : 0L)
+                .utilization(capacity > 0
+                        ? BigDecimal.valueOf(minutes).divide(BigDecimal.valueOf(capacity), 4, RoundingMode.HALF_UP)
+                        : BigDecimal.ZERO)
+                .build());
+      }
+    }
+
+    return OccupancyStatsDTO.builder()
+            .clubId(clubId)
+            .courtId(courtId)
+            .from(start)
+            .to(end)
+            .courts(courts)
+            .cells(cells)
+            .build();
+  }
+
+  // Primer arranque: la tabla se crea vacía y se llena desde las reservas existentes
+  @EventListener(ApplicationReadyEvent.class)
+  public void onStartup() {
+    if (!enabled) {
+      return;
+    }
+    shardRouter.forEachShard(shard -> {
+      try {
+        if (occupancyRollupRepository.isEmpty()) {
+          rebuild(shard);
+        }
+      } catch (Exception e) {
+        log.error("No se pudo verificar la tabla de ocupación (shard {}): {}", shard, e.getMessage());
+      }
+    });
+  }
+
+  @Scheduled(cron = "${reservation.occupancy.rebuild-cron:0 30 4 * * *}")
+  public void scheduledRebuild() {
+    if (enabled) {
+      rebuild();
+    }
+  }
+
+  // Recalcula desde las reservas activas de la tabla viva, un club y un mes por transacción: cada
+  // paso frena solo las escrituras de ese club y por poco tiempo
+  public synchronized void rebuild() {
+    shardRouter.forEachShard(this::rebuild);
+  }
+
+  private synchronized void rebuild(String shard) {
+    try {
+      long start = System.currentTimeMillis();
+      Optional<OccupancyRollupRepository.DayRange> range = occupancyRollupRepository.findLiveRange();
+      if (range.isEmpty()) {
+        log.info("Ocupación sin reservas para recalcular (shard {})", shard);
+        return;
+      }
+
+      int cells = 0;
+      List<Long> clubIds = occupancyRollupRepository.findClubs(range.get().from());
+      for (Long clubId : clubIds) {
+        for (LocalDate month = range.get().from(); month.isBefore(range.get().to()); month = month.plusMonths(1)) {
+          LocalDate from = month;
+          Integer rebuilt = transactionTemplate.execute(status -> {
+            occupancyRollupRepository.lockExclusive(clubId);
+            return occupancyRollupRepository.rebuild(clubId, from, from.plusMonths(1));
+          });
+          cells += rebuilt != null ? rebuilt : 0;
+        }
+      }
+      log.info("Ocupación reconstruida (shard {}): {} celdas de {} clubes desde {} en {} ms", shard, cells,
+              clubIds.size(), range.get().from(), System.currentTimeMillis() - start);
+    } catch (Exception e) {
+      log.error("Error al reconstruir la ocupación (shard {}): {}", shard, e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package org.example.microservicereservation.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservicereservation.repository.ReservationBatchRepository;
+import org.example.microservicereservation.service.dto.OccupancyInterval;
+import org.example.microservicereservation.service.outbox.ReservationEventPublisher;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Cancela las reservas que siguen impagas pasado el plazo de pago desde su creación.
+// Cada lote se reclama con FOR UPDATE SKIP LOCKED en su propia transacción, así varias
+// réplicas pueden barrer a la vez sin pisarse.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PendingReservationSweeper {
+  private final ReservationBatchRepository reservationBatchRepository;
+  private final ReservationAvailabilityIndex availabilityIndex;
+  private final BookingQuotaRegistry bookingQuotaRegistry;
+  private final ReservationEventPublisher reservationEventPublisher;
+  private final OccupancyRollupService occupancyRollupService;
+  private final WaitlistService waitlistService;
+  private final TransactionTemplate transactionTemplate;
+  private final MeterRegistry meterRegistry;
+  private final ShardRouter shardRouter;
+
+  @Value("${reservation.payment-deadline.enabled:true}")
+  private boolean enabled;
+
+  @Value("${reservation.payment-deadline.minutes:30}")
+  private long deadlineMinutes;
+
+  @Value("${reservation.payment-deadline.batch-size:500}")
+  private int batchSize;
+
+  private Counter expiredCounter;
+  private Timer sweepTimer;
+
+  @PostConstruct
+  void init() {
+    expiredCounter = Counter.builder("reservation.pending.expired")
+            .description("Reservas impagas canceladas por vencimiento (horarios liberados)")
+            .register(meterRegistry);
+    sweepTimer = Timer.builder("reservation.pending.sweep")
+            .register(meterRegistry);
+  }
+
+  @Scheduled(initialDelayString = "${reservation.payment-deadline.sweep-interval-ms:60000}",
+          fixedDelayString = "${reservation.payment-deadline.sweep-interval-ms:60000}")
+  public void sweep() {
+    if (!enabled) {
+      return;
+    }
+
+    sweepTimer.record(() -> {
+      LocalDateTime cutoff = LocalDateTime.now().minusMinutes(deadlineMinutes);
+      AtomicInteger total = new AtomicInteger();
+
+      shardRouter.forEachShard(shard -> {
+        try {
+          List<Long> cancelled;
+          do {
+            cancelled = transactionTemplate.execute(status -> {
+              List<ReservationBatchRepository.CancelledReservation> expired =
+                      reservationBatchRepository.cancelExpiredPending(cutoff, batchSize);
+              List<Long> ids = expired.stream().map(ReservationBatchRepository.CancelledReservation::id).toList();
+              ids.forEach(availabilityIndex::forget);
+              ids.forEach(bookingQuotaRegistry::forget);
+              if (!ids.isEmpty()) {
+                List<OccupancyInterval> released = expired.stream()
+                        .map(ReservationBatchRepository.CancelledReservation::interval)
+                        .toList();
+                occupancyRollupService.remove(released);
+                waitlistService.slotsReleased(released);
+                reservationEventPublisher.publishCancelled(ids);
+              }
+              return ids;
+            });
+            total.addAndGet(cancelled.size());
+            expiredCounter.increment(cancelled.size());
+          } while (cancelled.size() == batchSize);
+        } catch (Exception e) {
+          log.error("Error al cancelar reservas impagas vencidas (shard {}): {}", shard, e.getMessage(), e);
+        }
+      });
+
+      if (total.get() > 0) {
+        log.info("{} reservas impagas canceladas por vencimiento del plazo de pago", total.get());
+      }
+    });
+  }
+}
@@ -0,0 +1,227 @@
+package org.example.microservicereservation.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.example.common.dto.CursorPageDTO;
+import org.example.common.dto.PageCursor;
+import org.example.microservicereservation.exception.RemoteServiceUnavailableException;
+import org.example.microservicereservation.feignClient.ClubClient;
+import org.example.microservicereservation.feignClient.CourtClient;
+import org.example.microservicereservation.feignClient.UserClient;
+import org.example.microservicereservation.service.dto.CourtDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Caché local (tamaño y TTL acotados) de las consultas a user / court / club.
+// Solo se guardan respuestas positivas: un usuario o club inexistente se vuelve a consultar.
+// Court y club invalidan sus entradas al modificarse (ver /api/reservations/cache).
+@Component
+@RequiredArgsConstructor
+public class RemoteLookupCache {
+  private final UserClient userClient;
+  private final CourtClient courtClient;
+  private final ClubClient clubClient;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${reservation.remote-cache.enabled:true}")
+  private boolean enabled;
+
+  @Value("${reservation.remote-cache.ttl-seconds:60}")
+  private long ttlSeconds;
+
+  @Value("${reservation.remote-cache.max-entries:1000}")
+  private int maxEntries;
+
+  private TtlCache<Long, Boolean> users;
+  private TtlCache<Long, CourtDTO> courts;
+  private TtlCache<Long, Boolean> clubs;
+  private TtlCache<Long, Long> activeCourts;
+
+  @PostConstruct
+  void init() {
+    Duration ttl = Duration.ofSeconds(ttlSeconds);
+    users = register(new TtlCache<>("users", ttl, maxEntries));
+    courts = register(new TtlCache<>("courts", ttl, maxEntries));
+    clubs = register(new TtlCache<>("clubs", ttl, maxEntries));
+    activeCourts = register(new TtlCache<>("active-courts", ttl, maxEntries));
+  }
+
+  public boolean userExists(Long userId) {
+    if (!enabled) {
+      return userClient.userExists(userId);
+    }
+    Boolean exists = users.get(userId, userClient::userExists, Boolean.TRUE::equals);
+    return Boolean.TRUE.equals(exists);
+  }
+
+  public CourtDTO findCourt(Long courtId) {
+    if (!enabled) {
+      return courtClient.findById(courtId);
+    }
+    return courts.get(courtId, courtClient::findById, court -> court != null);
+  }
+
+  public boolean clubExists(Long clubId) {
+    if (!enabled) {
+      return clubClient.clubExists(clubId);
+    }
+    Boolean exists = clubs.get(clubId, clubClient::clubExists, Boolean.TRUE::equals);
+    return Boolean.TRUE.equals(exists);
+  }
+
+  // Canchas activas del club (capacidad para las estadísticas de ocupación)
+  public long countActiveCourts(Long clubId) {
+    Long count = enabled
+            ? activeCourts.get(clubId, this::loadActiveCourtCount, Objects::nonNull)
+            : loadActiveCourtCount(clubId);
+    return count != null ? count : 0L;
+  }
+
+  private Long loadActiveCourtCount(Long clubId) {
+    return (long) findActiveCourtIds(clubId).size();
+  }
+
+  // Ids de las canchas activas del club, en orden. Sin caché: se usa para tomar los locks de
+  // todas las canchas y una cancha recién activada no puede quedar afuera.
+  public List<Long> findActiveCourtIds(Long clubId) {
+    List<Long> courtIds = new ArrayList<>();
+    String cursor = null;
+    try {
+      do {
+        CursorPageDTO<CourtDTO> page = courtClient.findActiveByClub(clubId, cursor, PageCursor.MAX_SIZE);
+        page.getItems().forEach(court -> courtIds.add(court.getId()));
+        cursor = page.isHasMore() ? page.getNextCursor() : null;
+      } while (cursor != null);
+    } catch (Exception e) {
+      throw new RemoteServiceUnavailableException("No se pudieron obtener las canchas del club " + clubId);
+    }
+    Collections.sort(courtIds);
+    return courtIds;
+  }
+
+  public void invalidateUser(Long userId) {
+    users.remove(userId);
+  }
+
+  // La cancha puede haberse activado o desactivado: no se sabe de qué club es si no está en caché
+  public void invalidateCourt(Long courtId) {
+    courts.remove(courtId);
+    activeCourts.clear();
+  }
+
+  // Al cambiar un club se descartan también sus canchas
+  public void invalidateClub(Long clubId) {
+    clubs.remove(clubId);
+    activeCourts.remove(clubId);
+    courts.removeIf(court -> clubId.equals(court.getClubId()));
+  }
+
+  public Map<String, Map<String, Long>> stats() {
+    Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+    for (TtlCache<?, ?> cache : new TtlCache<?, ?>[]{users, courts, clubs, activeCourts}) {
+      stats.put(cache.name, Map.of(
+              "hits", cache.hits.sum(),
+              "misses", cache.misses.sum(),
+              "size", (long) cache.size()));
+    }
+    return stats;
+  }
+
+  private <K, V> TtlCache<K, V> register(TtlCache<K, V> cache) {
+    FunctionCounter.builder("reservation.remote.cache.requests", cache, c -> c.hits.sum())
+            .tag("cache", cache.name).tag("result", "hit")
+            .register(meterRegistry);
+    FunctionCounter.builder("reservation.remote.cache.requests", cache, c -> c.misses.sum())
+            .tag("cache", cache.name).tag("result", "miss")
+            .register(meterRegistry);
+    Gauge.builder("reservation.remote.cache.size", cache, TtlCache::size)
+            .tag("cache", cache.name)
+            .register(meterRegistry);
+    return cache;
+  }
+
+  private static final class TtlCache<K, V> {
+    private final String name;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // Cambia con cada invalidación; evita guardar un valor cargado antes de invalidar
+    private long generation;
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    private TtlCache(String name, Duration ttl, int maxEntries) {
+      this.name = name;
+      this.ttlNanos = ttl.toNanos();
+      // Orden de acceso: al superar el máximo se descarta la entrada menos usada
+      this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+          return size() > maxEntries;
+        }
+      };
+    }
+
+    // La llamada remota se hace fuera del lock; dos misses simultáneos pueden consultar dos veces
+    V get(K key, Function<K, V> loader, Predicate<V> cacheable) {
+      long loadGeneration;
+      synchronized (this) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+          if (entry.expiresAt - System.nanoTime() > 0) {
+            hits.increment();
+            return entry.value;
+          }
+          entries.remove(key);
+        }
+        loadGeneration = generation;
+      }
+
+      misses.increment();
+      V value = loader.apply(key);
+      if (cacheable.test(value)) {
+        synchronized (this) {
+          if (loadGeneration == generation) {
+            entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+          }
+        }
+      }
+      return value;
+    }
+
+    synchronized void remove(K key) {
+      generation++;
+      entries.remove(key);
+    }
+
+    synchronized void removeIf(Predicate<V> predicate) {
+      generation++;
+      entries.values().removeIf(entry -> predicate.test(entry.value));
+    }
+
+    synchronized void clear() {
+      generation++;
+      entries.clear();
+    }
+
+    synchronized int size() {
+      return entries.size();
+    }
+  }
+}
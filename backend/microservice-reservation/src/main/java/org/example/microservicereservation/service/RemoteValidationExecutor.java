@@ -0,0 +1,78 @@
+package org.example.microservicereservation.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservicereservation.exception.RemoteServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Ejecuta validaciones remotas independientes en paralelo (un hilo virtual por tarea).
+// Cada tarea ve los atributos de la petición original, así FeignClientInterceptor sigue
+// copiando Authorization / X-User-*. El primer error o el vencimiento del plazo cancela el resto.
+@Slf4j
+@Component
+public class RemoteValidationExecutor {
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  @Value("${reservation.validation.timeout-ms:3000}")
+  private long timeoutMs;
+
+  public void runAll(List<Runnable> tasks) {
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+    List<Future<Void>> futures = new ArrayList<>(tasks.size());
+
+    for (Runnable task : tasks) {
+      futures.add(completion.submit(() -> {
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+        try {
+          task.run();
+          return null;
+        } finally {
+          RequestContextHolder.resetRequestAttributes();
+        }
+      }));
+    }
+
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        Future<Void> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (done == null) {
+          throw new RemoteServiceUnavailableException(
+                  "Las validaciones remotas no respondieron en " + timeoutMs + " ms");
+        }
+        done.get();
+      }
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RemoteServiceUnavailableException("Validación remota interrumpida");
+    } finally {
+      // No-op para las tareas ya terminadas
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,480 @@
+package org.example.microservicereservation.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservicereservation.entity.Reservation;
+import org.example.microservicereservation.entity.ReservationStatus;
+import org.example.microservicereservation.repository.ReservationRepository;
+import org.example.microservicereservation.service.AvailabilityIndexSnapshot.Snapshot;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice en memoria de reservas activas (PENDING / CONFIRMED) por cancha, ordenado por hora de inicio.
+// Mientras se está cargando, o si la consulta cae antes del rango cubierto, devuelve vacío
+// y el llamador debe consultar la BD. Se guarda periódicamente en un snapshot en disco
+// (AvailabilityIndexSnapshot): al arrancar se restaura de ahí y solo se leen los cambios posteriores.
+// Los cambios de otras instancias se leen cada pocos segundos por updated_at; la carga completa
+// queda como reconciliación esporádica (recoge las reservas borradas).
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationAvailabilityIndex {
+  private final ReservationRepository reservationRepository;
+  private final ShardRouter shardRouter;
+
+  @Value("${reservation.index.enabled:true}")
+  private boolean enabled;
+
+  @Value("${reservation.index.lookback-hours:24}")
+  private long lookbackHours;
+
+  @Value("${reservation.index.snapshot.enabled:true}")
+  private boolean snapshotEnabled;
+
+  @Value("${reservation.index.snapshot.path:data/availability-index.snap}")
+  private String snapshotPath;
+
+  // Un snapshot más viejo que esto se descarta y se carga todo desde la BD
+  @Value("${reservation.index.snapshot.max-age-hours:24}")
+  private long snapshotMaxAgeHours;
+
+  // Margen sobre la marca del snapshot para transacciones que confirmaron tarde
+  @Value("${reservation.index.snapshot.replay-lag-seconds:60}")
+  private long replayLagSeconds;
+
+  @Value("${reservation.index.snapshot.batch-size:1000}")
+  private int replayBatchSize;
+
+  private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+  private volatile IndexState state = new IndexState(null, null);
+  private volatile Set<Long> touchedWhileRebuilding;
+  private volatile boolean ready = false;
+
+  public record IndexedReservation(Long id,
+                                   Long courtId,
+                                   Long userId,
+                                   LocalDateTime startTime,
+                                   LocalDateTime endTime,
+                                   ReservationStatus status) {
+    static IndexedReservation of(Reservation reservation) {
+      return new IndexedReservation(reservation.getId(), reservation.getCourtId(), reservation.getUserId(),
+              reservation.getStartTime(), reservation.getEndTime(), reservation.getStatus());
+    }
+
+    boolean isActive() {
+      return status == ReservationStatus.PENDING || status == ReservationStatus.CONFIRMED;
+    }
+  }
+
+  public boolean isReady() {
+    return enabled && ready;
+  }
+
+  // Indica si el índice puede responder consultas que empiezan en esa fecha
+  public boolean covers(LocalDateTime startTime) {
+    return canAnswer(startTime);
+  }
+
+  // Vacío si el índice no puede responder y hay que ir a la BD
+  public Optional<Boolean> hasConflict(Long courtId, LocalDateTime startTime, LocalDateTime endTime) {
+    if (!canAnswer(startTime)) {
+      return Optional.empty();
+    }
+
+    CourtTimeline timeline = state.timelines.get(courtId);
+    return Optional.of(timeline != null && !timeline.overlapping(startTime, endTime, true).isEmpty());
+  }
+
+  public Optional<List<IndexedReservation>> findConflicts(Long courtId, LocalDateTime startTime, LocalDateTime endTime) {
+    if (!canAnswer(startTime)) {
+      return Optional.empty();
+    }
+
+    CourtTimeline timeline = state.timelines.get(courtId);
+    return Optional.of(timeline != null ? timeline.overlapping(startTime, endTime, false) : List.of());
+  }
+
+  // Registrar el estado de una reserva; se aplica al índice cuando la transacción confirma
+  public void track(Reservation reservation) {
+    if (!enabled || reservation.getId() == null) {
+      return;
+    }
+
+    IndexedReservation snapshot = IndexedReservation.of(reservation);
+    TransactionCallbacks.afterCommit(() -> apply(snapshot.id(), snapshot));
+  }
+
+  public void forget(Long reservationId) {
+    if (!enabled || reservationId == null) {
+      return;
+    }
+
+    TransactionCallbacks.afterCommit(() -> apply(reservationId, null));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    if (!restoreSnapshot()) {
+      rebuild();
+    }
+  }
+
+  // Recoger los cambios hechos por otras instancias
+  @Scheduled(initialDelayString = "${reservation.index.refresh-interval-ms:5000}",
+          fixedDelayString = "${reservation.index.refresh-interval-ms:5000}")
+  public void refresh() {
+    applyChanges();
+  }
+
+  // Un borrado no deja rastro en updated_at y las reservas terminadas no salen solas del índice
+  @Scheduled(initialDelayString = "${reservation.index.reconcile-interval-ms:3600000}",
+          fixedDelayString = "${reservation.index.reconcile-interval-ms:3600000}")
+  public void reconcile() {
+    rebuild();
+  }
+
+  // Aplica sobre el índice vivo lo modificado desde la última lectura (con el margen de replay-lag).
+  // Si una reserva se confirmó en esta instancia mientras se leía, se conserva la versión local.
+  public synchronized void applyChanges() {
+    if (!enabled || !ready) {
+      return;
+    }
+
+    IndexState current = state;
+    LocalDateTime now = LocalDateTime.now();
+    touchedWhileRebuilding = ConcurrentHashMap.newKeySet();
+
+    try {
+      List<IndexedReservation> changed = findUpdatedSince(current.syncedAt.minusSeconds(replayLagSeconds));
+
+      swapLock.writeLock().lock();
+      try {
+        for (IndexedReservation reservation : changed) {
+          if (touchedWhileRebuilding.contains(reservation.id())) {
+            continue;
+          }
+          if (reservation.isActive() && reservation.endTime().isAfter(current.coveredFrom)) {
+            current.upsert(reservation);
+          } else {
+            current.remove(reservation.id());
+          }
+        }
+        current.syncedAt = now;
+      } finally {
+        touchedWhileRebuilding = null;
+        swapLock.writeLock().unlock();
+      }
+
+      if (!changed.isEmpty()) {
+        log.debug("Índice de disponibilidad: {} cambios aplicados desde la BD", changed.size());
+      }
+    } catch (Exception e) {
+      touchedWhileRebuilding = null;
+      log.warn("No se pudieron leer los cambios para el índice de disponibilidad: {}", e.getMessage());
+    }
+  }
+
+  public synchronized void rebuild() {
+    if (!enabled) {
+      return;
+    }
+
+    long started = System.nanoTime();
+    touchedWhileRebuilding = ConcurrentHashMap.newKeySet();
+
+    try {
+      LocalDateTime now = LocalDateTime.now();
+      LocalDateTime coveredFrom = now.minusHours(lookbackHours);
+      IndexState fresh = new IndexState(coveredFrom, now);
+
+      shardRouter.gather(() -> reservationRepository.findActiveEndingAfter(coveredFrom))
+              .forEach(reservation -> fresh.upsert(IndexedReservation.of(reservation)));
+
+      swapIn(fresh);
+
+      log.info("Índice de disponibilidad cargado: {} reservas en {} canchas ({} ms)",
+              fresh.courtByReservation.size(), fresh.timelines.size(),
+              Duration.ofNanos(System.nanoTime() - started).toMillis());
+    } catch (Exception e) {
+      touchedWhileRebuilding = null;
+      log.error("Error al cargar el índice de disponibilidad: {}", e.getMessage(), e);
+    }
+  }
+
+  // Arranque en caliente: reservas del snapshot más los cambios posteriores a su marca.
+  // false si no hay snapshot utilizable y hay que cargar todo desde la BD.
+  private synchronized boolean restoreSnapshot() {
+    if (!enabled || !snapshotEnabled) {
+      return false;
+    }
+
+    long started = System.nanoTime();
+    touchedWhileRebuilding = ConcurrentHashMap.newKeySet();
+
+    try {
+      Optional<Snapshot> loaded = AvailabilityIndexSnapshot.read(Path.of(snapshotPath));
+      LocalDateTime now = LocalDateTime.now();
+      if (loaded.isEmpty() || loaded.get().syncedAt().isBefore(now.minusHours(snapshotMaxAgeHours))) {
+        log.info("Sin snapshot reciente del índice de disponibilidad en {}; se carga desde la BD", snapshotPath);
+        return false;
+      }
+
+      Snapshot snapshot = loaded.get();
+      LocalDateTime coveredFrom = now.minusHours(lookbackHours);
+      // Con lookback-hours más grande que al escribirlo, al snapshot le faltan reservas
+      if (snapshot.coveredFrom().isAfter(coveredFrom)) {
+        log.info("El snapshot del índice de disponibilidad no cubre desde {}; se carga desde la BD", coveredFrom);
+        return false;
+      }
+      IndexState fresh = new IndexState(coveredFrom, now);
+      snapshot.reservations().stream()
+              .filter(reservation -> reservation.isActive() && reservation.endTime().isAfter(coveredFrom))
+              .forEach(fresh::upsert);
+      int restored = fresh.courtByReservation.size();
+
+      dropDeleted(fresh, coveredFrom);
+      List<IndexedReservation> changed = findUpdatedSince(snapshot.syncedAt().minusSeconds(replayLagSeconds));
+      for (IndexedReservation reservation : changed) {
+        if (reservation.isActive() && reservation.endTime().isAfter(coveredFrom)) {
+          fresh.upsert(reservation);
+        } else {
+          fresh.remove(reservation.id());
+        }
+      }
+
+      swapIn(fresh);
+
+      log.info("Índice de disponibilidad restaurado del snapshot: {} reservas, {} cambios desde {} ({} ms)",
+              restored, changed.size(), snapshot.syncedAt(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+      return true;
+    } catch (Exception e) {
+      log.warn("No se pudo restaurar el snapshot del índice de disponibilidad: {}", e.getMessage());
+      return false;
+    } finally {
+      touchedWhileRebuilding = null;
+    }
+  }
+
+  // Las reservas borradas no aparecen entre los cambios: se verifica que sigan existiendo
+  private void dropDeleted(IndexState fresh, LocalDateTime coveredFrom) {
+    List<Long> ids = List.copyOf(fresh.courtByReservation.keySet());
+    LocalDateTime earliestStart = coveredFrom.minus(ReservationRepository.MAX_RESERVATION_SPAN);
+
+    Set<Long> existing = new HashSet<>(shardRouter.gather(() -> {
+      String shard = shardRouter.currentShard();
+      List<Long> shardIds = ids.stream().filter(id -> shardRouter.shardForId(id).equals(shard)).toList();
+      List<Long> found = new ArrayList<>(shardIds.size());
+      for (int from = 0; from < shardIds.size(); from += replayBatchSize) {
+        found.addAll(reservationRepository.findExistingIds(
+                shardIds.subList(from, Math.min(shardIds.size(), from + replayBatchSize)), earliestStart));
+      }
+      return found;
+    }));
+
+    ids.stream().filter(id -> !existing.contains(id)).forEach(fresh::remove);
+  }
+
+  // Cambios de cualquier estado desde la marca, por lotes (updatedAt, id) en cada shard
+  private List<IndexedReservation> findUpdatedSince(LocalDateTime since) {
+    return shardRouter.gather(() -> {
+      List<IndexedReservation> changed = new ArrayList<>();
+      LocalDateTime from = since;
+      long afterId = 0L;
+      List<Reservation> batch;
+      do {
+        batch = reservationRepository.findUpdatedSince(from, afterId, PageRequest.of(0, replayBatchSize));
+        for (Reservation reservation : batch) {
+          changed.add(IndexedReservation.of(reservation));
+          from = reservation.getUpdatedAt();
+          afterId = reservation.getId();
+        }
+      } while (batch.size() == replayBatchSize);
+      return changed;
+    });
+  }
+
+  @Scheduled(initialDelayString = "${reservation.index.snapshot.interval-ms:60000}",
+          fixedDelayString = "${reservation.index.snapshot.interval-ms:60000}")
+  public void writeSnapshot() {
+    if (!enabled || !snapshotEnabled || !ready) {
+      return;
+    }
+
+    IndexState current = state;
+    try {
+      long started = System.nanoTime();
+      List<IndexedReservation> reservations = current.all();
+      AvailabilityIndexSnapshot.write(Path.of(snapshotPath),
+              new Snapshot(current.syncedAt, current.coveredFrom, reservations));
+      log.debug("Snapshot del índice de disponibilidad: {} reservas ({} ms)", reservations.size(),
+              Duration.ofNanos(System.nanoTime() - started).toMillis());
+    } catch (Exception e) {
+      log.warn("No se pudo escribir el snapshot del índice de disponibilidad: {}", e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  void onShutdown() {
+    writeSnapshot();
+  }
+
+  // Las reservas modificadas durante la carga conservan el estado del índice vivo
+  private void swapIn(IndexState fresh) {
+    swapLock.writeLock().lock();
+    try {
+      for (Long id : touchedWhileRebuilding) {
+        fresh.remove(id);
+        state.find(id).ifPresent(fresh::upsert);
+      }
+
+      state = fresh;
+      ready = true;
+    } finally {
+      touchedWhileRebuilding = null;
+      swapLock.writeLock().unlock();
+    }
+  }
+
+  private boolean canAnswer(LocalDateTime startTime) {
+    IndexState current = state;
+    return enabled && ready && current.coveredFrom != null && !startTime.isBefore(current.coveredFrom);
+  }
+
+  private void apply(Long reservationId, IndexedReservation snapshot) {
+    swapLock.readLock().lock();
+    try {
+      Set<Long> touched = touchedWhileRebuilding;
+      if (touched != null) {
+        touched.add(reservationId);
+      }
+
+      if (snapshot != null && snapshot.isActive()) {
+        state.upsert(snapshot);
+      } else {
+        state.remove(reservationId);
+      }
+    } finally {
+      swapLock.readLock().unlock();
+    }
+  }
+
+  private static final class IndexState {
+    private final LocalDateTime coveredFrom;
+    // Momento en que empezó la última lectura de la BD: lo confirmado antes ya está en el índice
+    private volatile LocalDateTime syncedAt;
+    private final Map<Long, CourtTimeline> timelines = new ConcurrentHashMap<>();
+    private final Map<Long, Long> courtByReservation = new ConcurrentHashMap<>();
+
+    private IndexState(LocalDateTime coveredFrom, LocalDateTime syncedAt) {
+      this.coveredFrom = coveredFrom;
+      this.syncedAt = syncedAt;
+    }
+
+    List<IndexedReservation> all() {
+      List<IndexedReservation> reservations = new ArrayList<>(courtByReservation.size());
+      timelines.values().forEach(timeline -> reservations.addAll(timeline.all()));
+      return reservations;
+    }
+
+    void upsert(IndexedReservation reservation) {
+      Long previousCourt = courtByReservation.put(reservation.id(), reservation.courtId());
+      if (previousCourt != null && !previousCourt.equals(reservation.courtId())) {
+        CourtTimeline previous = timelines.get(previousCourt);
+        if (previous != null) {
+          previous.remove(reservation.id());
+        }
+      }
+      timelines.computeIfAbsent(reservation.courtId(), id -> new CourtTimeline()).put(reservation);
+    }
+
+    void remove(Long reservationId) {
+      Long courtId = courtByReservation.remove(reservationId);
+      if (courtId != null) {
+        CourtTimeline timeline = timelines.get(courtId);
+        if (timeline != null) {
+          timeline.remove(reservationId);
+        }
+      }
+    }
+
+    Optional<IndexedReservation> find(Long reservationId) {
+      Long courtId = courtByReservation.get(reservationId);
+      CourtTimeline timeline = courtId != null ? timelines.get(courtId) : null;
+      return timeline != null ? timeline.get(reservationId) : Optional.empty();
+    }
+  }
+
+  private static final class CourtTimeline {
+    private final TreeMap<LocalDateTime, Map<Long, IndexedReservation>> byStart = new TreeMap<>();
+    private final Map<Long, IndexedReservation> byId = new HashMap<>();
+    private Duration longest = Duration.ZERO;
+
+    synchronized void put(IndexedReservation reservation) {
+      remove(reservation.id());
+      byStart.computeIfAbsent(reservation.startTime(), start -> new LinkedHashMap<>())
+              .put(reservation.id(), reservation);
+      byId.put(reservation.id(), reservation);
+
+      Duration duration = Duration.between(reservation.startTime(), reservation.endTime());
+      if (duration.compareTo(longest) > 0) {
+        longest = duration;
+      }
+    }
+
+    synchronized void remove(Long reservationId) {
+      IndexedReservation existing = byId.remove(reservationId);
+      if (existing == null) {
+        return;
+      }
+
+      Map<Long, IndexedReservation> bucket = byStart.get(existing.startTime());
+      if (bucket != null) {
+        bucket.remove(reservationId);
+        if (bucket.isEmpty()) {
+          byStart.remove(existing.startTime());
+        }
+      }
+    }
+
+    synchronized List<IndexedReservation> all() {
+      return new ArrayList<>(byId.values());
+    }
+
+    synchronized Optional<IndexedReservation> get(Long reservationId) {
+      return Optional.ofNullable(byId.get(reservationId));
+    }
+
+    // Solo las reservas que empiezan en (inicio - duración máxima, fin) pueden solaparse
+    synchronized List<IndexedReservation> overlapping(LocalDateTime startTime, LocalDateTime endTime, boolean firstOnly) {
+      List<IndexedReservation> result = new ArrayList<>();
+
+      for (Map<Long, IndexedReservation> bucket
+              : byStart.subMap(startTime.minus(longest), false, endTime, false).values()) {
+        for (IndexedReservation reservation : bucket.values()) {
+          if (reservation.endTime().isAfter(startTime)) {
+            result.add(reservation);
+            if (firstOnly) {
+              return result;
+            }
+          }
+        }
+      }
+
+      return result;
+    }
+  }
+}
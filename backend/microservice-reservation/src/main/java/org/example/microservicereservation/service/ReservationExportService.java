@@ -0,0 +1,130 @@
+package org.example.microservicereservation.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservicereservation.repository.ReservationExportRepository;
+import org.example.microservicereservation.service.dto.ReservationExportRow;
+import org.example.microservicereservation.service.dto.request.ExportFormat;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+// Exportación contable de las reservas de un club. Cada fila se escribe en la respuesta
+// a medida que llega del cursor, así la memoria no depende de la cantidad de reservas.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReservationExportService {
+  private static final String CSV_HEADER = "id,club_id,court_id,user_id,user_email,start_time,end_time," +
+          "status,payment_status,price_per_hour,total_amount,paid_amount,created_at";
+  private static final int BUFFER_SIZE = 8192;
+
+  private final ReservationExportRepository reservationExportRepository;
+  private final ObjectMapper objectMapper;
+
+  public void validate(Long clubId, LocalDateTime from, LocalDateTime to) {
+    if (clubId == null) {
+      throw new IllegalArgumentException("El club es obligatorio");
+    }
+    if (from != null && to != null && !to.isAfter(from)) {
+      throw new IllegalArgumentException("La fecha 'to' debe ser posterior a 'from'");
+    }
+  }
+
+  // Devuelve la cantidad de filas escritas
+  @Transactional(readOnly = true)
+  public long export(Long clubId, LocalDateTime from, LocalDateTime to, ExportFormat format,
+                     OutputStream output, boolean gzip) throws IOException {
+    GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(output, BUFFER_SIZE) : null;
+    Writer writer = new BufferedWriter(new OutputStreamWriter(
+            gzipStream != null ? gzipStream : output, StandardCharsets.UTF_8), BUFFER_SIZE);
+    AtomicLong rows = new AtomicLong();
+
+    try {
+      if (format == ExportFormat.CSV) {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        reservationExportRepository.streamByClub(clubId, from, to, row -> {
+          writeCsv(writer, row);
+          rows.incrementAndGet();
+        });
+      } else {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        reservationExportRepository.streamByClub(clubId, from, to, row -> {
+          writeJson(generator, row);
+          rows.incrementAndGet();
+        });
+        generator.flush();
+      }
+    } catch (UncheckedIOException e) {
+      // El cliente cortó la descarga o falló la escritura
+      throw e.getCause();
+    }
+
+    writer.flush();
+    if (gzipStream != null) {
+      gzipStream.finish();
+    }
+
+    log.info("Exportadas {} reservas del club {} ({})", rows.get(), clubId, format);
+    return rows.get();
+  }
+
+  private void writeCsv(Writer writer, ReservationExportRow row) {
+    try {
+      writer.write(String.join(",",
+              csv(row.id()),
+              csv(row.clubId()),
+              csv(row.courtId()),
+              csv(row.userId()),
+              csv(row.userEmail()),
+              csv(row.startTime()),
+              csv(row.endTime()),
+              csv(row.status()),
+              csv(row.paymentStatus()),
+              csv(row.pricePerHour()),
+              csv(row.totalAmount()),
+              csv(row.paidAmount()),
+              csv(row.createdAt())));
+      writer.write('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void writeJson(JsonGenerator generator, ReservationExportRow row) {
+    try {
+      generator.writeObject(row);
+      generator.writeRaw('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // Valor CSV con comillas solo cuando hace falta (RFC 4180)
+  private String csv(Object value) {
+    if (value == null) {
+      return "";
+    }
+
+    String text = value.toString();
+    if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+      return '"' + text.replace("\"", "\"\"") + '"';
+    }
+    return text;
+  }
+}
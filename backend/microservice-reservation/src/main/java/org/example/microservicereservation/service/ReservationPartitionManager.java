@@ -0,0 +1,198 @@
+package org.example.microservicereservation.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservicereservation.config.ReservationSchemaInitializer;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Mantenimiento de la tabla reservations particionada por mes de start_time (ver init-reservas.sql y
+// partition-reservations.sql): crea por adelantado las particiones de los próximos meses y pasa las
+// de meses viejos a un esquema de archivo, fuera de la tabla que consultan los servicios.
+// Si la tabla no está particionada no hace nada.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationPartitionManager {
+  // Clase propia en la forma de dos claves (ver ReservationRepository.COURT_LOCK_CLASS)
+  private static final int PARTITION_LOCK_CLASS = 0x50415254;
+  private static final String TABLE = "reservations";
+  private static final String DEFAULT_PARTITION = "reservations_default";
+  private static final Pattern PARTITION_NAME = Pattern.compile("reservations_p(\\d{4})(\\d{2})");
+  private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ShardRouter shardRouter;
+
+  @Value("${reservation.partitioning.enabled:true}")
+  private boolean enabled;
+
+  @Value("${reservation.partitioning.months-ahead:24}")
+  private int monthsAhead;
+
+  // 0 = no se archiva nada
+  @Value("${reservation.partitioning.archive-after-months:12}")
+  private int archiveAfterMonths;
+
+  @Value("${reservation.partitioning.archive-schema:reservas_archive}")
+  private String archiveSchema;
+
+  public boolean isPartitioned() {
+    Boolean partitioned = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))",
+            Boolean.class, TABLE);
+    return Boolean.TRUE.equals(partitioned);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    maintain();
+  }
+
+  @Scheduled(cron = "${reservation.partitioning.cron:0 15 3 * * *}")
+  public void maintain() {
+    if (!enabled) {
+      return;
+    }
+
+    shardRouter.forEachShard(this::maintain);
+  }
+
+  private void maintain(String shard) {
+    try {
+      if (!isPartitioned()) {
+        log.info("La tabla {} no está particionada en el shard {}; se omite el mantenimiento de particiones", TABLE, shard);
+        return;
+      }
+
+      Integer created = transactionTemplate.execute(status -> createUpcomingPartitions());
+      if (created != null && created > 0) {
+        log.info("{} particiones mensuales de {} creadas en el shard {}", created, TABLE, shard);
+      }
+      if (archiveAfterMonths > 0) {
+        archiveOldPartitions();
+      }
+    } catch (Exception e) {
+      log.error("Error en el mantenimiento de particiones de {} en el shard {}: {}", TABLE, shard, e.getMessage(), e);
+    }
+  }
+
+  // Desde el mes anterior hasta monthsAhead meses adelante; lo que caiga más lejos va a la DEFAULT
+  private int createUpcomingPartitions() {
+    if (!tryLock()) {
+      return 0;
+    }
+
+    if (!exists(DEFAULT_PARTITION)) {
+      jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+    }
+    addOverlapConstraint(DEFAULT_PARTITION);
+
+    int created = 0;
+    YearMonth current = YearMonth.now();
+    for (int i = -1; i <= monthsAhead; i++) {
+      if (createPartition(current.plusMonths(i))) {
+        created++;
+      }
+    }
+    return created;
+  }
+
+  // Las filas del mes que hayan quedado en la DEFAULT se mueven a la partición nueva antes de
+  // adjuntarla (si no, ATTACH falla al validar la DEFAULT)
+  private boolean createPartition(YearMonth month) {
+    String name = partitionName(month);
+    if (exists(name)) {
+      return false;
+    }
+
+    Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+    Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+
+    jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+    int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " " +
+            "WHERE start_time >= ? AND start_time < ? RETURNING *) " +
+            "INSERT INTO " + name + " SELECT * FROM moved", from, to);
+    jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + name +
+            " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    addOverlapConstraint(name);
+
+    if (moved > 0) {
+      log.info("Partición {} creada con {} reservas movidas desde {}", name, moved, DEFAULT_PARTITION);
+    }
+    return true;
+  }
+
+  // Postgres 15 no admite EXCLUDE sobre la tabla particionada: la restricción va en cada partición.
+  // Dos reservas de meses distintos que se solapan en el cambio de mes solo las frena el lock de cancha.
+  private void addOverlapConstraint(String partition) {
+    jdbcTemplate.execute(ReservationSchemaInitializer.overlapConstraintSql(partition, partition + "_no_overlap"));
+  }
+
+  // Cada partición vieja se separa y se mueve al esquema de archivo en su propia transacción
+  private void archiveOldPartitions() {
+    if (!IDENTIFIER.matcher(archiveSchema).matches()) {
+      log.error("Esquema de archivo inválido: {}", archiveSchema);
+      return;
+    }
+
+    YearMonth cutoff = YearMonth.now().minusMonths(archiveAfterMonths);
+    List<String> partitions = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = to_regclass(?) ORDER BY c.relname",
+            String.class, TABLE);
+
+    for (String partition : partitions) {
+      Matcher matcher = PARTITION_NAME.matcher(partition);
+      if (!matcher.matches()) {
+        continue;
+      }
+      YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+      if (!month.isBefore(cutoff)) {
+        continue;
+      }
+
+      Boolean archived = transactionTemplate.execute(status -> {
+        if (!tryLock()) {
+          return false;
+        }
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + archiveSchema);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition);
+        jdbcTemplate.execute("ALTER TABLE " + partition + " SET SCHEMA " + archiveSchema);
+        return true;
+      });
+      if (!Boolean.TRUE.equals(archived)) {
+        return;
+      }
+      log.info("Partición {} archivada en el esquema {}", partition, archiveSchema);
+    }
+  }
+
+  // Una sola réplica crea o archiva particiones a la vez; las demás lo omiten
+  private boolean tryLock() {
+    return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT pg_try_advisory_xact_lock(?, 0)", Boolean.class, PARTITION_LOCK_CLASS));
+  }
+
+  private boolean exists(String relation) {
+    return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, relation));
+  }
+
+  private static String partitionName(YearMonth month) {
+    return String.format("reservations_p%04d%02d", month.getYear(), month.getMonthValue());
+  }
+}
@@ -0,0 +1,105 @@
+package org.example.microservicereservation.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservicereservation.entity.Reservation;
+import org.example.microservicereservation.feignClient.CourtClient;
+import org.example.microservicereservation.repository.ReservationRepository;
+import org.example.microservicereservation.service.dto.CourtDTO;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Completa precio por hora y total de las reservas creadas antes de guardarlos al reservar.
+// Cada cancha se consulta una sola vez por lote.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationPriceBackfillJob {
+  private final ReservationRepository reservationRepository;
+  private final ReservationService reservationService;
+  private final CourtClient courtClient;
+  private final ShardRouter shardRouter;
+
+  @Value("${reservation.backfill.enabled:true}")
+  private boolean enabled;
+
+  @Value("${reservation.backfill.batch-size:200}")
+  private int batchSize;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onStartup() {
+    run();
+  }
+
+  @Scheduled(initialDelayString = "${reservation.backfill.interval-ms:3600000}",
+          fixedDelayString = "${reservation.backfill.interval-ms:3600000}")
+  public void scheduled() {
+    run();
+  }
+
+  public synchronized void run() {
+    if (!enabled) {
+      return;
+    }
+
+    shardRouter.forEachShard(this::backfill);
+  }
+
+  // Los ids de cada shard arrancan en su propio rango: el recorrido por id es por shard
+  private void backfill(String shard) {
+    long lastId = 0L;
+    int updated = 0;
+
+    try {
+      List<Reservation> batch;
+      do {
+        batch = reservationRepository.findByTotalAmountIsNullAndIdGreaterThanOrderByIdAsc(
+                lastId, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+          break;
+        }
+
+        Map<Long, CourtDTO> courts = new HashMap<>();
+        for (Reservation reservation : batch) {
+          lastId = reservation.getId();
+
+          CourtDTO court = courts.computeIfAbsent(reservation.getCourtId(), this::findCourt);
+          if (court == null || court.getPricePerHour() == null) {
+            // Se reintenta en la próxima ejecución
+            continue;
+          }
+
+          reservationService.applyPriceSnapshot(reservation, reservation.getPricePerHour() != null
+                  ? reservation.getPricePerHour() : court.getPricePerHour());
+          updated++;
+        }
+
+        reservationRepository.saveAll(batch);
+      } while (batch.size() == batchSize);
+
+      if (updated > 0) {
+        log.info("Backfill de precios (shard {}): {} reservas actualizadas", shard, updated);
+      }
+    } catch (Exception e) {
+      log.error("Error en el backfill de precios de reservas (shard {}): {}", shard, e.getMessage(), e);
+    }
+  }
+
+  private CourtDTO findCourt(Long courtId) {
+    try {
+      return courtClient.findById(courtId);
+    } catch (Exception e) {
+      log.warn("No se pudo obtener la cancha {} para el backfill: {}", courtId, e.getMessage());
+      return null;
+    }
+  }
+}
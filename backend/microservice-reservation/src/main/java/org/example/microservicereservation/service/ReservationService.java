@@ -3,18 +3,34 @@ package org.example.microservicereservation.service;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.common.dto.CursorPageDTO;
+import org.example.common.dto.PageCursor;
+import org.example.microservicereservation.config.ReservationSchemaInitializer;
 import org.example.microservicereservation.entity.Reservation;
+import org.example.microservicereservation.entity.ReservationEventType;
 import org.example.microservicereservation.entity.ReservationPaymentStatus;
 import org.example.microservicereservation.entity.ReservationStatus;
-import org.example.microservicereservation.feignClient.ClubClient;
-import org.example.microservicereservation.feignClient.CourtClient;
-import org.example.microservicereservation.feignClient.UserClient;
+import org.example.microservicereservation.exception.ReservationConflictException;
 import org.example.microservicereservation.mapper.ReservationMapper;
+import org.example.microservicereservation.repository.ReservationBatchRepository;
 import org.example.microservicereservation.repository.ReservationRepository;
+import org.example.microservicereservation.repository.ReservationSearchRepository;
 import org.example.microservicereservation.service.dto.CourtDTO;
+import org.example.microservicereservation.service.dto.OccupancyInterval;
+import org.example.microservicereservation.service.dto.OccupiedIntervalDTO;
 import org.example.microservicereservation.service.dto.ReservationConflictDTO;
+import org.example.microservicereservation.service.dto.SlotHoldDTO;
+import org.example.microservicereservation.service.dto.request.RecurrenceFrequency;
 import org.example.microservicereservation.service.dto.request.ReservationRequestDTO;
+import org.example.microservicereservation.service.dto.request.ReservationSearchCriteria;
+import org.example.microservicereservation.service.dto.request.ReservationSeriesRequestDTO;
 import org.example.microservicereservation.service.dto.response.ReservationResponseDTO;
+import org.example.microservicereservation.service.dto.response.ReservationSeriesResponseDTO;
+import org.example.microservicereservation.service.dto.response.SeriesOccurrenceDTO;
+import org.example.microservicereservation.service.analytics.ReservationColumnStore;
+import org.example.microservicereservation.service.outbox.ReservationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -22,20 +38,40 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.sql.SQLException;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ReservationService {
+  private static final int MAX_SERIES_OCCURRENCES = 104;
+  private static final int DEFAULT_SEARCH_RESULTS = 50;
+  private static final int MAX_SEARCH_RESULTS = 500;
+
   private final ReservationRepository reservationRepository;
-  private final UserClient userClient;
-  private final CourtClient courtClient;
-  private final ClubClient clubClient;
+  private final ReservationBatchRepository reservationBatchRepository;
+  private final ReservationSearchRepository reservationSearchRepository;
+  private final RemoteLookupCache remoteLookupCache;
+  private final RemoteValidationExecutor remoteValidationExecutor;
+  private final ReservationAvailabilityIndex availabilityIndex;
+  private final BookingQuotaRegistry bookingQuotaRegistry;
+  private final SlotHoldRegistry slotHoldRegistry;
+  private final ReservationEventPublisher reservationEventPublisher;
+  private final OccupancyRollupService occupancyRollupService;
+  private final ReservationColumnStore reservationColumnStore;
+  private final WaitlistService waitlistService;
+  private final ReservationSchemaInitializer schemaInitializer;
 
   @Transactional(readOnly = true)
   public List<ReservationResponseDTO> findAll() {
@@ -45,6 +81,39 @@ public class ReservationService {
             .toList();
   }
 
+  // Página por cursor (keyset sobre id)
+  @Transactional(readOnly = true)
+  public CursorPageDTO<ReservationResponseDTO> findPage(String cursor, Integer size) {
+    int pageSize = PageCursor.clampSize(size);
+    List<ReservationResponseDTO> reservations = this.reservationRepository
+            .findByIdGreaterThanOrderByIdAsc(PageCursor.afterId(cursor), PageRequest.of(0, pageSize + 1))
+            .stream()
+            .map(ReservationMapper::toResponse)
+            .toList();
+    return PageCursor.of(reservations, pageSize, item -> PageCursor.encode(item.getId()));
+  }
+
+  // Resultados ordenados por (startTime, id): el cursor guarda ese par de la última fila
+  @Transactional(readOnly = true)
+  public CursorPageDTO<ReservationResponseDTO> search(ReservationSearchCriteria criteria, String cursor, Integer size) {
+    if (criteria.getFrom() != null && criteria.getTo() != null && !criteria.getTo().isAfter(criteria.getFrom())) {
+      throw new IllegalArgumentException("La fecha 'to' debe ser posterior a 'from'");
+    }
+
+    PageCursor after = PageCursor.decode(cursor);
+    if (after != null && after.getTime() == null) {
+      throw new IllegalArgumentException("Cursor inválido");
+    }
+
+    int pageSize = searchPageSize(size);
+    List<ReservationResponseDTO> reservations = reservationSearchRepository.search(criteria, after, pageSize + 1);
+    return PageCursor.of(reservations, pageSize, item -> PageCursor.encode(item.getStartTime(), item.getId()));
+  }
+
+  public static int searchPageSize(Integer size) {
+    return size != null ? Math.max(1, Math.min(size, MAX_SEARCH_RESULTS)) : DEFAULT_SEARCH_RESULTS;
+  }
+
   @Transactional(readOnly = true)
   public ReservationResponseDTO findById(Long id) {
     return ReservationMapper.toResponse(this.reservationRepository.findById(id)
@@ -53,22 +122,186 @@ public class ReservationService {
 
   @Transactional
   public ReservationResponseDTO save(ReservationRequestDTO request) {
-    validateResourcesExist(request);
+    CourtDTO court = validateResourcesExist(request);
+
+    validateReservationDates(request);
 
+    validateCourtActive(court);
+
+    bookingQuotaRegistry.admit(request.getUserId(), request.getClubId(), 1);
+
+    // Desde aquí solo operaciones locales: el lock se mantiene hasta el commit
+    reservationRepository.lockCourt(request.getCourtId());
     validateCourtAvailability(request);
 
+    Reservation savedReservation = saveChecked(newPendingReservation(request, court));
+    availabilityIndex.track(savedReservation);
+    bookingQuotaRegistry.track(savedReservation);
+    occupancyRollupService.replace(null, savedReservation);
+    reservationEventPublisher.publish(savedReservation, ReservationEventType.CREATED);
+
+    return ReservationMapper.toResponse(savedReservation);
+  }
+
+  // Retiene el horario unos minutos mientras el usuario completa el pago
+  @Transactional(readOnly = true)
+  public SlotHoldDTO placeHold(ReservationRequestDTO request) {
+    CourtDTO court = validateResourcesExist(request);
+
     validateReservationDates(request);
 
-    Reservation reservation = ReservationMapper.toEntity(request);
-    reservation.setStatus(ReservationStatus.PENDING);
-    reservation.setPaymentStatus(ReservationPaymentStatus.PENDING);
-    reservation.setCreatedAt(LocalDateTime.now());
+    validateCourtActive(court);
+
+    bookingQuotaRegistry.check(request.getUserId(), request.getClubId());
+
+    if (hasReservationConflict(request.getCourtId(), request.getStartTime(), request.getEndTime())) {
+      throw new ReservationConflictException("La cancha no está disponible en el horario solicitado");
+    }
+
+    SlotHoldRegistry.SlotHold hold = slotHoldRegistry.tryHold(request)
+            .orElseThrow(() -> new ReservationConflictException("El horario está retenido por otro usuario"));
+
+    return mapToHoldDTO(hold);
+  }
+
+  // Convierte la retención en reserva; la retención se libera al confirmar la transacción
+  @Transactional
+  public ReservationResponseDTO confirmHold(String holdId) {
+    SlotHoldRegistry.SlotHold hold = slotHoldRegistry.find(holdId)
+            .orElseThrow(() -> new EntityNotFoundException("Retención no encontrada o vencida: " + holdId));
+    ReservationRequestDTO request = hold.request();
+
+    CourtDTO court = remoteLookupCache.findCourt(request.getCourtId());
+    validateCourtActive(court);
+
+    bookingQuotaRegistry.admit(request.getUserId(), request.getClubId(), 1);
+
+    reservationRepository.lockCourt(request.getCourtId());
+    validateCourtAvailability(request, holdId, null);
 
-    Reservation savedReservation = reservationRepository.save(reservation);
+    Reservation savedReservation = saveChecked(newPendingReservation(request, court));
+    availabilityIndex.track(savedReservation);
+    bookingQuotaRegistry.track(savedReservation);
+    occupancyRollupService.replace(null, savedReservation);
+    reservationEventPublisher.publish(savedReservation, ReservationEventType.CREATED);
+    waitlistService.markFulfilled(holdId);
+    slotHoldRegistry.releaseAfterCommit(holdId);
 
     return ReservationMapper.toResponse(savedReservation);
   }
 
+  // Club de la retención (null si no existe o venció); con sharding define dónde se confirma
+  public Long holdClubId(String holdId) {
+    return slotHoldRegistry.find(holdId)
+            .map(hold -> hold.request().getClubId())
+            .orElse(null);
+  }
+
+  public void releaseHold(String holdId) {
+    SlotHoldRegistry.SlotHold hold = slotHoldRegistry.find(holdId)
+            .orElseThrow(() -> new EntityNotFoundException("Retención no encontrada o vencida: " + holdId));
+    slotHoldRegistry.release(holdId);
+    waitlistService.holdReleased(hold);
+  }
+
+  // Serie recurrente: una sola validación remota, una consulta de rango para todas las
+  // ocurrencias e inserción por lotes. Las ocurrencias en conflicto se informan y no se crean.
+  @Transactional
+  public ReservationSeriesResponseDTO saveSeries(ReservationSeriesRequestDTO request) {
+    List<ReservationRequestDTO> occurrences = expandSeries(request);
+
+    CourtDTO court = validateResourcesExist(occurrences.get(0));
+    validateCourtActive(court);
+
+    String seriesId = UUID.randomUUID().toString();
+    LocalDateTime now = LocalDateTime.now();
+    List<SeriesOccurrenceDTO> results = new ArrayList<>(occurrences.size());
+    List<Reservation> accepted = new ArrayList<>();
+
+    reservationRepository.lockCourt(request.getCourtId());
+    List<Reservation> existing = reservationRepository.findConflictingReservations(request.getCourtId(),
+            occurrences.get(0).getStartTime(), occurrences.get(occurrences.size() - 1).getEndTime());
+
+    // Barrido: ocurrencias y reservas existentes están ordenadas por inicio
+    int next = 0;
+    for (ReservationRequestDTO occurrence : occurrences) {
+      SeriesOccurrenceDTO result = SeriesOccurrenceDTO.builder()
+              .startTime(occurrence.getStartTime())
+              .endTime(occurrence.getEndTime())
+              .build();
+      results.add(result);
+
+      try {
+        validateReservationDates(occurrence);
+      } catch (RuntimeException e) {
+        result.setReason(e.getMessage());
+        continue;
+      }
+
+      while (next < existing.size() && !existing.get(next).getEndTime().isAfter(occurrence.getStartTime())) {
+        next++;
+      }
+      boolean conflict = false;
+      for (int i = next; i < existing.size() && existing.get(i).getStartTime().isBefore(occurrence.getEndTime()); i++) {
+        if (existing.get(i).getEndTime().isAfter(occurrence.getStartTime())) {
+          conflict = true;
+          break;
+        }
+      }
+      if (conflict) {
+        result.setReason("La cancha no está disponible en el horario solicitado");
+        continue;
+      }
+      if (slotHoldRegistry.hasConflict(request.getCourtId(), occurrence.getStartTime(), occurrence.getEndTime(), null)) {
+        result.setReason("El horario está retenido por otro usuario");
+        continue;
+      }
+
+      Reservation reservation = newPendingReservation(occurrence, court);
+      reservation.setSeriesId(seriesId);
+      reservation.setPaidAmount(BigDecimal.ZERO);
+      reservation.setCreatedAt(now);
+      reservation.setUpdatedAt(now);
+      accepted.add(reservation);
+      result.setCreated(true);
+    }
+
+    // El cupo se verifica para la serie completa: o entran todas las ocurrencias aceptadas o ninguna
+    bookingQuotaRegistry.admit(request.getUserId(), request.getClubId(), accepted.size());
+
+    try {
+      reservationBatchRepository.insertAll(accepted);
+    } catch (DataIntegrityViolationException e) {
+      if (isOverlapViolation(e)) {
+        throw new ReservationConflictException("La cancha no está disponible en el horario solicitado");
+      }
+      throw e;
+    }
+    occupancyRollupService.add(accepted);
+
+    int i = 0;
+    for (SeriesOccurrenceDTO result : results) {
+      if (result.isCreated()) {
+        Reservation reservation = accepted.get(i++);
+        result.setReservationId(reservation.getId());
+        availabilityIndex.track(reservation);
+        bookingQuotaRegistry.track(reservation);
+        reservationEventPublisher.publish(reservation, ReservationEventType.CREATED);
+      }
+    }
+
+    log.info("Serie {} creada en la cancha {}: {} de {} ocurrencias",
+            seriesId, request.getCourtId(), accepted.size(), occurrences.size());
+
+    return ReservationSeriesResponseDTO.builder()
+            .seriesId(seriesId)
+            .requested(occurrences.size())
+            .created(accepted.size())
+            .rejected(occurrences.size() - accepted.size())
+            .occurrences(results)
+            .build();
+  }
+
   @Transactional
   public ReservationResponseDTO update(Long id, ReservationRequestDTO request) {
     Reservation reservation = reservationRepository.findById(id)
@@ -77,30 +310,79 @@ public class ReservationService {
     if (!reservation.getUserId().equals(request.getUserId())) {
       throw new RuntimeException("No se puede cambiar el usuario de una reserva");
     }
+    OccupancyInterval previousOccupancy = occupancyRollupService.snapshot(reservation);
+    boolean countedInQuota = BookingQuotaRegistry.counts(reservation);
 
-    if (!reservation.getCourtId().equals(request.getCourtId()) ||
-            !reservation.getStartTime().equals(request.getStartTime())) {
-      validateCourtAvailability(request);
+    validateReservationDates(request);
+
+    // Se mantiene el precio por hora vigente al reservar, salvo que cambie la cancha. Si la reserva
+    // queda activa y cambia de cancha u horario, o se reactiva, vuelve a pasar por el lock y la verificación.
+    boolean courtChanged = !reservation.getCourtId().equals(request.getCourtId());
+    boolean slotChanged = isActive(request.getStatus()) && (courtChanged
+            || !isActive(reservation.getStatus())
+            || !reservation.getStartTime().equals(request.getStartTime())
+            || !reservation.getEndTime().equals(request.getEndTime()));
+    BigDecimal pricePerHour = courtChanged ? null : reservation.getPricePerHour();
+
+    // Las reservas viven en el shard de su club: se puede cambiar de cancha, no de club
+    if (request.getClubId() != null && !reservation.getClubId().equals(request.getClubId())) {
+      throw new IllegalArgumentException("No se puede cambiar el club de una reserva");
     }
 
-    validateReservationDates(request);
+    if (slotChanged || pricePerHour == null) {
+      CourtDTO court = remoteLookupCache.findCourt(request.getCourtId());
+      if (courtChanged && !reservation.getClubId().equals(court.getClubId())) {
+        throw new IllegalArgumentException("La cancha no pertenece al club de la reserva");
+      }
+      if (slotChanged) {
+        validateCourtActive(court);
+      }
+      if (pricePerHour == null) {
+        pricePerHour = court.getPricePerHour();
+      }
+    }
 
+    if (slotChanged) {
+      reservationRepository.lockCourt(request.getCourtId());
+      validateCourtAvailability(request, null, reservation.getId());
+    }
+
+    reservation.setCourtId(request.getCourtId());
     reservation.setStartTime(request.getStartTime());
     reservation.setEndTime(request.getEndTime());
     reservation.setStatus(request.getStatus());
     reservation.setPaymentStatus(request.getPaymentStatus());
+    applyPriceSnapshot(reservation, pricePerHour);
+
+    // Reactivar una reserva cancelada (o pasada) ocupa un cupo como una reserva nueva
+    if (!countedInQuota && BookingQuotaRegistry.counts(reservation)) {
+      bookingQuotaRegistry.admit(reservation.getUserId(), reservation.getClubId(), 1);
+    }
 
-    Reservation updatedReservation = reservationRepository.save(reservation);
+    Reservation updatedReservation = saveChecked(reservation);
+    availabilityIndex.track(updatedReservation);
+    bookingQuotaRegistry.track(updatedReservation);
+    occupancyRollupService.replace(previousOccupancy, updatedReservation);
+    waitlistService.slotReleased(previousOccupancy, occupancyRollupService.snapshot(updatedReservation));
+    reservationEventPublisher.publish(updatedReservation,
+            updatedReservation.getStatus() == ReservationStatus.CANCELLED
+                    ? ReservationEventType.CANCELLED : ReservationEventType.UPDATED);
     return ReservationMapper.toResponse(updatedReservation);
   }
 
   @Transactional
   public Long delete(Long id) {
-    if (!reservationRepository.existsById(id)) {
-      throw new RuntimeException("Reserva no encontrada con id: " + id);
-    }
-
-    this.reservationRepository.deleteById(id);
+    Reservation reservation = reservationRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Reserva no encontrada con id: " + id));
+
+    OccupancyInterval previousOccupancy = occupancyRollupService.snapshot(reservation);
+    this.reservationRepository.delete(reservation);
+    availabilityIndex.forget(id);
+    bookingQuotaRegistry.forget(id);
+    reservationColumnStore.forget(id);
+    occupancyRollupService.replace(previousOccupancy, null);
+    waitlistService.slotReleased(previousOccupancy, null);
+    reservationEventPublisher.publish(reservation, ReservationEventType.DELETED);
     return id;
   }
 
@@ -111,7 +393,11 @@ public class ReservationService {
 
   @Transactional(readOnly = true)
   public boolean hasReservationConflict(Long courtId, LocalDateTime startTime, LocalDateTime endTime) {
-    return reservationRepository.hasReservationConflict(courtId, startTime, endTime);
+    if (slotHoldRegistry.hasConflict(courtId, startTime, endTime, null)) {
+      return true;
+    }
+    return availabilityIndex.hasConflict(courtId, startTime, endTime)
+            .orElseGet(() -> reservationRepository.hasReservationConflict(courtId, startTime, endTime));
   }
 
   @Transactional(readOnly = true)
@@ -126,6 +412,14 @@ public class ReservationService {
       throw new IllegalArgumentException("La fecha de fin debe ser posterior a la de inicio");
     }
 
+    Optional<List<ReservationAvailabilityIndex.IndexedReservation>> indexed =
+            availabilityIndex.findConflicts(courtId, startTime, endTime);
+    if (indexed.isPresent()) {
+      return indexed.get().stream()
+              .map(this::mapToConflictDTO)
+              .collect(Collectors.toList());
+    }
+
     List<Reservation> conflictingReservations = findConflictingReservations(courtId, startTime, endTime);
 
     return conflictingReservations.stream()
@@ -133,14 +427,85 @@ public class ReservationService {
             .collect(Collectors.toList());
   }
 
+  // Intervalos ocupados de una cancha en un día completo, ordenados por inicio. Incluye las
+  // retenciones vigentes: para reservar cuentan como ocupado (ver hasReservationConflict).
+  @Transactional(readOnly = true)
+  public List<OccupiedIntervalDTO> getOccupiedIntervals(Long courtId, LocalDate date) {
+    if (date == null) {
+      throw new IllegalArgumentException("La fecha es obligatoria");
+    }
+
+    LocalDateTime dayStart = date.atStartOfDay();
+    LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+
+    List<OccupiedIntervalDTO> reserved = availabilityIndex.findConflicts(courtId, dayStart, dayEnd)
+            .map(indexed -> indexed.stream()
+                    .map(reservation -> OccupiedIntervalDTO.builder()
+                            .courtId(reservation.courtId())
+                            .startTime(reservation.startTime())
+                            .endTime(reservation.endTime())
+                            .build())
+                    .toList())
+            .orElseGet(() -> findConflictingReservations(courtId, dayStart, dayEnd).stream()
+                    .map(ReservationMapper::toOccupiedInterval)
+                    .toList());
+    return withHolds(reserved, List.of(courtId), dayStart, dayEnd);
+  }
+
+  // Ocupación de varias canchas en un día: índice si está disponible, si no una sola consulta
+  @Transactional(readOnly = true)
+  public List<OccupiedIntervalDTO> getOccupiedIntervals(List<Long> courtIds, LocalDate date) {
+    if (date == null) {
+      throw new IllegalArgumentException("La fecha es obligatoria");
+    }
+
+    if (courtIds == null || courtIds.isEmpty()) {
+      return List.of();
+    }
+
+    LocalDateTime dayStart = date.atStartOfDay();
+    LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+
+    if (availabilityIndex.covers(dayStart)) {
+      return courtIds.stream()
+              .distinct()
+              .flatMap(courtId -> getOccupiedIntervals(courtId, date).stream())
+              .toList();
+    }
+
+    List<OccupiedIntervalDTO> reserved = reservationRepository.findConflictingReservationsForCourts(courtIds, dayStart, dayEnd)
+            .stream()
+            .map(ReservationMapper::toOccupiedInterval)
+            .toList();
+    return withHolds(reserved, courtIds, dayStart, dayEnd);
+  }
+
+  private List<OccupiedIntervalDTO> withHolds(List<OccupiedIntervalDTO> reserved, List<Long> courtIds,
+                                              LocalDateTime dayStart, LocalDateTime dayEnd) {
+    List<OccupiedIntervalDTO> occupied = new ArrayList<>(reserved);
+    courtIds.stream()
+            .distinct()
+            .flatMap(courtId -> slotHoldRegistry.findOverlapping(courtId, dayStart, dayEnd).stream())
+            .map(hold -> OccupiedIntervalDTO.builder()
+                    .courtId(hold.request().getCourtId())
+                    .startTime(hold.request().getStartTime())
+                    .endTime(hold.request().getEndTime())
+                    .build())
+            .forEach(occupied::add);
+    if (occupied.size() == reserved.size()) {
+      return reserved;
+    }
+    occupied.sort(Comparator.comparing(OccupiedIntervalDTO::getCourtId).thenComparing(OccupiedIntervalDTO::getStartTime));
+    return occupied;
+  }
+
   @Transactional(readOnly = true)
   public BigDecimal getPendingAmount(Long id) {
     Reservation reservation = reservationRepository.findById(id)
             .orElseThrow(() -> new EntityNotFoundException("Reserva no encontrada con id: " + id));
 
-    // Calcular el precio total de la reserva
-    CourtDTO court = courtClient.findById(reservation.getCourtId());
-    BigDecimal totalAmount = calculateReservationPrice(court, reservation.getStartTime(), reservation.getEndTime());
+    // Precio total guardado al reservar
+    BigDecimal totalAmount = getReservationTotal(reservation);
 
     // Obtener el total ya pagado
     BigDecimal paidAmount = getTotalPaidByReservation(id);
@@ -165,7 +530,7 @@ public class ReservationService {
 
     // Si no hay paidAmount, inferir del estado
     return reservation.getPaymentStatus() == ReservationPaymentStatus.CONFIRMED ?
-            calculateReservationPriceForReservation(reservation) : BigDecimal.ZERO;
+            getReservationTotal(reservation) : BigDecimal.ZERO;
   }
 
   public BigDecimal calculateReservationPrice(CourtDTO court, LocalDateTime startTime, LocalDateTime endTime) {
@@ -179,6 +544,14 @@ public class ReservationService {
       return BigDecimal.ZERO;
     }
 
+    return calculateReservationPrice(court.getPricePerHour(), startTime, endTime);
+  }
+
+  public BigDecimal calculateReservationPrice(BigDecimal pricePerHour, LocalDateTime startTime, LocalDateTime endTime) {
+    if (pricePerHour == null) {
+      return BigDecimal.ZERO;
+    }
+
     // Validar fechas
     if (startTime == null || endTime == null) {
       throw new IllegalArgumentException("Las fechas no pueden ser null");
@@ -200,9 +573,6 @@ public class ReservationService {
       // Calcular horas: minutos / 60
       BigDecimal hoursDecimal = minutesBigDecimal.divide(sixty, 2, RoundingMode.HALF_UP);
 
-      // Obtener precio por hora
-      BigDecimal pricePerHour = court.getPricePerHour();
-
       // Calcular precio total
       BigDecimal totalPrice = pricePerHour.multiply(hoursDecimal);
 
@@ -210,22 +580,38 @@ public class ReservationService {
       return totalPrice.setScale(2, RoundingMode.HALF_UP);
 
     } catch (Exception e) {
-      log.error("Error al calcular precio para court {}: {}", court.getId(), e.getMessage(), e);
+      log.error("Error al calcular precio: {}", e.getMessage(), e);
       return BigDecimal.ZERO;
     }
   }
 
+  // Guardar el precio por hora vigente y el total de la reserva
+  public void applyPriceSnapshot(Reservation reservation, BigDecimal pricePerHour) {
+    reservation.setPricePerHour(pricePerHour);
+    reservation.setTotalAmount(calculateReservationPrice(pricePerHour, reservation.getStartTime(), reservation.getEndTime()));
+  }
+
+  // Total guardado; solo las reservas aún no migradas por el backfill consultan la cancha
+  private BigDecimal getReservationTotal(Reservation reservation) {
+    if (reservation.getTotalAmount() != null) {
+      return reservation.getTotalAmount();
+    }
+    return calculateReservationPriceForReservation(reservation);
+  }
+
   // Método auxiliar para calcular precio de una reserva existente
   private BigDecimal calculateReservationPriceForReservation(Reservation reservation) {
-    CourtDTO court = courtClient.findById(reservation.getCourtId());
+    CourtDTO court = remoteLookupCache.findCourt(reservation.getCourtId());
     return calculateReservationPrice(court, reservation.getStartTime(), reservation.getEndTime());
   }
 
   @Transactional
   public void updatePaymentStatus(Long id, String paymentStatus) {
-    Reservation reservation = reservationRepository.findById(id)
+    Reservation reservation = reservationRepository.findByIdForUpdate(id)
             .orElseThrow(() -> new EntityNotFoundException("Reserva no encontrada con id: " + id));
 
+    OccupancyInterval previousOccupancy = occupancyRollupService.snapshot(reservation);
+
     // Convertir String a ReservationPaymentStatus
     ReservationPaymentStatus newStatus = mapStringToPaymentStatus(paymentStatus);
 
@@ -238,7 +624,7 @@ public class ReservationService {
     // Si el pago se confirma, actualizar paidAmount
     if (newStatus == ReservationPaymentStatus.CONFIRMED) {
       // Calcular y establecer el total pagado
-      BigDecimal totalAmount = calculateReservationPriceForReservation(reservation);
+      BigDecimal totalAmount = getReservationTotal(reservation);
       reservation.setPaidAmount(totalAmount);
 
       // También actualizar estado de reserva a CONFIRMED
@@ -252,6 +638,11 @@ public class ReservationService {
 
     reservation.setUpdatedAt(LocalDateTime.now());
     reservationRepository.save(reservation);
+    availabilityIndex.track(reservation);
+    bookingQuotaRegistry.track(reservation);
+    occupancyRollupService.replace(previousOccupancy, reservation);
+    waitlistService.slotReleased(previousOccupancy, occupancyRollupService.snapshot(reservation));
+    reservationEventPublisher.publish(reservation, paymentEventType(reservation));
 
     log.info("Estado de pago actualizado para reserva {}: {} -> {}",
             id, reservation.getPaymentStatus(), newStatus);
@@ -259,16 +650,17 @@ public class ReservationService {
 
   @Transactional
   public void applyPayment(Long id, BigDecimal amount, String paymentMethod, String transactionId, String notes) {
-    Reservation reservation = reservationRepository.findById(id)
+    Reservation reservation = reservationRepository.findByIdForUpdate(id)
             .orElseThrow(() -> new EntityNotFoundException("Reserva no encontrada con id: " + id));
 
     // Validar que la reserva acepte pagos
     if (reservation.getStatus() == ReservationStatus.CANCELLED) {
       throw new IllegalStateException("No se puede aplicar pago a una reserva cancelada");
     }
+    OccupancyInterval previousOccupancy = occupancyRollupService.snapshot(reservation);
 
-    // Calcular precio total si no está calculado
-    BigDecimal totalAmount = calculateReservationPriceForReservation(reservation);
+    // Precio total guardado al reservar
+    BigDecimal totalAmount = getReservationTotal(reservation);
 
     // Obtener monto actual pagado
     BigDecimal currentPaidAmount = reservation.getPaidAmount() != null ?
@@ -302,6 +694,11 @@ public class ReservationService {
 
     reservation.setUpdatedAt(LocalDateTime.now());
     reservationRepository.save(reservation);
+    availabilityIndex.track(reservation);
+    bookingQuotaRegistry.track(reservation);
+    occupancyRollupService.replace(previousOccupancy, reservation);
+    waitlistService.slotReleased(previousOccupancy, occupancyRollupService.snapshot(reservation));
+    reservationEventPublisher.publish(reservation, paymentEventType(reservation));
 
     log.info("Pago aplicado a reserva {} - Monto: {}, Total pagado: {}, Método: {}",
             id, amount, newPaidAmount, paymentMethod);
@@ -311,23 +708,7 @@ public class ReservationService {
   public List<ReservationResponseDTO> findByUserEmail(String userEmail) {
     log.info("🔍 [DEBUG] Iniciando findByUserEmail con email: {}", userEmail);
 
-    // 1. Verificar autenticación
-    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-
-    if (auth == null || !auth.isAuthenticated()) {
-      log.error("❌ [ERROR] Usuario no autenticado");
-      throw new SecurityException("Usuario no autenticado");
-    }
-
-    String emailFromAuth = auth.getName();
-    log.info("🔍 [DEBUG] Email del contexto: {}", emailFromAuth);
-
-    // 2. Validar que solo vea sus propias reservas
-    if (!emailFromAuth.equals(userEmail)) {
-      log.warn("⚠️ [WARN] Intento de acceso no autorizado. Email solicitado: {}, Email autenticado: {}",
-              userEmail, emailFromAuth);
-      throw new SecurityException("No tienes permiso para ver reservas de otros usuarios");
-    }
+    checkOwnReservations(userEmail);
 
     try {
       // 3. Buscar directamente por email (SIN llamar a userClient)
@@ -352,6 +733,41 @@ public class ReservationService {
     }
   }
 
+  // Reservas del usuario autenticado, por cursor
+  @Transactional(readOnly = true)
+  public CursorPageDTO<ReservationResponseDTO> findPageByUserEmail(String userEmail, String cursor, Integer size) {
+    checkOwnReservations(userEmail);
+
+    int pageSize = PageCursor.clampSize(size);
+    List<ReservationResponseDTO> reservations = reservationRepository
+            .findByUserEmailAndIdGreaterThanOrderByIdAsc(userEmail, PageCursor.afterId(cursor), PageRequest.of(0, pageSize + 1))
+            .stream()
+            .map(ReservationMapper::toResponse)
+            .toList();
+    return PageCursor.of(reservations, pageSize, item -> PageCursor.encode(item.getId()));
+  }
+
+  // Solo se pueden listar las reservas propias
+  private void checkOwnReservations(String userEmail) {
+    // 1. Verificar autenticación
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+    if (auth == null || !auth.isAuthenticated()) {
+      log.error("❌ [ERROR] Usuario no autenticado");
+      throw new SecurityException("Usuario no autenticado");
+    }
+
+    String emailFromAuth = auth.getName();
+    log.info("🔍 [DEBUG] Email del contexto: {}", emailFromAuth);
+
+    // 2. Validar que solo vea sus propias reservas
+    if (!emailFromAuth.equals(userEmail)) {
+      log.warn("⚠️ [WARN] Intento de acceso no autorizado. Email solicitado: {}, Email autenticado: {}",
+              userEmail, emailFromAuth);
+      throw new SecurityException("No tienes permiso para ver reservas de otros usuarios");
+    }
+  }
+
   // Método para mapear String a ReservationPaymentStatus
   private ReservationPaymentStatus mapStringToPaymentStatus(String status) {
     if (status == null) {
@@ -376,7 +792,7 @@ public class ReservationService {
             .orElseThrow(() -> new EntityNotFoundException("Reserva no encontrada"));
 
     // Calcular si no está almacenado
-    return calculateReservationPriceForReservation(reservation);
+    return getReservationTotal(reservation);
   }
 
   private List<Reservation> findConflictingReservations(Long courtId,
@@ -395,38 +811,137 @@ public class ReservationService {
             .build();
   }
 
-  private void validateResourcesExist(ReservationRequestDTO request) {
-    boolean userExists = userClient.userExists(request.getUserId());
-    if (!userExists) {
-      throw new EntityNotFoundException("Usuario no encontrado con id: " + request.getUserId());
-    }
+  private ReservationConflictDTO mapToConflictDTO(ReservationAvailabilityIndex.IndexedReservation reservation) {
+    return ReservationConflictDTO.builder()
+            .reservationId(reservation.id())
+            .conflictingStartTime(reservation.startTime())
+            .conflictingEndTime(reservation.endTime())
+            .status(reservation.status().name())
+            .userId(reservation.userId())
+            .build();
+  }
 
-    CourtDTO court = courtClient.findById(request.getCourtId());
-    if (court == null || !court.getClubId().equals(request.getClubId())) {
-      throw new RuntimeException("La cancha no existe o no pertenece al club especificado");
-    }
+  // Usuario, cancha y club se validan en paralelo; el primer error cancela el resto
+  private CourtDTO validateResourcesExist(ReservationRequestDTO request) {
+    AtomicReference<CourtDTO> court = new AtomicReference<>();
+
+    remoteValidationExecutor.runAll(List.of(
+            () -> {
+              boolean userExists = remoteLookupCache.userExists(request.getUserId());
+              if (!userExists) {
+                throw new EntityNotFoundException("Usuario no encontrado con id: " + request.getUserId());
+              }
+            },
+            () -> {
+              CourtDTO found = remoteLookupCache.findCourt(request.getCourtId());
+              if (found == null || !found.getClubId().equals(request.getClubId())) {
+                throw new RuntimeException("La cancha no existe o no pertenece al club especificado");
+              }
+              court.set(found);
+            },
+            () -> {
+              boolean clubExists = remoteLookupCache.clubExists(request.getClubId());
+              if (!clubExists) {
+                throw new EntityNotFoundException("Club no encontrado con id: " + request.getClubId());
+              }
+            }
+    ));
+
+    return court.get();
+  }
 
-    boolean clubExists = clubClient.clubExists(request.getClubId());
-    if (!clubExists) {
-      throw new EntityNotFoundException("Club no encontrado con id: " + request.getClubId());
+  private void validateCourtActive(CourtDTO court) {
+    if (!court.getIsActive()) {
+      throw new RuntimeException("La cancha no está activa");
     }
   }
 
+  // Se llama con el lock de la cancha tomado. Si el índice no ve conflicto se confía en la
+  // restricción de exclusión de la BD, solo donde está verificada; si no, se confirma con la BD.
   private void validateCourtAvailability(ReservationRequestDTO request) {
-    boolean isAvailable = reservationRepository.isCourtAvailable(
+    validateCourtAvailability(request, null, null);
+  }
+
+  // ownReservationId: la reserva que se está moviendo no cuenta como conflicto consigo misma
+  private void validateCourtAvailability(ReservationRequestDTO request, String ownHoldId, Long ownReservationId) {
+    if (slotHoldRegistry.hasConflict(request.getCourtId(), request.getStartTime(), request.getEndTime(), ownHoldId)) {
+      throw new ReservationConflictException("El horario está retenido por otro usuario");
+    }
+
+    Optional<Boolean> indexed = ownReservationId == null
+            ? availabilityIndex.hasConflict(request.getCourtId(), request.getStartTime(), request.getEndTime())
+            : availabilityIndex.findConflicts(request.getCourtId(), request.getStartTime(), request.getEndTime())
+                    .map(conflicts -> conflicts.stream().anyMatch(conflict -> !conflict.id().equals(ownReservationId)));
+    boolean conflictInIndex = indexed.orElse(true);
+
+    boolean checkDatabase = conflictInIndex || !schemaInitializer.isOverlapGuarded();
+    boolean isAvailable = !checkDatabase || reservationRepository.isCourtAvailable(
             request.getCourtId(),
             request.getStartTime(),
-            request.getEndTime()
+            request.getEndTime(),
+            ownReservationId != null ? ownReservationId : 0L
     );
 
     if (!isAvailable) {
-      throw new RuntimeException("La cancha no está disponible en el horario solicitado");
+      throw new ReservationConflictException("La cancha no está disponible en el horario solicitado");
     }
+  }
 
-    CourtDTO court = courtClient.findById(request.getCourtId());
-    if (!court.getIsActive()) {
-      throw new RuntimeException("La cancha no está activa");
+  private ReservationEventType paymentEventType(Reservation reservation) {
+    if (reservation.getStatus() == ReservationStatus.CONFIRMED
+            && reservation.getPaymentStatus() == ReservationPaymentStatus.CONFIRMED) {
+      return ReservationEventType.CONFIRMED;
+    }
+    if (reservation.getPaymentStatus() == ReservationPaymentStatus.CANCELLED) {
+      return ReservationEventType.CANCELLED;
     }
+    return ReservationEventType.PAYMENT_UPDATED;
+  }
+
+  private Reservation newPendingReservation(ReservationRequestDTO request, CourtDTO court) {
+    Reservation reservation = ReservationMapper.toEntity(request);
+    reservation.setStatus(ReservationStatus.PENDING);
+    reservation.setPaymentStatus(ReservationPaymentStatus.PENDING);
+    reservation.setCreatedAt(LocalDateTime.now());
+    applyPriceSnapshot(reservation, court.getPricePerHour());
+    return reservation;
+  }
+
+  private SlotHoldDTO mapToHoldDTO(SlotHoldRegistry.SlotHold hold) {
+    return SlotHoldDTO.builder()
+            .holdId(hold.id())
+            .courtId(hold.request().getCourtId())
+            .clubId(hold.request().getClubId())
+            .startTime(hold.request().getStartTime())
+            .endTime(hold.request().getEndTime())
+            .expiresAt(hold.expiresAt())
+            .build();
+  }
+
+  // Flush inmediato para que una violación de la restricción de solapamiento se traduzca aquí
+  private Reservation saveChecked(Reservation reservation) {
+    try {
+      return reservationRepository.saveAndFlush(reservation);
+    } catch (DataIntegrityViolationException e) {
+      if (isOverlapViolation(e)) {
+        throw new ReservationConflictException("La cancha no está disponible en el horario solicitado");
+      }
+      throw e;
+    }
+  }
+
+  // Estados que ocupan la cancha
+  private static boolean isActive(ReservationStatus status) {
+    return status == ReservationStatus.PENDING || status == ReservationStatus.CONFIRMED;
+  }
+
+  private boolean isOverlapViolation(DataIntegrityViolationException e) {
+    Throwable cause = e.getMostSpecificCause();
+    if (cause instanceof SQLException sqlException && "23P01".equals(sqlException.getSQLState())) {
+      return true;
+    }
+    return cause.getMessage() != null
+            && cause.getMessage().contains(ReservationSchemaInitializer.OVERLAP_CONSTRAINT);
   }
 
   private void validateReservationDates(ReservationRequestDTO request) {
@@ -449,6 +964,48 @@ public class ReservationService {
     }
   }
 
+  private List<ReservationRequestDTO> expandSeries(ReservationSeriesRequestDTO request) {
+    if (request.getStartTime() == null || request.getEndTime() == null || request.getFrequency() == null) {
+      throw new IllegalArgumentException("La serie requiere startTime, endTime y frequency");
+    }
+    if (request.getOccurrences() == null && request.getUntil() == null) {
+      throw new IllegalArgumentException("La serie requiere occurrences o until");
+    }
+
+    int interval = request.getInterval() != null ? request.getInterval() : 1;
+    if (interval < 1) {
+      throw new IllegalArgumentException("El intervalo debe ser mayor a 0");
+    }
+
+    int limit = request.getOccurrences() != null
+            ? Math.min(request.getOccurrences(), MAX_SERIES_OCCURRENCES) : MAX_SERIES_OCCURRENCES;
+    Duration duration = Duration.between(request.getStartTime(), request.getEndTime());
+    List<ReservationRequestDTO> occurrences = new ArrayList<>();
+
+    for (int n = 0; n < limit; n++) {
+      LocalDateTime start = request.getFrequency() == RecurrenceFrequency.DAILY
+              ? request.getStartTime().plusDays((long) n * interval)
+              : request.getStartTime().plusWeeks((long) n * interval);
+      if (request.getUntil() != null && start.toLocalDate().isAfter(request.getUntil())) {
+        break;
+      }
+
+      occurrences.add(ReservationRequestDTO.builder()
+              .userId(request.getUserId())
+              .courtId(request.getCourtId())
+              .clubId(request.getClubId())
+              .userEmail(request.getUserEmail())
+              .startTime(start)
+              .endTime(start.plus(duration))
+              .build());
+    }
+
+    if (occurrences.isEmpty()) {
+      throw new IllegalArgumentException("La serie no tiene ocurrencias");
+    }
+    return occurrences;
+  }
+
   private void validatePaymentStatusTransition(ReservationPaymentStatus current, ReservationPaymentStatus newStatus) {
     // No se puede cambiar desde estados finales
     if (current == ReservationPaymentStatus.CONFIRMED &&
@@ -0,0 +1,201 @@
+package org.example.microservicereservation.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservicereservation.service.dto.request.ReservationRequestDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Retenciones temporales de un horario mientras el usuario completa el pago.
+// Cuentan como conflicto para cualquier otra reserva o retención de la misma cancha.
+// El vencimiento usa una rueda de tiempo: cada retención queda en el casillero de su segundo
+// de vencimiento y en cada tick solo se revisa ese casillero.
+// Son locales a la instancia; con varias réplicas la BD sigue siendo la autoridad final.
+@Slf4j
+@Component
+public class SlotHoldRegistry {
+  private static final int WHEEL_SLOTS = 512;
+  private static final long TICK_MS = 1000;
+
+  @Value("${reservation.holds.ttl-seconds:300}")
+  private long ttlSeconds;
+
+  private final Map<String, SlotHold> holds = new ConcurrentHashMap<>();
+  private final Map<Long, Map<String, SlotHold>> holdsByCourt = new ConcurrentHashMap<>();
+  private final List<Set<String>> wheel = new ArrayList<>(WHEEL_SLOTS);
+  private final List<Consumer<SlotHold>> expirationListeners = new CopyOnWriteArrayList<>();
+  private long currentTick = System.currentTimeMillis() / TICK_MS;
+
+  public record SlotHold(String id,
+                         ReservationRequestDTO request,
+                         LocalDateTime expiresAt) {
+    boolean isExpired(LocalDateTime now) {
+      return !expiresAt.isAfter(now);
+    }
+
+    boolean overlaps(LocalDateTime startTime, LocalDateTime endTime) {
+      return request.getStartTime().isBefore(endTime) && request.getEndTime().isAfter(startTime);
+    }
+  }
+
+  public SlotHoldRegistry() {
+    for (int i = 0; i < WHEEL_SLOTS; i++) {
+      wheel.add(ConcurrentHashMap.newKeySet());
+    }
+  }
+
+  // Crea la retención si no se solapa con otra vigente de la misma cancha
+  public Optional<SlotHold> tryHold(ReservationRequestDTO request) {
+    return tryHold(request, Duration.ofSeconds(ttlSeconds));
+  }
+
+  public Optional<SlotHold> tryHold(ReservationRequestDTO request, Duration ttl) {
+    Map<String, SlotHold> courtHolds = holdsByCourt.computeIfAbsent(request.getCourtId(), id -> new ConcurrentHashMap<>());
+
+    synchronized (courtHolds) {
+      if (hasConflict(request.getCourtId(), request.getStartTime(), request.getEndTime(), null)) {
+        return Optional.empty();
+      }
+
+      LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+      SlotHold hold = new SlotHold(UUID.randomUUID().toString(), request, expiresAt);
+      holds.put(hold.id(), hold);
+      courtHolds.put(hold.id(), hold);
+      schedule(hold, ttl);
+      return Optional.of(hold);
+    }
+  }
+
+  public Optional<SlotHold> find(String holdId) {
+    SlotHold hold = holds.get(holdId);
+    if (hold == null || hold.isExpired(LocalDateTime.now())) {
+      return Optional.empty();
+    }
+    return Optional.of(hold);
+  }
+
+  // Retenciones vigentes de una cancha
+  public List<SlotHold> findByCourt(Long courtId) {
+    Map<String, SlotHold> courtHolds = holdsByCourt.get(courtId);
+    if (courtHolds == null) {
+      return List.of();
+    }
+    LocalDateTime now = LocalDateTime.now();
+    return courtHolds.values().stream().filter(hold -> !hold.isExpired(now)).toList();
+  }
+
+  // Retenciones vigentes de una cancha que se solapan con el rango
+  public List<SlotHold> findOverlapping(Long courtId, LocalDateTime startTime, LocalDateTime endTime) {
+    return findByCourt(courtId).stream()
+            .filter(hold -> hold.overlaps(startTime, endTime))
+            .toList();
+  }
+
+  // Libera las retenciones de un club (o de una cancha) que se solapan con el rango
+  public int releaseOverlapping(Long clubId, Long courtId, LocalDateTime startTime, LocalDateTime endTime) {
+    List<String> released = holds.values().stream()
+            .filter(hold -> courtId != null
+                    ? courtId.equals(hold.request().getCourtId())
+                    : clubId.equals(hold.request().getClubId()))
+            .filter(hold -> hold.overlaps(startTime, endTime))
+            .map(SlotHold::id)
+            .toList();
+    released.forEach(this::release);
+    return released.size();
+  }
+
+  // La retención se libera recién cuando la reserva que la reemplaza queda confirmada
+  public void releaseAfterCommit(String holdId) {
+    TransactionCallbacks.afterCommit(() -> release(holdId));
+  }
+
+  // Se avisa cada retención vencida sin confirmar (el horario vuelve a quedar libre)
+  public void addExpirationListener(Consumer<SlotHold> listener) {
+    expirationListeners.add(listener);
+  }
+
+  public void release(String holdId) {
+    SlotHold hold = holds.remove(holdId);
+    if (hold != null) {
+      Map<String, SlotHold> courtHolds = holdsByCourt.get(hold.request().getCourtId());
+      if (courtHolds != null) {
+        courtHolds.remove(holdId);
+      }
+    }
+  }
+
+  // Conflicto con una retención vigente de la cancha (excepto la indicada)
+  public boolean hasConflict(Long courtId, LocalDateTime startTime, LocalDateTime endTime, String excludedHoldId) {
+    Map<String, SlotHold> courtHolds = holdsByCourt.get(courtId);
+    if (courtHolds == null || courtHolds.isEmpty()) {
+      return false;
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    for (SlotHold hold : courtHolds.values()) {
+      if (!hold.id().equals(excludedHoldId) && !hold.isExpired(now) && hold.overlaps(startTime, endTime)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Scheduled(fixedRate = TICK_MS)
+  public void expire() {
+    long now = System.currentTimeMillis() / TICK_MS;
+    LocalDateTime nowTime = LocalDateTime.now();
+    List<SlotHold> expired = new ArrayList<>();
+
+    synchronized (wheel) {
+      // Si el scheduler se atrasó se recorren los ticks pendientes (como máximo una vuelta)
+      long from = Math.max(currentTick + 1, now - WHEEL_SLOTS + 1);
+      for (long tick = from; tick <= now; tick++) {
+        Set<String> bucket = wheel.get((int) (tick % WHEEL_SLOTS));
+        for (String holdId : bucket) {
+          SlotHold hold = holds.get(holdId);
+          // Las retenciones de más de una vuelta siguen en el casillero hasta su vencimiento
+          if (hold == null || hold.isExpired(nowTime)) {
+            bucket.remove(holdId);
+            if (hold != null) {
+              release(holdId);
+              expired.add(hold);
+            }
+          }
+        }
+      }
+      currentTick = Math.max(currentTick, now);
+    }
+
+    if (!expired.isEmpty()) {
+      log.debug("{} retenciones vencidas", expired.size());
+      // Fuera del lock de la rueda: los listeners pueden consultar la BD
+      for (SlotHold hold : expired) {
+        for (Consumer<SlotHold> listener : expirationListeners) {
+          try {
+            listener.accept(hold);
+          } catch (Exception e) {
+            log.warn("Error al notificar el vencimiento de la retención {}: {}", hold.id(), e.getMessage());
+          }
+        }
+      }
+    }
+  }
+
+  private void schedule(SlotHold hold, Duration ttl) {
+    long expiresAtMs = System.currentTimeMillis() + ttl.toMillis();
+    long tick = (expiresAtMs + TICK_MS - 1) / TICK_MS;
+    wheel.get((int) (tick % WHEEL_SLOTS)).add(hold.id());
+  }
+}
@@ -0,0 +1,38 @@
+package org.example.microservicereservation.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Efectos que solo deben verse si la transacción actual confirma (índices en memoria, pedidos
+// remotos). Sin transacción activa la acción corre en el momento.
+public final class TransactionCallbacks {
+  private TransactionCallbacks() {
+  }
+
+  public static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  // Corre confirme o no la transacción, después de los afterCommit
+  public static void afterCompletion(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+}
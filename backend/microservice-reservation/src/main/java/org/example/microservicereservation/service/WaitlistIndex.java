@@ -0,0 +1,119 @@
+package org.example.microservicereservation.service;
+
+import org.example.microservicereservation.entity.WaitlistEntry;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Índice en memoria de la lista de espera. Cada espera queda en el casillero de la hora en que
+// empieza, bajo su cancha o bajo (club, tipo de cancha). Al liberarse un horario solo se revisan
+// los casilleros que cubre; dentro de cada uno las esperas están ordenadas por id (orden de llegada).
+@Component
+public class WaitlistIndex {
+  private final Map<BucketKey, ConcurrentSkipListMap<Long, Waiter>> buckets = new ConcurrentHashMap<>();
+  private final Map<Long, Waiter> waiters = new ConcurrentHashMap<>();
+
+  public record Waiter(Long id,
+                       Long clubId,
+                       Long courtId,
+                       String courtType,
+                       LocalDateTime startTime,
+                       LocalDateTime endTime) {
+    static Waiter of(WaitlistEntry entry) {
+      return new Waiter(entry.getId(), entry.getClubId(), entry.getCourtId(), normalizeType(entry.getCourtType()),
+              entry.getStartTime(), entry.getEndTime());
+    }
+
+    BucketKey key() {
+      return courtId != null
+              ? new BucketKey(courtId, null, null, bucketOf(startTime))
+              : new BucketKey(null, clubId, courtType, bucketOf(startTime));
+    }
+
+    boolean fitsIn(LocalDateTime freedStart, LocalDateTime freedEnd) {
+      return !startTime.isBefore(freedStart) && !endTime.isAfter(freedEnd);
+    }
+  }
+
+  // Cancha puntual o (club, tipo); el casillero es la hora de inicio en horas desde epoch
+  private record BucketKey(Long courtId, Long clubId, String courtType, long hour) {
+  }
+
+  public void add(WaitlistEntry entry) {
+    Waiter waiter = Waiter.of(entry);
+    remove(waiter.id());
+    waiters.put(waiter.id(), waiter);
+    buckets.computeIfAbsent(waiter.key(), key -> new ConcurrentSkipListMap<>()).put(waiter.id(), waiter);
+  }
+
+  public void remove(Long id) {
+    Waiter waiter = waiters.remove(id);
+    if (waiter == null) {
+      return;
+    }
+
+    buckets.computeIfPresent(waiter.key(), (key, bucket) -> {
+      bucket.remove(id);
+      return bucket.isEmpty() ? null : bucket;
+    });
+  }
+
+  public void replaceAll(Collection<WaitlistEntry> entries) {
+    buckets.clear();
+    waiters.clear();
+    entries.forEach(this::add);
+  }
+
+  public int size() {
+    return waiters.size();
+  }
+
+  // Esperas que entran completas en el horario liberado, en orden de llegada.
+  // Las de la cancha puntual y las de su tipo compiten por el mismo orden.
+  public List<Waiter> candidates(Long courtId, Long clubId, String courtType,
+                                 LocalDateTime startTime, LocalDateTime endTime) {
+    String type = normalizeType(courtType);
+    long first = bucketOf(startTime);
+    long last = bucketOf(endTime.minusNanos(1));
+
+    List<Waiter> candidates = new ArrayList<>();
+    for (long hour = first; hour <= last; hour++) {
+      collect(new BucketKey(courtId, null, null, hour), startTime, endTime, candidates);
+      if (type != null) {
+        collect(new BucketKey(null, clubId, type, hour), startTime, endTime, candidates);
+      }
+    }
+    candidates.sort(Comparator.comparing(Waiter::id));
+    return candidates;
+  }
+
+  private void collect(BucketKey key, LocalDateTime startTime, LocalDateTime endTime, List<Waiter> candidates) {
+    ConcurrentSkipListMap<Long, Waiter> bucket = buckets.get(key);
+    if (bucket == null) {
+      return;
+    }
+    for (Waiter waiter : bucket.values()) {
+      if (waiter.fitsIn(startTime, endTime)) {
+        candidates.add(waiter);
+      }
+    }
+  }
+
+  private static long bucketOf(LocalDateTime time) {
+    return time.truncatedTo(ChronoUnit.HOURS).toEpochSecond(ZoneOffset.UTC) / 3600;
+  }
+
+  private static String normalizeType(String courtType) {
+    return courtType != null && !courtType.isBlank() ? courtType.trim().toUpperCase(Locale.ROOT) : null;
+  }
+}
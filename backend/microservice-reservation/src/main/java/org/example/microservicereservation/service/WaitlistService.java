@@ -0,0 +1,370 @@
+package org.example.microservicereservation.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservicereservation.entity.WaitlistEntry;
+import org.example.microservicereservation.entity.WaitlistStatus;
+import org.example.microservicereservation.repository.ReservationRepository;
+import org.example.microservicereservation.repository.WaitlistEntryRepository;
+import org.example.microservicereservation.service.dto.CourtDTO;
+import org.example.microservicereservation.service.dto.OccupancyInterval;
+import org.example.microservicereservation.service.dto.request.ReservationRequestDTO;
+import org.example.microservicereservation.service.dto.request.WaitlistRequestDTO;
+import org.example.microservicereservation.service.dto.response.WaitlistEntryDTO;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+// Lista de espera: cuando un horario se libera (cancelación, borrado, cambio de horario o
+// retención vencida) se buscan en WaitlistIndex las esperas que entran en él y, por orden de
+// llegada, se le ofrece a cada una una retención corta. Reemplaza a los clientes que
+// reintentaban la reserva en bucle esperando una cancelación.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WaitlistService {
+  private static final List<WaitlistStatus> OPEN_STATUSES = List.of(WaitlistStatus.WAITING, WaitlistStatus.OFFERED);
+
+  private final WaitlistEntryRepository waitlistEntryRepository;
+  private final ReservationRepository reservationRepository;
+  private final WaitlistIndex waitlistIndex;
+  private final ReservationAvailabilityIndex availabilityIndex;
+  private final SlotHoldRegistry slotHoldRegistry;
+  private final RemoteLookupCache remoteLookupCache;
+  private final TransactionTemplate transactionTemplate;
+  private final MeterRegistry meterRegistry;
+  private final ShardRouter shardRouter;
+
+  @Value("${reservation.waitlist.enabled:true}")
+  private boolean enabled;
+
+  @Value("${reservation.waitlist.offer-ttl-seconds:120}")
+  private long offerTtlSeconds;
+
+  @Value("${reservation.waitlist.max-per-user:5}")
+  private int maxPerUser;
+
+  private Counter offeredCounter;
+  // El emparejamiento corre después del commit: necesita su propia transacción
+  private TransactionTemplate requiresNew;
+
+  @PostConstruct
+  void init() {
+    requiresNew = new TransactionTemplate(Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+    requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    offeredCounter = Counter.builder("reservation.waitlist.offered")
+            .description("Retenciones ofrecidas a usuarios en lista de espera")
+            .register(meterRegistry);
+    Gauge.builder("reservation.waitlist.waiting", waitlistIndex, WaitlistIndex::size)
+            .register(meterRegistry);
+    slotHoldRegistry.addExpirationListener(this::onHoldExpired);
+  }
+
+  @Transactional
+  public WaitlistEntryDTO register(WaitlistRequestDTO request) {
+    if (!enabled) {
+      throw new IllegalStateException("La lista de espera está deshabilitada");
+    }
+    validate(request);
+
+    if (waitlistEntryRepository.countByUserEmailAndStatusIn(request.getUserEmail(), OPEN_STATUSES) >= maxPerUser) {
+      throw new IllegalArgumentException("No se pueden tener más de " + maxPerUser + " esperas activas");
+    }
+
+    WaitlistEntry entry = waitlistEntryRepository.save(WaitlistEntry.builder()
+            .userId(request.getUserId())
+            .userEmail(request.getUserEmail())
+            .clubId(request.getClubId())
+            .courtId(request.getCourtId())
+            .courtType(request.getCourtId() == null ? request.getCourtType().trim() : null)
+            .startTime(request.getStartTime())
+            .endTime(request.getEndTime())
+            .status(WaitlistStatus.WAITING)
+            .createdAt(LocalDateTime.now())
+            .build());
+
+    TransactionCallbacks.afterCommit(() -> waitlistIndex.add(entry));
+    return toDTO(entry);
+  }
+
+  @Transactional(readOnly = true)
+  public List<WaitlistEntryDTO> findByUserEmail(String userEmail) {
+    return waitlistEntryRepository.findByUserEmailOrderByIdDesc(userEmail).stream()
+            .map(this::toDTO)
+            .toList();
+  }
+
+  // Solo el dueño puede darse de baja; si tenía una retención ofrecida se libera
+  @Transactional
+  public void cancel(Long id, String userEmail) {
+    WaitlistEntry entry = waitlistEntryRepository.findById(id)
+            .orElseThrow(() -> new EntityNotFoundException("Espera no encontrada con id: " + id));
+    if (!entry.getUserEmail().equalsIgnoreCase(userEmail)) {
+      throw new SecurityException("La espera pertenece a otro usuario");
+    }
+    if (!OPEN_STATUSES.contains(entry.getStatus())) {
+      return;
+    }
+
+    String holdId = entry.getStatus() == WaitlistStatus.OFFERED ? entry.getHoldId() : null;
+    entry.setStatus(WaitlistStatus.CANCELLED);
+    waitlistEntryRepository.save(entry);
+
+    TransactionCallbacks.afterCommit(() -> {
+      waitlistIndex.remove(id);
+      if (holdId != null) {
+        slotHoldRegistry.find(holdId).ifPresent(hold -> {
+          slotHoldRegistry.release(holdId);
+          match(hold.request().getCourtId(), hold.request().getClubId(),
+                  hold.request().getStartTime(), hold.request().getEndTime());
+        });
+      }
+    });
+  }
+
+  // La retención ofrecida se convirtió en reserva (misma transacción que la reserva)
+  public void markFulfilled(String holdId) {
+    waitlistEntryRepository.findByHoldId(holdId)
+            .filter(entry -> entry.getStatus() == WaitlistStatus.OFFERED)
+            .ifPresent(entry -> {
+              entry.setStatus(WaitlistStatus.FULFILLED);
+              waitlistEntryRepository.save(entry);
+            });
+  }
+
+  // Una reserva dejó de ocupar el tramo anterior: se busca espera al confirmar la transacción
+  public void slotReleased(OccupancyInterval before, OccupancyInterval after) {
+    if (before != null && !Objects.equals(before, after)) {
+      slotsReleased(List.of(before));
+    }
+  }
+
+  public void slotsReleased(Collection<OccupancyInterval> intervals) {
+    if (!enabled || intervals.isEmpty()) {
+      return;
+    }
+    List<OccupancyInterval> released = List.copyOf(intervals);
+    TransactionCallbacks.afterCommit(() -> released.forEach(interval ->
+            match(interval.courtId(), interval.clubId(), interval.startTime(), interval.endTime())));
+  }
+
+  // El usuario soltó la retención: si era una oferta se da por rechazada y pasa al siguiente
+  public void holdReleased(SlotHoldRegistry.SlotHold hold) {
+    if (!enabled) {
+      return;
+    }
+    shardRouter.runOnClub(hold.request().getClubId(), () -> requiresNew.executeWithoutResult(status ->
+            waitlistEntryRepository.findByHoldId(hold.id())
+                    .ifPresent(entry -> waitlistEntryRepository.expireOffer(entry.getId()))));
+    match(hold.request().getCourtId(), hold.request().getClubId(),
+            hold.request().getStartTime(), hold.request().getEndTime());
+  }
+
+  private void onHoldExpired(SlotHoldRegistry.SlotHold hold) {
+    if (enabled) {
+      match(hold.request().getCourtId(), hold.request().getClubId(),
+              hold.request().getStartTime(), hold.request().getEndTime());
+    }
+  }
+
+  // Ofrece el horario liberado a las esperas que entran en él, en orden de llegada.
+  // Las que se solapan con una oferta ya hecha no consiguen la retención y siguen esperando.
+  // Puede llegar desde el hilo de vencimiento de retenciones: las esperas están en el shard del club.
+  private void match(Long courtId, Long clubId, LocalDateTime startTime, LocalDateTime endTime) {
+    if (!endTime.isAfter(LocalDateTime.now())) {
+      return;
+    }
+
+    shardRouter.runOnClub(clubId, () -> matchOnShard(courtId, clubId, startTime, endTime));
+  }
+
+  private void matchOnShard(Long courtId, Long clubId, LocalDateTime startTime, LocalDateTime endTime) {
+    try {
+      CourtDTO court = remoteLookupCache.findCourt(courtId);
+      if (court == null || !Boolean.TRUE.equals(court.getIsActive())) {
+        return;
+      }
+
+      List<WaitlistIndex.Waiter> candidates = waitlistIndex.candidates(courtId, clubId, court.getType(),
+              startTime, endTime);
+      for (WaitlistIndex.Waiter waiter : candidates) {
+        if (waiter.startTime().isBefore(LocalDateTime.now())) {
+          waitlistIndex.remove(waiter.id());
+          continue;
+        }
+        if (isCourtFree(courtId, waiter.startTime(), waiter.endTime())) {
+          offer(waiter, courtId);
+        }
+      }
+    } catch (Exception e) {
+      log.warn("No se pudo procesar la lista de espera de la cancha {}: {}", courtId, e.getMessage());
+    }
+  }
+
+  private void offer(WaitlistIndex.Waiter waiter, Long courtId) {
+    Optional<WaitlistEntry> found = waitlistEntryRepository.findById(waiter.id());
+    if (found.isEmpty() || found.get().getStatus() != WaitlistStatus.WAITING) {
+      waitlistIndex.remove(waiter.id());
+      return;
+    }
+    WaitlistEntry entry = found.get();
+
+    ReservationRequestDTO request = ReservationRequestDTO.builder()
+            .userId(entry.getUserId())
+            .userEmail(entry.getUserEmail())
+            .courtId(courtId)
+            .clubId(entry.getClubId())
+            .startTime(entry.getStartTime())
+            .endTime(entry.getEndTime())
+            .build();
+    Optional<SlotHoldRegistry.SlotHold> hold = slotHoldRegistry.tryHold(request, Duration.ofSeconds(offerTtlSeconds));
+    if (hold.isEmpty()) {
+      return;
+    }
+
+    // Otra réplica pudo haber ofrecido la misma espera
+    Integer claimed = requiresNew.execute(status -> waitlistEntryRepository.claimOffer(
+            entry.getId(), hold.get().id(), courtId, hold.get().expiresAt()));
+    waitlistIndex.remove(entry.getId());
+    if (claimed == null || claimed == 0) {
+      slotHoldRegistry.release(hold.get().id());
+      return;
+    }
+
+    offeredCounter.increment();
+    log.info("Retención {} ofrecida a {} (espera {}) en la cancha {} de {} a {}", hold.get().id(),
+            entry.getUserEmail(), entry.getId(), courtId, entry.getStartTime(), entry.getEndTime());
+  }
+
+  private boolean isCourtFree(Long courtId, LocalDateTime startTime, LocalDateTime endTime) {
+    if (slotHoldRegistry.hasConflict(courtId, startTime, endTime, null)) {
+      return false;
+    }
+    boolean conflictInIndex = availabilityIndex.hasConflict(courtId, startTime, endTime).orElse(true);
+    return !conflictInIndex || reservationRepository.isCourtAvailable(courtId, startTime, endTime);
+  }
+
+  // Ofertas vencidas (incluidas las de retenciones perdidas en un reinicio): el horario pasa al siguiente
+  @Scheduled(initialDelayString = "${reservation.waitlist.expire-interval-ms:30000}",
+          fixedDelayString = "${reservation.waitlist.expire-interval-ms:30000}")
+  public void expireOffers() {
+    if (!enabled) {
+      return;
+    }
+
+    try {
+      shardRouter.forEachShard(shard -> {
+        List<WaitlistEntry> expired = requiresNew.execute(status -> {
+          List<WaitlistEntry> stale = waitlistEntryRepository.findByStatusAndOfferExpiresAtBefore(
+                  WaitlistStatus.OFFERED, LocalDateTime.now());
+          return stale.stream()
+                  .filter(entry -> waitlistEntryRepository.expireOffer(entry.getId()) == 1)
+                  .toList();
+        });
+        for (WaitlistEntry entry : expired) {
+          slotHoldRegistry.release(entry.getHoldId());
+          match(entry.getOfferedCourtId(), entry.getClubId(), entry.getStartTime(), entry.getEndTime());
+        }
+      });
+    } catch (Exception e) {
+      log.error("Error al vencer ofertas de la lista de espera: {}", e.getMessage(), e);
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onStartup() {
+    reload();
+  }
+
+  // Recarga el índice desde la BD (esperas registradas en otras réplicas o perdidas en un reinicio)
+  @Scheduled(initialDelayString = "${reservation.waitlist.refresh-interval-ms:60000}",
+          fixedDelayString = "${reservation.waitlist.refresh-interval-ms:60000}")
+  public void reload() {
+    if (!enabled) {
+      return;
+    }
+
+    try {
+      List<WaitlistEntry> waiting = shardRouter.gather(() -> requiresNew.execute(status -> {
+        LocalDateTime now = LocalDateTime.now();
+        waitlistEntryRepository.expireWaitingBefore(now);
+        return waitlistEntryRepository.findByStatusAndEndTimeAfterOrderByIdAsc(WaitlistStatus.WAITING, now);
+      }));
+      waitlistIndex.replaceAll(waiting);
+      log.debug("Lista de espera recargada: {} esperas", waiting.size());
+    } catch (Exception e) {
+      log.error("Error al recargar la lista de espera: {}", e.getMessage(), e);
+    }
+  }
+
+  private void validate(WaitlistRequestDTO request) {
+    if (request.getUserId() == null || request.getUserEmail() == null || request.getClubId() == null) {
+      throw new IllegalArgumentException("La espera requiere userId, userEmail y clubId");
+    }
+    if (request.getCourtId() == null && (request.getCourtType() == null || request.getCourtType().isBlank())) {
+      throw new IllegalArgumentException("La espera requiere courtId o courtType");
+    }
+    if (request.getStartTime() == null || request.getEndTime() == null
+            || !request.getEndTime().isAfter(request.getStartTime())) {
+      throw new IllegalArgumentException("La fecha de fin debe ser posterior a la fecha de inicio");
+    }
+    if (request.getStartTime().isBefore(LocalDateTime.now())) {
+      throw new IllegalArgumentException("No se puede esperar un horario en el pasado");
+    }
+    Duration duration = Duration.between(request.getStartTime(), request.getEndTime());
+    if (duration.toMinutes() < 60 || duration.toMinutes() > 240) {
+      throw new IllegalArgumentException("La espera debe ser de entre 60 minutos y 4 horas");
+    }
+
+    if (!remoteLookupCache.userExists(request.getUserId())) {
+      throw new EntityNotFoundException("Usuario no encontrado con id: " + request.getUserId());
+    }
+    if (request.getCourtId() != null) {
+      CourtDTO court = remoteLookupCache.findCourt(request.getCourtId());
+      if (court == null || !court.getClubId().equals(request.getClubId())) {
+        throw new IllegalArgumentException("La cancha no existe o no pertenece al club especificado");
+      }
+      if (isCourtFree(request.getCourtId(), request.getStartTime(), request.getEndTime())) {
+        throw new IllegalArgumentException("El horario está libre: se puede reservar directamente");
+      }
+    } else if (!remoteLookupCache.clubExists(request.getClubId())) {
+      throw new EntityNotFoundException("Club no encontrado con id: " + request.getClubId());
+    }
+  }
+
+  private WaitlistEntryDTO toDTO(WaitlistEntry entry) {
+    return WaitlistEntryDTO.builder()
+            .id(entry.getId())
+            .userId(entry.getUserId())
+            .userEmail(entry.getUserEmail())
+            .clubId(entry.getClubId())
+            .courtId(entry.getCourtId())
+            .courtType(entry.getCourtType())
+            .startTime(entry.getStartTime())
+            .endTime(entry.getEndTime())
+            .status(entry.getStatus())
+            .holdId(entry.getHoldId())
+            .offeredCourtId(entry.getOfferedCourtId())
+            .offerExpiresAt(entry.getOfferExpiresAt())
+            .createdAt(entry.getCreatedAt())
+            .build();
+  }
+}
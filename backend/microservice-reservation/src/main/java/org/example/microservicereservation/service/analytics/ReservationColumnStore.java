@@ -0,0 +1,517 @@
+package org.example.microservicereservation.service.analytics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservicereservation.entity.ReservationStatus;
+import org.example.microservicereservation.repository.ReservationAnalyticsRepository;
+import org.example.microservicereservation.repository.ReservationAnalyticsRepository.AnalyticsRow;
+import org.example.microservicereservation.service.RemoteLookupCache;
+import org.example.microservicereservation.service.TransactionCallbacks;
+import org.example.microservicereservation.service.dto.CourtDTO;
+import org.example.microservicereservation.service.dto.request.AnalyticsGroupBy;
+import org.example.microservicereservation.service.dto.response.AnalyticsResultDTO;
+import org.example.microservicereservation.service.dto.response.AnalyticsRowDTO;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+// Historial de reservas en columnas de primitivos (minutos desde epoch, cancha y club
+// codificados por diccionario, estado como byte) para analítica sin tocar PostgreSQL en la
+// consulta. Se carga completo al arrancar y luego por incrementos de updated_at; las consultas
+// recorren las columnas por bloques en paralelo con bucles simples sobre arreglos.
+// Es local a la instancia: los borrados hechos en otra réplica se ven en la recarga completa.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationColumnStore {
+  private static final int INITIAL_CAPACITY = 1 << 14;
+  private static final int CHUNK_SIZE = 1 << 16;
+  private static final byte DELETED = -1;
+  private static final String UNKNOWN_TYPE = "DESCONOCIDO";
+  private static final ReservationStatus[] STATUSES = ReservationStatus.values();
+
+  // Límites de los tramos de anticipación (minutos) y de duración
+  private static final int[] LEAD_TIME_LIMITS = {60, 24 * 60, 7 * 24 * 60, 30 * 24 * 60};
+  private static final String[] LEAD_TIME_LABELS = {"<1h", "1h-24h", "1d-7d", "7d-30d", ">30d", "desconocido"};
+  private static final int[] DURATION_LIMITS = {60, 90, 120};
+  private static final String[] DURATION_LABELS = {"<=60", "61-90", "91-120", ">120"};
+
+  private final ReservationAnalyticsRepository reservationAnalyticsRepository;
+  private final RemoteLookupCache remoteLookupCache;
+  private final ShardRouter shardRouter;
+
+  @Value("${reservation.analytics.enabled:true}")
+  private boolean enabled;
+
+  @Value("${reservation.analytics.batch-size:5000}")
+  private int batchSize;
+
+  // Margen hacia atrás en cada incremento: transacciones que confirman tarde con un updated_at anterior
+  @Value("${reservation.analytics.lag-seconds:300}")
+  private long lagSeconds;
+
+  private volatile Store store = new Store();
+  private volatile boolean ready = false;
+
+  // Columnas de tamaño fijo; la copia al crecer se hace en el constructor (campos final)
+  private static final class Columns {
+    final long[] id;
+    final int[] startMinute;
+    final int[] durationMinutes;
+    final int[] leadMinutes;
+    final int[] court;
+    final int[] club;
+    final byte[] status;
+
+    Columns(int capacity, Columns from, int size) {
+      id = new long[capacity];
+      startMinute = new int[capacity];
+      durationMinutes = new int[capacity];
+      leadMinutes = new int[capacity];
+      court = new int[capacity];
+      club = new int[capacity];
+      status = new byte[capacity];
+      if (from != null) {
+        System.arraycopy(from.id, 0, id, 0, size);
+        System.arraycopy(from.startMinute, 0, startMinute, 0, size);
+        System.arraycopy(from.durationMinutes, 0, durationMinutes, 0, size);
+        System.arraycopy(from.leadMinutes, 0, leadMinutes, 0, size);
+        System.arraycopy(from.court, 0, court, 0, size);
+        System.arraycopy(from.club, 0, club, 0, size);
+        System.arraycopy(from.status, 0, status, 0, size);
+      }
+    }
+
+    int capacity() {
+      return id.length;
+    }
+  }
+
+  // Un solo escritor (métodos synchronized); los lectores leen size y luego columns
+  private static final class Store {
+    volatile Columns columns = new Columns(INITIAL_CAPACITY, null, 0);
+    volatile int size;
+    final Map<Long, Integer> rowById = new HashMap<>();
+    final Map<Long, Integer> courtCodes = new ConcurrentHashMap<>();
+    final List<Long> courtIds = new CopyOnWriteArrayList<>();
+    final List<Integer> courtTypeByCourt = new CopyOnWriteArrayList<>();
+    final Map<Long, Integer> clubCodes = new ConcurrentHashMap<>();
+    final List<Long> clubIds = new CopyOnWriteArrayList<>();
+    final List<String> courtTypes = new CopyOnWriteArrayList<>(List.of(UNKNOWN_TYPE));
+    volatile LocalDateTime watermark;
+    // Mayor id cargado por shard: las altas se leen también por id, por si llegan sin updated_at
+    final Map<String, Long> maxIdByShard = new ConcurrentHashMap<>();
+  }
+
+  public boolean isReady() {
+    return enabled && ready;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onStartup() {
+    reload();
+  }
+
+  // Recarga completa: reconstruye aparte y reemplaza el almacén vigente
+  @Scheduled(cron = "${reservation.analytics.reload-cron:0 0 5 * * *}")
+  public synchronized void reload() {
+    if (!enabled) {
+      return;
+    }
+
+    long started = System.nanoTime();
+    try {
+      Store fresh = new Store();
+      AtomicInteger withoutUpdatedAt = new AtomicInteger();
+      shardRouter.forEachShard(shard -> withoutUpdatedAt.addAndGet(loadNewRows(fresh, shard, 0L)));
+      warnWithoutUpdatedAt(withoutUpdatedAt.get());
+
+      if (fresh.watermark == null) {
+        fresh.watermark = LocalDateTime.now();
+      }
+      store = fresh;
+      ready = true;
+
+      log.info("Almacén de analítica cargado: {} reservas, {} canchas ({} ms)", fresh.size,
+              fresh.courtIds.size(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+    } catch (Exception e) {
+      log.error("Error al cargar el almacén de analítica: {}", e.getMessage(), e);
+    }
+  }
+
+  // Incorpora lo modificado desde la última carga (con margen hacia atrás; las filas se reemplazan por id)
+  @Scheduled(initialDelayString = "${reservation.analytics.refresh-interval-ms:30000}",
+          fixedDelayString = "${reservation.analytics.refresh-interval-ms:30000}")
+  public synchronized void refresh() {
+    if (!isReady()) {
+      return;
+    }
+
+    Store current = store;
+    try {
+      // Todos los shards se leen desde la misma marca; el margen cubre relojes levemente desfasados
+      LocalDateTime since = current.watermark.minusSeconds(lagSeconds);
+      AtomicInteger changed = new AtomicInteger();
+      AtomicInteger withoutUpdatedAt = new AtomicInteger();
+      shardRouter.forEachShard(shard -> {
+        LocalDateTime from = since;
+        long afterId = 0L;
+        List<AnalyticsRow> batch;
+        do {
+          batch = reservationAnalyticsRepository.findUpdatedAfter(from, afterId, batchSize);
+          for (AnalyticsRow row : batch) {
+            upsert(current, row);
+            advanceWatermark(current, row);
+            current.maxIdByShard.merge(shard, row.id(), Math::max);
+            from = row.updatedAt();
+            afterId = row.id();
+          }
+          changed.addAndGet(batch.size());
+        } while (batch.size() == batchSize);
+
+        withoutUpdatedAt.addAndGet(loadNewRows(current, shard, current.maxIdByShard.getOrDefault(shard, 0L)));
+      });
+      warnWithoutUpdatedAt(withoutUpdatedAt.get());
+
+      retryUnknownCourtTypes(current);
+      if (changed.get() > 0) {
+        log.debug("Almacén de analítica: {} reservas incorporadas", changed.get());
+      }
+    } catch (Exception e) {
+      log.error("Error al actualizar el almacén de analítica: {}", e.getMessage());
+    }
+  }
+
+  // Los borrados no dejan fila para la carga incremental
+  public void forget(Long reservationId) {
+    if (!enabled || reservationId == null) {
+      return;
+    }
+
+    TransactionCallbacks.afterCommit(() -> markDeleted(reservationId));
+  }
+
+  private synchronized void markDeleted(Long reservationId) {
+    Store current = store;
+    Integer row = current.rowById.get(reservationId);
+    if (row != null) {
+      current.columns.status[row] = DELETED;
+    }
+  }
+
+  public AnalyticsResultDTO query(AnalyticsGroupBy groupBy, Long clubId, Long courtId,
+                                  LocalDateTime from, LocalDateTime to, ReservationStatus status) {
+    if (!isReady()) {
+      throw new IllegalStateException("El almacén de analítica todavía se está cargando");
+    }
+
+    Store current = store;
+    int size = current.size;
+    Columns columns = current.columns;
+
+    int clubCode = code(current.clubCodes, clubId);
+    int courtCode = code(current.courtCodes, courtId);
+    if (clubCode == -2 || courtCode == -2) {
+      return result(groupBy, current, List.of(), 0L, size);
+    }
+    int fromMinute = from != null ? toEpochMinute(from) : Integer.MIN_VALUE;
+    int toMinute = to != null ? toEpochMinute(to) : Integer.MAX_VALUE;
+    byte statusCode = status != null ? (byte) status.ordinal() : DELETED;
+
+    int[] courtTypeByCourt = current.courtTypeByCourt.stream().mapToInt(Integer::intValue).toArray();
+    int groups = switch (groupBy) {
+      case COURT_TYPE -> current.courtTypes.size();
+      case COURT -> current.courtIds.size();
+      case CLUB -> current.clubIds.size();
+      case WEEKDAY -> 7;
+      case HOUR -> 24;
+      case LEAD_TIME -> LEAD_TIME_LABELS.length;
+      case DURATION -> DURATION_LABELS.length;
+      case STATUS -> STATUSES.length;
+    };
+
+    int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    Accumulator total = IntStream.range(0, chunks)
+            .parallel()
+            .mapToObj(chunk -> {
+              Accumulator accumulator = new Accumulator(groups);
+              int end = Math.min(size, (chunk + 1) * CHUNK_SIZE);
+              for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                byte rowStatus = columns.status[i];
+                if (rowStatus == DELETED
+                        || (statusCode != DELETED && rowStatus != statusCode)
+                        || (clubCode >= 0 && columns.club[i] != clubCode)
+                        || (courtCode >= 0 && columns.court[i] != courtCode)
+                        || columns.startMinute[i] < fromMinute
+                        || columns.startMinute[i] >= toMinute) {
+                  continue;
+                }
+                int group = groupOf(groupBy, columns, i, courtTypeByCourt);
+                if (group < groups) {
+                  accumulator.add(group, columns.durationMinutes[i], columns.leadMinutes[i]);
+                }
+              }
+              return accumulator;
+            })
+            .reduce(Accumulator::merge)
+            .orElseGet(() -> new Accumulator(groups));
+
+    List<AnalyticsRowDTO> rows = new ArrayList<>();
+    for (int group = 0; group < groups; group++) {
+      if (total.count[group] == 0) {
+        continue;
+      }
+      rows.add(AnalyticsRowDTO.builder()
+              .key(label(groupBy, current, group))
+              .count(total.count[group])
+              .bookedMinutes(total.minutes[group])
+              .avgDurationMinutes((double) total.minutes[group] / total.count[group])
+              .avgLeadTimeMinutes(total.leadCount[group] > 0
+                      ? (double) total.leadMinutes[group] / total.leadCount[group] : null)
+              .build());
+    }
+
+    long matched = 0;
+    for (long count : total.count) {
+      matched += count;
+    }
+    return result(groupBy, current, rows, matched, size);
+  }
+
+  private AnalyticsResultDTO result(AnalyticsGroupBy groupBy, Store current, List<AnalyticsRowDTO> rows,
+                                    long matched, int scanned) {
+    return AnalyticsResultDTO.builder()
+            .groupBy(groupBy.name())
+            .rows(rows)
+            .matched(matched)
+            .scanned(scanned)
+            .dataThrough(current.watermark)
+            .build();
+  }
+
+  private static final class Accumulator {
+    final long[] count;
+    final long[] minutes;
+    final long[] leadMinutes;
+    final long[] leadCount;
+
+    Accumulator(int groups) {
+      count = new long[groups];
+      minutes = new long[groups];
+      leadMinutes = new long[groups];
+      leadCount = new long[groups];
+    }
+
+    void add(int group, int duration, int lead) {
+      count[group]++;
+      minutes[group] += duration;
+      if (lead >= 0) {
+        leadMinutes[group] += lead;
+        leadCount[group]++;
+      }
+    }
+
+    Accumulator merge(Accumulator other) {
+      for (int group = 0; group < count.length; group++) {
+        count[group] += other.count[group];
+        minutes[group] += other.minutes[group];
+        leadMinutes[group] += other.leadMinutes[group];
+        leadCount[group] += other.leadCount[group];
+      }
+      return this;
+    }
+  }
+
+  private static int groupOf(AnalyticsGroupBy groupBy, Columns columns, int i, int[] courtTypeByCourt) {
+    return switch (groupBy) {
+      case COURT_TYPE -> columns.court[i] < courtTypeByCourt.length ? courtTypeByCourt[columns.court[i]] : 0;
+      case COURT -> columns.court[i];
+      case CLUB -> columns.club[i];
+      // 1970-01-01 fue jueves: +3 deja el lunes en 0
+      case WEEKDAY -> Math.floorMod(Math.floorDiv(columns.startMinute[i], 1440) + 3, 7);
+      case HOUR -> Math.floorMod(columns.startMinute[i], 1440) / 60;
+      case LEAD_TIME -> bucket(columns.leadMinutes[i], LEAD_TIME_LIMITS);
+      case DURATION -> bucket(columns.durationMinutes[i], DURATION_LIMITS);
+      case STATUS -> columns.status[i];
+    };
+  }
+
+  // Índice del primer límite que no se supera; negativo = desconocido (último tramo)
+  private static int bucket(int value, int[] limits) {
+    if (value < 0) {
+      return limits.length + 1;
+    }
+    for (int i = 0; i < limits.length; i++) {
+      if (value <= limits[i]) {
+        return i;
+      }
+    }
+    return limits.length;
+  }
+
+  private static String label(AnalyticsGroupBy groupBy, Store current, int group) {
+    return switch (groupBy) {
+      case COURT_TYPE -> current.courtTypes.get(group);
+      case COURT -> String.valueOf(current.courtIds.get(group));
+      case CLUB -> String.valueOf(current.clubIds.get(group));
+      case WEEKDAY -> DayOfWeek.of(group + 1).name();
+      case HOUR -> String.format("%02d", group);
+      case LEAD_TIME -> LEAD_TIME_LABELS[group];
+      case DURATION -> DURATION_LABELS[group];
+      case STATUS -> STATUSES[group].name();
+    };
+  }
+
+  // -1 sin filtro, -2 si el id no aparece en el almacén (resultado vacío)
+  private static int code(Map<Long, Integer> codes, Long id) {
+    if (id == null) {
+      return -1;
+    }
+    Integer code = codes.get(id);
+    return code != null ? code : -2;
+  }
+
+  private void upsert(Store target, AnalyticsRow row) {
+    int startMinute = toEpochMinute(row.startTime());
+    int duration = (int) Duration.between(row.startTime(), row.endTime()).toMinutes();
+    int lead = row.createdAt() != null
+            ? (int) Math.max(0, Duration.between(row.createdAt(), row.startTime()).toMinutes()) : -1;
+    int court = courtCode(target, row.courtId());
+    int club = target.clubCodes.computeIfAbsent(row.clubId(), id -> {
+      target.clubIds.add(id);
+      return target.clubIds.size() - 1;
+    });
+    byte status = statusCode(row.status());
+
+    Integer existing = target.rowById.get(row.id());
+    int index;
+    if (existing != null) {
+      index = existing;
+    } else {
+      index = target.size;
+      if (index == target.columns.capacity()) {
+        target.columns = new Columns(index * 2, target.columns, index);
+      }
+    }
+
+    Columns columns = target.columns;
+    columns.id[index] = row.id();
+    columns.startMinute[index] = startMinute;
+    columns.durationMinutes[index] = duration;
+    columns.leadMinutes[index] = lead;
+    columns.court[index] = court;
+    columns.club[index] = club;
+    columns.status[index] = status;
+
+    if (existing == null) {
+      target.rowById.put(row.id(), index);
+      target.size = index + 1;
+    }
+  }
+
+  private int courtCode(Store target, long courtId) {
+    Integer code = target.courtCodes.get(courtId);
+    if (code != null) {
+      return code;
+    }
+
+    // El tipo se resuelve una vez por cancha; el diccionario se completa antes de publicar el código
+    target.courtIds.add(courtId);
+    target.courtTypeByCourt.add(courtTypeCode(target, courtId));
+    int newCode = target.courtIds.size() - 1;
+    target.courtCodes.put(courtId, newCode);
+    return newCode;
+  }
+
+  private int courtTypeCode(Store target, long courtId) {
+    try {
+      CourtDTO court = remoteLookupCache.findCourt(courtId);
+      String type = court != null && court.getType() != null ? court.getType().toUpperCase() : UNKNOWN_TYPE;
+      int index = target.courtTypes.indexOf(type);
+      if (index < 0) {
+        target.courtTypes.add(type);
+        index = target.courtTypes.size() - 1;
+      }
+      return index;
+    } catch (Exception e) {
+      log.debug("No se pudo obtener el tipo de la cancha {}: {}", courtId, e.getMessage());
+      return 0;
+    }
+  }
+
+  private void retryUnknownCourtTypes(Store target) {
+    for (int code = 0; code < target.courtIds.size(); code++) {
+      if (target.courtTypeByCourt.get(code) == 0) {
+        int type = courtTypeCode(target, target.courtIds.get(code));
+        if (type != 0) {
+          target.courtTypeByCourt.set(code, type);
+        }
+      }
+    }
+  }
+
+  private static byte statusCode(String status) {
+    try {
+      return (byte) ReservationStatus.valueOf(status).ordinal();
+    } catch (IllegalArgumentException | NullPointerException e) {
+      return DELETED;
+    }
+  }
+
+  // false si la fila no tiene updated_at: sus cambios posteriores solo llegan con la recarga completa
+  private static boolean advanceWatermark(Store target, AnalyticsRow row) {
+    if (row.updatedAt() == null) {
+      return false;
+    }
+    if (target.watermark == null || row.updatedAt().isAfter(target.watermark)) {
+      target.watermark = row.updatedAt();
+    }
+    return true;
+  }
+
+  // Filas con id mayor al último cargado del shard; devuelve cuántas llegaron sin updated_at
+  private int loadNewRows(Store target, String shard, long afterId) {
+    int withoutUpdatedAt = 0;
+    long lastId = afterId;
+    List<AnalyticsRow> batch;
+    do {
+      batch = reservationAnalyticsRepository.findAfterId(lastId, batchSize);
+      for (AnalyticsRow row : batch) {
+        upsert(target, row);
+        if (!advanceWatermark(target, row)) {
+          withoutUpdatedAt++;
+        }
+        lastId = row.id();
+      }
+    } while (batch.size() == batchSize);
+    target.maxIdByShard.merge(shard, lastId, Math::max);
+    return withoutUpdatedAt;
+  }
+
+  private static void warnWithoutUpdatedAt(int count) {
+    if (count > 0) {
+      log.warn("Almacén de analítica: {} reservas sin updated_at; sus modificaciones no se verán hasta la "
+              + "próxima recarga completa", count);
+    }
+  }
+
+  private static int toEpochMinute(LocalDateTime time) {
+    return (int) Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+  }
+}
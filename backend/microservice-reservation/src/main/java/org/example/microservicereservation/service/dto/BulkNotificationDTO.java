@@ -0,0 +1,18 @@
+package org.example.microservicereservation.service.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// Mismo mensaje para varios usuarios (POST /api/notifications/bulk)
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class BulkNotificationDTO {
+  private List<Long> userIds;
+  private String type;
+  private String title;
+  private String message;
+}
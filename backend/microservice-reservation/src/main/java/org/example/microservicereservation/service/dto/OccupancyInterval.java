@@ -0,0 +1,24 @@
+package org.example.microservicereservation.service.dto;
+
+import org.example.microservicereservation.entity.Reservation;
+import org.example.microservicereservation.entity.ReservationStatus;
+
+import java.time.LocalDateTime;
+
+// Tramo que una reserva activa suma a los acumulados de ocupación
+public record OccupancyInterval(Long courtId,
+                                Long clubId,
+                                LocalDateTime startTime,
+                                LocalDateTime endTime) {
+  // null si la reserva no ocupa la cancha (cancelada o sin horario válido)
+  public static OccupancyInterval of(Reservation reservation) {
+    if (reservation == null
+            || (reservation.getStatus() != ReservationStatus.PENDING && reservation.getStatus() != ReservationStatus.CONFIRMED)
+            || reservation.getStartTime() == null || reservation.getEndTime() == null
+            || !reservation.getEndTime().isAfter(reservation.getStartTime())) {
+      return null;
+    }
+    return new OccupancyInterval(reservation.getCourtId(), reservation.getClubId(),
+            reservation.getStartTime(), reservation.getEndTime());
+  }
+}
@@ -0,0 +1,16 @@
+package org.example.microservicereservation.service.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class OccupiedIntervalDTO {
+  private Long courtId;
+  private LocalDateTime startTime;
+  private LocalDateTime endTime;
+}
@@ -0,0 +1,31 @@
+package org.example.microservicereservation.service.dto;
+
+import lombok.*;
+import org.example.microservicereservation.entity.ReservationEventType;
+import org.example.microservicereservation.entity.ReservationPaymentStatus;
+import org.example.microservicereservation.entity.ReservationStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Lo que reciben los suscriptores; eventId permite descartar duplicados (entrega al menos una vez)
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class ReservationEventDTO {
+  private Long eventId;
+  private ReservationEventType type;
+  private Long reservationId;
+  private Long userId;
+  private Long courtId;
+  private Long clubId;
+  private String userEmail;
+  private LocalDateTime startTime;
+  private LocalDateTime endTime;
+  private ReservationStatus status;
+  private ReservationPaymentStatus paymentStatus;
+  private BigDecimal totalAmount;
+  private LocalDateTime occurredAt;
+}
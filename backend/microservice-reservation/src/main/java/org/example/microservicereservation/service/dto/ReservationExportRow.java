@@ -0,0 +1,20 @@
+package org.example.microservicereservation.service.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Fila de la exportación contable (una por reserva, sin cargar la entidad)
+public record ReservationExportRow(Long id,
+                                   Long clubId,
+                                   Long courtId,
+                                   Long userId,
+                                   String userEmail,
+                                   LocalDateTime startTime,
+                                   LocalDateTime endTime,
+                                   String status,
+                                   String paymentStatus,
+                                   BigDecimal pricePerHour,
+                                   BigDecimal totalAmount,
+                                   BigDecimal paidAmount,
+                                   LocalDateTime createdAt) {
+}
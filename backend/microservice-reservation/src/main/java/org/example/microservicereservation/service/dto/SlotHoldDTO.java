@@ -0,0 +1,19 @@
+package org.example.microservicereservation.service.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class SlotHoldDTO {
+  private String holdId;
+  private Long courtId;
+  private Long clubId;
+  private LocalDateTime startTime;
+  private LocalDateTime endTime;
+  private LocalDateTime expiresAt;
+}
@@ -0,0 +1,21 @@
+package org.example.microservicereservation.service.dto.request;
+
+public enum AnalyticsGroupBy {
+  COURT_TYPE,
+  COURT,
+  CLUB,
+  WEEKDAY,
+  HOUR,
+  LEAD_TIME,
+  DURATION,
+  STATUS;
+
+  public static AnalyticsGroupBy from(String value) {
+    for (AnalyticsGroupBy groupBy : values()) {
+      if (groupBy.name().equalsIgnoreCase(value.replace('-', '_'))) {
+        return groupBy;
+      }
+    }
+    throw new IllegalArgumentException("Agrupación no soportada: " + value);
+  }
+}
@@ -0,0 +1,20 @@
+package org.example.microservicereservation.service.dto.request;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class BulkCancelRequestDTO {
+  private Long clubId;
+  // Opcional: sin cancha se cancela todo el club
+  private Long courtId;
+  private LocalDateTime from;
+  private LocalDateTime to;
+  // Motivo que se envía en la notificación y en el pedido de reembolso
+  private String reason;
+}
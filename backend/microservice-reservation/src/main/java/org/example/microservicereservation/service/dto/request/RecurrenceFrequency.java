@@ -0,0 +1,6 @@
+package org.example.microservicereservation.service.dto.request;
+
+public enum RecurrenceFrequency {
+  DAILY,
+  WEEKLY
+}
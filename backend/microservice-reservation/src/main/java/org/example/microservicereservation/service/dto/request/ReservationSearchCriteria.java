@@ -0,0 +1,23 @@
+package org.example.microservicereservation.service.dto.request;
+
+import lombok.*;
+import org.example.microservicereservation.entity.ReservationPaymentStatus;
+import org.example.microservicereservation.entity.ReservationStatus;
+
+import java.time.LocalDateTime;
+
+// Filtros opcionales de la búsqueda de reservas; los nulos no se aplican
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class ReservationSearchCriteria {
+  private Long clubId;
+  private Long courtId;
+  private Long userId;
+  private LocalDateTime from;
+  private LocalDateTime to;
+  private ReservationStatus status;
+  private ReservationPaymentStatus paymentStatus;
+}
@@ -0,0 +1,26 @@
+package org.example.microservicereservation.service.dto.request;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Reserva recurrente: la primera ocurrencia se repite cada `interval` días/semanas
+// hasta completar `occurrences` o llegar a `until` (lo que ocurra primero)
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class ReservationSeriesRequestDTO {
+  private Long userId;
+  private Long courtId;
+  private Long clubId;
+  private String userEmail;
+  private LocalDateTime startTime;
+  private LocalDateTime endTime;
+  private RecurrenceFrequency frequency;
+  private Integer interval;
+  private Integer occurrences;
+  private LocalDate until;
+}
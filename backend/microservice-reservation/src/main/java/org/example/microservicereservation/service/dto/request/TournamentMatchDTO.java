@@ -0,0 +1,17 @@
+package org.example.microservicereservation.service.dto.request;
+
+import lombok.*;
+
+// Partido a programar; courtType es opcional (null = cualquier cancha del club)
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class TournamentMatchDTO {
+  private String ref;
+  private String homeTeam;
+  private String awayTeam;
+  private Integer durationMinutes;
+  private String courtType;
+}
@@ -0,0 +1,30 @@
+package org.example.microservicereservation.service.dto.request;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class TournamentScheduleRequestDTO {
+  private Long clubId;
+  // Organizador: las reservas quedan a su nombre
+  private Long userId;
+  private String userEmail;
+  // Ventana del torneo; cada día se usa solo el horario de apertura del club
+  private LocalDateTime from;
+  private LocalDateTime to;
+  // Descanso mínimo entre dos partidos de un mismo equipo
+  private Integer restMinutes;
+  // Los inicios se alinean a este paso
+  private Integer slotMinutes;
+  // Si algún partido no entra no se reserva nada (por defecto true)
+  private Boolean allOrNothing;
+  // Solo calcula la programación, sin reservar
+  private Boolean dryRun;
+  private List<TournamentMatchDTO> matches;
+}
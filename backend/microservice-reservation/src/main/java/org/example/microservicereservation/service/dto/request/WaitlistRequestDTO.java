@@ -0,0 +1,21 @@
+package org.example.microservicereservation.service.dto.request;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// courtId para una cancha puntual, o courtType para cualquier cancha de ese tipo en el club
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class WaitlistRequestDTO {
+  private Long userId;
+  private String userEmail;
+  private Long clubId;
+  private Long courtId;
+  private String courtType;
+  private LocalDateTime startTime;
+  private LocalDateTime endTime;
+}
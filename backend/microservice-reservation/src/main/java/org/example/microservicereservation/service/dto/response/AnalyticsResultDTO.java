@@ -0,0 +1,20 @@
+package org.example.microservicereservation.service.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class AnalyticsResultDTO {
+  private String groupBy;
+  private List<AnalyticsRowDTO> rows;
+  private long matched;
+  private long scanned;
+  // Última modificación de reservas incorporada al almacén
+  private LocalDateTime dataThrough;
+}
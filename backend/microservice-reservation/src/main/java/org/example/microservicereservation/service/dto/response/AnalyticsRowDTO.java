@@ -0,0 +1,17 @@
+package org.example.microservicereservation.service.dto.response;
+
+import lombok.*;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class AnalyticsRowDTO {
+  private String key;
+  private long count;
+  private long bookedMinutes;
+  private double avgDurationMinutes;
+  // null si ninguna reserva del grupo tiene fecha de creación
+  private Double avgLeadTimeMinutes;
+}
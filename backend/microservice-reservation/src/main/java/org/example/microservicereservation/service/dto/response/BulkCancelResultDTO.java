@@ -0,0 +1,19 @@
+package org.example.microservicereservation.service.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class BulkCancelResultDTO {
+  private int cancelled;
+  private List<Long> reservationIds;
+  // Reembolsos y avisos quedan en el outbox; salen (con reintentos) después del commit
+  private int refundsRequested;
+  private int usersToNotify;
+  private int holdsReleased;
+}
@@ -0,0 +1,19 @@
+package org.example.microservicereservation.service.dto.response;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+// Celda del mapa de calor: día de la semana (1 = lunes) y hora
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class OccupancyCellDTO {
+  private int dayOfWeek;
+  private int hour;
+  private long bookedMinutes;
+  private long bookingCount;
+  private BigDecimal utilization;
+}
@@ -0,0 +1,21 @@
+package org.example.microservicereservation.service.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class OccupancyStatsDTO {
+  private Long clubId;
+  private Long courtId;
+  private LocalDate from;
+  private LocalDate to;
+  // Canchas con actividad en el rango (base de la utilización)
+  private long courts;
+  private List<OccupancyCellDTO> cells;
+}
@@ -22,4 +22,5 @@ public class ReservationResponseDTO {
   private ReservationStatus status;
   private ReservationPaymentStatus paymentStatus;
   private LocalDateTime createdAt;
+  private String seriesId;
 }
@@ -0,0 +1,18 @@
+package org.example.microservicereservation.service.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class ReservationSeriesResponseDTO {
+  private String seriesId;
+  private int requested;
+  private int created;
+  private int rejected;
+  private List<SeriesOccurrenceDTO> occurrences;
+}
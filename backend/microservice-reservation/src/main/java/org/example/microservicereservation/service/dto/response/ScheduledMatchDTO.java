@@ -0,0 +1,22 @@
+package org.example.microservicereservation.service.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class ScheduledMatchDTO {
+  private String ref;
+  private String homeTeam;
+  private String awayTeam;
+  private Long courtId;
+  private LocalDateTime startTime;
+  private LocalDateTime endTime;
+  private Long reservationId;
+  // Motivo cuando el partido no se pudo ubicar
+  private String reason;
+}
@@ -0,0 +1,18 @@
+package org.example.microservicereservation.service.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class SeriesOccurrenceDTO {
+  private LocalDateTime startTime;
+  private LocalDateTime endTime;
+  private boolean created;
+  private Long reservationId;
+  private String reason;
+}
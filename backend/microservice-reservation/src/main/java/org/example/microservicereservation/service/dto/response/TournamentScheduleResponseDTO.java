@@ -0,0 +1,24 @@
+package org.example.microservicereservation.service.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class TournamentScheduleResponseDTO {
+  // Las reservas del torneo comparten este id como seriesId
+  private String tournamentId;
+  private Long clubId;
+  private int requested;
+  private int scheduled;
+  private int unscheduled;
+  private boolean committed;
+  private LocalDateTime lastEnd;
+  private int candidatesEvaluated;
+  private List<ScheduledMatchDTO> matches;
+}
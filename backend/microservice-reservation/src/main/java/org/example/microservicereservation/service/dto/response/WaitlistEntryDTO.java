@@ -0,0 +1,28 @@
+package org.example.microservicereservation.service.dto.response;
+
+import lombok.*;
+import org.example.microservicereservation.entity.WaitlistStatus;
+
+import java.time.LocalDateTime;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class WaitlistEntryDTO {
+  private Long id;
+  private Long userId;
+  private String userEmail;
+  private Long clubId;
+  private Long courtId;
+  private String courtType;
+  private LocalDateTime startTime;
+  private LocalDateTime endTime;
+  private WaitlistStatus status;
+  // Presentes cuando hay una retención ofrecida: se confirma con POST /holds/{holdId}/confirm
+  private String holdId;
+  private Long offeredCourtId;
+  private LocalDateTime offerExpiresAt;
+  private LocalDateTime createdAt;
+}
@@ -0,0 +1,32 @@
+package org.example.microservicereservation.service.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.example.microservicereservation.entity.ReservationEventType;
+import org.example.microservicereservation.feignClient.NotificationClient;
+import org.example.microservicereservation.service.dto.BulkNotificationDTO;
+import org.springframework.stereotype.Component;
+
+// Aviso en bloque de una cancelación masiva. Un reintento lleva la misma clave de idempotencia y
+// notification no vuelve a avisar a los usuarios que ya tienen ese aviso.
+@Component
+@RequiredArgsConstructor
+public class BulkNotificationCommandHandler implements OutboxCommandHandler<BulkNotificationDTO> {
+  private static final String IDEMPOTENCY_KEY_PREFIX = "reservation-outbox-";
+
+  private final NotificationClient notificationClient;
+
+  @Override
+  public ReservationEventType type() {
+    return ReservationEventType.NOTIFICATION_REQUESTED;
+  }
+
+  @Override
+  public Class<BulkNotificationDTO> payloadType() {
+    return BulkNotificationDTO.class;
+  }
+
+  @Override
+  public void handle(Long commandId, BulkNotificationDTO request) {
+    notificationClient.sendBulk(IDEMPOTENCY_KEY_PREFIX + commandId, request);
+  }
+}
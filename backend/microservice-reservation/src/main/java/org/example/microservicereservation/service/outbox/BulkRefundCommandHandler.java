@@ -0,0 +1,35 @@
+package org.example.microservicereservation.service.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.common.dto.BulkRefundRequestDTO;
+import org.example.common.dto.BulkRefundResultDTO;
+import org.example.microservicereservation.entity.ReservationEventType;
+import org.example.microservicereservation.feignClient.PaymentClient;
+import org.springframework.stereotype.Component;
+
+// Reembolso en bloque de una cancelación masiva; repetirlo no reembolsa dos veces (payment solo
+// cambia los pagos que siguen COMPLETED / PENDING)
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BulkRefundCommandHandler implements OutboxCommandHandler<BulkRefundRequestDTO> {
+  private final PaymentClient paymentClient;
+
+  @Override
+  public ReservationEventType type() {
+    return ReservationEventType.REFUND_REQUESTED;
+  }
+
+  @Override
+  public Class<BulkRefundRequestDTO> payloadType() {
+    return BulkRefundRequestDTO.class;
+  }
+
+  @Override
+  public void handle(Long commandId, BulkRefundRequestDTO request) {
+    BulkRefundResultDTO result = paymentClient.refundByReservations(request);
+    log.info("Reembolso en bloque de {} reservas: {} reembolsados, {} cancelados",
+            request.getReservationIds().size(), result.getRefunded(), result.getCancelled());
+  }
+}
@@ -0,0 +1,42 @@
+package org.example.microservicereservation.service.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservicereservation.service.dto.ReservationEventDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+// Envía cada lote (en orden) como un POST con un arreglo JSON a un suscriptor configurado
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "reservation.outbox.sink", havingValue = "http", matchIfMissing = true)
+public class HttpOutboxEventSink implements OutboxEventSink {
+  private final RestClient restClient;
+
+  @Value("${reservation.outbox.subscribers:}")
+  private List<String> subscribers;
+
+  public HttpOutboxEventSink(RestClient.Builder restClientBuilder) {
+    this.restClient = restClientBuilder.build();
+  }
+
+  @Override
+  public List<String> subscribers() {
+    return subscribers.stream().map(String::trim).filter(subscriber -> !subscriber.isEmpty()).toList();
+  }
+
+  @Override
+  public void deliver(String subscriber, List<ReservationEventDTO> events) {
+    restClient.post()
+            .uri(subscriber)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(events)
+            .retrieve()
+            .toBodilessEntity();
+    log.debug("{} eventos enviados a {}", events.size(), subscriber);
+  }
+}
@@ -0,0 +1,30 @@
+package org.example.microservicereservation.service.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.example.microservicereservation.service.dto.ReservationEventDTO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Sustituto local del envío HTTP (tests / desarrollo): publica cada evento como
+// ApplicationEvent para que lo reciban los @EventListener de la misma aplicación
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "reservation.outbox.sink", havingValue = "local")
+public class InProcessOutboxEventSink implements OutboxEventSink {
+  private static final String SUBSCRIBER = "local";
+
+  private final ApplicationEventPublisher applicationEventPublisher;
+
+  @Override
+  public List<String> subscribers() {
+    return List.of(SUBSCRIBER);
+  }
+
+  @Override
+  public void deliver(String subscriber, List<ReservationEventDTO> events) {
+    events.forEach(applicationEventPublisher::publishEvent);
+  }
+}
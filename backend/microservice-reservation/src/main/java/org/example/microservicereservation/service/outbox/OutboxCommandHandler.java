@@ -0,0 +1,15 @@
+package org.example.microservicereservation.service.outbox;
+
+import org.example.microservicereservation.entity.ReservationEventType;
+
+// Pedido a otro servicio escrito en el outbox (no va a los suscriptores de eventos). El relay lo
+// envía con los mismos reintentos, backoff y apartado que los eventos; handle debe tolerar que
+// el mismo pedido llegue más de una vez. commandId es el id del evento del outbox: no cambia entre
+// reintentos y sirve de clave de idempotencia para el otro servicio.
+public interface OutboxCommandHandler<T> {
+  ReservationEventType type();
+
+  Class<T> payloadType();
+
+  void handle(Long commandId, T payload);
+}
@@ -0,0 +1,13 @@
+package org.example.microservicereservation.service.outbox;
+
+import org.example.microservicereservation.service.dto.ReservationEventDTO;
+
+import java.util.List;
+
+// Destino de los eventos del outbox. La entrega se registra por suscriptor: si deliver lanza una
+// excepción el lote se reintenta solo para ese suscriptor, los demás no lo reciben de nuevo.
+public interface OutboxEventSink {
+  List<String> subscribers();
+
+  void deliver(String subscriber, List<ReservationEventDTO> events);
+}
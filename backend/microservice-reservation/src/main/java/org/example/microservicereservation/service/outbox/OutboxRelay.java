@@ -0,0 +1,230 @@
+package org.example.microservicereservation.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservicereservation.entity.OutboxEvent;
+import org.example.microservicereservation.repository.OutboxEventRepository;
+import org.example.microservicereservation.service.dto.ReservationEventDTO;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Publica el outbox por lotes en orden de escritura. Cada pasada toma un lote en una transacción
+// corta (advisory lock + plazo en locked_until), lo envía sin transacción ni lock abiertos y anota
+// el resultado en otra transacción. Los eventos de una misma reserva nunca se adelantan (ver
+// findDeliverable). La entrega se registra por suscriptor; un envío fallido se reintenta con
+// backoff exponencial y tras max-attempts el evento queda apartado (failed_at). Al menos una vez.
+// Los pedidos en bloque (OutboxCommandHandler) salen por el mismo camino, uno por vez.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+  // Clase propia en la forma de dos claves (ver ReservationRepository.COURT_LOCK_CLASS)
+  private static final int RELAY_LOCK_CLASS = 0x4F555442;
+  private static final int MAX_ERROR_LENGTH = 255;
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final OutboxEventSink outboxEventSink;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final ShardRouter shardRouter;
+  private final List<OutboxCommandHandler<?>> commandHandlers;
+
+  @Value("${reservation.outbox.enabled:true}")
+  private boolean enabled;
+
+  @Value("${reservation.outbox.batch-size:100}")
+  private int batchSize;
+
+  @Value("${reservation.outbox.retention-days:7}")
+  private long retentionDays;
+
+  @Value("${reservation.outbox.max-attempts:10}")
+  private int maxAttempts;
+
+  @Value("${reservation.outbox.backoff-initial-seconds:5}")
+  private long backoffInitialSeconds;
+
+  @Value("${reservation.outbox.backoff-max-seconds:900}")
+  private long backoffMaxSeconds;
+
+  // Tiene que alcanzar para enviar un lote a todos los suscriptores
+  @Value("${reservation.outbox.lease-seconds:60}")
+  private long leaseSeconds;
+
+  @Scheduled(initialDelayString = "${reservation.outbox.relay-interval-ms:2000}",
+          fixedDelayString = "${reservation.outbox.relay-interval-ms:2000}")
+  public void relay() {
+    if (!enabled) {
+      return;
+    }
+
+    // Cada shard tiene su propio outbox (se escribe en la transacción de la reserva)
+    shardRouter.forEachShard(shard -> {
+      try {
+        List<OutboxEvent> batch;
+        int published;
+        do {
+          batch = transactionTemplate.execute(status -> claimBatch());
+          if (batch == null || batch.isEmpty()) {
+            return;
+          }
+          published = deliver(batch);
+          List<OutboxEvent> delivered = batch;
+          transactionTemplate.executeWithoutResult(status -> outboxEventRepository.saveAll(delivered));
+        } while (batch.size() == batchSize && published > 0);
+      } catch (Exception e) {
+        log.error("Error en el relay del outbox (shard {}): {}", shard, e.getMessage(), e);
+      }
+    });
+  }
+
+  @Scheduled(cron = "${reservation.outbox.cleanup-cron:0 30 3 * * *}")
+  public void cleanup() {
+    shardRouter.forEachShard(shard -> {
+      Integer deleted = transactionTemplate.execute(status ->
+              outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusDays(retentionDays)));
+      if (deleted != null && deleted > 0) {
+        log.info("Outbox del shard {}: {} eventos publicados eliminados", shard, deleted);
+      }
+    });
+  }
+
+  // Vacío si otra réplica está tomando eventos en este momento
+  private List<OutboxEvent> claimBatch() {
+    if (!outboxEventRepository.tryLockRelay(RELAY_LOCK_CLASS)) {
+      return List.of();
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    List<OutboxEvent> batch = outboxEventRepository.findDeliverable(now, batchSize);
+    batch.forEach(outboxEvent -> outboxEvent.setLockedUntil(now.plusSeconds(leaseSeconds)));
+    return batch;
+  }
+
+  // Sin transacción: llamadas remotas. Devuelve cuántos eventos quedaron publicados.
+  private int deliver(List<OutboxEvent> batch) {
+    LocalDateTime now = LocalDateTime.now();
+    int published = 0;
+    List<OutboxEvent> readable = new ArrayList<>(batch.size());
+    Map<Long, ReservationEventDTO> eventById = new HashMap<>();
+    for (OutboxEvent outboxEvent : batch) {
+      outboxEvent.setLockedUntil(null);
+      OutboxCommandHandler<?> handler = commandHandler(outboxEvent);
+      if (handler != null) {
+        if (sendCommand(outboxEvent, handler, now)) {
+          published++;
+        }
+        continue;
+      }
+
+      try {
+        ReservationEventDTO event = objectMapper.readValue(outboxEvent.getPayload(), ReservationEventDTO.class);
+        event.setEventId(outboxEvent.getId());
+        eventById.put(outboxEvent.getId(), event);
+        readable.add(outboxEvent);
+      } catch (Exception e) {
+        park(outboxEvent, e, now);
+      }
+    }
+
+    Map<Long, String> errorById = new HashMap<>();
+    for (String subscriber : outboxEventSink.subscribers()) {
+      List<OutboxEvent> pending = readable.stream()
+              .filter(outboxEvent -> !outboxEvent.isDeliveredTo(subscriber))
+              .toList();
+      if (pending.isEmpty()) {
+        continue;
+      }
+
+      try {
+        outboxEventSink.deliver(subscriber, pending.stream().map(outboxEvent -> eventById.get(outboxEvent.getId())).toList());
+        pending.forEach(outboxEvent -> outboxEvent.markDeliveredTo(subscriber));
+      } catch (Exception e) {
+        log.warn("No se pudo entregar un lote de {} eventos del outbox a {}: {}", pending.size(), subscriber, e.getMessage());
+        pending.forEach(outboxEvent -> errorById.putIfAbsent(outboxEvent.getId(), subscriber + ": " + e.getMessage()));
+      }
+    }
+
+    for (OutboxEvent outboxEvent : readable) {
+      String error = errorById.get(outboxEvent.getId());
+      if (error == null) {
+        outboxEvent.setPublishedAt(now);
+        published++;
+      } else {
+        registerFailure(outboxEvent, error, now);
+      }
+    }
+    return published;
+  }
+
+  private OutboxCommandHandler<?> commandHandler(OutboxEvent outboxEvent) {
+    return commandHandlers.stream()
+            .filter(handler -> handler.type() == outboxEvent.getEventType())
+            .findFirst()
+            .orElse(null);
+  }
+
+  // Cada pedido ya es un envío en bloque: se manda solo y se reintenta solo
+  private <T> boolean sendCommand(OutboxEvent outboxEvent, OutboxCommandHandler<T> handler, LocalDateTime now) {
+    T payload;
+    try {
+      payload = objectMapper.readValue(outboxEvent.getPayload(), handler.payloadType());
+    } catch (Exception e) {
+      park(outboxEvent, e, now);
+      return false;
+    }
+
+    try {
+      handler.handle(outboxEvent.getId(), payload);
+      outboxEvent.setPublishedAt(now);
+      return true;
+    } catch (Exception e) {
+      log.warn("No se pudo enviar el pedido {} del outbox ({}): {}", outboxEvent.getId(),
+              outboxEvent.getEventType(), e.getMessage());
+      registerFailure(outboxEvent, outboxEvent.getEventType() + ": " + e.getMessage(), now);
+      return false;
+    }
+  }
+
+  // Nunca se va a poder enviar: se aparta sin reintentar
+  private void park(OutboxEvent outboxEvent, Exception e, LocalDateTime now) {
+    outboxEvent.setAttempts(outboxEvent.getAttempts() + 1);
+    outboxEvent.setLastError(truncate("Payload ilegible: " + e.getMessage()));
+    outboxEvent.setFailedAt(now);
+    log.error("Evento {} del outbox apartado, payload ilegible: {}", outboxEvent.getId(), e.getMessage());
+  }
+
+  private void registerFailure(OutboxEvent outboxEvent, String error, LocalDateTime now) {
+    int attempts = outboxEvent.getAttempts() + 1;
+    outboxEvent.setAttempts(attempts);
+    outboxEvent.setLastError(truncate(error));
+
+    if (attempts >= maxAttempts) {
+      outboxEvent.setFailedAt(now);
+      log.error("Evento {} del outbox ({}, reserva {}) apartado tras {} intentos: {}", outboxEvent.getId(),
+              outboxEvent.getEventType(), outboxEvent.getReservationId(), attempts, error);
+      return;
+    }
+    outboxEvent.setNextAttemptAt(now.plusSeconds(backoffSeconds(attempts)));
+  }
+
+  // initial, 2 * initial, 4 * initial... hasta backoff-max-seconds
+  long backoffSeconds(int attempts) {
+    long factor = 1L << Math.min(attempts - 1, 30);
+    return Math.min(backoffMaxSeconds, backoffInitialSeconds * factor);
+  }
+
+  private static String truncate(String error) {
+    return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+  }
+}
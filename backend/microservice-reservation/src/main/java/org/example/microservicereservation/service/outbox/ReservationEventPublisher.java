@@ -0,0 +1,102 @@
+package org.example.microservicereservation.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.example.microservicereservation.entity.OutboxEvent;
+import org.example.microservicereservation.entity.Reservation;
+import org.example.microservicereservation.entity.ReservationEventType;
+import org.example.microservicereservation.entity.ReservationPaymentStatus;
+import org.example.microservicereservation.entity.ReservationStatus;
+import org.example.microservicereservation.repository.OutboxEventRepository;
+import org.example.microservicereservation.service.dto.ReservationEventDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Escribe los eventos de la reserva en el outbox; exige una transacción activa para que el
+// evento se confirme (o se descarte) junto con el cambio que lo origina
+@Component
+@RequiredArgsConstructor
+public class ReservationEventPublisher {
+  private final OutboxEventRepository outboxEventRepository;
+  private final ObjectMapper objectMapper;
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void publish(Reservation reservation, ReservationEventType type) {
+    append(type, ReservationEventDTO.builder()
+            .type(type)
+            .reservationId(reservation.getId())
+            .userId(reservation.getUserId())
+            .courtId(reservation.getCourtId())
+            .clubId(reservation.getClubId())
+            .userEmail(reservation.getUserEmail())
+            .startTime(reservation.getStartTime())
+            .endTime(reservation.getEndTime())
+            .status(reservation.getStatus())
+            .paymentStatus(reservation.getPaymentStatus())
+            .totalAmount(reservation.getTotalAmount())
+            .occurredAt(LocalDateTime.now())
+            .build());
+  }
+
+  // Cancelaciones masivas (vencimiento del plazo de pago): solo se conoce el id
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void publishCancelled(List<Long> reservationIds) {
+    Map<Long, ReservationPaymentStatus> paymentStatusById = new LinkedHashMap<>();
+    reservationIds.forEach(id -> paymentStatusById.put(id, ReservationPaymentStatus.CANCELLED));
+    publishCancelled(paymentStatusById);
+  }
+
+  // Cancelaciones masivas con el estado de pago que quedó en cada reserva (en orden de inserción)
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void publishCancelled(Map<Long, ReservationPaymentStatus> paymentStatusById) {
+    LocalDateTime now = LocalDateTime.now();
+    List<OutboxEvent> events = paymentStatusById.entrySet().stream()
+            .map(entry -> toOutboxEvent(ReservationEventType.CANCELLED, ReservationEventDTO.builder()
+                    .type(ReservationEventType.CANCELLED)
+                    .reservationId(entry.getKey())
+                    .status(ReservationStatus.CANCELLED)
+                    .paymentStatus(entry.getValue())
+                    .occurredAt(now)
+                    .build()))
+            .toList();
+    outboxEventRepository.saveAll(events);
+  }
+
+  // Pedido en bloque a otro servicio (ver OutboxCommandHandler); sale con los reintentos del outbox
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void publishCommand(ReservationEventType type, Object payload) {
+    try {
+      outboxEventRepository.save(OutboxEvent.builder()
+              .eventType(type)
+              .payload(objectMapper.writeValueAsString(payload))
+              .createdAt(LocalDateTime.now())
+              .build());
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("No se pudo serializar el pedido " + type, e);
+    }
+  }
+
+  private void append(ReservationEventType type, ReservationEventDTO event) {
+    outboxEventRepository.save(toOutboxEvent(type, event));
+  }
+
+  private OutboxEvent toOutboxEvent(ReservationEventType type, ReservationEventDTO event) {
+    try {
+      return OutboxEvent.builder()
+              .reservationId(event.getReservationId())
+              .eventType(type)
+              .payload(objectMapper.writeValueAsString(event))
+              .createdAt(event.getOccurredAt())
+              .build();
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("No se pudo serializar el evento de la reserva " + event.getReservationId(), e);
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package org.example.microservicereservation.service.sharding;
+
+// Shard elegido para el hilo actual; lo lee ClubRoutingDataSource al abrir cada conexión.
+// Se maneja solo a través de ShardRouter.
+public final class ClubShardContext {
+  private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+  private ClubShardContext() {
+  }
+
+  public static String current() {
+    return CURRENT.get();
+  }
+
+  static void set(String shard) {
+    if (shard != null) {
+      CURRENT.set(shard);
+    } else {
+      CURRENT.remove();
+    }
+  }
+}
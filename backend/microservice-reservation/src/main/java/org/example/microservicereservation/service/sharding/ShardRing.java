@@ -0,0 +1,59 @@
+package org.example.microservicereservation.service.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Anillo de hashing consistente con nodos virtuales: cada shard ocupa varios puntos del anillo y un
+// club va al primer punto a partir del hash de su id. Al agregar un shard solo cambian de lugar los
+// clubes que caen en sus puntos nuevos (~1/N), no todos. Los clubes fijados no pasan por el anillo.
+public final class ShardRing {
+  private final TreeMap<Long, String> ring = new TreeMap<>();
+  private final Map<Long, String> pinned;
+
+  public ShardRing(Collection<String> shards, int virtualNodes, Map<Long, String> pinned) {
+    if (shards.isEmpty() || virtualNodes < 1) {
+      throw new IllegalArgumentException("El anillo necesita al menos un shard y un nodo virtual por shard");
+    }
+    for (String shard : shards) {
+      for (int i = 0; i < virtualNodes; i++) {
+        ring.put(hash(shard + "#" + i), shard);
+      }
+    }
+    pinned.forEach((clubId, shard) -> {
+      if (!shards.contains(shard)) {
+        throw new IllegalArgumentException("El club " + clubId + " está fijado a un shard inexistente: " + shard);
+      }
+    });
+    this.pinned = Map.copyOf(pinned);
+  }
+
+  public String shardFor(long clubId) {
+    String pinnedShard = pinned.get(clubId);
+    if (pinnedShard != null) {
+      return pinnedShard;
+    }
+
+    Map.Entry<Long, String> entry = ring.ceilingEntry(mix(clubId));
+    return (entry != null ? entry : ring.firstEntry()).getValue();
+  }
+
+  // FNV-1a de 64 bits: estable entre JVMs y versiones (String.hashCode reparte mal los puntos)
+  private static long hash(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b;
+      hash *= 0x100000001b3L;
+    }
+    return mix(hash);
+  }
+
+  // Mezcla final de splitmix64: ids consecutivos quedan dispersos en el anillo
+  private static long mix(long value) {
+    long z = value + 0x9e3779b97f4a7c15L;
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,235 @@
+package org.example.microservicereservation.service.sharding;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.common.dto.CursorPageDTO;
+import org.example.microservicereservation.config.ShardingProperties;
+import org.example.microservicereservation.exception.RemoteServiceUnavailableException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Elige el shard de cada operación: por club (anillo de hashing consistente) o por id, ya que cada
+// shard genera sus ids con su número en los bits altos. El shard se fija antes de abrir la
+// transacción y no puede cambiar dentro de ella. Las consultas de administración que no son de un
+// club se reparten en paralelo a todos los shards y se juntan los resultados.
+// Sin sharding hay un único shard ("default") y todo corre directo.
+@Slf4j
+@Component
+public class ShardRouter {
+  public static final String DEFAULT_SHARD = "default";
+  // 2^40 ids por shard y ids por debajo de 2^53 (exactos en JavaScript) con hasta 8191 shards
+  public static final int SHARD_ID_BITS = 40;
+  private static final int MAX_SHARD_NUMBER = 8191;
+
+  private final boolean sharded;
+  private final List<String> shards = new ArrayList<>();
+  private final Map<String, Integer> numberByShard = new HashMap<>();
+  private final Map<Integer, String> shardByNumber = new HashMap<>();
+  private final ShardRing ring;
+  private final long gatherTimeoutMs;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  public ShardRouter(ShardingProperties properties) {
+    this.sharded = properties.isEnabled() && !properties.getShards().isEmpty();
+    this.gatherTimeoutMs = properties.getGatherTimeoutMs();
+
+    register(DEFAULT_SHARD, 0);
+    if (sharded) {
+      properties.getShards().forEach((name, shard) -> register(name, shard.getNumber()));
+    }
+    this.ring = new ShardRing(shards, properties.getVirtualNodes(), sharded ? properties.getPinnedClubs() : Map.of());
+
+    if (sharded) {
+      log.info("Reservas repartidas por club en {} shards: {}", shards.size(), shards);
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  public boolean isSharded() {
+    return sharded;
+  }
+
+  public List<String> shards() {
+    return List.copyOf(shards);
+  }
+
+  public String shardForClub(Long clubId) {
+    return sharded && clubId != null ? ring.shardFor(clubId) : DEFAULT_SHARD;
+  }
+
+  public String shardForId(Long id) {
+    if (!sharded || id == null) {
+      return DEFAULT_SHARD;
+    }
+    return shardByNumber.getOrDefault((int) (id >>> SHARD_ID_BITS), DEFAULT_SHARD);
+  }
+
+  // Primer id que genera el shard (0 para el principal)
+  public long idOffset(String shard) {
+    return (long) numberByShard.getOrDefault(shard, 0) << SHARD_ID_BITS;
+  }
+
+  public String currentShard() {
+    String shard = ClubShardContext.current();
+    return shard != null ? shard : DEFAULT_SHARD;
+  }
+
+  public <T> T onClub(Long clubId, Supplier<T> action) {
+    return on(shardForClub(clubId), action);
+  }
+
+  public void runOnClub(Long clubId, Runnable action) {
+    on(shardForClub(clubId), () -> {
+      action.run();
+      return null;
+    });
+  }
+
+  // Reservas, esperas: el id dice en qué shard se creó
+  public <T> T onId(Long id, Supplier<T> action) {
+    return on(shardForId(id), action);
+  }
+
+  public void runOnId(Long id, Runnable action) {
+    on(shardForId(id), () -> {
+      action.run();
+      return null;
+    });
+  }
+
+  public <T> T on(String shard, Supplier<T> action) {
+    String previous = ClubShardContext.current();
+    if (!shard.equals(currentShard()) && TransactionSynchronizationManager.isActualTransactionActive()) {
+      throw new IllegalStateException("No se puede cambiar al shard " + shard + " dentro de una transacción");
+    }
+
+    ClubShardContext.set(shard);
+    try {
+      return action.get();
+    } finally {
+      ClubShardContext.set(previous);
+    }
+  }
+
+  // Tareas de mantenimiento: una vez por shard, en orden. Un shard con error no frena a los demás.
+  public void forEachShard(Consumer<String> action) {
+    for (String shard : shards) {
+      try {
+        on(shard, () -> {
+          action.accept(shard);
+          return null;
+        });
+      } catch (RuntimeException e) {
+        if (!sharded) {
+          throw e;
+        }
+        log.error("Error en el shard {}: {}", shard, e.getMessage(), e);
+      }
+    }
+  }
+
+  // Scatter-gather: la misma consulta en todos los shards a la vez; el orden del resultado es por shard
+  public <T> List<T> gather(Supplier<? extends Collection<T>> query) {
+    if (!sharded) {
+      return new ArrayList<>(query.get());
+    }
+
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    SecurityContext securityContext = SecurityContextHolder.getContext();
+    List<Future<? extends Collection<T>>> futures = new ArrayList<>(shards.size());
+    for (String shard : shards) {
+      futures.add(executor.submit(() -> {
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+        SecurityContextHolder.setContext(securityContext);
+        try {
+          return on(shard, query);
+        } finally {
+          SecurityContextHolder.clearContext();
+          RequestContextHolder.resetRequestAttributes();
+        }
+      }));
+    }
+
+    List<T> results = new ArrayList<>();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(gatherTimeoutMs);
+    try {
+      for (Future<? extends Collection<T>> future : futures) {
+        results.addAll(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+      }
+    } catch (TimeoutException e) {
+      throw new RemoteServiceUnavailableException("Algún shard de reservas no respondió en " + gatherTimeoutMs + " ms");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Consulta a los shards interrumpida");
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+    return results;
+  }
+
+  // Paginado keyset repartido: cada shard devuelve su página desde el mismo cursor y la página global
+  // son las primeras 'size' filas de la unión en el orden del cursor
+  public <T> CursorPageDTO<T> gatherPage(Supplier<CursorPageDTO<T>> query, int size,
+                                         Comparator<? super T> order, Function<T, String> cursorOf) {
+    if (!sharded) {
+      return query.get();
+    }
+
+    List<CursorPageDTO<T>> pages = gather(() -> List.of(query.get()));
+    List<T> merged = new ArrayList<>();
+    boolean shardHasMore = false;
+    for (CursorPageDTO<T> page : pages) {
+      merged.addAll(page.getItems());
+      shardHasMore |= page.isHasMore();
+    }
+    merged.sort(order);
+
+    boolean hasMore = shardHasMore || merged.size() > size;
+    List<T> items = merged.subList(0, Math.min(size, merged.size()));
+    return CursorPageDTO.<T>builder()
+            .items(items)
+            .nextCursor(hasMore && !items.isEmpty() ? cursorOf.apply(items.get(items.size() - 1)) : null)
+            .hasMore(hasMore)
+            .size(items.size())
+            .build();
+  }
+
+  private void register(String shard, int number) {
+    if (number < 0 || number > MAX_SHARD_NUMBER) {
+      throw new IllegalArgumentException("Número de shard fuera de rango (0-" + MAX_SHARD_NUMBER + "): " + shard);
+    }
+    if (shardByNumber.putIfAbsent(number, shard) != null || numberByShard.putIfAbsent(shard, number) != null) {
+      throw new IllegalArgumentException("Shard o número de shard repetido: " + shard + " / " + number);
+    }
+    shards.add(shard);
+  }
+}
@@ -0,0 +1,305 @@
+package org.example.microservicereservation.service.tournament;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+// Motor de programación de partidos sobre las canchas de un club. Cada candidato es un orden de
+// partidos y un orden de canchas; se ubica cada partido en el inicio más temprano posible
+// (apertura del club, ocupación de la cancha, descanso de ambos equipos) y gana el candidato que
+// ubica más partidos y termina antes. Los candidatos se evalúan en paralelo con fork/join.
+// Todos los tiempos están en minutos desde el inicio de la ventana.
+@Component
+public class TournamentScheduler {
+  private static final int TASK_THRESHOLD = 4;
+  private static final int MATCH_ORDERINGS = 4;
+
+  private final ForkJoinPool pool;
+
+  @Value("${reservation.tournament.court-orderings:16}")
+  private int courtOrderings;
+
+  public TournamentScheduler(@Value("${reservation.tournament.parallelism:0}") int parallelism) {
+    this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+  }
+
+  @PreDestroy
+  void shutdown() {
+    pool.shutdownNow();
+  }
+
+  // team vale -1 cuando el partido no tiene ese equipo
+  public record Match(String ref, int home, int away, int duration, String courtType) {
+  }
+
+  public record Court(Long courtId, String type, List<int[]> busy) {
+  }
+
+  // windows: tramos [apertura, cierre) ordenados; step: alineación de los inicios
+  public record Problem(List<Match> matches, List<Court> courts, int[][] windows, int step, int rest, int teams) {
+  }
+
+  // court: índice de cancha asignada (-1 si no entró); start: minuto de inicio
+  public record Plan(int[] court, int[] start, int unscheduled, int makespan, long totalStart, int candidates) {
+    boolean betterThan(Plan other) {
+      if (other == null) {
+        return true;
+      }
+      if (unscheduled != other.unscheduled) {
+        return unscheduled < other.unscheduled;
+      }
+      if (makespan != other.makespan) {
+        return makespan < other.makespan;
+      }
+      return totalStart < other.totalStart;
+    }
+  }
+
+  private record Candidate(int[] matchOrder, int[] courtOrder) {
+  }
+
+  public Plan solve(Problem problem) {
+    List<Candidate> candidates = candidates(problem);
+    Plan best = pool.invoke(new SearchTask(problem, candidates, 0, candidates.size()));
+    return new Plan(best.court(), best.start(), best.unscheduled(), best.makespan(), best.totalStart(),
+            candidates.size());
+  }
+
+  private List<Candidate> candidates(Problem problem) {
+    int matchCount = problem.matches().size();
+    int courtCount = problem.courts().size();
+
+    int[] teamLoad = new int[Math.max(1, problem.teams())];
+    for (Match match : problem.matches()) {
+      if (match.home() >= 0) {
+        teamLoad[match.home()]++;
+      }
+      if (match.away() >= 0) {
+        teamLoad[match.away()]++;
+      }
+    }
+    Map<String, Integer> eligibleCourts = new HashMap<>();
+    for (Match match : problem.matches()) {
+      eligibleCourts.computeIfAbsent(match.courtType(), type -> (int) problem.courts().stream()
+              .filter(court -> fits(court, type))
+              .count());
+    }
+
+    List<int[]> matchOrders = new ArrayList<>(MATCH_ORDERINGS);
+    // Orden recibido (respeta el orden de rondas que arme el organizador)
+    matchOrders.add(IntStream.range(0, matchCount).toArray());
+    // Más largos primero
+    matchOrders.add(sorted(matchCount, Comparator.comparingInt(i -> -problem.matches().get(i).duration())));
+    // Menos canchas posibles primero
+    matchOrders.add(sorted(matchCount, Comparator.comparingInt(i -> eligibleCourts.get(problem.matches().get(i).courtType()))));
+    // Equipos con más partidos primero
+    matchOrders.add(sorted(matchCount, Comparator.comparingInt(i -> -(load(teamLoad, problem.matches().get(i).home())
+            + load(teamLoad, problem.matches().get(i).away())))));
+
+    List<int[]> courtOrders = new ArrayList<>();
+    courtOrders.add(IntStream.range(0, courtCount).toArray());
+    int[] reversed = IntStream.range(0, courtCount).map(i -> courtCount - 1 - i).toArray();
+    courtOrders.add(reversed);
+    // Permutaciones con semilla fija: la misma entrada da siempre la misma programación
+    Random random = new Random(matchCount * 31L + courtCount);
+    for (int i = courtOrders.size(); i < Math.max(2, courtOrderings); i++) {
+      List<Integer> order = new ArrayList<>(IntStream.range(0, courtCount).boxed().toList());
+      Collections.shuffle(order, random);
+      courtOrders.add(order.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    List<Candidate> candidates = new ArrayList<>(matchOrders.size() * courtOrders.size());
+    for (int[] matchOrder : matchOrders) {
+      for (int[] courtOrder : courtOrders) {
+        candidates.add(new Candidate(matchOrder, courtOrder));
+      }
+    }
+    return candidates;
+  }
+
+  private static final class SearchTask extends RecursiveTask<Plan> {
+    private final Problem problem;
+    private final List<Candidate> candidates;
+    private final int from;
+    private final int to;
+
+    SearchTask(Problem problem, List<Candidate> candidates, int from, int to) {
+      this.problem = problem;
+      this.candidates = candidates;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Plan compute() {
+      if (to - from <= TASK_THRESHOLD) {
+        Plan best = null;
+        for (int i = from; i < to; i++) {
+          Plan plan = simulate(problem, candidates.get(i));
+          if (plan.betterThan(best)) {
+            best = plan;
+          }
+        }
+        return best;
+      }
+
+      int middle = (from + to) >>> 1;
+      SearchTask left = new SearchTask(problem, candidates, from, middle);
+      left.fork();
+      Plan right = new SearchTask(problem, candidates, middle, to).compute();
+      Plan leftPlan = left.join();
+      // A igual puntaje gana el candidato de menor índice (resultado determinista)
+      return right.betterThan(leftPlan) ? right : leftPlan;
+    }
+  }
+
+  // Ubicación voraz: cada partido va al inicio más temprano entre las canchas que admite
+  private static Plan simulate(Problem problem, Candidate candidate) {
+    List<Match> matches = problem.matches();
+    List<TreeMap<Integer, Integer>> courtBusy = new ArrayList<>(problem.courts().size());
+    for (Court court : problem.courts()) {
+      courtBusy.add(merged(court.busy()));
+    }
+    List<TreeMap<Integer, Integer>> teamBusy = new ArrayList<>(problem.teams());
+    for (int i = 0; i < problem.teams(); i++) {
+      teamBusy.add(new TreeMap<>());
+    }
+
+    int[] assignedCourt = new int[matches.size()];
+    int[] assignedStart = new int[matches.size()];
+    Arrays.fill(assignedCourt, -1);
+    int unscheduled = 0;
+    int makespan = 0;
+    long totalStart = 0;
+
+    for (int matchIndex : candidate.matchOrder()) {
+      Match match = matches.get(matchIndex);
+      int bestStart = Integer.MAX_VALUE;
+      int bestCourt = -1;
+
+      for (int courtIndex : candidate.courtOrder()) {
+        if (!fits(problem.courts().get(courtIndex), match.courtType())) {
+          continue;
+        }
+        int start = earliestStart(problem, courtBusy.get(courtIndex), teamBusy, match);
+        if (start >= 0 && start < bestStart) {
+          bestStart = start;
+          bestCourt = courtIndex;
+        }
+      }
+
+      if (bestCourt < 0) {
+        unscheduled++;
+        continue;
+      }
+
+      int end = bestStart + match.duration();
+      courtBusy.get(bestCourt).put(bestStart, end);
+      if (match.home() >= 0) {
+        teamBusy.get(match.home()).put(bestStart, end);
+      }
+      if (match.away() >= 0) {
+        teamBusy.get(match.away()).put(bestStart, end);
+      }
+      assignedCourt[matchIndex] = bestCourt;
+      assignedStart[matchIndex] = bestStart;
+      makespan = Math.max(makespan, end);
+      totalStart += bestStart;
+    }
+
+    return new Plan(assignedCourt, assignedStart, unscheduled, makespan, totalStart, 1);
+  }
+
+  // Primer inicio alineado que respeta apertura, ocupación de la cancha y descanso de los equipos.
+  // Cada conflicto adelanta el inicio al fin de lo que choca, así el bucle siempre avanza.
+  private static int earliestStart(Problem problem, TreeMap<Integer, Integer> courtBusy,
+                                   List<TreeMap<Integer, Integer>> teamBusy, Match match) {
+    int duration = match.duration();
+    int rest = problem.rest();
+    int start = 0;
+    int window = 0;
+    int[][] windows = problem.windows();
+
+    while (window < windows.length) {
+      start = Math.max(start, alignUp(windows[window][0], problem.step()));
+      if (start + duration > windows[window][1]) {
+        window++;
+        continue;
+      }
+
+      Map.Entry<Integer, Integer> courtConflict = courtBusy.floorEntry(start + duration - 1);
+      if (courtConflict != null && courtConflict.getValue() > start) {
+        start = alignUp(courtConflict.getValue(), problem.step());
+        continue;
+      }
+
+      int teamFree = teamFreeFrom(teamBusy, match.home(), start, duration, rest);
+      teamFree = Math.max(teamFree, teamFreeFrom(teamBusy, match.away(), start, duration, rest));
+      if (teamFree > start) {
+        start = alignUp(teamFree, problem.step());
+        continue;
+      }
+      return start;
+    }
+    return -1;
+  }
+
+  // Devuelve 'start' si el equipo puede jugar, o el minuto desde el que podría hacerlo
+  private static int teamFreeFrom(List<TreeMap<Integer, Integer>> teamBusy, int team, int start, int duration, int rest) {
+    if (team < 0) {
+      return start;
+    }
+    Map.Entry<Integer, Integer> conflict = teamBusy.get(team).floorEntry(start + duration + rest - 1);
+    if (conflict != null && conflict.getValue() + rest > start) {
+      return conflict.getValue() + rest;
+    }
+    return start;
+  }
+
+  // Intervalos sin solapes: floorEntry alcanza para detectar conflictos
+  private static TreeMap<Integer, Integer> merged(List<int[]> intervals) {
+    List<int[]> sorted = new ArrayList<>(intervals);
+    sorted.sort(Comparator.comparingInt(interval -> interval[0]));
+
+    TreeMap<Integer, Integer> busy = new TreeMap<>();
+    Map.Entry<Integer, Integer> last = null;
+    for (int[] interval : sorted) {
+      if (last != null && interval[0] <= last.getValue()) {
+        busy.put(last.getKey(), Math.max(last.getValue(), interval[1]));
+      } else {
+        busy.put(interval[0], interval[1]);
+      }
+      last = busy.lastEntry();
+    }
+    return busy;
+  }
+
+  private static boolean fits(Court court, String courtType) {
+    return courtType == null || courtType.equalsIgnoreCase(court.type());
+  }
+
+  private static int alignUp(int minutes, int step) {
+    return -Math.floorDiv(-minutes, step) * step;
+  }
+
+  private static int load(int[] teamLoad, int team) {
+    return team >= 0 ? teamLoad[team] : 0;
+  }
+
+  private static int[] sorted(int size, Comparator<Integer> comparator) {
+    return IntStream.range(0, size).boxed().sorted(comparator).mapToInt(Integer::intValue).toArray();
+  }
+}
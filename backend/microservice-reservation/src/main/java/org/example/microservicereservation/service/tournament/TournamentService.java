@@ -0,0 +1,310 @@
+package org.example.microservicereservation.service.tournament;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.common.dto.CursorPageDTO;
+import org.example.common.dto.PageCursor;
+import org.example.microservicereservation.entity.Reservation;
+import org.example.microservicereservation.entity.ReservationEventType;
+import org.example.microservicereservation.entity.ReservationPaymentStatus;
+import org.example.microservicereservation.entity.ReservationStatus;
+import org.example.microservicereservation.exception.RemoteServiceUnavailableException;
+import org.example.microservicereservation.exception.ReservationConflictException;
+import org.example.microservicereservation.feignClient.ClubClient;
+import org.example.microservicereservation.feignClient.CourtClient;
+import org.example.microservicereservation.repository.ReservationBatchRepository;
+import org.example.microservicereservation.repository.ReservationRepository;
+import org.example.microservicereservation.service.BookingQuotaRegistry;
+import org.example.microservicereservation.service.OccupancyRollupService;
+import org.example.microservicereservation.service.RemoteLookupCache;
+import org.example.microservicereservation.service.ReservationAvailabilityIndex;
+import org.example.microservicereservation.service.ReservationService;
+import org.example.microservicereservation.service.SlotHoldRegistry;
+import org.example.microservicereservation.service.dto.ClubDTO;
+import org.example.microservicereservation.service.dto.CourtDTO;
+import org.example.microservicereservation.service.dto.request.TournamentMatchDTO;
+import org.example.microservicereservation.service.dto.request.TournamentScheduleRequestDTO;
+import org.example.microservicereservation.service.dto.response.ScheduledMatchDTO;
+import org.example.microservicereservation.service.dto.response.TournamentScheduleResponseDTO;
+import org.example.microservicereservation.service.outbox.ReservationEventPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Programa un torneo completo sobre las canchas de un club y lo reserva en una sola transacción.
+// Las canchas se bloquean (en orden de id) antes de leer la ocupación, así nada se cuela entre
+// la búsqueda y la inserción por lotes.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TournamentService {
+  private static final LocalTime DEFAULT_OPENING_TIME = LocalTime.of(8, 0);
+  private static final LocalTime DEFAULT_CLOSING_TIME = LocalTime.of(22, 0);
+  private static final int DEFAULT_SLOT_MINUTES = 15;
+  private static final int COURT_PAGE_SIZE = PageCursor.MAX_SIZE;
+
+  private final TournamentScheduler tournamentScheduler;
+  private final ReservationRepository reservationRepository;
+  private final ReservationBatchRepository reservationBatchRepository;
+  private final ReservationService reservationService;
+  private final RemoteLookupCache remoteLookupCache;
+  private final ReservationAvailabilityIndex availabilityIndex;
+  private final BookingQuotaRegistry bookingQuotaRegistry;
+  private final SlotHoldRegistry slotHoldRegistry;
+  private final OccupancyRollupService occupancyRollupService;
+  private final ReservationEventPublisher reservationEventPublisher;
+  private final CourtClient courtClient;
+  private final ClubClient clubClient;
+
+  @Value("${reservation.tournament.max-matches:500}")
+  private int maxMatches;
+
+  @Value("${reservation.tournament.max-days:14}")
+  private int maxDays;
+
+  @Transactional
+  public TournamentScheduleResponseDTO schedule(TournamentScheduleRequestDTO request) {
+    validate(request);
+    int step = request.getSlotMinutes() != null ? request.getSlotMinutes() : DEFAULT_SLOT_MINUTES;
+    int rest = request.getRestMinutes() != null ? request.getRestMinutes() : 0;
+    boolean allOrNothing = !Boolean.FALSE.equals(request.getAllOrNothing());
+    boolean dryRun = Boolean.TRUE.equals(request.getDryRun());
+
+    if (!remoteLookupCache.userExists(request.getUserId())) {
+      throw new EntityNotFoundException("Usuario no encontrado con id: " + request.getUserId());
+    }
+    List<CourtDTO> courts = findActiveCourts(request.getClubId());
+    if (courts.isEmpty()) {
+      throw new IllegalArgumentException("El club no tiene canchas activas");
+    }
+    int[][] windows = openingWindows(request.getClubId(), request.getFrom(), request.getTo());
+
+    // Bloqueo en orden de id: dos torneos del mismo club no se cruzan ni se bloquean mutuamente
+    if (!dryRun) {
+      courts.stream().map(CourtDTO::getId).sorted().forEach(reservationRepository::lockCourt);
+    }
+
+    Map<Long, Integer> courtIndex = new HashMap<>();
+    List<TournamentScheduler.Court> schedulerCourts = new ArrayList<>(courts.size());
+    for (CourtDTO court : courts) {
+      courtIndex.put(court.getId(), schedulerCourts.size());
+      List<int[]> busy = new ArrayList<>();
+      slotHoldRegistry.findByCourt(court.getId()).forEach(hold -> busy.add(
+              minutes(request.getFrom(), hold.request().getStartTime(), hold.request().getEndTime())));
+      schedulerCourts.add(new TournamentScheduler.Court(court.getId(), court.getType(), busy));
+    }
+    List<Reservation> existing = reservationRepository.findConflictingReservationsForCourts(
+            courts.stream().map(CourtDTO::getId).toList(), request.getFrom(), request.getTo());
+    for (Reservation reservation : existing) {
+      schedulerCourts.get(courtIndex.get(reservation.getCourtId())).busy()
+              .add(minutes(request.getFrom(), reservation.getStartTime(), reservation.getEndTime()));
+    }
+
+    Map<String, Integer> teams = new HashMap<>();
+    List<TournamentScheduler.Match> matches = request.getMatches().stream()
+            .map(match -> new TournamentScheduler.Match(match.getRef(), team(teams, match.getHomeTeam()),
+                    team(teams, match.getAwayTeam()), match.getDurationMinutes(), blankToNull(match.getCourtType())))
+            .toList();
+
+    long started = System.currentTimeMillis();
+    TournamentScheduler.Plan plan = tournamentScheduler.solve(new TournamentScheduler.Problem(
+            matches, schedulerCourts, windows, step, rest, teams.size()));
+    log.info("Torneo del club {}: {} de {} partidos ubicados, {} candidatos en {} ms", request.getClubId(),
+            matches.size() - plan.unscheduled(), matches.size(), plan.candidates(),
+            System.currentTimeMillis() - started);
+
+    String tournamentId = UUID.randomUUID().toString();
+    LocalDateTime now = LocalDateTime.now();
+    List<ScheduledMatchDTO> results = new ArrayList<>(matches.size());
+    List<Reservation> reservations = new ArrayList<>();
+    List<ScheduledMatchDTO> reserved = new ArrayList<>();
+    LocalDateTime lastEnd = null;
+
+    for (int i = 0; i < matches.size(); i++) {
+      TournamentMatchDTO match = request.getMatches().get(i);
+      ScheduledMatchDTO result = ScheduledMatchDTO.builder()
+              .ref(match.getRef())
+              .homeTeam(match.getHomeTeam())
+              .awayTeam(match.getAwayTeam())
+              .build();
+      results.add(result);
+
+      if (plan.court()[i] < 0) {
+        result.setReason("No hay cancha libre que respete horario, tipo y descanso de los equipos");
+        continue;
+      }
+
+      CourtDTO court = courts.get(plan.court()[i]);
+      LocalDateTime startTime = request.getFrom().plusMinutes(plan.start()[i]);
+      LocalDateTime endTime = startTime.plusMinutes(match.getDurationMinutes());
+      result.setCourtId(court.getId());
+      result.setStartTime(startTime);
+      result.setEndTime(endTime);
+      lastEnd = lastEnd == null || endTime.isAfter(lastEnd) ? endTime : lastEnd;
+
+      Reservation reservation = Reservation.builder()
+              .userId(request.getUserId())
+              .userEmail(request.getUserEmail())
+              .courtId(court.getId())
+              .clubId(request.getClubId())
+              .startTime(startTime)
+              .endTime(endTime)
+              .status(ReservationStatus.PENDING)
+              .paymentStatus(ReservationPaymentStatus.PENDING)
+              .seriesId(tournamentId)
+              .paidAmount(BigDecimal.ZERO)
+              .createdAt(now)
+              .updatedAt(now)
+              .build();
+      reservationService.applyPriceSnapshot(reservation, court.getPricePerHour());
+      reservations.add(reservation);
+      reserved.add(result);
+    }
+
+    boolean commit = !dryRun && !reservations.isEmpty() && (plan.unscheduled() == 0 || !allOrNothing);
+    if (commit) {
+      try {
+        reservationBatchRepository.insertAll(reservations);
+      } catch (DataIntegrityViolationException e) {
+        throw new ReservationConflictException("Alguna cancha dejó de estar disponible durante la programación");
+      }
+      occupancyRollupService.add(reservations);
+      for (int i = 0; i < reservations.size(); i++) {
+        Reservation reservation = reservations.get(i);
+        reserved.get(i).setReservationId(reservation.getId());
+        availabilityIndex.track(reservation);
+        bookingQuotaRegistry.track(reservation);
+        reservationEventPublisher.publish(reservation, ReservationEventType.CREATED);
+      }
+      log.info("Torneo {} reservado: {} partidos en el club {}", tournamentId, reservations.size(),
+              request.getClubId());
+    }
+
+    return TournamentScheduleResponseDTO.builder()
+            .tournamentId(commit ? tournamentId : null)
+            .clubId(request.getClubId())
+            .requested(matches.size())
+            .scheduled(matches.size() - plan.unscheduled())
+            .unscheduled(plan.unscheduled())
+            .committed(commit)
+            .lastEnd(lastEnd)
+            .candidatesEvaluated(plan.candidates())
+            .matches(results)
+            .build();
+  }
+
+  private void validate(TournamentScheduleRequestDTO request) {
+    if (request.getClubId() == null || request.getUserId() == null || request.getUserEmail() == null) {
+      throw new IllegalArgumentException("El torneo requiere clubId, userId y userEmail");
+    }
+    if (request.getFrom() == null || request.getTo() == null || !request.getTo().isAfter(request.getFrom())) {
+      throw new IllegalArgumentException("La fecha 'to' debe ser posterior a 'from'");
+    }
+    if (request.getFrom().isBefore(LocalDateTime.now())) {
+      throw new IllegalArgumentException("No se puede programar un torneo en el pasado");
+    }
+    if (Duration.between(request.getFrom(), request.getTo()).toDays() >= maxDays) {
+      throw new IllegalArgumentException("La ventana del torneo no puede superar los " + maxDays + " días");
+    }
+    if (request.getSlotMinutes() != null && (request.getSlotMinutes() < 5 || request.getSlotMinutes() > 60)) {
+      throw new IllegalArgumentException("slotMinutes debe estar entre 5 y 60");
+    }
+    if (request.getRestMinutes() != null && (request.getRestMinutes() < 0 || request.getRestMinutes() > 24 * 60)) {
+      throw new IllegalArgumentException("restMinutes debe estar entre 0 y 1440");
+    }
+    if (request.getMatches() == null || request.getMatches().isEmpty()) {
+      throw new IllegalArgumentException("El torneo no tiene partidos");
+    }
+    if (request.getMatches().size() > maxMatches) {
+      throw new IllegalArgumentException("El torneo no puede tener más de " + maxMatches + " partidos");
+    }
+
+    for (TournamentMatchDTO match : request.getMatches()) {
+      Integer duration = match.getDurationMinutes();
+      if (duration == null || duration < 60 || duration > 240) {
+        throw new IllegalArgumentException("Cada partido debe durar entre 60 minutos y 4 horas");
+      }
+      if (match.getHomeTeam() != null && match.getHomeTeam().equalsIgnoreCase(match.getAwayTeam())) {
+        throw new IllegalArgumentException("Un equipo no puede jugar contra sí mismo: " + match.getHomeTeam());
+      }
+    }
+  }
+
+  private List<CourtDTO> findActiveCourts(Long clubId) {
+    List<CourtDTO> courts = new ArrayList<>();
+    String cursor = null;
+    try {
+      do {
+        CursorPageDTO<CourtDTO> page = courtClient.findActiveByClub(clubId, cursor, COURT_PAGE_SIZE);
+        courts.addAll(page.getItems());
+        cursor = page.isHasMore() ? page.getNextCursor() : null;
+      } while (cursor != null);
+    } catch (Exception e) {
+      log.error("Error obteniendo las canchas del club {}: {}", clubId, e.getMessage());
+      throw new RemoteServiceUnavailableException("No se pudieron obtener las canchas del club");
+    }
+    courts.sort(Comparator.comparing(CourtDTO::getId));
+    return courts;
+  }
+
+  // Tramos de apertura de cada día de la ventana, en minutos desde 'from'
+  private int[][] openingWindows(Long clubId, LocalDateTime from, LocalDateTime to) {
+    LocalTime opening = DEFAULT_OPENING_TIME;
+    LocalTime closing = DEFAULT_CLOSING_TIME;
+    try {
+      ClubDTO club = clubClient.findById(clubId);
+      if (club != null && club.getOpeningTime() != null && club.getClosingTime() != null) {
+        opening = club.getOpeningTime();
+        closing = club.getClosingTime();
+      }
+    } catch (Exception e) {
+      log.warn("No se pudo obtener el horario del club {}: {}", clubId, e.getMessage());
+    }
+
+    List<int[]> windows = new ArrayList<>();
+    for (LocalDate day = from.toLocalDate(); !day.isAfter(to.toLocalDate()); day = day.plusDays(1)) {
+      LocalDateTime open = max(day.atTime(opening), from);
+      LocalDateTime close = min(day.atTime(closing), to);
+      if (close.isAfter(open)) {
+        windows.add(minutes(from, open, close));
+      }
+    }
+    return windows.toArray(new int[0][]);
+  }
+
+  private static int[] minutes(LocalDateTime origin, LocalDateTime startTime, LocalDateTime endTime) {
+    return new int[]{(int) Duration.between(origin, startTime).toMinutes(),
+            (int) -Math.floorDiv(-Duration.between(origin, endTime).getSeconds(), 60)};
+  }
+
+  private static int team(Map<String, Integer> teams, String name) {
+    String key = blankToNull(name);
+    return key == null ? -1 : teams.computeIfAbsent(key.toLowerCase(), k -> teams.size());
+  }
+
+  private static String blankToNull(String value) {
+    return value == null || value.isBlank() ? null : value.trim();
+  }
+
+  private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+    return a.isAfter(b) ? a : b;
+  }
+
+  private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+    return a.isBefore(b) ? a : b;
+  }
+}
@@ -0,0 +1,79 @@
+package org.example.microservicereservation.config;
+
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Dos shards: cada club obtiene conexiones de la base que le asigna el anillo
+class ClubRoutingDataSourceTest {
+  private final DataSource primary = mock(DataSource.class);
+  private final DataSource secondary = mock(DataSource.class);
+  private final Connection primaryConnection = mock(Connection.class);
+  private final Connection secondaryConnection = mock(Connection.class);
+  private final ShardRouter router = new ShardRouter(shardedProperties());
+  private final ClubRoutingDataSource routing = new ClubRoutingDataSource();
+
+  ClubRoutingDataSourceTest() throws SQLException {
+    when(primary.getConnection()).thenReturn(primaryConnection);
+    when(secondary.getConnection()).thenReturn(secondaryConnection);
+    routing.setTargetDataSources(Map.of(ShardRouter.DEFAULT_SHARD, primary, "shard-1", secondary));
+    routing.setDefaultTargetDataSource(primary);
+    routing.afterPropertiesSet();
+  }
+
+  @AfterEach
+  void tearDown() {
+    routing.close();
+  }
+
+  @Test
+  void connectionsComeFromTheClubShard() {
+    long primaryClub = clubOn(ShardRouter.DEFAULT_SHARD);
+    long secondaryClub = clubOn("shard-1");
+
+    assertThat(router.onClub(primaryClub, this::connection)).isSameAs(primaryConnection);
+    assertThat(router.onClub(secondaryClub, this::connection)).isSameAs(secondaryConnection);
+    assertThat(router.onId(router.idOffset("shard-1") + 1, this::connection)).isSameAs(secondaryConnection);
+  }
+
+  @Test
+  void withoutShardSelectedUsesPrimary() throws SQLException {
+    assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+    router.onClub(clubOn("shard-1"), this::connection);
+    assertThat(routing.getConnection()).isSameAs(primaryConnection);
+  }
+
+  private Connection connection() {
+    try {
+      return routing.getConnection();
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private long clubOn(String shard) {
+    return LongStream.rangeClosed(1, 1000)
+            .filter(clubId -> router.shardForClub(clubId).equals(shard))
+            .findFirst().orElseThrow();
+  }
+
+  private static ShardingProperties shardedProperties() {
+    ShardingProperties properties = new ShardingProperties();
+    properties.setEnabled(true);
+    ShardingProperties.Shard shard = new ShardingProperties.Shard();
+    shard.setNumber(1);
+    properties.getShards().put("shard-1", shard);
+    return properties;
+  }
+}
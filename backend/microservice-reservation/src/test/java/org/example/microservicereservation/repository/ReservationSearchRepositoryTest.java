@@ -0,0 +1,108 @@
+package org.example.microservicereservation.repository;
+
+import org.example.common.dto.PageCursor;
+import org.example.microservicereservation.service.ReservationPartitionManager;
+import org.example.microservicereservation.service.dto.request.ReservationSearchCriteria;
+import org.example.microservicereservation.service.dto.response.ReservationResponseDTO;
+import org.example.microservicereservation.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// La búsqueda keyset por club y rango de fechas recorre el índice (club_id, start_time) en orden:
+// sin barrido secuencial ni ordenamiento completo, y las páginas siguen el cursor (start_time, id)
+class ReservationSearchRepositoryTest extends PostgresIntegrationTest {
+  private static final int CLUBS = 20;
+  private static final int ROWS = 6000;
+  private static final int PAGE = 50;
+
+  // Misma consulta que arma ReservationSearchRepository.search con clubId, from, to y cursor
+  private static final String KEYSET_SQL = "SELECT id, user_id, court_id, club_id, user_email, start_time, end_time, " +
+          "status, payment_status, created_at, series_id FROM reservations " +
+          "WHERE club_id = ? AND start_time >= ? AND start_time < ? " +
+          "AND (start_time > ? OR (start_time = ? AND id > ?)) " +
+          "ORDER BY start_time, id LIMIT ?";
+
+  @Autowired
+  private ReservationSearchRepository reservationSearchRepository;
+
+  @Autowired
+  private ReservationPartitionManager partitionManager;
+
+  private final YearMonth month = YearMonth.now().plusMonths(4);
+  private final List<Long> clubIds = new ArrayList<>();
+
+  @BeforeEach
+  void data() {
+    partitionManager.maintain();
+    long userId = insertUser();
+    for (int i = 0; i < CLUBS; i++) {
+      long clubId = insertClub();
+      clubIds.add(clubId);
+      insertCourt(clubId);
+    }
+
+    // Una cancha por club, un turno de una hora cada dos horas: sin solapes
+    jdbcTemplate.update("INSERT INTO reservations (user_id, court_id, club_id, user_email, start_time, end_time, " +
+                    "status, payment_status, created_at, updated_at) " +
+                    "SELECT ?, c.id, c.club_id, 'user@example.com', " +
+                    "  ?::timestamp + (g / ?) * interval '2 hours', ?::timestamp + (g / ?) * interval '2 hours' + interval '1 hour', " +
+                    "  'CONFIRMED', 'CONFIRMED', now(), now() " +
+                    "FROM generate_series(0, ? - 1) g " +
+                    "JOIN courts c ON c.club_id = (?::bigint[])[g % ? + 1]",
+            userId, Timestamp.valueOf(month.atDay(1).atStartOfDay()), CLUBS,
+            Timestamp.valueOf(month.atDay(1).atStartOfDay()), CLUBS, ROWS,
+            clubIds.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}")), CLUBS);
+    jdbcTemplate.execute("ANALYZE reservations");
+  }
+
+  @Test
+  void keysetSearchUsesClubStartIndexWithoutSort() {
+    LocalDateTime from = month.atDay(1).atStartOfDay();
+    LocalDateTime cursorTime = month.atDay(5).atTime(10, 0);
+
+    List<String> plan = explain(KEYSET_SQL, clubIds.get(3), Timestamp.valueOf(from),
+            Timestamp.valueOf(from.plusMonths(1)), Timestamp.valueOf(cursorTime), Timestamp.valueOf(cursorTime),
+            0L, PAGE + 1);
+
+    assertThat(plan).anyMatch(line -> line.contains("Index") && line.contains("club_id_start_time"));
+    assertThat(plan).noneMatch(line -> line.contains("Seq Scan"));
+    // A lo sumo un Incremental Sort por id dentro de cada start_time, nunca un Sort de todas las filas
+    assertThat(plan).noneMatch(line -> line.trim().replaceFirst("^->\\s*", "").startsWith("Sort"));
+  }
+
+  @Test
+  void pagesFollowTheCursorInOrder() {
+    Long clubId = clubIds.get(7);
+    ReservationSearchCriteria criteria = ReservationSearchCriteria.builder()
+            .clubId(clubId)
+            .from(month.atDay(1).atStartOfDay())
+            .to(month.plusMonths(1).atDay(1).atStartOfDay())
+            .build();
+
+    List<Long> paged = new ArrayList<>();
+    PageCursor after = null;
+    List<ReservationResponseDTO> page;
+    do {
+      page = reservationSearchRepository.search(criteria, after, PAGE);
+      page.forEach(reservation -> paged.add(reservation.getId()));
+      if (!page.isEmpty()) {
+        ReservationResponseDTO last = page.get(page.size() - 1);
+        after = PageCursor.decode(PageCursor.encode(last.getStartTime(), last.getId()));
+      }
+    } while (page.size() == PAGE);
+
+    List<Long> expected = jdbcTemplate.queryForList("SELECT id FROM reservations WHERE club_id = ? " +
+            "ORDER BY start_time, id", Long.class, clubId);
+    assertThat(paged).hasSize(ROWS / CLUBS).isEqualTo(expected);
+  }
+}
@@ -0,0 +1,50 @@
+package org.example.microservicereservation.service;
+
+import org.example.microservicereservation.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// La reconstrucción recalcula solo lo que sigue en la tabla viva y conserva los meses archivados
+class OccupancyRollupRebuildTest extends PostgresIntegrationTest {
+  @Autowired
+  private OccupancyRollupService occupancyRollupService;
+
+  @Test
+  void rebuildFixesLiveCellsAndKeepsArchivedHistory() {
+    long clubId = insertClub();
+    long courtId = insertCourt(clubId);
+    LocalDateTime start = LocalDateTime.now().plusDays(2).withHour(18).withMinute(0).withSecond(0).withNano(0);
+    LocalDate archivedDay = LocalDate.now().minusYears(3);
+
+    jdbcTemplate.update("INSERT INTO reservations (user_id, court_id, club_id, user_email, start_time, end_time, " +
+                    "status, payment_status, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, 'user@example.com', ?, ?, 'CONFIRMED', 'CONFIRMED', now(), now())",
+            insertUser(), courtId, clubId, Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(90)));
+    // Celda desfasada en la tabla viva y celda de un mes ya archivado (sin reservas en reservations)
+    insertCell(courtId, clubId, start.toLocalDate(), 18, 15, 3);
+    insertCell(courtId, clubId, archivedDay, 10, 60, 1);
+
+    occupancyRollupService.rebuild();
+
+    assertThat(minutes(courtId, start.toLocalDate(), 18)).isEqualTo(60);
+    assertThat(minutes(courtId, start.toLocalDate(), 19)).isEqualTo(30);
+    assertThat(minutes(courtId, archivedDay, 10)).isEqualTo(60);
+  }
+
+  private void insertCell(long courtId, long clubId, LocalDate day, int hour, int minutes, int count) {
+    jdbcTemplate.update("INSERT INTO reservation_occupancy (court_id, club_id, day, hour, booked_minutes, booking_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?)", courtId, clubId, Date.valueOf(day), hour, minutes, count);
+  }
+
+  private Integer minutes(long courtId, LocalDate day, int hour) {
+    return jdbcTemplate.queryForObject("SELECT booked_minutes FROM reservation_occupancy " +
+            "WHERE court_id = ? AND day = ? AND hour = ?", Integer.class, courtId, Date.valueOf(day), hour);
+  }
+}
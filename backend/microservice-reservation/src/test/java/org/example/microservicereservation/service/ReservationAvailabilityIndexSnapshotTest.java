@@ -0,0 +1,170 @@
+package org.example.microservicereservation.service;
+
+import org.example.microservicereservation.config.ShardingProperties;
+import org.example.microservicereservation.entity.Reservation;
+import org.example.microservicereservation.entity.ReservationStatus;
+import org.example.microservicereservation.repository.ReservationRepository;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Arranque en caliente del índice (snapshot + cambios posteriores leídos por updated_at) y la lectura
+// periódica de cambios sin volver a cargar todo
+class ReservationAvailabilityIndexSnapshotTest {
+  private static final long COURT_ID = 7L;
+
+  @TempDir
+  Path tempDir;
+
+  // Tabla simulada: findUpdatedSince filtra por updated_at igual que la consulta real
+  private final List<Reservation> table = new ArrayList<>();
+  private final ShardRouter shardRouter = new ShardRouter(new ShardingProperties());
+  private long nextId = 1;
+
+  @BeforeEach
+  void setUp() {
+    table.clear();
+  }
+
+  @Test
+  void restoredIndexSeesReservationInsertedAfterSnapshot() {
+    LocalDateTime tomorrow = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    insert(tomorrow, tomorrow.plusHours(1));
+
+    ReservationRepository firstRepository = repository();
+    ReservationAvailabilityIndex first = index(firstRepository);
+    first.warmUp();
+    first.writeSnapshot();
+
+    // Alta hecha por otra réplica (o con el servicio caído) después del snapshot
+    Reservation inserted = insert(tomorrow.plusHours(3), tomorrow.plusHours(4));
+
+    ReservationRepository secondRepository = repository();
+    ReservationAvailabilityIndex restarted = index(secondRepository);
+    restarted.warmUp();
+
+    verify(secondRepository, never()).findActiveEndingAfter(any(LocalDateTime.class));
+    assertThat(restarted.isReady()).isTrue();
+    assertThat(restarted.hasConflict(COURT_ID, tomorrow, tomorrow.plusMinutes(30))).contains(true);
+    assertThat(restarted.hasConflict(COURT_ID, inserted.getStartTime(), inserted.getEndTime())).contains(true);
+    assertThat(restarted.hasConflict(COURT_ID, tomorrow.plusHours(1), tomorrow.plusHours(3))).contains(false);
+  }
+
+  @Test
+  void restoredIndexDropsReservationsCancelledOrDeletedAfterSnapshot() {
+    LocalDateTime tomorrow = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    Reservation cancelled = insert(tomorrow, tomorrow.plusHours(1));
+    Reservation deleted = insert(tomorrow.plusHours(2), tomorrow.plusHours(3));
+
+    ReservationAvailabilityIndex first = index(repository());
+    first.warmUp();
+    first.writeSnapshot();
+
+    cancelled.setStatus(ReservationStatus.CANCELLED);
+    cancelled.setUpdatedAt(LocalDateTime.now());
+    table.remove(deleted);
+
+    ReservationAvailabilityIndex restarted = index(repository());
+    restarted.warmUp();
+
+    assertThat(restarted.hasConflict(COURT_ID, cancelled.getStartTime(), cancelled.getEndTime())).contains(false);
+    assertThat(restarted.hasConflict(COURT_ID, deleted.getStartTime(), deleted.getEndTime())).contains(false);
+  }
+
+  @Test
+  void refreshAppliesChangesFromOtherInstancesWithoutFullLoad() {
+    LocalDateTime tomorrow = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    Reservation cancelled = insert(tomorrow, tomorrow.plusHours(1));
+
+    ReservationRepository repository = repository();
+    ReservationAvailabilityIndex index = index(repository);
+    index.warmUp();
+
+    // Cambios confirmados por otra réplica
+    cancelled.setStatus(ReservationStatus.CANCELLED);
+    cancelled.setUpdatedAt(LocalDateTime.now());
+    Reservation inserted = insert(tomorrow.plusHours(3), tomorrow.plusHours(4));
+
+    index.refresh();
+
+    verify(repository, times(1)).findActiveEndingAfter(any(LocalDateTime.class));
+    assertThat(index.hasConflict(COURT_ID, cancelled.getStartTime(), cancelled.getEndTime())).contains(false);
+    assertThat(index.hasConflict(COURT_ID, inserted.getStartTime(), inserted.getEndTime())).contains(true);
+  }
+
+  // Como ReservationService: builder + callback de inserción de JPA
+  private Reservation insert(LocalDateTime start, LocalDateTime end) {
+    Reservation reservation = Reservation.builder()
+            .id(nextId++)
+            .userId(1L)
+            .clubId(1L)
+            .courtId(COURT_ID)
+            .userEmail("user@example.com")
+            .startTime(start)
+            .endTime(end)
+            .build();
+    reservation.touchForInsert();
+    table.add(reservation);
+    return reservation;
+  }
+
+  private ReservationRepository repository() {
+    ReservationRepository repository = mock(ReservationRepository.class);
+    when(repository.findActiveEndingAfter(any(LocalDateTime.class))).thenAnswer(invocation -> {
+      LocalDateTime from = invocation.getArgument(0);
+      return table.stream()
+              .filter(reservation -> reservation.getStatus() == ReservationStatus.PENDING
+                      || reservation.getStatus() == ReservationStatus.CONFIRMED)
+              .filter(reservation -> reservation.getEndTime().isAfter(from))
+              .toList();
+    });
+    when(repository.findUpdatedSince(any(LocalDateTime.class), anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+      LocalDateTime since = invocation.getArgument(0);
+      long afterId = invocation.getArgument(1);
+      Pageable pageable = invocation.getArgument(2);
+      return table.stream()
+              .filter(reservation -> reservation.getUpdatedAt() != null)
+              .filter(reservation -> reservation.getUpdatedAt().isAfter(since)
+                      || reservation.getUpdatedAt().isEqual(since) && reservation.getId() > afterId)
+              .sorted(Comparator.comparing(Reservation::getUpdatedAt).thenComparing(Reservation::getId))
+              .limit(pageable.getPageSize())
+              .toList();
+    });
+    when(repository.findExistingIds(any(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+      Collection<Long> ids = invocation.getArgument(0);
+      return table.stream().map(Reservation::getId).filter(ids::contains).toList();
+    });
+    return repository;
+  }
+
+  private ReservationAvailabilityIndex index(ReservationRepository repository) {
+    ReservationAvailabilityIndex index = new ReservationAvailabilityIndex(repository, shardRouter);
+    ReflectionTestUtils.setField(index, "enabled", true);
+    ReflectionTestUtils.setField(index, "lookbackHours", 24L);
+    ReflectionTestUtils.setField(index, "snapshotEnabled", true);
+    ReflectionTestUtils.setField(index, "snapshotPath", tempDir.resolve("availability-index.snap").toString());
+    ReflectionTestUtils.setField(index, "snapshotMaxAgeHours", 24L);
+    ReflectionTestUtils.setField(index, "replayLagSeconds", 60L);
+    ReflectionTestUtils.setField(index, "replayBatchSize", 100);
+    return index;
+  }
+}
@@ -0,0 +1,176 @@
+package org.example.microservicereservation.service;
+
+import org.example.microservicereservation.exception.ReservationConflictException;
+import org.example.microservicereservation.service.dto.CourtDTO;
+import org.example.microservicereservation.service.dto.request.ReservationRequestDTO;
+import org.example.microservicereservation.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.example.microservicereservation.repository.ReservationRepository.MAX_RESERVATION_SPAN;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+// Las consultas de rango calientes solo tocan las particiones de los meses pedidos (la cota
+// earliestStart es la que permite podar) y una partición archivada sale de la tabla viva. Las
+// restricciones de solape son por partición: un solape que cruza el cambio de mes lo frena la
+// verificación en la BD del alta, no la restricción.
+class ReservationPartitionPruningTest extends PostgresIntegrationTest {
+  private static final Pattern PARTITION = Pattern.compile("reservations_(p\\d{6}|default)");
+
+  // Mismos filtros que ReservationRepository.findConflictingReservations / hasReservationConflict
+  private static final String CONFLICT_SQL = "SELECT id FROM reservations " +
+          "WHERE court_id = ? AND status IN ('CONFIRMED', 'PENDING') " +
+          "AND start_time > ? AND ? < end_time AND ? > start_time ORDER BY start_time";
+
+  // Mismos filtros que findConflictingReservationsForCourts (intervalos ocupados de un club)
+  private static final String OCCUPIED_SQL = "SELECT id FROM reservations " +
+          "WHERE court_id IN (?, ?) AND status IN ('CONFIRMED', 'PENDING') " +
+          "AND start_time > ? AND ? < end_time AND ? > start_time ORDER BY court_id, start_time";
+
+  @Autowired
+  private ReservationPartitionManager partitionManager;
+
+  @Autowired
+  private ReservationService reservationService;
+
+  @BeforeEach
+  void partitions() {
+    partitionManager.maintain();
+  }
+
+  @Test
+  void conflictQueryScansOnlyTheMonthOfTheSlot() {
+    YearMonth month = YearMonth.now().plusMonths(2);
+    LocalDateTime start = month.atDay(15).atTime(18, 0);
+
+    Set<String> scanned = scannedPartitions(explain(CONFLICT_SQL, 1L,
+            Timestamp.valueOf(start.minus(MAX_RESERVATION_SPAN)), Timestamp.valueOf(start),
+            Timestamp.valueOf(start.plusMinutes(90))));
+
+    assertThat(scanned).containsExactly(partitionName(month));
+  }
+
+  @Test
+  void conflictQueryAtStartOfMonthAlsoScansThePreviousOne() {
+    YearMonth month = YearMonth.now().plusMonths(2);
+    LocalDateTime start = month.atDay(1).atTime(0, 30);
+
+    Set<String> scanned = scannedPartitions(explain(CONFLICT_SQL, 1L,
+            Timestamp.valueOf(start.minus(MAX_RESERVATION_SPAN)), Timestamp.valueOf(start),
+            Timestamp.valueOf(start.plusMinutes(60))));
+
+    assertThat(scanned).containsExactly(partitionName(month.minusMonths(1)), partitionName(month));
+  }
+
+  @Test
+  void occupiedIntervalsOfADayScanOnlyItsMonth() {
+    YearMonth month = YearMonth.now().plusMonths(3);
+    LocalDateTime dayStart = month.atDay(20).atStartOfDay();
+
+    Set<String> scanned = scannedPartitions(explain(OCCUPIED_SQL, 1L, 2L,
+            Timestamp.valueOf(dayStart.minus(MAX_RESERVATION_SPAN)), Timestamp.valueOf(dayStart),
+            Timestamp.valueOf(dayStart.plusDays(1))));
+
+    assertThat(scanned).containsExactly(partitionName(month));
+  }
+
+  @Test
+  void overlapAcrossMonthBoundaryIsRejected() {
+    long clubId = insertClub();
+    long courtId = insertCourt(clubId);
+    YearMonth month = YearMonth.now().plusMonths(2);
+    LocalDateTime lateNight = month.atEndOfMonth().atTime(23, 0);
+    LocalDateTime nextMonth = month.plusMonths(1).atDay(1).atStartOfDay();
+
+    // 23:00 - 01:00 queda en la partición del mes en que empieza
+    jdbcTemplate.update("INSERT INTO reservations (user_id, court_id, club_id, user_email, start_time, end_time, " +
+                    "status, payment_status, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, 'user@example.com', ?, ?, 'CONFIRMED', 'CONFIRMED', now(), now())",
+            insertUser(), courtId, clubId, Timestamp.valueOf(lateNight), Timestamp.valueOf(lateNight.plusHours(2)));
+
+    when(remoteLookupCache.userExists(anyLong())).thenReturn(true);
+    when(remoteLookupCache.clubExists(anyLong())).thenReturn(true);
+    when(remoteLookupCache.findCourt(courtId)).thenReturn(CourtDTO.builder()
+            .id(courtId)
+            .clubId(clubId)
+            .isActive(true)
+            .pricePerHour(new BigDecimal("100.00"))
+            .build());
+
+    long userId = insertUser();
+    ReservationRequestDTO overlapping = ReservationRequestDTO.builder()
+            .userId(userId)
+            .clubId(clubId)
+            .courtId(courtId)
+            .userEmail("user" + userId + "@example.com")
+            .startTime(nextMonth.plusMinutes(30))
+            .endTime(nextMonth.plusMinutes(90))
+            .build();
+
+    assertThatThrownBy(() -> reservationService.save(overlapping))
+            .isExactlyInstanceOf(ReservationConflictException.class);
+    assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM reservations WHERE court_id = ?",
+            Integer.class, courtId)).isEqualTo(1);
+  }
+
+  @Test
+  void oldPartitionIsDetachedIntoArchiveSchema() {
+    YearMonth month = YearMonth.now().minusYears(3);
+    String partition = partitionName(month);
+    jdbcTemplate.execute("CREATE TABLE " + partition + " PARTITION OF reservations FOR VALUES FROM ('"
+            + Timestamp.valueOf(month.atDay(1).atStartOfDay()) + "') TO ('"
+            + Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()) + "')");
+
+    long clubId = insertClub();
+    long courtId = insertCourt(clubId);
+    LocalDateTime start = month.atDay(10).atTime(10, 0);
+    Long id = jdbcTemplate.queryForObject("INSERT INTO reservations (user_id, court_id, club_id, user_email, " +
+                    "start_time, end_time, status, payment_status, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, 'user@example.com', ?, ?, 'CONFIRMED', 'CONFIRMED', now(), now()) RETURNING id",
+            Long.class, insertUser(), courtId, clubId, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1)));
+
+    partitionManager.maintain();
+
+    assertThat(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+            "reservas_archive." + partition)).isTrue();
+    assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM reservas_archive." + partition + " WHERE id = ?",
+            Integer.class, id)).isEqualTo(1);
+    assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM reservations WHERE id = ?",
+            Integer.class, id)).isZero();
+
+    // El mes archivado ya no tiene partición propia: la tabla viva solo mira la DEFAULT (vacía)
+    Set<String> scanned = scannedPartitions(explain(CONFLICT_SQL, courtId,
+            Timestamp.valueOf(start.minus(MAX_RESERVATION_SPAN)), Timestamp.valueOf(start),
+            Timestamp.valueOf(start.plusHours(1))));
+    assertThat(scanned).containsExactly("reservations_default");
+  }
+
+  private static Set<String> scannedPartitions(List<String> plan) {
+    Set<String> partitions = new TreeSet<>();
+    for (String line : plan) {
+      Matcher matcher = PARTITION.matcher(line);
+      while (matcher.find()) {
+        partitions.add(matcher.group());
+      }
+    }
+    return partitions;
+  }
+
+  private static String partitionName(YearMonth month) {
+    return String.format("reservations_p%04d%02d", month.getYear(), month.getMonthValue());
+  }
+}
@@ -0,0 +1,134 @@
+package org.example.microservicereservation.service;
+
+import org.example.microservicereservation.exception.ReservationConflictException;
+import org.example.microservicereservation.service.dto.CourtDTO;
+import org.example.microservicereservation.service.dto.request.ReservationRequestDTO;
+import org.example.microservicereservation.service.dto.response.ReservationResponseDTO;
+import org.example.microservicereservation.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+// Altas simultáneas sobre el mismo horario: el lock por cancha y la verificación en la BD (la tabla
+// está particionada) tienen que dejar pasar exactamente una
+class ReservationServiceConcurrencyTest extends PostgresIntegrationTest {
+  private static final int ATTEMPTS = 8;
+
+  @Autowired
+  private ReservationService reservationService;
+
+  @Autowired
+  private ReservationAvailabilityIndex availabilityIndex;
+
+  private long clubId;
+  private long courtId;
+  private LocalDateTime start;
+
+  @BeforeEach
+  void setUp() {
+    clubId = insertClub();
+    courtId = insertCourt(clubId);
+    start = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+    when(remoteLookupCache.userExists(anyLong())).thenReturn(true);
+    when(remoteLookupCache.clubExists(anyLong())).thenReturn(true);
+    when(remoteLookupCache.findCourt(courtId)).thenReturn(CourtDTO.builder()
+            .id(courtId)
+            .clubId(clubId)
+            .isActive(true)
+            .pricePerHour(new BigDecimal("100.00"))
+            .build());
+  }
+
+  @Test
+  void concurrentSavesOnSameSlotAdmitExactlyOne() throws Exception {
+    // Un usuario distinto por intento: el cupo por usuario no debe ser lo que rechaza
+    List<Long> userIds = new ArrayList<>();
+    for (int i = 0; i < ATTEMPTS; i++) {
+      userIds.add(insertUser());
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(ATTEMPTS);
+    CountDownLatch go = new CountDownLatch(1);
+    List<Future<ReservationResponseDTO>> results = new ArrayList<>();
+    try {
+      for (Long userId : userIds) {
+        results.add(pool.submit(() -> {
+          go.await();
+          return reservationService.save(request(userId));
+        }));
+      }
+      go.countDown();
+
+      int saved = 0;
+      List<Throwable> failures = new ArrayList<>();
+      for (Future<ReservationResponseDTO> result : results) {
+        try {
+          result.get(30, TimeUnit.SECONDS);
+          saved++;
+        } catch (ExecutionException e) {
+          failures.add(e.getCause());
+        }
+      }
+
+      assertThat(saved).isEqualTo(1);
+      assertThat(failures).hasSize(ATTEMPTS - 1)
+              .allSatisfy(failure -> assertThat(failure).isExactlyInstanceOf(ReservationConflictException.class));
+      assertThat(activeReservationsOnCourt()).isEqualTo(1);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void overlapMissedByIndexIsRejectedByDatabaseCheck() {
+    // Fila escrita por fuera del servicio (otra réplica, carga manual): el índice no la conoce
+    jdbcTemplate.update("INSERT INTO reservations (user_id, court_id, club_id, user_email, start_time, end_time, " +
+                    "status, payment_status, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, 'other@example.com', ?, ?, 'CONFIRMED', 'CONFIRMED', now(), now())",
+            insertUser(), courtId, clubId, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1)));
+
+    assertThat(availabilityIndex.hasConflict(courtId, start.plusMinutes(30), start.plusMinutes(90))).contains(false);
+
+    ReservationRequestDTO overlapping = request(insertUser());
+    overlapping.setStartTime(start.plusMinutes(30));
+    overlapping.setEndTime(start.plusMinutes(90));
+
+    assertThatThrownBy(() -> reservationService.save(overlapping))
+            .isExactlyInstanceOf(ReservationConflictException.class);
+    assertThat(activeReservationsOnCourt()).isEqualTo(1);
+  }
+
+  private ReservationRequestDTO request(long userId) {
+    return ReservationRequestDTO.builder()
+            .userId(userId)
+            .clubId(clubId)
+            .courtId(courtId)
+            .userEmail("user" + userId + "@example.com")
+            .startTime(start)
+            .endTime(start.plusHours(1))
+            .build();
+  }
+
+  private long activeReservationsOnCourt() {
+    return jdbcTemplate.queryForObject("SELECT count(*) FROM reservations " +
+            "WHERE court_id = ? AND status IN ('PENDING', 'CONFIRMED')", Long.class, courtId);
+  }
+}
@@ -0,0 +1,154 @@
+package org.example.microservicereservation.service;
+
+import org.example.microservicereservation.entity.ReservationPaymentStatus;
+import org.example.microservicereservation.entity.ReservationStatus;
+import org.example.microservicereservation.exception.ReservationConflictException;
+import org.example.microservicereservation.service.dto.CourtDTO;
+import org.example.microservicereservation.service.dto.request.ReservationRequestDTO;
+import org.example.microservicereservation.service.dto.response.ReservationResponseDTO;
+import org.example.microservicereservation.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+// Modificar una reserva vuelve a verificar el horario sin contarse a sí misma como conflicto y
+// puede moverla a otra cancha del mismo club, con el precio de esa cancha
+class ReservationServiceUpdateTest extends PostgresIntegrationTest {
+
+  @Autowired
+  private ReservationService reservationService;
+
+  private long clubId;
+  private long courtId;
+  private LocalDateTime start;
+
+  @BeforeEach
+  void setUp() {
+    clubId = insertClub();
+    courtId = insertCourt(clubId);
+    start = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+    when(remoteLookupCache.userExists(anyLong())).thenReturn(true);
+    when(remoteLookupCache.clubExists(anyLong())).thenReturn(true);
+    when(remoteLookupCache.findCourt(courtId)).thenReturn(court(courtId, "100.00"));
+  }
+
+  @Test
+  void shiftingOverItsOwnSlotIsAllowed() {
+    ReservationResponseDTO saved = reservationService.save(request(insertUser(), start, start.plusHours(1)));
+
+    ReservationRequestDTO moved = changed(saved, start.plusMinutes(30), start.plusMinutes(90));
+    ReservationResponseDTO updated = reservationService.update(saved.getId(), moved);
+
+    assertThat(updated.getStartTime()).isEqualTo(start.plusMinutes(30));
+    assertThat(updated.getEndTime()).isEqualTo(start.plusMinutes(90));
+  }
+
+  @Test
+  void extendingIntoAnotherReservationIsRejected() {
+    ReservationResponseDTO saved = reservationService.save(request(insertUser(), start, start.plusHours(1)));
+    reservationService.save(request(insertUser(), start.plusHours(1), start.plusHours(2)));
+
+    // Solo cambia el fin: también tiene que pasar por la verificación
+    ReservationRequestDTO extended = changed(saved, start, start.plusMinutes(90));
+
+    assertThatThrownBy(() -> reservationService.update(saved.getId(), extended))
+            .isExactlyInstanceOf(ReservationConflictException.class);
+  }
+
+  @Test
+  void reactivatingOverATakenSlotIsRejected() {
+    ReservationResponseDTO saved = reservationService.save(request(insertUser(), start, start.plusHours(1)));
+    ReservationRequestDTO cancelled = changed(saved, start, start.plusHours(1));
+    cancelled.setStatus(ReservationStatus.CANCELLED);
+    reservationService.update(saved.getId(), cancelled);
+
+    reservationService.save(request(insertUser(), start, start.plusHours(1)));
+
+    ReservationRequestDTO reactivated = changed(saved, start, start.plusHours(1));
+    reactivated.setStatus(ReservationStatus.PENDING);
+
+    assertThatThrownBy(() -> reservationService.update(saved.getId(), reactivated))
+            .isExactlyInstanceOf(ReservationConflictException.class);
+  }
+
+  @Test
+  void movingToAnotherCourtStoresTheCourtAndItsPrice() {
+    long otherCourtId = insertCourt(clubId);
+    when(remoteLookupCache.findCourt(otherCourtId)).thenReturn(court(otherCourtId, "150.00"));
+    ReservationResponseDTO saved = reservationService.save(request(insertUser(), start, start.plusHours(1)));
+
+    ReservationRequestDTO moved = changed(saved, start, start.plusHours(2));
+    moved.setCourtId(otherCourtId);
+    ReservationResponseDTO updated = reservationService.update(saved.getId(), moved);
+
+    assertThat(updated.getCourtId()).isEqualTo(otherCourtId);
+    Map<String, Object> stored = jdbcTemplate.queryForMap(
+            "SELECT court_id, price_per_hour, total_amount FROM reservations WHERE id = ?", saved.getId());
+    assertThat(stored.get("court_id")).isEqualTo(otherCourtId);
+    assertThat((BigDecimal) stored.get("price_per_hour")).isEqualByComparingTo("150.00");
+    assertThat((BigDecimal) stored.get("total_amount")).isEqualByComparingTo("300.00");
+  }
+
+  @Test
+  void movingToACourtOfAnotherClubIsRejected() {
+    long otherCourtId = insertCourt(insertClub());
+    when(remoteLookupCache.findCourt(otherCourtId)).thenReturn(CourtDTO.builder()
+            .id(otherCourtId)
+            .clubId(clubId + 1_000_000)
+            .isActive(true)
+            .pricePerHour(new BigDecimal("100.00"))
+            .build());
+    ReservationResponseDTO saved = reservationService.save(request(insertUser(), start, start.plusHours(1)));
+
+    ReservationRequestDTO moved = changed(saved, start, start.plusHours(1));
+    moved.setCourtId(otherCourtId);
+
+    assertThatThrownBy(() -> reservationService.update(saved.getId(), moved))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+    assertThat(jdbcTemplate.queryForObject("SELECT court_id FROM reservations WHERE id = ?",
+            Long.class, saved.getId())).isEqualTo(courtId);
+  }
+
+  private CourtDTO court(long id, String pricePerHour) {
+    return CourtDTO.builder()
+            .id(id)
+            .clubId(clubId)
+            .isActive(true)
+            .pricePerHour(new BigDecimal(pricePerHour))
+            .build();
+  }
+
+  private ReservationRequestDTO request(long userId, LocalDateTime from, LocalDateTime to) {
+    return ReservationRequestDTO.builder()
+            .userId(userId)
+            .clubId(clubId)
+            .courtId(courtId)
+            .userEmail("user" + userId + "@example.com")
+            .startTime(from)
+            .endTime(to)
+            .build();
+  }
+
+  private ReservationRequestDTO changed(ReservationResponseDTO saved, LocalDateTime from, LocalDateTime to) {
+    return ReservationRequestDTO.builder()
+            .userId(saved.getUserId())
+            .clubId(saved.getClubId())
+            .courtId(saved.getCourtId())
+            .userEmail(saved.getUserEmail())
+            .startTime(from)
+            .endTime(to)
+            .status(ReservationStatus.PENDING)
+            .paymentStatus(ReservationPaymentStatus.PENDING)
+            .build();
+  }
+}
@@ -0,0 +1,254 @@
+package org.example.microservicereservation.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.common.dto.BulkRefundRequestDTO;
+import org.example.microservicereservation.config.ShardingProperties;
+import org.example.microservicereservation.entity.OutboxEvent;
+import org.example.microservicereservation.entity.ReservationEventType;
+import org.example.microservicereservation.repository.OutboxEventRepository;
+import org.example.microservicereservation.service.dto.ReservationEventDTO;
+import org.example.microservicereservation.service.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+  private static final String PAYMENTS = "http://payment-service/events";
+  private static final String NOTIFICATIONS = "http://notification-service/events";
+
+  private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+  private final AtomicBoolean inTransaction = new AtomicBoolean();
+  private final Map<Long, OutboxEvent> table = new HashMap<>();
+  private final RecordingSink sink = new RecordingSink();
+  private final RecordingRefunds refunds = new RecordingRefunds();
+  private OutboxRelay relay;
+
+  @BeforeEach
+  void setUp() {
+    OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    when(repository.tryLockRelay(anyInt())).thenReturn(true);
+    when(repository.findDeliverable(any(LocalDateTime.class), anyInt())).thenAnswer(invocation -> {
+      LocalDateTime now = invocation.getArgument(0);
+      return table.values().stream()
+              .filter(event -> event.getPublishedAt() == null && event.getFailedAt() == null)
+              .filter(event -> event.getNextAttemptAt() == null || !event.getNextAttemptAt().isAfter(now))
+              .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+              .limit((int) invocation.getArgument(1))
+              .toList();
+    });
+    when(repository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+      inTransaction.set(true);
+      return null;
+    });
+    doAnswer(invocation -> {
+      inTransaction.set(false);
+      return null;
+    }).when(transactionManager).commit(any());
+
+    relay = new OutboxRelay(repository, sink, objectMapper, new TransactionTemplate(transactionManager),
+            new ShardRouter(new ShardingProperties()), List.of(refunds));
+    ReflectionTestUtils.setField(relay, "enabled", true);
+    ReflectionTestUtils.setField(relay, "batchSize", 100);
+    ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+    ReflectionTestUtils.setField(relay, "backoffInitialSeconds", 0L);
+    ReflectionTestUtils.setField(relay, "backoffMaxSeconds", 0L);
+    ReflectionTestUtils.setField(relay, "leaseSeconds", 60L);
+  }
+
+  @Test
+  void deliversOutsideTransactionAndPublishesWhenEverySubscriberAccepted() throws Exception {
+    insert(1L, 10L);
+    insert(2L, 11L);
+
+    relay.relay();
+
+    assertThat(sink.deliveredInTransaction).isFalse();
+    assertThat(sink.received.get(PAYMENTS)).containsExactly(1L, 2L);
+    assertThat(sink.received.get(NOTIFICATIONS)).containsExactly(1L, 2L);
+    assertThat(table.values()).allSatisfy(event -> {
+      assertThat(event.getPublishedAt()).isNotNull();
+      assertThat(event.getLockedUntil()).isNull();
+    });
+  }
+
+  @Test
+  void retryOnlyResendsToSubscriberThatFailed() throws Exception {
+    insert(1L, 10L);
+    sink.failing.add(NOTIFICATIONS);
+
+    relay.relay();
+
+    OutboxEvent event = table.get(1L);
+    assertThat(event.getPublishedAt()).isNull();
+    assertThat(event.getAttempts()).isEqualTo(1);
+    assertThat(event.getNextAttemptAt()).isNotNull();
+    assertThat(event.getLastError()).startsWith(NOTIFICATIONS);
+    assertThat(event.isDeliveredTo(PAYMENTS)).isTrue();
+
+    sink.failing.clear();
+    relay.relay();
+
+    assertThat(sink.received.get(PAYMENTS)).containsExactly(1L);
+    assertThat(sink.received.get(NOTIFICATIONS)).containsExactly(1L);
+    assertThat(event.getPublishedAt()).isNotNull();
+  }
+
+  @Test
+  void eventIsParkedAfterMaxAttempts() throws Exception {
+    insert(1L, 10L);
+    sink.failing.add(PAYMENTS);
+
+    for (int i = 0; i < 5; i++) {
+      relay.relay();
+    }
+
+    OutboxEvent event = table.get(1L);
+    assertThat(event.getAttempts()).isEqualTo(3);
+    assertThat(event.getFailedAt()).isNotNull();
+    assertThat(event.getPublishedAt()).isNull();
+  }
+
+  @Test
+  void unreadablePayloadIsParkedWithoutDelivery() {
+    table.put(1L, OutboxEvent.builder()
+            .id(1L)
+            .reservationId(10L)
+            .eventType(ReservationEventType.CREATED)
+            .payload("{no es json")
+            .createdAt(LocalDateTime.now())
+            .build());
+
+    relay.relay();
+
+    assertThat(table.get(1L).getFailedAt()).isNotNull();
+    assertThat(sink.received).isEmpty();
+  }
+
+  @Test
+  void commandGoesToItsHandlerAndIsRetriedAlone() throws Exception {
+    insert(1L, 10L);
+    table.put(2L, OutboxEvent.builder()
+            .id(2L)
+            .eventType(ReservationEventType.REFUND_REQUESTED)
+            .payload(objectMapper.writeValueAsString(BulkRefundRequestDTO.builder()
+                    .reservationIds(List.of(10L, 11L))
+                    .reason("Lluvia")
+                    .build()))
+            .createdAt(LocalDateTime.now())
+            .build());
+    refunds.failing = true;
+
+    relay.relay();
+
+    OutboxEvent command = table.get(2L);
+    assertThat(sink.received.get(PAYMENTS)).containsExactly(1L);
+    assertThat(table.get(1L).getPublishedAt()).isNotNull();
+    assertThat(command.getPublishedAt()).isNull();
+    assertThat(command.getAttempts()).isEqualTo(1);
+    assertThat(command.getLastError()).startsWith("REFUND_REQUESTED");
+
+    refunds.failing = false;
+    relay.relay();
+
+    assertThat(refunds.received).containsExactly(List.of(10L, 11L));
+    // El reintento lleva el mismo id (clave de idempotencia para el otro servicio)
+    assertThat(refunds.commandIds).containsExactly(2L, 2L);
+    assertThat(command.getPublishedAt()).isNotNull();
+    assertThat(sink.received.get(PAYMENTS)).containsExactly(1L);
+  }
+
+  @Test
+  void backoffDoublesUpToMaximum() {
+    ReflectionTestUtils.setField(relay, "backoffInitialSeconds", 5L);
+    ReflectionTestUtils.setField(relay, "backoffMaxSeconds", 60L);
+
+    assertThat(relay.backoffSeconds(1)).isEqualTo(5);
+    assertThat(relay.backoffSeconds(2)).isEqualTo(10);
+    assertThat(relay.backoffSeconds(4)).isEqualTo(40);
+    assertThat(relay.backoffSeconds(5)).isEqualTo(60);
+    assertThat(relay.backoffSeconds(40)).isEqualTo(60);
+  }
+
+  private void insert(Long id, Long reservationId) throws Exception {
+    ReservationEventDTO event = ReservationEventDTO.builder()
+            .type(ReservationEventType.CREATED)
+            .reservationId(reservationId)
+            .occurredAt(LocalDateTime.now())
+            .build();
+    table.put(id, OutboxEvent.builder()
+            .id(id)
+            .reservationId(reservationId)
+            .eventType(ReservationEventType.CREATED)
+            .payload(objectMapper.writeValueAsString(event))
+            .createdAt(LocalDateTime.now())
+            .build());
+  }
+
+  private static class RecordingRefunds implements OutboxCommandHandler<BulkRefundRequestDTO> {
+    private final List<List<Long>> received = new ArrayList<>();
+    private final List<Long> commandIds = new ArrayList<>();
+    private boolean failing;
+
+    @Override
+    public ReservationEventType type() {
+      return ReservationEventType.REFUND_REQUESTED;
+    }
+
+    @Override
+    public Class<BulkRefundRequestDTO> payloadType() {
+      return BulkRefundRequestDTO.class;
+    }
+
+    @Override
+    public void handle(Long commandId, BulkRefundRequestDTO request) {
+      commandIds.add(commandId);
+      if (failing) {
+        throw new IllegalStateException("503 Service Unavailable");
+      }
+      received.add(request.getReservationIds());
+    }
+  }
+
+  private class RecordingSink implements OutboxEventSink {
+    private final Map<String, List<Long>> received = new HashMap<>();
+    private final Set<String> failing = new HashSet<>();
+    private boolean deliveredInTransaction;
+
+    @Override
+    public List<String> subscribers() {
+      return List.of(PAYMENTS, NOTIFICATIONS);
+    }
+
+    @Override
+    public void deliver(String subscriber, List<ReservationEventDTO> events) {
+      deliveredInTransaction |= inTransaction.get();
+      if (failing.contains(subscriber)) {
+        throw new IllegalStateException("503 Service Unavailable");
+      }
+      received.computeIfAbsent(subscriber, key -> new ArrayList<>())
+              .addAll(events.stream().map(ReservationEventDTO::getEventId).toList());
+    }
+  }
+}
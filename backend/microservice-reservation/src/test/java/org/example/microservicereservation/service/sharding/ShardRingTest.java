@@ -0,0 +1,81 @@
+package org.example.microservicereservation.service.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardRingTest {
+  private static final int CLUBS = 30_000;
+  private static final List<String> THREE_SHARDS = List.of("default", "shard-1", "shard-2");
+
+  @Test
+  void placementDoesNotDependOnShardOrderOrInstance() {
+    ShardRing ring = new ShardRing(THREE_SHARDS, 64, Map.of());
+    ShardRing reordered = new ShardRing(List.of("shard-2", "default", "shard-1"), 64, Map.of());
+
+    for (long clubId = 1; clubId <= CLUBS; clubId++) {
+      assertThat(reordered.shardFor(clubId)).isEqualTo(ring.shardFor(clubId));
+    }
+  }
+
+  @Test
+  void clubsAreSpreadEvenlyAcrossShards() {
+    ShardRing ring = new ShardRing(THREE_SHARDS, 64, Map.of());
+
+    Map<String, Integer> clubsByShard = new HashMap<>();
+    for (long clubId = 1; clubId <= CLUBS; clubId++) {
+      clubsByShard.merge(ring.shardFor(clubId), 1, Integer::sum);
+    }
+
+    double expected = (double) CLUBS / THREE_SHARDS.size();
+    assertThat(clubsByShard).containsOnlyKeys(THREE_SHARDS);
+    assertThat(clubsByShard.values()).allSatisfy(count ->
+            assertThat(count).isBetween((int) (expected * 0.75), (int) (expected * 1.25)));
+  }
+
+  // Solo se mudan los clubes que caen en los puntos del shard nuevo, y van todos a él
+  @Test
+  void addingShardMovesRoughlyItsShareOfClubsAndOnlyToIt() {
+    ShardRing before = new ShardRing(THREE_SHARDS, 64, Map.of());
+    ShardRing after = new ShardRing(List.of("default", "shard-1", "shard-2", "shard-3"), 64, Map.of());
+
+    int moved = 0;
+    for (long clubId = 1; clubId <= CLUBS; clubId++) {
+      String from = before.shardFor(clubId);
+      String to = after.shardFor(clubId);
+      if (!from.equals(to)) {
+        assertThat(to).isEqualTo("shard-3");
+        moved++;
+      }
+    }
+
+    assertThat((double) moved / CLUBS).isBetween(0.15, 0.35);
+  }
+
+  @Test
+  void pinnedClubsSkipTheRing() {
+    ShardRing ring = new ShardRing(THREE_SHARDS, 64, Map.of());
+    long clubId = 42;
+    String pinnedTo = THREE_SHARDS.stream().filter(shard -> !shard.equals(ring.shardFor(clubId))).findFirst().orElseThrow();
+
+    ShardRing pinned = new ShardRing(THREE_SHARDS, 64, Map.of(clubId, pinnedTo));
+
+    assertThat(pinned.shardFor(clubId)).isEqualTo(pinnedTo);
+    assertThat(pinned.shardFor(clubId + 1)).isEqualTo(ring.shardFor(clubId + 1));
+  }
+
+  @Test
+  void rejectsInvalidConfiguration() {
+    assertThatThrownBy(() -> new ShardRing(List.of(), 64, Map.of()))
+            .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new ShardRing(THREE_SHARDS, 0, Map.of()))
+            .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new ShardRing(THREE_SHARDS, 64, Map.of(7L, "shard-9")))
+            .isInstanceOf(IllegalArgumentException.class);
+  }
+}
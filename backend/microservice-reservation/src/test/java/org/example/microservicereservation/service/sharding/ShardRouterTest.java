@@ -0,0 +1,139 @@
+package org.example.microservicereservation.service.sharding;
+
+import org.example.common.dto.CursorPageDTO;
+import org.example.common.dto.PageCursor;
+import org.example.microservicereservation.config.ShardingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardRouterTest {
+  // Ids repartidos de forma intercalada: la página global mezcla filas de todos los shards
+  private static final Map<String, List<Long>> IDS_BY_SHARD = Map.of(
+          "default", LongStream.rangeClosed(1, 30).filter(id -> id % 3 == 0).boxed().toList(),
+          "shard-1", LongStream.rangeClosed(1, 30).filter(id -> id % 3 == 1).boxed().toList(),
+          "shard-2", LongStream.rangeClosed(1, 30).filter(id -> id % 3 == 2 && id < 12).boxed().toList());
+
+  private final ShardRouter router = new ShardRouter(shardedProperties());
+
+  @AfterEach
+  void tearDown() {
+    router.shutdown();
+    TransactionSynchronizationManager.setActualTransactionActive(false);
+  }
+
+  @Test
+  void idsRouteBackToTheShardThatGeneratedThem() {
+    assertThat(router.shardForId(router.idOffset("shard-1") + 5)).isEqualTo("shard-1");
+    assertThat(router.shardForId(router.idOffset("shard-2"))).isEqualTo("shard-2");
+    assertThat(router.shardForId(5L)).isEqualTo(ShardRouter.DEFAULT_SHARD);
+    assertThat(router.shardForId(null)).isEqualTo(ShardRouter.DEFAULT_SHARD);
+  }
+
+  @Test
+  void clubRoutingFollowsTheRingAndSetsTheCurrentShard() {
+    ShardRing ring = new ShardRing(List.of("default", "shard-1", "shard-2"), 64, Map.of(7L, "shard-2"));
+
+    for (long clubId = 1; clubId <= 1000; clubId++) {
+      String expected = ring.shardFor(clubId);
+      assertThat(router.shardForClub(clubId)).isEqualTo(expected);
+      assertThat(router.onClub(clubId, router::currentShard)).isEqualTo(expected);
+    }
+    assertThat(router.shardForClub(7L)).isEqualTo("shard-2");
+    assertThat(router.currentShard()).isEqualTo(ShardRouter.DEFAULT_SHARD);
+  }
+
+  @Test
+  void withoutShardingEverythingGoesToDefault() {
+    ShardRouter single = new ShardRouter(new ShardingProperties());
+    try {
+      assertThat(single.isSharded()).isFalse();
+      assertThat(single.shardForClub(42L)).isEqualTo(ShardRouter.DEFAULT_SHARD);
+      assertThat(single.shardForId(1L << ShardRouter.SHARD_ID_BITS)).isEqualTo(ShardRouter.DEFAULT_SHARD);
+    } finally {
+      single.shutdown();
+    }
+  }
+
+  @Test
+  void cannotSwitchShardInsideTransaction() {
+    String other = LongStream.rangeClosed(1, 100).mapToObj(router::shardForClub)
+            .filter(shard -> !shard.equals(ShardRouter.DEFAULT_SHARD))
+            .findFirst().orElseThrow();
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+
+    assertThatThrownBy(() -> router.on(other, () -> null)).isInstanceOf(IllegalStateException.class);
+    assertThat(router.on(ShardRouter.DEFAULT_SHARD, router::currentShard)).isEqualTo(ShardRouter.DEFAULT_SHARD);
+  }
+
+  @Test
+  void gatherRunsOnEveryShard() {
+    assertThat(router.gather(() -> List.of(router.currentShard())))
+            .containsExactly("default", "shard-1", "shard-2");
+  }
+
+  @Test
+  void gatherPageMergesShardPagesInCursorOrder() {
+    CursorPageDTO<Long> page = router.gatherPage(() -> shardPage(null, 4), 4, Comparator.naturalOrder(),
+            PageCursor::encode);
+
+    assertThat(page.getItems()).containsExactly(1L, 2L, 3L, 4L);
+    assertThat(page.isHasMore()).isTrue();
+    assertThat(page.getSize()).isEqualTo(4);
+    assertThat(PageCursor.afterId(page.getNextCursor())).isEqualTo(4L);
+  }
+
+  // Recorrer todas las páginas con el cursor devuelto trae cada fila una sola vez y en orden
+  @Test
+  void gatherPageCursorWalksEveryRowOnce() {
+    List<Long> seen = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      String current = cursor;
+      CursorPageDTO<Long> page = router.gatherPage(() -> shardPage(current, 7), 7, Comparator.naturalOrder(),
+              PageCursor::encode);
+      seen.addAll(page.getItems());
+      cursor = page.getNextCursor();
+      assertThat(cursor == null).isEqualTo(!page.isHasMore());
+      pages++;
+    } while (cursor != null && pages < 20);
+
+    List<Long> expected = IDS_BY_SHARD.values().stream().flatMap(List::stream).sorted().toList();
+    assertThat(seen).containsExactlyElementsOf(expected);
+  }
+
+  // Como ReservationService.findPage: size + 1 filas después del cursor, en el shard actual
+  private CursorPageDTO<Long> shardPage(String cursor, int size) {
+    long afterId = PageCursor.afterId(cursor);
+    List<Long> rows = IDS_BY_SHARD.get(router.currentShard()).stream()
+            .filter(id -> id > afterId)
+            .limit(size + 1L)
+            .toList();
+    return PageCursor.of(rows, size, PageCursor::encode);
+  }
+
+  private static ShardingProperties shardedProperties() {
+    ShardingProperties properties = new ShardingProperties();
+    properties.setEnabled(true);
+    properties.getShards().put("shard-1", shard(1));
+    properties.getShards().put("shard-2", shard(2));
+    properties.getPinnedClubs().put(7L, "shard-2");
+    return properties;
+  }
+
+  private static ShardingProperties.Shard shard(int number) {
+    ShardingProperties.Shard shard = new ShardingProperties.Shard();
+    shard.setNumber(number);
+    return shard;
+  }
+}
@@ -0,0 +1,66 @@
+package org.example.microservicereservation.support;
+
+import org.example.microservicereservation.service.RemoteLookupCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import java.util.List;
+import java.util.UUID;
+
+// Postgres real con el esquema de init-scripts (reservations particionada, restricciones de solape por
+// partición). Un solo contenedor para todas las clases, así el contexto de Spring se reutiliza.
+// User / court / club se simulan con RemoteLookupCache; las filas de esas tablas solo están por las FK.
+@SpringBootTest(properties = {
+        "SPRING_PROFILES_ACTIVE=test",
+        "spring.jpa.show-sql=false",
+        "reservation.index.snapshot.enabled=false",
+        "reservation.outbox.enabled=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+  private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine")
+          .withDatabaseName("reservas_db")
+          .withCopyFileToContainer(MountableFile.forHostPath("../init-scripts/init-reservas.sql"),
+                  "/docker-entrypoint-initdb.d/init-reservas.sql");
+
+  @Autowired
+  protected JdbcTemplate jdbcTemplate;
+
+  @MockBean
+  protected RemoteLookupCache remoteLookupCache;
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    POSTGRES.start();
+    registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl() + "&currentSchema=reservas");
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  protected long insertUser() {
+    return jdbcTemplate.queryForObject("INSERT INTO users (email, password, user_role, name, created_at) " +
+            "VALUES (?, 'x', 'USER', 'Test', now()) RETURNING id", Long.class, UUID.randomUUID() + "@example.com");
+  }
+
+  protected long insertClub() {
+    return jdbcTemplate.queryForObject("INSERT INTO clubs (name, address, opening_time, closing_time, admin_id) " +
+            "VALUES ('Club', 'Calle 1', '08:00', '23:00', 1) RETURNING id", Long.class);
+  }
+
+  protected long insertCourt(long clubId) {
+    return jdbcTemplate.queryForObject("INSERT INTO courts (club_id, name, type, price_per_hour, is_active) " +
+            "VALUES (?, 'Cancha', 'PADEL', 100.00, true) RETURNING id", Long.class, clubId);
+  }
+
+  // Plan de ejecución en texto, una línea por nodo
+  protected List<String> explain(String sql, Object... args) {
+    return jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args);
+  }
+}
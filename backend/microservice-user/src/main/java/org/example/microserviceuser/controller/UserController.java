@@ -2,14 +2,18 @@ package org.example.microserviceuser.controller;
 
 import lombok.extern.slf4j.Slf4j;
 import lombok.RequiredArgsConstructor;
+import org.example.common.dto.PageCursor;
 import org.example.microserviceuser.entity.User;
 import org.example.microserviceuser.mapper.UserMapper;
 import org.example.microserviceuser.service.UserService;
 import org.example.microserviceuser.service.dto.request.UserRequestDTO;
 import org.example.microserviceuser.service.dto.response.UserResponseDTO;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/users")
@@ -17,10 +21,22 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
   private final UserService userService;
 
+  // Paginado por cursor; unpaged=true (solo SUPER_ADMIN) devuelve el listado completo
   @GetMapping()
-  public ResponseEntity<?> findAll() {
+  public ResponseEntity<?> findAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                   @RequestParam(value = "size", required = false) Integer size,
+                                   @RequestParam(value = "unpaged", defaultValue = "false") boolean unpaged,
+                                   @RequestHeader(value = "X-User-Role", required = false) String role) {
     try {
-      return ResponseEntity.ok(userService.findAll());
+      if (unpaged) {
+        if (!PageCursor.canRequestUnpaged(role)) {
+          return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(PageCursor.unpaged(userService.findAll()));
+      }
+      return ResponseEntity.ok(userService.findPage(cursor, size));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     } catch (Exception e) {
       return ResponseEntity.badRequest().build();
     }
@@ -1,13 +1,18 @@
 package org.example.microserviceuser.repository;
 
 import org.example.microserviceuser.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByEmail(String email);
   boolean existsByEmail(String email);
+
+  // Paginación keyset: las filas siguientes al último id devuelto
+  List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
@@ -7,8 +7,11 @@ import org.example.microserviceuser.mapper.UserMapper;
 import org.example.microserviceuser.repository.UserRepository;
 import org.example.microserviceuser.service.dto.request.UserRequestDTO;
 import org.example.microserviceuser.service.dto.response.UserResponseDTO;
+import org.example.common.dto.CursorPageDTO;
+import org.example.common.dto.PageCursor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -29,6 +32,18 @@ public class UserService {
             .toList();
   }
 
+  // Página por cursor (keyset sobre id)
+  @Transactional(readOnly = true)
+  public CursorPageDTO<UserResponseDTO> findPage(String cursor, Integer size) {
+    int pageSize = PageCursor.clampSize(size);
+    List<UserResponseDTO> users = this.userRepository
+            .findByIdGreaterThanOrderByIdAsc(PageCursor.afterId(cursor), PageRequest.of(0, pageSize + 1))
+            .stream()
+            .map(UserMapper::toResponse)
+            .toList();
+    return PageCursor.of(users, pageSize, item -> PageCursor.encode(item.getId()));
+  }
+
   @Transactional(readOnly = true)
   public UserResponseDTO findById(Long id) {
     return UserMapper.toResponse(this.userRepository.findById(id)
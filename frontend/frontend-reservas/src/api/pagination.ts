@@ -0,0 +1,33 @@
+import api from "./axiosConfig.ts";
+
+// Página de un listado paginado por cursor (CursorPageDTO en el backend)
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: string | null;
+  hasMore: boolean;
+  size: number;
+}
+
+// Lo que ven las vistas: los elementos de la página y el cursor de la siguiente (null si no hay más)
+export interface Page<T> {
+  items: T[];
+  nextCursor: string | null;
+}
+
+export const DEFAULT_PAGE_SIZE = 50;
+
+// Una sola página; la siguiente se pide con nextCursor cuando el usuario la necesita
+export const fetchPage = async <T>(
+  url: string,
+  params?: Record<string, unknown>,
+  cursor?: string | null,
+  pageSize = DEFAULT_PAGE_SIZE
+): Promise<Page<T>> => {
+  const response = await api.get<CursorPage<T>>(url, {
+    params: { ...params, size: pageSize, cursor: cursor ?? undefined }
+  });
+  return {
+    items: response.data.items,
+    nextCursor: response.data.hasMore && response.data.nextCursor ? response.data.nextCursor : null
+  };
+};
@@ -1,5 +1,6 @@
 import type { ClubResponse } from "../types/club.types.ts";
 import api from "../axiosConfig.ts";
+import { fetchPage, type Page } from "../pagination.ts";
 
 export const clubService = {
   async getClubById(id: bigint) {
@@ -12,12 +13,12 @@ export const clubService = {
     }
   },
 
-  async getAllClubs() {
+  // Una página de clubes; la siguiente se pide con nextCursor
+  async getClubs(cursor?: string | null): Promise<Page<ClubResponse>> {
     try {
-      const response = await api.get('/clubs');
-      return response.data;
+      return await fetchPage<ClubResponse>('/clubs', undefined, cursor);
     } catch (error) {
-      console.error('Error al obtener todos los clubes:', error);
+      console.error('Error al obtener los clubes:', error);
       throw error;
     }
   },
@@ -1,14 +1,15 @@
-import type {CourtResponse, CourtRequest} from '../types/court.types';
+import type {CourtResponse, CourtRequest, CourtAllocation} from '../types/court.types';
 import api from "../axiosConfig.ts";
+import { fetchPage, type Page } from "../pagination.ts";
 
 export const courtService = {
-    // Obtener todas las canchas
-    getAllCourts: async (filters?: {
+    // Obtener una página de canchas; la siguiente se pide con nextCursor
+    getCourts: async (filters?: {
         limit?: number,
         date?: Date;
-    }): Promise<CourtResponse[]> => {
-        const response = await api.get('/courts', { params: filters });
-        return response.data;
+    }, cursor?: string | null): Promise<Page<CourtResponse>> => {
+        const { limit, ...params } = filters ?? {};
+        return fetchPage<CourtResponse>('/courts', params, cursor, limit);
     },
 
     // Obtener cancha por ID
@@ -28,6 +29,17 @@ export const courtService = {
         return response.data;
     },
 
+    // Cualquier cancha libre del tipo en el club (una sola consulta en lugar de probar cancha por cancha)
+    allocateCourt: async (clubId: bigint, params: {
+        type?: "OUTDOOR" | "INDOOR";
+        startTime: string;
+        durationMinutes: number;
+        alternatives?: number;
+    }): Promise<CourtAllocation> => {
+        const response = await api.get(`/courts/club/${clubId}/allocate`, { params });
+        return response.data;
+    },
+
     // Crear cancha (admin/club owner)
     createCourt: async (courtData: CourtRequest): Promise<CourtResponse> => {
         const response = await api.post('/courts', courtData);
@@ -1,5 +1,6 @@
 import type {ReservationRequest, ReservationResponse} from '../types/reservation.types';
 import api from "../axiosConfig.ts";
+import { fetchPage, type Page } from "../pagination.ts";
 
 // Helper para convertir bigint a string para JSON
 const serializeBigInt = (data: any): any => {
@@ -24,16 +25,15 @@ export const reservationService = {
     status?: string;
     startDate?: string;
     endDate?: string;
-  }): Promise<ReservationResponse[]> => {
+  }, cursor?: string | null): Promise<Page<ReservationResponse>> => {
     const serializedFilters = serializeBigInt(filters);
-    const response = await api.get('/reservations', {params: serializedFilters});
-    return deserializeBigInt(response.data);
+    const page = await fetchPage<ReservationResponse>('/reservations', serializedFilters, cursor);
+    return { items: deserializeBigInt(page.items), nextCursor: page.nextCursor };
   },
 
-  // Obtener reservas del usuario - FALTA EN BACK
-  getUserReservations: async (): Promise<ReservationResponse[]> => {
-    const response = await api.get('/reservations/my-reservations');
-    return response.data;
+  // Obtener reservas del usuario, de a una página - FALTA EN BACK
+  getUserReservations: async (cursor?: string | null): Promise<Page<ReservationResponse>> => {
+    return fetchPage<ReservationResponse>('/reservations/my-reservations', undefined, cursor);
   },
 
   // Crear reserva
@@ -14,4 +14,24 @@ export interface CourtResponse {
     type: "OUTDOOR" | "INDOOR";
     pricePerHour: bigint;
     isActive: boolean;
+}
+
+export interface SlotAlternative {
+    startTime: string;
+    endTime: string;
+    courtId: bigint;
+    courtName: string;
+    freeCourts: number;
+    price: number;
+}
+
+export interface CourtAllocation {
+    clubId: bigint;
+    type: "OUTDOOR" | "INDOOR" | null;
+    startTime: string;
+    endTime: string;
+    available: boolean;
+    court: CourtResponse | null;
+    price: number | null;
+    alternatives: SlotAlternative[];
 }
\ No newline at end of file
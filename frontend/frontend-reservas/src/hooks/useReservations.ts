@@ -18,21 +18,42 @@ export const useReservations = (options?: UseReservationsOptions) => {
   const [reservations, setReservations] = useState<ReservationResponse[]>([]);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState<string | null>(null);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+
+  const buildParams = () => {
+    // Adaptar según tu API
+    const params: any = {};
+    if (options?.userId) params.userId = options.userId;
+    if (options?.courtId) params.courtId = options.courtId;
+    if (options?.clubId) params.clubId = options.clubId;
+    if (options?.status) params.status = options.status;
+    if (options?.startDate) params.startDate = options.startDate.toISOString();
+    if (options?.endDate) params.endDate = options.endDate.toISOString();
+    return params;
+  };
 
+  // Primera página; las siguientes se piden con loadMore
   const fetchReservations = async () => {
     setLoading(true);
     try {
-      // Adaptar según tu API
-      const params: any = {};
-      if (options?.userId) params.userId = options.userId;
-      if (options?.courtId) params.courtId = options.courtId;
-      if (options?.clubId) params.clubId = options.clubId;
-      if (options?.status) params.status = options.status;
-      if (options?.startDate) params.startDate = options.startDate.toISOString();
-      if (options?.endDate) params.endDate = options.endDate.toISOString();
-
-      const data = await reservationService.getReservations(params);
-      setReservations(data);
+      const page = await reservationService.getReservations(buildParams());
+      setReservations(page.items);
+      setNextCursor(page.nextCursor);
+      setError(null);
+    } catch (err: any) {
+      setError(err.message || 'Error al cargar reservas');
+    } finally {
+      setLoading(false);
+    }
+  };
+
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    setLoading(true);
+    try {
+      const page = await reservationService.getReservations(buildParams(), nextCursor);
+      setReservations(prev => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
       setError(null);
     } catch (err: any) {
       setError(err.message || 'Error al cargar reservas');
@@ -162,9 +183,11 @@ export const useReservations = (options?: UseReservationsOptions) => {
     reservations,
     loading,
     error,
+    hasMore: nextCursor !== null,
 
     // Métodos CRUD
     fetchReservations,
+    loadMore,
     addReservation,
     updateReservation: updateReservationStatus,
     cancelReservation: cancelReservationById,
@@ -187,6 +210,7 @@ export const useReservations = (options?: UseReservationsOptions) => {
     clearError: () => setError(null),
     reset: () => {
       setReservations([]);
+      setNextCursor(null);
       setError(null);
     }
   };
@@ -9,6 +9,8 @@ const CourtsPage: React.FC = () => {
   const [filteredCourts, setFilteredCourts] = useState<CourtResponse[]>([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   const [searchTerm, setSearchTerm] = useState(searchParams.get('search') || '');
   const [_selectedSport, setSelectedSport] = useState<string>('all');
@@ -35,7 +37,8 @@ const CourtsPage: React.FC = () => {
         setError(null);
 
         console.log('📥 Cargando canchas...');
-        const courtsData = await courtService.getAllCourts();
+        const page = await courtService.getCourts();
+        const courtsData = page.items;
         console.log(`✅ ${courtsData.length} canchas cargadas`);
 
         // Verificar datos recibidos
@@ -52,6 +55,7 @@ const CourtsPage: React.FC = () => {
 
         setCourts(courtsData);
         setFilteredCourts(courtsData);
+        setNextCursor(page.nextCursor);
 
       } catch (err: any) {
         console.error('❌ Error cargando canchas:', err);
@@ -64,6 +68,22 @@ const CourtsPage: React.FC = () => {
     loadData();
   }, []);
 
+  // Siguiente página, a pedido del usuario
+  const loadMore = async () => {
+    if (!nextCursor || loadingMore) return;
+    try {
+      setLoadingMore(true);
+      const page = await courtService.getCourts(undefined, nextCursor);
+      setCourts(prev => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (err: any) {
+      console.error('❌ Error cargando más canchas:', err);
+      setError(err.message || 'Error al cargar las canchas');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   // Filtrar automáticamente
   useEffect(() => {
     filterCourts();
@@ -289,7 +309,7 @@ const CourtsPage: React.FC = () => {
                 <p className="text-gray-700 flex items-center gap-2">
                   <span className="material-icons text-green-600">list</span>
                   Mostrando <strong className="text-green-600">{filteredCourts.length}</strong> de{' '}
-                  <strong className="text-gray-900">{courts.length}</strong> canchas
+                  <strong className="text-gray-900">{courts.length}{nextCursor ? '+' : ''}</strong> canchas
                 </p>
               </div>
             </div>
@@ -378,6 +398,19 @@ const CourtsPage: React.FC = () => {
                 ))}
               </div>
             )}
+
+            {nextCursor && (
+              <div className="mt-8 text-center">
+                <button
+                  onClick={loadMore}
+                  disabled={loadingMore}
+                  className="bg-green-600 hover:bg-green-700 text-white font-bold py-3 px-8 rounded-xl transition-colors disabled:opacity-50 flex items-center gap-2 justify-center mx-auto"
+                >
+                  <span className="material-icons">expand_more</span>
+                  {loadingMore ? 'Cargando...' : 'Cargar más canchas'}
+                </button>
+              </div>
+            )}
           </main>
         </div>
       </div>
@@ -20,8 +20,8 @@ const HomePage: React.FC = () => {
   const loadFeaturedCourts = async () => {
     try {
       setLoading(true);
-      const courts = await courtService.getAllCourts({limit: 4});
-      setFeaturedCourts(courts);
+      const {items} = await courtService.getCourts({limit: 4});
+      setFeaturedCourts(items);
     } catch (error) {
       console.error('Error loading courts:', error);
     } finally {
@@ -1,10 +1,9 @@
 import React, { useEffect, useState } from 'react';
 import { useParams } from 'react-router-dom';
-import { useReservations } from '../../hooks/useReservations';
+import { reservationService } from '../../api/services/reservationService';
 
 const ReservationDetailPage: React.FC = () => {
   const { id } = useParams<{ id: string }>();
-  const { getReservationById } = useReservations();
   const [reservation, setReservation] = useState<any>(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
@@ -13,7 +12,8 @@ const ReservationDetailPage: React.FC = () => {
     const fetchReservation = async () => {
       try {
         if (id) {
-          const data = await getReservationById(BigInt(id));
+          // Se pide la reserva por id: el listado solo tiene cargadas las primeras páginas
+          const data = await reservationService.getReservationById(BigInt(id));
           setReservation(data);
         }
       } catch (err) {
@@ -9,6 +9,8 @@ const ReservationsPage: React.FC = () => {
   const [filteredReservations, setFilteredReservations] = useState<ReservationResponse[]>([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [activeTab, setActiveTab] = useState<'upcoming' | 'past' | 'cancelled'>('upcoming');
   const [selectedReservation, setSelectedReservation] = useState<ReservationResponse | null>(null);
   const [showCancelModal, setShowCancelModal] = useState(false);
@@ -26,8 +28,9 @@ const ReservationsPage: React.FC = () => {
     try {
       setLoading(true);
       setError(null);
-      const data = await reservationService.getUserReservations();
-      setReservations(data);
+      const page = await reservationService.getUserReservations();
+      setReservations(page.items);
+      setNextCursor(page.nextCursor);
     } catch (err: any) {
       setError(err.message || 'Error al cargar las reservas');
       console.error('Error loading reservations:', err);
@@ -36,6 +39,22 @@ const ReservationsPage: React.FC = () => {
     }
   };
 
+  // Siguiente página, a pedido del usuario
+  const loadMoreReservations = async () => {
+    if (!nextCursor || loadingMore) return;
+    try {
+      setLoadingMore(true);
+      const page = await reservationService.getUserReservations(nextCursor);
+      setReservations(prev => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (err: any) {
+      setError(err.message || 'Error al cargar las reservas');
+      console.error('Error loading reservations:', err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const filterReservations = () => {
     const now = new Date();
     let filtered = [...reservations];
@@ -398,6 +417,19 @@ const ReservationsPage: React.FC = () => {
               })}
             </div>
           )}
+
+          {nextCursor && (
+            <div className="mt-8 text-center">
+              <button
+                onClick={loadMoreReservations}
+                disabled={loadingMore}
+                className="bg-gray-100 hover:bg-gray-200 text-gray-800 font-bold py-3 px-8 rounded-xl transition-colors disabled:opacity-50 flex items-center gap-2 justify-center mx-auto"
+              >
+                <span className="material-icons">expand_more</span>
+                {loadingMore ? 'Cargando...' : 'Cargar más reservas'}
+              </button>
+            </div>
+          )}
         </div>
       </div>
 